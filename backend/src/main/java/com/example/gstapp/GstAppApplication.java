@@ -3,9 +3,11 @@ package com.example.gstapp;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableJpaRepositories(basePackages = "com.example.gstapp.repository")
+@EnableScheduling
 public class GstAppApplication {
     public static void main(String[] args) {
         SpringApplication.run(GstAppApplication.class, args);
@@ -1,5 +1,6 @@
 package com.example.gstapp.config;
 
+import com.example.gstapp.security.IdempotencyFilter;
 import com.example.gstapp.security.JwtAuthenticationEntryPoint;
 import com.example.gstapp.security.JwtAuthenticationFilter;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -40,7 +41,8 @@ public class SecurityConfig {
     }
     
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http, JwtAuthenticationFilter jwtAuthenticationFilter) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, JwtAuthenticationFilter jwtAuthenticationFilter,
+                                           IdempotencyFilter idempotencyFilter) throws Exception {
         http.cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(authz -> authz
@@ -60,6 +62,8 @@ public class SecurityConfig {
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
         
         http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+        // Runs once the caller is authenticated, since keys are scoped per merchant
+        http.addFilterAfter(idempotencyFilter, JwtAuthenticationFilter.class);
         
         return http.build();
     }
@@ -0,0 +1,46 @@
+package com.example.gstapp.controller;
+
+import com.example.gstapp.model.User;
+import com.example.gstapp.service.DailyClosingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/balances")
+@CrossOrigin(origins = "*")
+public class BalanceAsOfController {
+    
+    @Autowired
+    private DailyClosingService dailyClosingService;
+    
+    /**
+     * Balance at the end of date for one item, party or bank account (id), or the cash book;
+     * without id, the balances of every entity of the type.
+     */
+    @GetMapping("/as-of")
+    public ResponseEntity<?> getBalanceAsOf(@RequestParam String type,
+                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                            @RequestParam(required = false) Long id,
+                                            Authentication authentication) {
+        try {
+            Long merchantId = getMerchantIdFromAuth(authentication);
+            if (id != null || "CASH".equalsIgnoreCase(type)) {
+                return ResponseEntity.ok(dailyClosingService.getBalanceAsOf(merchantId, type, id, date));
+            }
+            return ResponseEntity.ok(dailyClosingService.getBalancesAsOf(merchantId, type, date));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    private Long getMerchantIdFromAuth(Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return user.getId();
+    }
+}
@@ -6,6 +6,7 @@ import com.example.gstapp.model.BankTransaction;
 import com.example.gstapp.model.User;
 import com.example.gstapp.service.BankAccountService;
 import com.example.gstapp.service.BankTransactionService;
+import com.example.gstapp.service.LedgerService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -28,6 +29,9 @@ public class BankAccountController {
     @Autowired
     private BankTransactionService bankTransactionService;
     
+    @Autowired
+    private LedgerService ledgerService;
+    
     @GetMapping
     public ResponseEntity<?> getBankAccounts(Authentication authentication) {
         try {
@@ -78,6 +82,22 @@ public class BankAccountController {
         }
     }
     
+    /**
+     * Statement of one bank account, newest entry first, with the balance after each entry.
+     */
+    @GetMapping("/{id}/ledger")
+    public ResponseEntity<?> getBankAccountLedger(@PathVariable Long id,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "50") int limit,
+                                                  Authentication authentication) {
+        try {
+            Long merchantId = getMerchantIdFromAuth(authentication);
+            return ResponseEntity.ok(ledgerService.getBankLedger(merchantId, id, cursor, limit));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
     @PostMapping
     public ResponseEntity<?> createBankAccount(@Valid @RequestBody BankAccountRequest request, 
                                              Authentication authentication) {
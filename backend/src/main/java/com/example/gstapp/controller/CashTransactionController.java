@@ -1,9 +1,11 @@
 package com.example.gstapp.controller;
 
 import com.example.gstapp.dto.CashAdjustmentRequest;
+import com.example.gstapp.model.CashPosition;
 import com.example.gstapp.model.CashTransaction;
 import com.example.gstapp.model.User;
 import com.example.gstapp.service.CashTransactionService;
+import com.example.gstapp.service.LedgerService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
@@ -22,32 +24,55 @@ import java.util.Map;
 @CrossOrigin(origins = "*")
 public class CashTransactionController {
     
+    private static final int MAX_RECENT_TRANSACTIONS = 200;
+    
     @Autowired
     private CashTransactionService cashTransactionService;
     
+    @Autowired
+    private LedgerService ledgerService;
+    
+    /**
+     * The newest cash transactions (limit, default 100) and the cash in hand; the full history
+     * is paged through /ledger.
+     */
     @GetMapping
-    public ResponseEntity<?> getCashTransactions(Authentication authentication) {
+    public ResponseEntity<?> getCashTransactions(@RequestParam(defaultValue = "100") int limit,
+                                                 Authentication authentication) {
         try {
-            System.out.println("=== Get Cash Transactions Debug ===");
-            System.out.println("Authentication: " + authentication);
-            System.out.println("Authentication Principal: " + authentication.getPrincipal());
-            System.out.println("Authentication Name: " + authentication.getName());
-            System.out.println("Authentication is authenticated: " + authentication.isAuthenticated());
-            
             Long merchantId = getMerchantIdFromAuth(authentication);
-            System.out.println("Extracted merchant ID: " + merchantId);
+            int pageSize = Math.max(1, Math.min(limit, MAX_RECENT_TRANSACTIONS));
             
-            List<CashTransaction> transactions = cashTransactionService.getCashTransactionsByMerchantId(merchantId);
+            List<CashTransaction> transactions = cashTransactionService.getRecentCashTransactions(merchantId, pageSize + 1);
+            boolean hasMore = transactions.size() > pageSize;
+            if (hasMore) {
+                transactions = transactions.subList(0, pageSize);
+            }
             BigDecimal currentBalance = cashTransactionService.getCurrentCashBalance(merchantId);
             
             Map<String, Object> response = new HashMap<>();
             response.put("transactions", transactions);
+            response.put("hasMore", hasMore);
             response.put("currentBalance", currentBalance);
             
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             System.err.println("Get cash transactions error: " + e.getMessage());
-            e.printStackTrace();
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    /**
+     * Cash book, newest entry first, with the cash in hand after each entry.
+     */
+    @GetMapping("/ledger")
+    public ResponseEntity<?> getCashLedger(@RequestParam(required = false) String cursor,
+                                           @RequestParam(defaultValue = "50") int limit,
+                                           Authentication authentication) {
+        try {
+            Long merchantId = getMerchantIdFromAuth(authentication);
+            return ResponseEntity.ok(ledgerService.getCashLedger(merchantId, cursor, limit));
+        } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
     }
@@ -56,16 +81,13 @@ public class CashTransactionController {
     public ResponseEntity<?> getCurrentCashBalance(Authentication authentication) {
         try {
             Long merchantId = getMerchantIdFromAuth(authentication);
-            BigDecimal currentBalance = cashTransactionService.getCurrentCashBalance(merchantId);
-            BigDecimal totalIn = cashTransactionService.getTotalCashIn(merchantId);
-            BigDecimal totalOut = cashTransactionService.getTotalCashOut(merchantId);
-            BigDecimal totalAdjustments = cashTransactionService.getTotalAdjustments(merchantId);
+            CashPosition position = cashTransactionService.getCashPosition(merchantId);
             
             Map<String, Object> response = new HashMap<>();
-            response.put("currentBalance", currentBalance);
-            response.put("totalIn", totalIn);
-            response.put("totalOut", totalOut);
-            response.put("totalAdjustments", totalAdjustments);
+            response.put("currentBalance", position.getBalance());
+            response.put("totalIn", position.getTotalIn());
+            response.put("totalOut", position.getTotalOut());
+            response.put("totalAdjustments", position.getTotalAdjustments());
             
             return ResponseEntity.ok(response);
         } catch (Exception e) {
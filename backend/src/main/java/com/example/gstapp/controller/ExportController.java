@@ -0,0 +1,175 @@
+package com.example.gstapp.controller;
+
+import com.example.gstapp.model.User;
+import com.example.gstapp.service.ExportJob;
+import com.example.gstapp.service.ExportService;
+import com.example.gstapp.util.ByteRangeOutputStream;
+import com.example.gstapp.util.CsvExportWriter;
+import com.example.gstapp.util.ExportWriter;
+import com.example.gstapp.util.XlsxExportWriter;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streaming CSV/XLSX downloads. CSV is gzip-encoded when the client accepts it. Single byte
+ * ranges are served by regenerating the same export (pinned by its upToId and checked against
+ * the ETag via If-Range) and skipping to the requested offset.
+ */
+@RestController
+@RequestMapping("/api/exports")
+@CrossOrigin(origins = "*")
+public class ExportController {
+
+    private static final String XLSX_CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+    @Autowired
+    private ExportService exportService;
+
+    private Long getMerchantIdFromAuth(Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return user.getId();
+    }
+
+    @GetMapping("/sales")
+    public ResponseEntity<StreamingResponseBody> exportSales(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Long upToId,
+            Authentication authentication,
+            HttpServletRequest request) throws IOException {
+        ExportJob job = exportService.salesExport(getMerchantIdFromAuth(authentication), startDate, endDate, upToId);
+        return respond(job, format, request);
+    }
+
+    @GetMapping("/purchases")
+    public ResponseEntity<StreamingResponseBody> exportPurchases(
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Long upToId,
+            Authentication authentication,
+            HttpServletRequest request) throws IOException {
+        ExportJob job = exportService.purchasesExport(getMerchantIdFromAuth(authentication), startDate, endDate, upToId);
+        return respond(job, format, request);
+    }
+
+    @GetMapping("/items/{itemId}/ledger")
+    public ResponseEntity<StreamingResponseBody> exportItemLedger(
+            @PathVariable Long itemId,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) Long upToId,
+            Authentication authentication,
+            HttpServletRequest request) throws IOException {
+        ExportJob job = exportService.itemLedgerExport(getMerchantIdFromAuth(authentication), itemId, upToId);
+        return respond(job, format, request);
+    }
+
+    @GetMapping("/parties/{partyId}/ledger")
+    public ResponseEntity<StreamingResponseBody> exportPartyLedger(
+            @PathVariable Long partyId,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(required = false) Long upToId,
+            Authentication authentication,
+            HttpServletRequest request) throws IOException {
+        ExportJob job = exportService.partyLedgerExport(getMerchantIdFromAuth(authentication), partyId, upToId);
+        return respond(job, format, request);
+    }
+
+    private ResponseEntity<StreamingResponseBody> respond(ExportJob job, String format, HttpServletRequest request) 
+            throws IOException {
+        boolean xlsx = "xlsx".equalsIgnoreCase(format);
+        if (!xlsx && !"csv".equalsIgnoreCase(format)) {
+            throw new RuntimeException("Unsupported export format: " + format);
+        }
+        // XLSX is already a zip, so only CSV is worth compressing
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        boolean gzip = !xlsx && acceptEncoding != null && acceptEncoding.contains("gzip");
+        String etag = "\"" + job.getVersion() + (xlsx ? "-xlsx" : "-csv") + (gzip ? "-gz" : "") + "\"";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_TYPE, xlsx ? XLSX_CONTENT_TYPE : "text/csv;charset=UTF-8");
+        headers.set(HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=\"" + job.getFileName() + (xlsx ? ".xlsx" : ".csv") + "\"");
+        headers.set(HttpHeaders.ETAG, etag);
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        headers.set(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        headers.set("X-Export-Up-To-Id", String.valueOf(job.getUpToId()));
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        long[] range = requestedRange(request, etag);
+        if (range == null) {
+            return new ResponseEntity<>(output -> write(job, xlsx, gzip, output), headers, HttpStatus.OK);
+        }
+
+        // Measure the full representation first; the export is regenerated, not buffered
+        ByteRangeOutputStream counter = ByteRangeOutputStream.counting();
+        write(job, xlsx, gzip, counter);
+        long total = counter.getCount();
+        long start = range[0];
+        long end = range[1] < 0 || range[1] >= total ? total - 1 : range[1];
+        if (start >= total || start > end) {
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + total);
+            return new ResponseEntity<>(output -> { }, headers, HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+        }
+
+        long length = end - start + 1;
+        headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + total);
+        headers.setContentLength(length);
+        return new ResponseEntity<>(output -> {
+            ByteRangeOutputStream slice = new ByteRangeOutputStream(output, start, length);
+            write(job, xlsx, gzip, slice);
+            slice.flush();
+        }, headers, HttpStatus.PARTIAL_CONTENT);
+    }
+
+    private void write(ExportJob job, boolean xlsx, boolean gzip, OutputStream output) throws IOException {
+        OutputStream target = gzip ? new GZIPOutputStream(output, 64 * 1024) : output;
+        ExportWriter writer = xlsx ? new XlsxExportWriter(target, job.getFileName()) : new CsvExportWriter(target);
+        job.writeTo(writer);
+        if (gzip) {
+            ((GZIPOutputStream) target).finish();
+        }
+        target.flush();
+    }
+
+    /**
+     * Parse a single "bytes=start-" or "bytes=start-end" range. Returns null when there is no
+     * usable range or when If-Range names a different version of the export.
+     */
+    private long[] requestedRange(HttpServletRequest request, String etag) {
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range == null || !range.startsWith("bytes=") || range.contains(",")) {
+            return null;
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(etag)) {
+            return null;
+        }
+        String[] bounds = range.substring("bytes=".length()).trim().split("-", -1);
+        try {
+            if (bounds.length != 2 || bounds[0].isEmpty()) {
+                return null; // suffix ranges need the length up front; serve the whole file
+            }
+            long start = Long.parseLong(bounds[0]);
+            long end = bounds[1].isEmpty() ? -1 : Long.parseLong(bounds[1]);
+            return new long[] {start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.gstapp.controller;
+
+import com.example.gstapp.dto.Gstr3bResponse;
+import com.example.gstapp.model.User;
+import com.example.gstapp.service.GstReportService;
+import com.example.gstapp.service.GstSummaryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+
+@RestController
+@RequestMapping("/api/gst")
+@CrossOrigin(origins = "*")
+public class GstReportController {
+
+    private static final DateTimeFormatter RETURN_PERIOD = DateTimeFormatter.ofPattern("MMyyyy");
+
+    @Autowired
+    private GstReportService gstReportService;
+
+    @Autowired
+    private GstSummaryService gstSummaryService;
+
+    private Long getMerchantIdFromAuth(Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return user.getId();
+    }
+
+    /**
+     * GSTR-1 JSON for one return period (period=MMyyyy) or for a range of months
+     * (from=yyyy-MM&to=yyyy-MM), the latter as an array of monthly returns.
+     */
+    @GetMapping("/gstr1")
+    public ResponseEntity<StreamingResponseBody> getGstr1(
+            @RequestParam(required = false) String period,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to,
+            Authentication authentication) {
+        Long merchantId = getMerchantIdFromAuth(authentication);
+        YearMonth[] months = resolvePeriod(period, from, to);
+        YearMonth start = months[0];
+        YearMonth end = months[1];
+
+        gstReportService.checkPeriod(start, end);
+        String fileName = "GSTR1_" + start.format(RETURN_PERIOD) + (end.equals(start) ? "" : "_" + end.format(RETURN_PERIOD));
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + ".json\"")
+            .body(output -> gstReportService.writeGstr1(merchantId, start, end, output));
+    }
+
+    @GetMapping("/hsn-summary")
+    public ResponseEntity<StreamingResponseBody> getHsnSummary(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            Authentication authentication) {
+        Long merchantId = getMerchantIdFromAuth(authentication);
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(output -> gstReportService.writeHsnSummary(merchantId, startDate, endDate, output));
+    }
+
+    /**
+     * GSTR-3B liability, ITC and set-off for one month (period=MMyyyy) or a range of months.
+     */
+    @GetMapping("/gstr3b")
+    public ResponseEntity<Gstr3bResponse> getGstr3b(
+            @RequestParam(required = false) String period,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth to,
+            Authentication authentication) {
+        Long merchantId = getMerchantIdFromAuth(authentication);
+        YearMonth[] months = resolvePeriod(period, from, to);
+        return ResponseEntity.ok(gstSummaryService.getGstr3b(merchantId, months[0], months[1]));
+    }
+
+    /**
+     * A single return period (MMyyyy), a from..to month range, or by default the previous month.
+     */
+    private YearMonth[] resolvePeriod(String period, YearMonth from, YearMonth to) {
+        if (period != null) {
+            YearMonth month = YearMonth.parse(period, RETURN_PERIOD);
+            return new YearMonth[] {month, month};
+        }
+        if (from != null) {
+            return new YearMonth[] {from, to != null ? to : from};
+        }
+        YearMonth previous = YearMonth.now().minusMonths(1);
+        return new YearMonth[] {previous, previous};
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.gstapp.controller;
+
+import com.example.gstapp.model.User;
+import com.example.gstapp.service.InvoicePdfService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/invoices")
+@CrossOrigin(origins = "*")
+public class InvoicePdfController {
+
+    @Autowired
+    private InvoicePdfService invoicePdfService;
+
+    private Long getMerchantIdFromAuth(Authentication authentication) {
+        User user = (User) authentication.getPrincipal();
+        return user.getId();
+    }
+
+    @GetMapping("/sales/{id}/pdf")
+    public ResponseEntity<?> getSaleInvoice(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean download,
+            Authentication authentication) {
+        try {
+            Long merchantId = getMerchantIdFromAuth(authentication);
+            return pdf(invoicePdfService.renderSale(merchantId, id), download);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Invoice not available: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/purchases/{id}/pdf")
+    public ResponseEntity<?> getPurchaseBill(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean download,
+            Authentication authentication) {
+        try {
+            Long merchantId = getMerchantIdFromAuth(authentication);
+            return pdf(invoicePdfService.renderPurchase(merchantId, id), download);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Bill not available: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Every sale invoice (type=sales) or purchase bill (type=purchases) dated in the range, as
+     * one zip of PDFs in date order.
+     */
+    @GetMapping("/archive")
+    public ResponseEntity<?> getArchive(
+            @RequestParam(defaultValue = "sales") String type,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            Authentication authentication) {
+        Long merchantId = getMerchantIdFromAuth(authentication);
+        InvoicePdfService.DocumentType documentType;
+        if ("sales".equalsIgnoreCase(type)) {
+            documentType = InvoicePdfService.DocumentType.SALE;
+        } else if ("purchases".equalsIgnoreCase(type)) {
+            documentType = InvoicePdfService.DocumentType.PURCHASE;
+        } else {
+            return ResponseEntity.badRequest().body("Unknown document type: " + type);
+        }
+
+        List<Long> ids;
+        try {
+            ids = invoicePdfService.findBulkDocuments(merchantId, documentType, startDate, endDate);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+
+        String fileName = (documentType == InvoicePdfService.DocumentType.SALE ? "Invoices_" : "Bills_")
+            + startDate + "_" + endDate + ".zip";
+        StreamingResponseBody body = output -> invoicePdfService.writeBulk(merchantId, documentType, ids, output);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/zip"))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+            .header("X-Document-Count", String.valueOf(ids.size()))
+            .body(body);
+    }
+
+    private ResponseEntity<byte[]> pdf(InvoicePdfService.RenderedInvoice invoice, boolean download) {
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_PDF)
+            .header(HttpHeaders.CONTENT_DISPOSITION,
+                (download ? "attachment" : "inline") + "; filename=\"" + invoice.getFileName() + "\"")
+            .body(invoice.getContent());
+    }
+}
@@ -3,14 +3,18 @@ package com.example.gstapp.controller;
 import com.example.gstapp.dto.*;
 import com.example.gstapp.model.ItemType;
 import com.example.gstapp.model.User;
+import com.example.gstapp.service.ItemCatalogCache;
+import com.example.gstapp.service.ItemCatalogService;
 import com.example.gstapp.service.ItemService;
 import com.example.gstapp.service.ItemTransactionService;
+import com.example.gstapp.service.LedgerService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/items")
@@ -22,6 +26,15 @@ public class ItemController {
     
     @Autowired
     private ItemTransactionService itemTransactionService;
+    
+    @Autowired
+    private ItemCatalogService itemCatalogService;
+
+    @Autowired
+    private ItemCatalogCache itemCatalogCache;
+
+    @Autowired
+    private LedgerService ledgerService;
 
     private Long getMerchantIdFromAuth(Authentication authentication) {
         User user = (User) authentication.getPrincipal();
@@ -52,6 +65,26 @@ public class ItemController {
         }
     }
 
+    /**
+     * Paginated item listing. sort is name, quantity or stockValue; direction is asc or desc.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<?> getItemsPage(
+            @RequestParam(required = false) ItemType type,
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "name") String sort,
+            @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            Authentication authentication) {
+        try {
+            Long merchantId = getMerchantIdFromAuth(authentication);
+            return ResponseEntity.ok(itemService.getItemsPage(merchantId, type, q, sort, direction, cursor, limit));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @GetMapping("/type/{itemType}")
     public ResponseEntity<List<ItemResponse>> getItemsByType(@PathVariable ItemType itemType, Authentication authentication) {
         try {
@@ -97,16 +130,54 @@ public class ItemController {
     }
 
     @GetMapping("/search")
-    public ResponseEntity<List<ItemResponse>> searchItems(@RequestParam String q, Authentication authentication) {
+    public ResponseEntity<List<ItemResponse>> searchItems(@RequestParam String q,
+                                                          @RequestParam(defaultValue = "20") int limit,
+                                                          Authentication authentication) {
         try {
             Long merchantId = getMerchantIdFromAuth(authentication);
-            List<ItemResponse> items = itemService.searchItems(merchantId, q);
+            List<ItemResponse> items = itemService.searchItems(merchantId, q, limit);
             return ResponseEntity.ok(items);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    /**
+     * Till lookup of a single item by scanned code or by id, answered from the item cache.
+     */
+    @GetMapping("/lookup")
+    public ResponseEntity<?> lookupItem(@RequestParam(required = false) String code,
+                                        @RequestParam(required = false) Long id,
+                                        Authentication authentication) {
+        Long merchantId = getMerchantIdFromAuth(authentication);
+        if (code == null && id == null) {
+            return ResponseEntity.badRequest().body("code or id is required");
+        }
+        CatalogItem item = code != null ? itemCatalogCache.findByCode(merchantId, code)
+            : itemCatalogCache.findById(merchantId, id);
+        return item != null ? ResponseEntity.ok(item) : ResponseEntity.notFound().build();
+    }
+
+    // Lookup cache counters for the caller's own catalog
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats(Authentication authentication) {
+        return ResponseEntity.ok(itemCatalogCache.getStats(getMerchantIdFromAuth(authentication)));
+    }
+
+    // POS catalog feed: a full snapshot, then only what changed since the version last received
+    @GetMapping("/catalog")
+    public ResponseEntity<CatalogResponse> getCatalog(Authentication authentication) {
+        Long merchantId = getMerchantIdFromAuth(authentication);
+        return ResponseEntity.ok(itemCatalogService.getSnapshot(merchantId));
+    }
+
+    @GetMapping("/catalog/changes")
+    public ResponseEntity<CatalogResponse> getCatalogChanges(@RequestParam(required = false) Long since,
+                                                             Authentication authentication) {
+        Long merchantId = getMerchantIdFromAuth(authentication);
+        return ResponseEntity.ok(itemCatalogService.getChanges(merchantId, since));
+    }
+
     @PostMapping("/adjust-stock")
     public ResponseEntity<ItemResponse> adjustStock(@RequestBody StockAdjustmentRequest request, Authentication authentication) {
         try {
@@ -129,6 +200,22 @@ public class ItemController {
         }
     }
 
+    /**
+     * Stock ledger of one item, newest movement first, with the stock after each movement.
+     */
+    @GetMapping("/{id}/ledger")
+    public ResponseEntity<?> getItemLedger(@PathVariable Long id,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(defaultValue = "50") int limit,
+                                           Authentication authentication) {
+        try {
+            Long merchantId = getMerchantIdFromAuth(authentication);
+            return ResponseEntity.ok(ledgerService.getItemLedger(merchantId, id, cursor, limit));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @GetMapping("/{id}/transactions")
     public ResponseEntity<List<ItemTransactionResponse>> getItemTransactions(@PathVariable Long id, Authentication authentication) {
         try {
@@ -3,6 +3,7 @@ package com.example.gstapp.controller;
 import com.example.gstapp.dto.PartyRequest;
 import com.example.gstapp.dto.PartyResponse;
 import com.example.gstapp.model.User;
+import com.example.gstapp.service.LedgerService;
 import com.example.gstapp.service.PartyService;
 import com.example.gstapp.service.PartyTransactionService;
 import com.example.gstapp.service.UserService;
@@ -29,6 +30,9 @@ public class PartyController {
     @Autowired
     private PartyTransactionService partyTransactionService;
 
+    @Autowired
+    private LedgerService ledgerService;
+
     @Autowired
     private UserService userService;
 
@@ -88,6 +92,22 @@ public class PartyController {
         }
     }
 
+    /**
+     * Sales, purchases and payments of one party, newest first, with the balance after each.
+     */
+    @GetMapping("/{id}/ledger")
+    public ResponseEntity<?> getPartyLedger(@PathVariable Long id,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "50") int limit,
+                                            HttpServletRequest request) {
+        try {
+            Long merchantId = getCurrentUserId(request);
+            return ResponseEntity.ok(ledgerService.getPartyLedger(merchantId, id, cursor, limit));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @PostMapping
     public ResponseEntity<?> createParty(@Valid @RequestBody PartyRequest partyRequest, 
                                        HttpServletRequest request) {
@@ -1,5 +1,6 @@
 package com.example.gstapp.controller;
 
+import com.example.gstapp.dto.CursorPage;
 import com.example.gstapp.dto.PurchaseRequest;
 import com.example.gstapp.dto.PurchaseResponse;
 import com.example.gstapp.service.PurchaseService;
@@ -49,6 +50,25 @@ public class PurchaseController {
         }
     }
 
+    @GetMapping("/register")
+    public ResponseEntity<?> getPurchaseRegister(
+            @RequestParam(required = false) Long partyId,
+            @RequestParam(required = false) String paymentType,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            Authentication authentication) {
+        try {
+            Long merchantId = getMerchantIdFromAuth(authentication);
+            CursorPage<PurchaseResponse> page = purchaseService.getPurchaseRegister(
+                    merchantId, partyId, paymentType, status, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Failed to fetch purchases: " + e.getMessage());
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<?> getPurchaseById(@PathVariable Long id, Authentication authentication) {
         try {
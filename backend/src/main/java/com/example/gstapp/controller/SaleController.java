@@ -1,9 +1,14 @@
 package com.example.gstapp.controller;
 
+import com.example.gstapp.dto.CursorPage;
 import com.example.gstapp.dto.SaleRequest;
 import com.example.gstapp.dto.SaleResponse;
+import com.example.gstapp.dto.SaleSyncRequest;
+import com.example.gstapp.dto.SaleSyncResponse;
+import com.example.gstapp.dto.SalesRollupResponse;
 import com.example.gstapp.model.User;
 import com.example.gstapp.service.SaleService;
+import com.example.gstapp.service.SaleSyncService;
 import com.example.gstapp.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -14,6 +19,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/sales")
@@ -23,6 +29,9 @@ public class SaleController {
     @Autowired
     private SaleService saleService;
 
+    @Autowired
+    private SaleSyncService saleSyncService;
+
     @Autowired
     private UserService userService;
 
@@ -44,6 +53,48 @@ public class SaleController {
         return ResponseEntity.ok(sales);
     }
 
+    @GetMapping("/register")
+    public ResponseEntity<CursorPage<SaleResponse>> getSalesRegister(
+            Authentication authentication,
+            @RequestParam(required = false) Long partyId,
+            @RequestParam(required = false) String paymentType,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        
+        User user = userService.findByUsername(authentication.getName());
+        return ResponseEntity.ok(saleService.getSalesRegister(user, partyId, paymentType, status, cursor, limit));
+    }
+
+    @GetMapping("/posting-lag")
+    public ResponseEntity<Map<String, Object>> getPostingLag(Authentication authentication) {
+        User user = userService.findByUsername(authentication.getName());
+        return ResponseEntity.ok(saleService.getPostingLag(user));
+    }
+
+    @PostMapping("/posting-lag/requeue")
+    public ResponseEntity<Map<String, Object>> requeueParkedPostings(Authentication authentication) {
+        User user = userService.findByUsername(authentication.getName());
+        return ResponseEntity.ok(Map.of("requeued", saleService.requeueParkedPostings(user)));
+    }
+
+    @GetMapping("/summary")
+    public ResponseEntity<Map<String, Object>> getSalesSummary(Authentication authentication) {
+        User user = userService.findByUsername(authentication.getName());
+        return ResponseEntity.ok(saleService.getSalesSummary(user));
+    }
+
+    @GetMapping("/trend")
+    public ResponseEntity<List<SalesRollupResponse>> getSalesTrend(
+            Authentication authentication,
+            @RequestParam(defaultValue = "DAY") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        
+        User user = userService.findByUsername(authentication.getName());
+        return ResponseEntity.ok(saleService.getSalesTrend(user, granularity, startDate, endDate));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<SaleResponse> getSaleById(
             @PathVariable Long id,
@@ -64,6 +115,19 @@ public class SaleController {
         return ResponseEntity.status(HttpStatus.CREATED).body(sale);
     }
 
+    /**
+     * Upload sales created offline, oldest first. Returns one result per sale with its final
+     * invoice number, or why it was rejected, and any items it took below zero stock.
+     */
+    @PostMapping("/sync")
+    public ResponseEntity<SaleSyncResponse> syncSales(
+            @RequestBody SaleSyncRequest request,
+            Authentication authentication) {
+        
+        User user = userService.findByUsername(authentication.getName());
+        return ResponseEntity.ok(saleSyncService.sync(request, user));
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<SaleResponse> updateSale(
             @PathVariable Long id,
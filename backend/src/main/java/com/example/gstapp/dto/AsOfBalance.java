@@ -0,0 +1,71 @@
+package com.example.gstapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Balance of an item (stock), party (positive when they owe us), cash book or bank account at
+ * the end of asOf. snapshotDate is the closing snapshot it was read from, when there was one.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AsOfBalance {
+    private String entityType;
+    private Long entityId;
+    private LocalDate asOf;
+    private BigDecimal balance;
+    private LocalDate snapshotDate;
+
+    // Constructors
+    public AsOfBalance() {}
+
+    public AsOfBalance(String entityType, Long entityId, LocalDate asOf, BigDecimal balance, LocalDate snapshotDate) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.asOf = asOf;
+        this.balance = balance;
+        this.snapshotDate = snapshotDate;
+    }
+
+    // Getters and Setters
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public void setEntityType(String entityType) {
+        this.entityType = entityType;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(Long entityId) {
+        this.entityId = entityId;
+    }
+
+    public LocalDate getAsOf() {
+        return asOf;
+    }
+
+    public void setAsOf(LocalDate asOf) {
+        this.asOf = asOf;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+
+    public LocalDate getSnapshotDate() {
+        return snapshotDate;
+    }
+
+    public void setSnapshotDate(LocalDate snapshotDate) {
+        this.snapshotDate = snapshotDate;
+    }
+}
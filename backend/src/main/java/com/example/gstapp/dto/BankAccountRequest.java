@@ -20,6 +20,8 @@ public class BankAccountRequest {
     
     private Boolean printBankDetails = false;
     
+    private String upiId;
+    
     private String bankName;
     
     private String accountNumber;
@@ -93,6 +95,14 @@ public class BankAccountRequest {
         this.printBankDetails = printBankDetails;
     }
 
+    public String getUpiId() {
+        return upiId;
+    }
+
+    public void setUpiId(String upiId) {
+        this.upiId = upiId;
+    }
+
     public String getBankName() {
         return bankName;
     }
@@ -0,0 +1,193 @@
+package com.example.gstapp.dto;
+
+import com.example.gstapp.model.ItemType;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+
+/**
+ * One item as a POS terminal needs it for local search and billing. Empty fields are left out
+ * of the JSON to keep snapshots small.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CatalogItem {
+    private Long id;
+    private String name;
+    private String code;
+    private String hsnCode;
+    private ItemType itemType;
+    private String unit;
+    private String category;
+    private BigDecimal salePrice;
+    private String salePriceType;
+    private BigDecimal saleDiscount;
+    private String saleDiscountType;
+    private BigDecimal purchasePrice;
+    private String purchasePriceType;
+    private String taxRate;
+    private BigDecimal taxPercent;
+    private Integer stock;
+    private Long version;
+
+    public CatalogItem() {}
+
+    // Used by the catalog queries, which select straight into this shape
+    public CatalogItem(Long id, String name, String code, String hsnCode, ItemType itemType, String unit,
+                       String category, BigDecimal salePrice, String salePriceType, BigDecimal saleDiscount,
+                       String saleDiscountType, BigDecimal purchasePrice, String purchasePriceType, String taxRate,
+                       Integer stock, Long version) {
+        this.id = id;
+        this.name = name;
+        this.code = code;
+        this.hsnCode = hsnCode;
+        this.itemType = itemType;
+        this.unit = unit;
+        this.category = category;
+        this.salePrice = salePrice;
+        this.salePriceType = salePriceType;
+        this.saleDiscount = saleDiscount;
+        this.saleDiscountType = saleDiscountType;
+        this.purchasePrice = purchasePrice;
+        this.purchasePriceType = purchasePriceType;
+        this.taxRate = taxRate;
+        this.stock = stock;
+        this.version = version;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public String getHsnCode() {
+        return hsnCode;
+    }
+
+    public void setHsnCode(String hsnCode) {
+        this.hsnCode = hsnCode;
+    }
+
+    public ItemType getItemType() {
+        return itemType;
+    }
+
+    public void setItemType(ItemType itemType) {
+        this.itemType = itemType;
+    }
+
+    public String getUnit() {
+        return unit;
+    }
+
+    public void setUnit(String unit) {
+        this.unit = unit;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public BigDecimal getSalePrice() {
+        return salePrice;
+    }
+
+    public void setSalePrice(BigDecimal salePrice) {
+        this.salePrice = salePrice;
+    }
+
+    public String getSalePriceType() {
+        return salePriceType;
+    }
+
+    public void setSalePriceType(String salePriceType) {
+        this.salePriceType = salePriceType;
+    }
+
+    public BigDecimal getSaleDiscount() {
+        return saleDiscount;
+    }
+
+    public void setSaleDiscount(BigDecimal saleDiscount) {
+        this.saleDiscount = saleDiscount;
+    }
+
+    public String getSaleDiscountType() {
+        return saleDiscountType;
+    }
+
+    public void setSaleDiscountType(String saleDiscountType) {
+        this.saleDiscountType = saleDiscountType;
+    }
+
+    public BigDecimal getPurchasePrice() {
+        return purchasePrice;
+    }
+
+    public void setPurchasePrice(BigDecimal purchasePrice) {
+        this.purchasePrice = purchasePrice;
+    }
+
+    public String getPurchasePriceType() {
+        return purchasePriceType;
+    }
+
+    public void setPurchasePriceType(String purchasePriceType) {
+        this.purchasePriceType = purchasePriceType;
+    }
+
+    public String getTaxRate() {
+        return taxRate;
+    }
+
+    public void setTaxRate(String taxRate) {
+        this.taxRate = taxRate;
+    }
+
+    public BigDecimal getTaxPercent() {
+        return taxPercent;
+    }
+
+    public void setTaxPercent(BigDecimal taxPercent) {
+        this.taxPercent = taxPercent;
+    }
+
+    public Integer getStock() {
+        return stock;
+    }
+
+    public void setStock(Integer stock) {
+        this.stock = stock;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
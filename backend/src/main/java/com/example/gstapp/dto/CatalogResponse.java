@@ -0,0 +1,58 @@
+package com.example.gstapp.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A full catalog snapshot, or the changes since a previous version. Keep {@code version} and
+ * pass it as {@code since} on the next call. A delta may repeat items the terminal already has;
+ * applying them again is harmless.
+ */
+public class CatalogResponse {
+    private long version;
+    private boolean snapshot;
+    private List<CatalogItem> items = new ArrayList<>();
+    private List<Long> deletedItemIds = new ArrayList<>();
+
+    public CatalogResponse() {}
+
+    public CatalogResponse(long version, boolean snapshot, List<CatalogItem> items, List<Long> deletedItemIds) {
+        this.version = version;
+        this.snapshot = snapshot;
+        this.items = items;
+        this.deletedItemIds = deletedItemIds;
+    }
+
+    // Getters and Setters
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public boolean isSnapshot() {
+        return snapshot;
+    }
+
+    public void setSnapshot(boolean snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public List<CatalogItem> getItems() {
+        return items;
+    }
+
+    public void setItems(List<CatalogItem> items) {
+        this.items = items;
+    }
+
+    public List<Long> getDeletedItemIds() {
+        return deletedItemIds;
+    }
+
+    public void setDeletedItemIds(List<Long> deletedItemIds) {
+        this.deletedItemIds = deletedItemIds;
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.gstapp.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * GSTR-3B figures for one or more months: outward supplies and output tax (table 3.1),
+ * eligible input tax credit (table 4), how that credit is set off against each tax head,
+ * and what remains payable in cash or is carried forward.
+ */
+public class Gstr3bResponse {
+    private String fromPeriod;
+    private String toPeriod;
+    private TaxHeads outwardTaxableSupplies;
+    private TaxHeads outwardNilRatedSupplies;
+    private TaxHeads eligibleItc;
+    private TaxHeads taxPayable;
+    private List<Utilisation> itcUtilisation;
+    private TaxHeads payableInCash;
+    private TaxHeads itcCarriedForward;
+    private List<RateSlab> rateSlabs;
+
+    // Getters and Setters
+    public String getFromPeriod() {
+        return fromPeriod;
+    }
+
+    public void setFromPeriod(String fromPeriod) {
+        this.fromPeriod = fromPeriod;
+    }
+
+    public String getToPeriod() {
+        return toPeriod;
+    }
+
+    public void setToPeriod(String toPeriod) {
+        this.toPeriod = toPeriod;
+    }
+
+    public TaxHeads getOutwardTaxableSupplies() {
+        return outwardTaxableSupplies;
+    }
+
+    public void setOutwardTaxableSupplies(TaxHeads outwardTaxableSupplies) {
+        this.outwardTaxableSupplies = outwardTaxableSupplies;
+    }
+
+    public TaxHeads getOutwardNilRatedSupplies() {
+        return outwardNilRatedSupplies;
+    }
+
+    public void setOutwardNilRatedSupplies(TaxHeads outwardNilRatedSupplies) {
+        this.outwardNilRatedSupplies = outwardNilRatedSupplies;
+    }
+
+    public TaxHeads getEligibleItc() {
+        return eligibleItc;
+    }
+
+    public void setEligibleItc(TaxHeads eligibleItc) {
+        this.eligibleItc = eligibleItc;
+    }
+
+    public TaxHeads getTaxPayable() {
+        return taxPayable;
+    }
+
+    public void setTaxPayable(TaxHeads taxPayable) {
+        this.taxPayable = taxPayable;
+    }
+
+    public List<Utilisation> getItcUtilisation() {
+        return itcUtilisation;
+    }
+
+    public void setItcUtilisation(List<Utilisation> itcUtilisation) {
+        this.itcUtilisation = itcUtilisation;
+    }
+
+    public TaxHeads getPayableInCash() {
+        return payableInCash;
+    }
+
+    public void setPayableInCash(TaxHeads payableInCash) {
+        this.payableInCash = payableInCash;
+    }
+
+    public TaxHeads getItcCarriedForward() {
+        return itcCarriedForward;
+    }
+
+    public void setItcCarriedForward(TaxHeads itcCarriedForward) {
+        this.itcCarriedForward = itcCarriedForward;
+    }
+
+    public List<RateSlab> getRateSlabs() {
+        return rateSlabs;
+    }
+
+    public void setRateSlabs(List<RateSlab> rateSlabs) {
+        this.rateSlabs = rateSlabs;
+    }
+
+    /**
+     * Taxable value and tax per head; taxableValue is null where only tax applies.
+     */
+    public static class TaxHeads {
+        private BigDecimal taxableValue;
+        private BigDecimal igst;
+        private BigDecimal cgst;
+        private BigDecimal sgst;
+        private BigDecimal cess;
+
+        // Getters and Setters
+        public BigDecimal getTaxableValue() {
+            return taxableValue;
+        }
+
+        public void setTaxableValue(BigDecimal taxableValue) {
+            this.taxableValue = taxableValue;
+        }
+
+        public BigDecimal getIgst() {
+            return igst;
+        }
+
+        public void setIgst(BigDecimal igst) {
+            this.igst = igst;
+        }
+
+        public BigDecimal getCgst() {
+            return cgst;
+        }
+
+        public void setCgst(BigDecimal cgst) {
+            this.cgst = cgst;
+        }
+
+        public BigDecimal getSgst() {
+            return sgst;
+        }
+
+        public void setSgst(BigDecimal sgst) {
+            this.sgst = sgst;
+        }
+
+        public BigDecimal getCess() {
+            return cess;
+        }
+
+        public void setCess(BigDecimal cess) {
+            this.cess = cess;
+        }
+    }
+
+    /**
+     * Output (OUTPUT) or input (INPUT) totals at one GST rate.
+     */
+    public static class RateSlab {
+        private String direction;
+        private BigDecimal rate;
+        private BigDecimal taxableValue;
+        private BigDecimal igst;
+        private BigDecimal cgst;
+        private BigDecimal sgst;
+
+        // Getters and Setters
+        public String getDirection() {
+            return direction;
+        }
+
+        public void setDirection(String direction) {
+            this.direction = direction;
+        }
+
+        public BigDecimal getRate() {
+            return rate;
+        }
+
+        public void setRate(BigDecimal rate) {
+            this.rate = rate;
+        }
+
+        public BigDecimal getTaxableValue() {
+            return taxableValue;
+        }
+
+        public void setTaxableValue(BigDecimal taxableValue) {
+            this.taxableValue = taxableValue;
+        }
+
+        public BigDecimal getIgst() {
+            return igst;
+        }
+
+        public void setIgst(BigDecimal igst) {
+            this.igst = igst;
+        }
+
+        public BigDecimal getCgst() {
+            return cgst;
+        }
+
+        public void setCgst(BigDecimal cgst) {
+            this.cgst = cgst;
+        }
+
+        public BigDecimal getSgst() {
+            return sgst;
+        }
+
+        public void setSgst(BigDecimal sgst) {
+            this.sgst = sgst;
+        }
+    }
+
+    /**
+     * Credit of one head used against liability of another (or the same) head.
+     */
+    public static class Utilisation {
+        private String creditHead;
+        private String liabilityHead;
+        private BigDecimal amount;
+
+        // Constructors
+        public Utilisation() {}
+
+        public Utilisation(String creditHead, String liabilityHead, BigDecimal amount) {
+            this.creditHead = creditHead;
+            this.liabilityHead = liabilityHead;
+            this.amount = amount;
+        }
+
+        // Getters and Setters
+        public String getCreditHead() {
+            return creditHead;
+        }
+
+        public void setCreditHead(String creditHead) {
+            this.creditHead = creditHead;
+        }
+
+        public String getLiabilityHead() {
+            return liabilityHead;
+        }
+
+        public void setLiabilityHead(String liabilityHead) {
+            this.liabilityHead = liabilityHead;
+        }
+
+        public BigDecimal getAmount() {
+            return amount;
+        }
+
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.gstapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One row of a ledger page. change is the signed effect of the row on the ledger's balance
+ * (stock quantity for items, money for cash, bank and parties) and balance is the balance
+ * right after it.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LedgerEntry {
+    private Long id;
+    private String source;
+    private LocalDateTime date;
+    private String type;
+    private String reference;
+    private String description;
+    private BigDecimal amount;
+    private BigDecimal change;
+    private BigDecimal balance;
+
+    // Constructors
+    public LedgerEntry() {}
+
+    public LedgerEntry(Long id, LocalDateTime date, String type, String reference, String description,
+                       BigDecimal amount, BigDecimal change) {
+        this.id = id;
+        this.date = date;
+        this.type = type;
+        this.reference = reference;
+        this.description = description;
+        this.amount = amount;
+        this.change = change;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public LocalDateTime getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDateTime date) {
+        this.date = date;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public void setReference(String reference) {
+        this.reference = reference;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public BigDecimal getChange() {
+        return change;
+    }
+
+    public void setChange(BigDecimal change) {
+        this.change = change;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+}
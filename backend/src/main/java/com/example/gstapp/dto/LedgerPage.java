@@ -0,0 +1,40 @@
+package com.example.gstapp.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * One page of a ledger, newest entry first. openingBalance is the balance before the oldest
+ * entry on the page and closingBalance the balance after the newest, so consecutive pages
+ * chain: a page's openingBalance is the next page's closingBalance.
+ */
+public class LedgerPage extends CursorPage<LedgerEntry> {
+    private BigDecimal openingBalance;
+    private BigDecimal closingBalance;
+
+    // Constructors
+    public LedgerPage() {}
+
+    public LedgerPage(List<LedgerEntry> entries, String nextCursor, BigDecimal openingBalance, BigDecimal closingBalance) {
+        super(entries, nextCursor);
+        this.openingBalance = openingBalance;
+        this.closingBalance = closingBalance;
+    }
+
+    // Getters and Setters
+    public BigDecimal getOpeningBalance() {
+        return openingBalance;
+    }
+
+    public void setOpeningBalance(BigDecimal openingBalance) {
+        this.openingBalance = openingBalance;
+    }
+
+    public BigDecimal getClosingBalance() {
+        return closingBalance;
+    }
+
+    public void setClosingBalance(BigDecimal closingBalance) {
+        this.closingBalance = closingBalance;
+    }
+}
@@ -12,6 +12,7 @@ public class PurchaseItemRequest {
     private BigDecimal discountAmount = BigDecimal.ZERO;
     private BigDecimal taxPercent = BigDecimal.ZERO;
     private BigDecimal taxAmount = BigDecimal.ZERO;
+    private String priceType; // "WITH_TAX" or "WITHOUT_TAX"; defaults to the item's purchase price type
 
     // Constructors
     public PurchaseItemRequest() {}
@@ -88,4 +89,12 @@ public class PurchaseItemRequest {
     public void setTaxAmount(BigDecimal taxAmount) {
         this.taxAmount = taxAmount;
     }
+
+    public String getPriceType() {
+        return priceType;
+    }
+
+    public void setPriceType(String priceType) {
+        this.priceType = priceType;
+    }
 }
@@ -17,6 +17,9 @@ public class PurchaseResponse {
     private BigDecimal subtotal;
     private BigDecimal totalDiscount;
     private BigDecimal totalTax;
+    private BigDecimal cgstAmount;
+    private BigDecimal sgstAmount;
+    private BigDecimal igstAmount;
     private BigDecimal totalAmount;
     private BigDecimal paidAmount;
     private BigDecimal balanceAmount;
@@ -126,6 +129,30 @@ public class PurchaseResponse {
         this.totalTax = totalTax;
     }
 
+    public BigDecimal getCgstAmount() {
+        return cgstAmount;
+    }
+
+    public void setCgstAmount(BigDecimal cgstAmount) {
+        this.cgstAmount = cgstAmount;
+    }
+
+    public BigDecimal getSgstAmount() {
+        return sgstAmount;
+    }
+
+    public void setSgstAmount(BigDecimal sgstAmount) {
+        this.sgstAmount = sgstAmount;
+    }
+
+    public BigDecimal getIgstAmount() {
+        return igstAmount;
+    }
+
+    public void setIgstAmount(BigDecimal igstAmount) {
+        this.igstAmount = igstAmount;
+    }
+
     public BigDecimal getTotalAmount() {
         return totalAmount;
     }
@@ -0,0 +1,101 @@
+package com.example.gstapp.dto;
+
+import com.example.gstapp.model.Sale;
+
+import java.math.BigDecimal;
+
+/**
+ * The parts of a sale that drive party, cash and bank postings, captured when the sale
+ * changes and stored in the ledger outbox.
+ */
+public class SalePostingSnapshot {
+    private Long saleId;
+    private String invoiceNumber;
+    private Long partyId;
+    private String saleType;
+    private String paymentType;
+    private Long bankAccountId;
+    private BigDecimal totalAmount;
+    private BigDecimal receivedAmount;
+
+    // Constructors
+    public SalePostingSnapshot() {}
+
+    public static SalePostingSnapshot of(Sale sale) {
+        SalePostingSnapshot snapshot = new SalePostingSnapshot();
+        snapshot.setSaleId(sale.getId());
+        snapshot.setInvoiceNumber(sale.getInvoiceNumber());
+        snapshot.setPartyId(sale.getParty() != null ? sale.getParty().getId() : null);
+        snapshot.setSaleType(sale.getSaleType());
+        snapshot.setPaymentType(sale.getPaymentType());
+        snapshot.setBankAccountId(sale.getBankAccount() != null ? sale.getBankAccount().getId() : null);
+        snapshot.setTotalAmount(sale.getTotalAmount());
+        snapshot.setReceivedAmount(sale.getReceivedAmount());
+        return snapshot;
+    }
+
+    // Getters and Setters
+    public Long getSaleId() {
+        return saleId;
+    }
+
+    public void setSaleId(Long saleId) {
+        this.saleId = saleId;
+    }
+
+    public String getInvoiceNumber() {
+        return invoiceNumber;
+    }
+
+    public void setInvoiceNumber(String invoiceNumber) {
+        this.invoiceNumber = invoiceNumber;
+    }
+
+    public Long getPartyId() {
+        return partyId;
+    }
+
+    public void setPartyId(Long partyId) {
+        this.partyId = partyId;
+    }
+
+    public String getSaleType() {
+        return saleType;
+    }
+
+    public void setSaleType(String saleType) {
+        this.saleType = saleType;
+    }
+
+    public String getPaymentType() {
+        return paymentType;
+    }
+
+    public void setPaymentType(String paymentType) {
+        this.paymentType = paymentType;
+    }
+
+    public Long getBankAccountId() {
+        return bankAccountId;
+    }
+
+    public void setBankAccountId(Long bankAccountId) {
+        this.bankAccountId = bankAccountId;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public BigDecimal getReceivedAmount() {
+        return receivedAmount;
+    }
+
+    public void setReceivedAmount(BigDecimal receivedAmount) {
+        this.receivedAmount = receivedAmount;
+    }
+}
@@ -11,6 +11,7 @@ public class SaleRequest {
     private String billingName;
     private String billingAddress;
     private String phoneNumber;
+    private String stateOfSupply;
     private String saleType; // "Cash" or "Credit"
     private String paymentType; // "Cash", "Cheque", or bank account name
     private Long bankAccountId;
@@ -19,6 +20,8 @@ public class SaleRequest {
     private BigDecimal receivedAmount;
     private String description;
     private String attachmentUrl;
+    private String clientId; // Terminal-generated id; set by offline terminals
+    private String provisionalNumber; // Number the terminal printed while offline
     private List<SaleItemRequest> items;
 
     // Getters and Setters
@@ -70,6 +73,14 @@ public class SaleRequest {
         this.phoneNumber = phoneNumber;
     }
 
+    public String getStateOfSupply() {
+        return stateOfSupply;
+    }
+
+    public void setStateOfSupply(String stateOfSupply) {
+        this.stateOfSupply = stateOfSupply;
+    }
+
     public String getSaleType() {
         return saleType;
     }
@@ -134,6 +145,22 @@ public class SaleRequest {
         this.attachmentUrl = attachmentUrl;
     }
 
+    public String getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(String clientId) {
+        this.clientId = clientId;
+    }
+
+    public String getProvisionalNumber() {
+        return provisionalNumber;
+    }
+
+    public void setProvisionalNumber(String provisionalNumber) {
+        this.provisionalNumber = provisionalNumber;
+    }
+
     public List<SaleItemRequest> getItems() {
         return items;
     }
@@ -152,6 +179,7 @@ public class SaleRequest {
         private BigDecimal discountAmount;
         private BigDecimal taxPercentage;
         private BigDecimal taxAmount;
+        private String priceType; // "WITH_TAX" or "WITHOUT_TAX"; defaults to the item's sale price type
 
         // Getters and Setters
         public Long getItemId() {
@@ -217,5 +245,13 @@ public class SaleRequest {
         public void setTaxAmount(BigDecimal taxAmount) {
             this.taxAmount = taxAmount;
         }
+
+        public String getPriceType() {
+            return priceType;
+        }
+
+        public void setPriceType(String priceType) {
+            this.priceType = priceType;
+        }
     }
 }
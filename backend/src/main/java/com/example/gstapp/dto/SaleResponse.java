@@ -14,6 +14,7 @@ public class SaleResponse {
     private String billingName;
     private String billingAddress;
     private String phoneNumber;
+    private String stateOfSupply;
     private String saleType;
     private String paymentType;
     private Long bankAccountId;
@@ -21,12 +22,17 @@ public class SaleResponse {
     private BigDecimal subtotal;
     private BigDecimal discountAmount;
     private BigDecimal taxAmount;
+    private BigDecimal cgstAmount;
+    private BigDecimal sgstAmount;
+    private BigDecimal igstAmount;
     private BigDecimal roundOff;
     private BigDecimal totalAmount;
     private BigDecimal receivedAmount;
     private BigDecimal balanceAmount;
     private String description;
     private String attachmentUrl;
+    private String clientId;
+    private String provisionalNumber;
     private List<SaleItemResponse> items;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
@@ -96,6 +102,14 @@ public class SaleResponse {
         this.phoneNumber = phoneNumber;
     }
 
+    public String getStateOfSupply() {
+        return stateOfSupply;
+    }
+
+    public void setStateOfSupply(String stateOfSupply) {
+        this.stateOfSupply = stateOfSupply;
+    }
+
     public String getSaleType() {
         return saleType;
     }
@@ -152,6 +166,30 @@ public class SaleResponse {
         this.taxAmount = taxAmount;
     }
 
+    public BigDecimal getCgstAmount() {
+        return cgstAmount;
+    }
+
+    public void setCgstAmount(BigDecimal cgstAmount) {
+        this.cgstAmount = cgstAmount;
+    }
+
+    public BigDecimal getSgstAmount() {
+        return sgstAmount;
+    }
+
+    public void setSgstAmount(BigDecimal sgstAmount) {
+        this.sgstAmount = sgstAmount;
+    }
+
+    public BigDecimal getIgstAmount() {
+        return igstAmount;
+    }
+
+    public void setIgstAmount(BigDecimal igstAmount) {
+        this.igstAmount = igstAmount;
+    }
+
     public BigDecimal getRoundOff() {
         return roundOff;
     }
@@ -200,6 +238,22 @@ public class SaleResponse {
         this.attachmentUrl = attachmentUrl;
     }
 
+    public String getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(String clientId) {
+        this.clientId = clientId;
+    }
+
+    public String getProvisionalNumber() {
+        return provisionalNumber;
+    }
+
+    public void setProvisionalNumber(String provisionalNumber) {
+        this.provisionalNumber = provisionalNumber;
+    }
+
     public List<SaleItemResponse> getItems() {
         return items;
     }
@@ -239,6 +293,11 @@ public class SaleResponse {
         private BigDecimal taxPercentage;
         private BigDecimal taxAmount;
         private BigDecimal totalAmount;
+        private String priceType;
+        private BigDecimal taxableAmount;
+        private BigDecimal cgstAmount;
+        private BigDecimal sgstAmount;
+        private BigDecimal igstAmount;
 
         // Getters and Setters
         public Long getId() {
@@ -344,5 +403,45 @@ public class SaleResponse {
         public void setTotalAmount(BigDecimal totalAmount) {
             this.totalAmount = totalAmount;
         }
+
+        public String getPriceType() {
+            return priceType;
+        }
+
+        public void setPriceType(String priceType) {
+            this.priceType = priceType;
+        }
+
+        public BigDecimal getTaxableAmount() {
+            return taxableAmount;
+        }
+
+        public void setTaxableAmount(BigDecimal taxableAmount) {
+            this.taxableAmount = taxableAmount;
+        }
+
+        public BigDecimal getCgstAmount() {
+            return cgstAmount;
+        }
+
+        public void setCgstAmount(BigDecimal cgstAmount) {
+            this.cgstAmount = cgstAmount;
+        }
+
+        public BigDecimal getSgstAmount() {
+            return sgstAmount;
+        }
+
+        public void setSgstAmount(BigDecimal sgstAmount) {
+            this.sgstAmount = sgstAmount;
+        }
+
+        public BigDecimal getIgstAmount() {
+            return igstAmount;
+        }
+
+        public void setIgstAmount(BigDecimal igstAmount) {
+            this.igstAmount = igstAmount;
+        }
     }
 }
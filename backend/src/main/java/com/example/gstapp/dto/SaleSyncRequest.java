@@ -0,0 +1,29 @@
+package com.example.gstapp.dto;
+
+import java.util.List;
+
+/**
+ * Sales a terminal created while offline, oldest first. Every sale needs a clientId; the
+ * provisionalNumber it printed is kept for reference and a final invoice number is assigned.
+ */
+public class SaleSyncRequest {
+    private String terminalId;
+    private List<SaleRequest> sales;
+
+    // Getters and Setters
+    public String getTerminalId() {
+        return terminalId;
+    }
+
+    public void setTerminalId(String terminalId) {
+        this.terminalId = terminalId;
+    }
+
+    public List<SaleRequest> getSales() {
+        return sales;
+    }
+
+    public void setSales(List<SaleRequest> sales) {
+        this.sales = sales;
+    }
+}
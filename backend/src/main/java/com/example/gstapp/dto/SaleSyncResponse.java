@@ -0,0 +1,210 @@
+package com.example.gstapp.dto;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a sync batch, one result per submitted sale in submission order.
+ */
+public class SaleSyncResponse {
+    public static final String CREATED = "CREATED";
+    public static final String DUPLICATE = "DUPLICATE"; // Synced by an earlier batch; nothing was changed
+    public static final String REJECTED = "REJECTED";
+
+    private int created;
+    private int duplicates;
+    private int rejected;
+    private List<Result> results = new ArrayList<>();
+
+    public void add(Result result) {
+        results.add(result);
+        if (CREATED.equals(result.getStatus())) {
+            created++;
+        } else if (DUPLICATE.equals(result.getStatus())) {
+            duplicates++;
+        } else {
+            rejected++;
+        }
+    }
+
+    // Getters and Setters
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public int getDuplicates() {
+        return duplicates;
+    }
+
+    public void setDuplicates(int duplicates) {
+        this.duplicates = duplicates;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+
+    public List<Result> getResults() {
+        return results;
+    }
+
+    public void setResults(List<Result> results) {
+        this.results = results;
+    }
+
+    public static class Result {
+        private String clientId;
+        private String provisionalNumber;
+        private String status;
+        private Long saleId;
+        private String invoiceNumber;
+        private BigDecimal totalAmount;
+        private String error;
+        private List<StockShortfall> stockShortfalls = new ArrayList<>();
+
+        public Result() {}
+
+        public Result(String clientId, String provisionalNumber, String status) {
+            this.clientId = clientId;
+            this.provisionalNumber = provisionalNumber;
+            this.status = status;
+        }
+
+        // Getters and Setters
+        public String getClientId() {
+            return clientId;
+        }
+
+        public void setClientId(String clientId) {
+            this.clientId = clientId;
+        }
+
+        public String getProvisionalNumber() {
+            return provisionalNumber;
+        }
+
+        public void setProvisionalNumber(String provisionalNumber) {
+            this.provisionalNumber = provisionalNumber;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public void setStatus(String status) {
+            this.status = status;
+        }
+
+        public Long getSaleId() {
+            return saleId;
+        }
+
+        public void setSaleId(Long saleId) {
+            this.saleId = saleId;
+        }
+
+        public String getInvoiceNumber() {
+            return invoiceNumber;
+        }
+
+        public void setInvoiceNumber(String invoiceNumber) {
+            this.invoiceNumber = invoiceNumber;
+        }
+
+        public BigDecimal getTotalAmount() {
+            return totalAmount;
+        }
+
+        public void setTotalAmount(BigDecimal totalAmount) {
+            this.totalAmount = totalAmount;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public void setError(String error) {
+            this.error = error;
+        }
+
+        public List<StockShortfall> getStockShortfalls() {
+            return stockShortfalls;
+        }
+
+        public void setStockShortfalls(List<StockShortfall> stockShortfalls) {
+            this.stockShortfalls = stockShortfalls;
+        }
+    }
+
+    /**
+     * An item the sale took below zero stock. The sale is still recorded, since the goods have
+     * already left the counter; the shortfall is what the terminal sold without stock on hand.
+     */
+    public static class StockShortfall {
+        private Long itemId;
+        private String itemName;
+        private Integer quantitySold;
+        private Integer shortfall;
+        private Integer stockAfter;
+
+        public StockShortfall() {}
+
+        public StockShortfall(Long itemId, String itemName, Integer quantitySold, Integer shortfall, Integer stockAfter) {
+            this.itemId = itemId;
+            this.itemName = itemName;
+            this.quantitySold = quantitySold;
+            this.shortfall = shortfall;
+            this.stockAfter = stockAfter;
+        }
+
+        // Getters and Setters
+        public Long getItemId() {
+            return itemId;
+        }
+
+        public void setItemId(Long itemId) {
+            this.itemId = itemId;
+        }
+
+        public String getItemName() {
+            return itemName;
+        }
+
+        public void setItemName(String itemName) {
+            this.itemName = itemName;
+        }
+
+        public Integer getQuantitySold() {
+            return quantitySold;
+        }
+
+        public void setQuantitySold(Integer quantitySold) {
+            this.quantitySold = quantitySold;
+        }
+
+        public Integer getShortfall() {
+            return shortfall;
+        }
+
+        public void setShortfall(Integer shortfall) {
+            this.shortfall = shortfall;
+        }
+
+        public Integer getStockAfter() {
+            return stockAfter;
+        }
+
+        public void setStockAfter(Integer stockAfter) {
+            this.stockAfter = stockAfter;
+        }
+    }
+}
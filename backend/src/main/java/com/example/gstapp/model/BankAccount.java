@@ -38,9 +38,19 @@ public class BankAccount {
     @Column(name = "opening_balance", precision = 15, scale = 2)
     private BigDecimal openingBalance = BigDecimal.ZERO;
 
-    @Column(name = "current_balance", precision = 15, scale = 2)
+    // Moved only by BankPostingService, never written back from a loaded entity
+    @Column(name = "current_balance", precision = 15, scale = 2, updatable = false)
     private BigDecimal currentBalance = BigDecimal.ZERO;
 
+    @Column(name = "upi_id", length = 100)
+    private String upiId;
+
+    @Column(name = "print_upi_qr")
+    private Boolean printUpiQr = false;
+
+    @Column(name = "print_bank_details")
+    private Boolean printBankDetails = false;
+
     @Column(name = "is_active")
     private Boolean isActive = true;
 
@@ -161,6 +171,30 @@ public class BankAccount {
         this.currentBalance = currentBalance;
     }
 
+    public String getUpiId() {
+        return upiId;
+    }
+
+    public void setUpiId(String upiId) {
+        this.upiId = upiId;
+    }
+
+    public Boolean getPrintUpiQr() {
+        return printUpiQr;
+    }
+
+    public void setPrintUpiQr(Boolean printUpiQr) {
+        this.printUpiQr = printUpiQr;
+    }
+
+    public Boolean getPrintBankDetails() {
+        return printBankDetails;
+    }
+
+    public void setPrintBankDetails(Boolean printBankDetails) {
+        this.printBankDetails = printBankDetails;
+    }
+
     public Boolean getIsActive() {
         return isActive;
     }
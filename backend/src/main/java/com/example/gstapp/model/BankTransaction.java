@@ -42,6 +42,9 @@ public class BankTransaction {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    @Column(name = "posted_at")
+    private LocalDateTime postedAt; // null while waiting for the account's writer to set balanceAfter
+
     public enum TransactionType {
         OPENING_BALANCE, DEPOSIT, WITHDRAWAL, TRANSFER_IN, TRANSFER_OUT, ADJUSTMENT
     }
@@ -50,6 +53,7 @@ public class BankTransaction {
     public BankTransaction() {
         this.createdAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
+        this.postedAt = this.createdAt;
     }
 
     public BankTransaction(Long merchantId, Long bankAccountId, TransactionType transactionType, 
@@ -159,4 +163,18 @@ public class BankTransaction {
     public void preUpdate() {
         this.updatedAt = LocalDateTime.now();
     }
+
+    public LocalDateTime getPostedAt() {
+        return postedAt;
+    }
+
+    public void setPostedAt(LocalDateTime postedAt) {
+        this.postedAt = postedAt;
+    }
+
+    // Deposits, transfers in, opening balances and adjustments add to the account
+    public BigDecimal getSignedAmount() {
+        return transactionType == TransactionType.WITHDRAWAL || transactionType == TransactionType.TRANSFER_OUT
+            ? amount.negate() : amount;
+    }
 }
@@ -0,0 +1,86 @@
+package com.example.gstapp.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Running cash totals for one merchant. Rows are only ever changed by delta upserts, see
+ * CashPositionRepository.applyDelta, and checked against the cash book in the background.
+ */
+@Entity
+@Table(name = "cash_positions")
+public class CashPosition {
+    @Id
+    @Column(name = "merchant_id")
+    private Long merchantId;
+
+    @Column(name = "total_in", precision = 19, scale = 2, nullable = false)
+    private BigDecimal totalIn;
+
+    @Column(name = "total_out", precision = 19, scale = 2, nullable = false)
+    private BigDecimal totalOut;
+
+    @Column(name = "total_adjustments", precision = 19, scale = 2, nullable = false)
+    private BigDecimal totalAdjustments;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "verified_at")
+    private LocalDateTime verifiedAt;
+
+    // Cash in hand: money in and adjustments, less money out
+    public BigDecimal getBalance() {
+        return totalIn.add(totalAdjustments).subtract(totalOut);
+    }
+
+    // Getters and Setters
+    public Long getMerchantId() {
+        return merchantId;
+    }
+
+    public void setMerchantId(Long merchantId) {
+        this.merchantId = merchantId;
+    }
+
+    public BigDecimal getTotalIn() {
+        return totalIn;
+    }
+
+    public void setTotalIn(BigDecimal totalIn) {
+        this.totalIn = totalIn;
+    }
+
+    public BigDecimal getTotalOut() {
+        return totalOut;
+    }
+
+    public void setTotalOut(BigDecimal totalOut) {
+        this.totalOut = totalOut;
+    }
+
+    public BigDecimal getTotalAdjustments() {
+        return totalAdjustments;
+    }
+
+    public void setTotalAdjustments(BigDecimal totalAdjustments) {
+        this.totalAdjustments = totalAdjustments;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public LocalDateTime getVerifiedAt() {
+        return verifiedAt;
+    }
+
+    public void setVerifiedAt(LocalDateTime verifiedAt) {
+        this.verifiedAt = verifiedAt;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.gstapp.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Taxable value and tax per head for one merchant, month, direction and rate slab.
+ * OUTPUT rows come from sales, INPUT rows from purchases. Rows are only ever changed by
+ * delta upserts, see GstMonthlySummaryRepository.applyDelta.
+ */
+@Entity
+@Table(name = "gst_monthly_summary")
+public class GstMonthlySummary {
+    public static final String OUTPUT = "OUTPUT";
+    public static final String INPUT = "INPUT";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "merchant_id", nullable = false)
+    private Long merchantId;
+
+    @Column(name = "period", nullable = false)
+    private LocalDate period; // first day of the month
+
+    @Column(name = "direction", nullable = false)
+    private String direction; // OUTPUT or INPUT
+
+    @Column(name = "tax_rate", precision = 5, scale = 2, nullable = false)
+    private BigDecimal taxRate;
+
+    @Column(name = "taxable_amount", precision = 19, scale = 2, nullable = false)
+    private BigDecimal taxableAmount;
+
+    @Column(name = "igst_amount", precision = 19, scale = 2, nullable = false)
+    private BigDecimal igstAmount;
+
+    @Column(name = "cgst_amount", precision = 19, scale = 2, nullable = false)
+    private BigDecimal cgstAmount;
+
+    @Column(name = "sgst_amount", precision = 19, scale = 2, nullable = false)
+    private BigDecimal sgstAmount;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getMerchantId() {
+        return merchantId;
+    }
+
+    public void setMerchantId(Long merchantId) {
+        this.merchantId = merchantId;
+    }
+
+    public LocalDate getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(LocalDate period) {
+        this.period = period;
+    }
+
+    public String getDirection() {
+        return direction;
+    }
+
+    public void setDirection(String direction) {
+        this.direction = direction;
+    }
+
+    public BigDecimal getTaxRate() {
+        return taxRate;
+    }
+
+    public void setTaxRate(BigDecimal taxRate) {
+        this.taxRate = taxRate;
+    }
+
+    public BigDecimal getTaxableAmount() {
+        return taxableAmount;
+    }
+
+    public void setTaxableAmount(BigDecimal taxableAmount) {
+        this.taxableAmount = taxableAmount;
+    }
+
+    public BigDecimal getIgstAmount() {
+        return igstAmount;
+    }
+
+    public void setIgstAmount(BigDecimal igstAmount) {
+        this.igstAmount = igstAmount;
+    }
+
+    public BigDecimal getCgstAmount() {
+        return cgstAmount;
+    }
+
+    public void setCgstAmount(BigDecimal cgstAmount) {
+        this.cgstAmount = cgstAmount;
+    }
+
+    public BigDecimal getSgstAmount() {
+        return sgstAmount;
+    }
+
+    public void setSgstAmount(BigDecimal sgstAmount) {
+        this.sgstAmount = sgstAmount;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -65,9 +65,14 @@ public class Item {
     @Column(name = "min_stock")
     private BigDecimal minStock;
     
-    @Column(name = "current_stock")
+    // Maintained only through ItemRepository.applyStockDeltas so entity saves never overwrite it
+    @Column(name = "current_stock", updatable = false)
     private Integer currentStock = 0;
 
+    // Id of the last transaction that wrote the row, stamped by a trigger for the POS catalog feed
+    @Column(name = "catalog_version", insertable = false, updatable = false)
+    private Long catalogVersion;
+
     @Column(name = "location")
     private String location;
 
@@ -242,6 +247,14 @@ public class Item {
         this.currentStock = currentStock;
     }
 
+    public Long getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    public void setCatalogVersion(Long catalogVersion) {
+        this.catalogVersion = catalogVersion;
+    }
+
     public String getLocation() {
         return location;
     }
@@ -0,0 +1,157 @@
+package com.example.gstapp.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A document change waiting for its ledger postings. Before/after snapshots are JSON
+ * and processedAt is set in the same transaction that applies the postings; an event that
+ * keeps failing is parked instead.
+ */
+@Entity
+@Table(name = "ledger_outbox")
+public class LedgerOutboxEvent {
+    public static final String SALE = "SALE";
+    public static final String SALE_CREATED = "SALE_CREATED";
+    public static final String SALE_UPDATED = "SALE_UPDATED";
+    public static final String SALE_DELETED = "SALE_DELETED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "merchant_id", nullable = false)
+    private Long merchantId;
+
+    @Column(name = "aggregate_type", nullable = false)
+    private String aggregateType; // "SALE"
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    @Column(name = "event_type", nullable = false)
+    private String eventType; // SALE_CREATED, SALE_UPDATED, SALE_DELETED
+
+    @Column(name = "before_snapshot", columnDefinition = "TEXT")
+    private String beforeSnapshot;
+
+    @Column(name = "after_snapshot", columnDefinition = "TEXT")
+    private String afterSnapshot;
+
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    @Column(name = "parked_at")
+    private LocalDateTime parkedAt; // set once attempts reach the limit; parked events are skipped
+
+    // Constructors
+    public LedgerOutboxEvent() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getMerchantId() {
+        return merchantId;
+    }
+
+    public void setMerchantId(Long merchantId) {
+        this.merchantId = merchantId;
+    }
+
+    public String getAggregateType() {
+        return aggregateType;
+    }
+
+    public void setAggregateType(String aggregateType) {
+        this.aggregateType = aggregateType;
+    }
+
+    public Long getAggregateId() {
+        return aggregateId;
+    }
+
+    public void setAggregateId(Long aggregateId) {
+        this.aggregateId = aggregateId;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+
+    public String getBeforeSnapshot() {
+        return beforeSnapshot;
+    }
+
+    public void setBeforeSnapshot(String beforeSnapshot) {
+        this.beforeSnapshot = beforeSnapshot;
+    }
+
+    public String getAfterSnapshot() {
+        return afterSnapshot;
+    }
+
+    public void setAfterSnapshot(String afterSnapshot) {
+        this.afterSnapshot = afterSnapshot;
+    }
+
+    public Integer getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(Integer attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getProcessedAt() {
+        return processedAt;
+    }
+
+    public void setProcessedAt(LocalDateTime processedAt) {
+        this.processedAt = processedAt;
+    }
+
+    public LocalDateTime getParkedAt() {
+        return parkedAt;
+    }
+
+    public void setParkedAt(LocalDateTime parkedAt) {
+        this.parkedAt = parkedAt;
+    }
+}
@@ -36,7 +36,8 @@ public class Party {
     @Column(name = "opening_balance", precision = 15, scale = 2)
     private BigDecimal openingBalance = BigDecimal.ZERO;
 
-    @Column(name = "current_balance", precision = 15, scale = 2)
+    // Moved only by PartyBalanceService postings, never written back from a loaded entity
+    @Column(name = "current_balance", precision = 15, scale = 2, updatable = false)
     private BigDecimal currentBalance = BigDecimal.ZERO;
 
     @Enumerated(EnumType.STRING)
@@ -44,7 +45,7 @@ public class Party {
     private PartyType partyType;
 
     @Enumerated(EnumType.STRING)
-    @Column(name = "balance_type")
+    @Column(name = "balance_type", updatable = false)
     private BalanceType balanceType = BalanceType.TO_PAY;
 
     @Column(name = "is_active")
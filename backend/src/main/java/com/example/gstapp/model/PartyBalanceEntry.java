@@ -0,0 +1,114 @@
+package com.example.gstapp.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One signed change to what a party owes us: positive when they owe us more, negative when
+ * we owe them more. Entries are only ever inserted; a correction is a new entry.
+ */
+@Entity
+@Table(name = "party_balance_entries")
+public class PartyBalanceEntry {
+    public static final String OPENING = "OPENING";
+    public static final String SALE = "SALE";
+    public static final String SALE_REVERSAL = "SALE_REVERSAL";
+    public static final String PURCHASE = "PURCHASE";
+    public static final String PURCHASE_REVERSAL = "PURCHASE_REVERSAL";
+    public static final String PURCHASE_DELETED = "PURCHASE_DELETED";
+    public static final String PAYMENT_IN = "PAYMENT_IN";
+    public static final String PAYMENT_OUT = "PAYMENT_OUT";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "merchant_id", nullable = false)
+    private Long merchantId;
+
+    @Column(name = "party_id", nullable = false)
+    private Long partyId;
+
+    @Column(name = "entry_type", nullable = false)
+    private String entryType;
+
+    @Column(name = "source_id")
+    private Long sourceId; // party transaction, payment or purchase behind the entry
+
+    @Column(name = "amount", precision = 15, scale = 2, nullable = false)
+    private BigDecimal amount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public PartyBalanceEntry() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public PartyBalanceEntry(Long merchantId, Long partyId, String entryType, Long sourceId, BigDecimal amount) {
+        this();
+        this.merchantId = merchantId;
+        this.partyId = partyId;
+        this.entryType = entryType;
+        this.sourceId = sourceId;
+        this.amount = amount;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getMerchantId() {
+        return merchantId;
+    }
+
+    public void setMerchantId(Long merchantId) {
+        this.merchantId = merchantId;
+    }
+
+    public Long getPartyId() {
+        return partyId;
+    }
+
+    public void setPartyId(Long partyId) {
+        this.partyId = partyId;
+    }
+
+    public String getEntryType() {
+        return entryType;
+    }
+
+    public void setEntryType(String entryType) {
+        this.entryType = entryType;
+    }
+
+    public Long getSourceId() {
+        return sourceId;
+    }
+
+    public void setSourceId(Long sourceId) {
+        this.sourceId = sourceId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -49,6 +49,15 @@ public class Purchase {
     @Column(name = "total_tax", precision = 15, scale = 2)
     private BigDecimal totalTax = BigDecimal.ZERO;
 
+    @Column(name = "cgst_amount", precision = 19, scale = 2, nullable = false)
+    private BigDecimal cgstAmount = BigDecimal.ZERO;
+
+    @Column(name = "sgst_amount", precision = 19, scale = 2, nullable = false)
+    private BigDecimal sgstAmount = BigDecimal.ZERO;
+
+    @Column(name = "igst_amount", precision = 19, scale = 2, nullable = false)
+    private BigDecimal igstAmount = BigDecimal.ZERO;
+
     @Column(name = "total_amount", precision = 15, scale = 2)
     private BigDecimal totalAmount = BigDecimal.ZERO;
 
@@ -192,6 +201,30 @@ public class Purchase {
         this.totalTax = totalTax;
     }
 
+    public BigDecimal getCgstAmount() {
+        return cgstAmount;
+    }
+
+    public void setCgstAmount(BigDecimal cgstAmount) {
+        this.cgstAmount = cgstAmount;
+    }
+
+    public BigDecimal getSgstAmount() {
+        return sgstAmount;
+    }
+
+    public void setSgstAmount(BigDecimal sgstAmount) {
+        this.sgstAmount = sgstAmount;
+    }
+
+    public BigDecimal getIgstAmount() {
+        return igstAmount;
+    }
+
+    public void setIgstAmount(BigDecimal igstAmount) {
+        this.igstAmount = igstAmount;
+    }
+
     public BigDecimal getTotalAmount() {
         return totalAmount;
     }
@@ -51,6 +51,21 @@ public class PurchaseItem {
     @Column(name = "amount", precision = 15, scale = 2, nullable = false)
     private BigDecimal amount;
 
+    @Column(name = "price_type")
+    private String priceType; // "WITH_TAX" or "WITHOUT_TAX"
+
+    @Column(name = "taxable_amount", precision = 19, scale = 2)
+    private BigDecimal taxableAmount;
+
+    @Column(name = "cgst_amount", precision = 19, scale = 2, nullable = false)
+    private BigDecimal cgstAmount = BigDecimal.ZERO;
+
+    @Column(name = "sgst_amount", precision = 19, scale = 2, nullable = false)
+    private BigDecimal sgstAmount = BigDecimal.ZERO;
+
+    @Column(name = "igst_amount", precision = 19, scale = 2, nullable = false)
+    private BigDecimal igstAmount = BigDecimal.ZERO;
+
     // Constructors
     public PurchaseItem() {}
 
@@ -177,4 +192,44 @@ public class PurchaseItem {
     public void setAmount(BigDecimal amount) {
         this.amount = amount;
     }
+
+    public String getPriceType() {
+        return priceType;
+    }
+
+    public void setPriceType(String priceType) {
+        this.priceType = priceType;
+    }
+
+    public BigDecimal getTaxableAmount() {
+        return taxableAmount;
+    }
+
+    public void setTaxableAmount(BigDecimal taxableAmount) {
+        this.taxableAmount = taxableAmount;
+    }
+
+    public BigDecimal getCgstAmount() {
+        return cgstAmount;
+    }
+
+    public void setCgstAmount(BigDecimal cgstAmount) {
+        this.cgstAmount = cgstAmount;
+    }
+
+    public BigDecimal getSgstAmount() {
+        return sgstAmount;
+    }
+
+    public void setSgstAmount(BigDecimal sgstAmount) {
+        this.sgstAmount = sgstAmount;
+    }
+
+    public BigDecimal getIgstAmount() {
+        return igstAmount;
+    }
+
+    public void setIgstAmount(BigDecimal igstAmount) {
+        this.igstAmount = igstAmount;
+    }
 }
@@ -8,13 +8,15 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "sales")
+@Table(name = "sales", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"user_id", "invoice_number"})
+})
 public class Sale {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(name = "invoice_number", unique = true)
+    @Column(name = "invoice_number")
     private String invoiceNumber;
 
     @Column(name = "invoice_date", nullable = false)
@@ -33,6 +35,9 @@ public class Sale {
     @Column(name = "phone_number")
     private String phoneNumber;
 
+    @Column(name = "state_of_supply")
+    private String stateOfSupply;
+
     @Column(name = "sale_type", nullable = false)
     private String saleType; // "Cash" or "Credit"
 
@@ -52,6 +57,15 @@ public class Sale {
     @Column(name = "tax_amount", precision = 19, scale = 2)
     private BigDecimal taxAmount;
 
+    @Column(name = "cgst_amount", precision = 19, scale = 2, nullable = false)
+    private BigDecimal cgstAmount = BigDecimal.ZERO;
+
+    @Column(name = "sgst_amount", precision = 19, scale = 2, nullable = false)
+    private BigDecimal sgstAmount = BigDecimal.ZERO;
+
+    @Column(name = "igst_amount", precision = 19, scale = 2, nullable = false)
+    private BigDecimal igstAmount = BigDecimal.ZERO;
+
     @Column(name = "round_off", precision = 19, scale = 2)
     private BigDecimal roundOff;
 
@@ -70,10 +84,16 @@ public class Sale {
     @Column(name = "attachment_url")
     private String attachmentUrl;
 
+    @Column(name = "client_id", length = 64)
+    private String clientId; // Id the creating terminal gave the sale, for offline sync
+
+    @Column(name = "provisional_number", length = 50)
+    private String provisionalNumber; // Number printed offline before the final invoice number was assigned
+
     @OneToMany(mappedBy = "sale", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<SaleItem> saleItems = new ArrayList<>();
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
@@ -151,6 +171,14 @@ public class Sale {
         this.phoneNumber = phoneNumber;
     }
 
+    public String getStateOfSupply() {
+        return stateOfSupply;
+    }
+
+    public void setStateOfSupply(String stateOfSupply) {
+        this.stateOfSupply = stateOfSupply;
+    }
+
     public String getSaleType() {
         return saleType;
     }
@@ -199,6 +227,30 @@ public class Sale {
         this.taxAmount = taxAmount;
     }
 
+    public BigDecimal getCgstAmount() {
+        return cgstAmount;
+    }
+
+    public void setCgstAmount(BigDecimal cgstAmount) {
+        this.cgstAmount = cgstAmount;
+    }
+
+    public BigDecimal getSgstAmount() {
+        return sgstAmount;
+    }
+
+    public void setSgstAmount(BigDecimal sgstAmount) {
+        this.sgstAmount = sgstAmount;
+    }
+
+    public BigDecimal getIgstAmount() {
+        return igstAmount;
+    }
+
+    public void setIgstAmount(BigDecimal igstAmount) {
+        this.igstAmount = igstAmount;
+    }
+
     public BigDecimal getRoundOff() {
         return roundOff;
     }
@@ -247,6 +299,22 @@ public class Sale {
         this.attachmentUrl = attachmentUrl;
     }
 
+    public String getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(String clientId) {
+        this.clientId = clientId;
+    }
+
+    public String getProvisionalNumber() {
+        return provisionalNumber;
+    }
+
+    public void setProvisionalNumber(String provisionalNumber) {
+        this.provisionalNumber = provisionalNumber;
+    }
+
     public List<SaleItem> getSaleItems() {
         return saleItems;
     }
@@ -0,0 +1,140 @@
+package com.example.gstapp.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Sales totals for one merchant over one hour, day or month bucket. Rows are only ever
+ * changed by delta upserts, see SalesRollupRepository.applyDelta.
+ */
+@Entity
+@Table(name = "sales_rollups")
+public class SalesRollup {
+    public static final String HOUR = "HOUR";
+    public static final String DAY = "DAY";
+    public static final String MONTH = "MONTH";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "granularity", nullable = false)
+    private String granularity; // HOUR, DAY or MONTH
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "sale_count", nullable = false)
+    private Integer saleCount;
+
+    @Column(name = "total_amount", precision = 19, scale = 2, nullable = false)
+    private BigDecimal totalAmount;
+
+    @Column(name = "tax_amount", precision = 19, scale = 2, nullable = false)
+    private BigDecimal taxAmount;
+
+    @Column(name = "discount_amount", precision = 19, scale = 2, nullable = false)
+    private BigDecimal discountAmount;
+
+    @Column(name = "received_amount", precision = 19, scale = 2, nullable = false)
+    private BigDecimal receivedAmount;
+
+    @Column(name = "credit_balance_amount", precision = 19, scale = 2, nullable = false)
+    private BigDecimal creditBalanceAmount;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(String granularity) {
+        this.granularity = granularity;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public Integer getSaleCount() {
+        return saleCount;
+    }
+
+    public void setSaleCount(Integer saleCount) {
+        this.saleCount = saleCount;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public BigDecimal getTaxAmount() {
+        return taxAmount;
+    }
+
+    public void setTaxAmount(BigDecimal taxAmount) {
+        this.taxAmount = taxAmount;
+    }
+
+    public BigDecimal getDiscountAmount() {
+        return discountAmount;
+    }
+
+    public void setDiscountAmount(BigDecimal discountAmount) {
+        this.discountAmount = discountAmount;
+    }
+
+    public BigDecimal getReceivedAmount() {
+        return receivedAmount;
+    }
+
+    public void setReceivedAmount(BigDecimal receivedAmount) {
+        this.receivedAmount = receivedAmount;
+    }
+
+    public BigDecimal getCreditBalanceAmount() {
+        return creditBalanceAmount;
+    }
+
+    public void setCreditBalanceAmount(BigDecimal creditBalanceAmount) {
+        this.creditBalanceAmount = creditBalanceAmount;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
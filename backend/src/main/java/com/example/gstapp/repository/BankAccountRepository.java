@@ -3,6 +3,7 @@ package com.example.gstapp.repository;
 import com.example.gstapp.model.BankAccount;
 import com.example.gstapp.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -23,11 +24,26 @@ public interface BankAccountRepository extends JpaRepository<BankAccount, Long>
     
     boolean existsByMerchantIdAndAccountNumberAndIsActiveTrue(Long merchantId, String accountNumber);
     
+    // Account whose UPI handle goes on printed invoices when the sale itself names none
+    Optional<BankAccount> findFirstByMerchantIdAndIsActiveTrueAndPrintUpiQrTrueAndUpiIdIsNotNullOrderByIdAsc(Long merchantId);
+    
     Optional<BankAccount> findByMerchantIdAndAccountDisplayName(Long merchantId, String accountDisplayName);
     
     Optional<BankAccount> findByMerchantIdAndBankName(Long merchantId, String bankName);
     
+    @Query("SELECT ba FROM BankAccount ba WHERE ba.merchantId = :merchantId AND " +
+           "(ba.accountDisplayName = :name OR ba.bankName = :name)")
+    List<BankAccount> findByMerchantIdAndName(@Param("merchantId") Long merchantId, @Param("name") String name);
+    
     default Optional<BankAccount> findByIdAndUser(Long id, User user) {
         return findByIdAndMerchantId(id, user.getId());
     }
+    
+    // Holds back every other writer of the account until the caller's transaction ends
+    @Query(value = "SELECT COALESCE(current_balance, 0) FROM bank_accounts WHERE id = :id FOR UPDATE", nativeQuery = true)
+    BigDecimal lockBalance(@Param("id") Long id);
+    
+    @Modifying
+    @Query("UPDATE BankAccount ba SET ba.currentBalance = :balance, ba.updatedAt = CURRENT_TIMESTAMP WHERE ba.id = :id")
+    int setCurrentBalance(@Param("id") Long id, @Param("balance") BigDecimal balance);
 }
@@ -1,11 +1,13 @@
 package com.example.gstapp.repository;
 
 import com.example.gstapp.model.BankTransaction;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -25,4 +27,32 @@ public interface BankTransactionRepository extends JpaRepository<BankTransaction
     List<BankTransaction> findByMerchantIdAndDateRange(@Param("merchantId") Long merchantId, 
                                                       @Param("startDate") LocalDateTime startDate, 
                                                       @Param("endDate") LocalDateTime endDate);
+    
+    // Bank account ledger pages, newest first
+    @Query("SELECT bt FROM BankTransaction bt WHERE bt.bankAccountId = :bankAccountId AND bt.merchantId = :merchantId " +
+           "ORDER BY bt.transactionDate DESC, bt.id DESC")
+    List<BankTransaction> findLedgerFirstPage(@Param("bankAccountId") Long bankAccountId,
+                                              @Param("merchantId") Long merchantId, Pageable pageable);
+    
+    @Query("SELECT bt FROM BankTransaction bt WHERE bt.bankAccountId = :bankAccountId AND bt.merchantId = :merchantId " +
+           "AND (bt.transactionDate, bt.id) < (:cursorDate, :cursorId) " +
+           "ORDER BY bt.transactionDate DESC, bt.id DESC")
+    List<BankTransaction> findLedgerPageAfter(@Param("bankAccountId") Long bankAccountId,
+                                              @Param("merchantId") Long merchantId,
+                                              @Param("cursorDate") LocalDateTime cursorDate, @Param("cursorId") Long cursorId,
+                                              Pageable pageable);
+    
+    // Account balance up to and including a ledger position; withdrawals and transfers out reduce it
+    @Query("SELECT COALESCE(SUM(CASE WHEN bt.transactionType IN ('WITHDRAWAL', 'TRANSFER_OUT') " +
+           "THEN -bt.amount ELSE bt.amount END), 0) " +
+           "FROM BankTransaction bt WHERE bt.bankAccountId = :bankAccountId AND bt.merchantId = :merchantId " +
+           "AND (bt.transactionDate, bt.id) <= (:date, :id)")
+    BigDecimal getBalanceThrough(@Param("bankAccountId") Long bankAccountId, @Param("merchantId") Long merchantId,
+                                 @Param("date") LocalDateTime date, @Param("id") Long id);
+    
+    @Query("SELECT bt FROM BankTransaction bt WHERE bt.bankAccountId = :bankAccountId AND bt.postedAt IS NULL ORDER BY bt.id")
+    List<BankTransaction> findUnposted(@Param("bankAccountId") Long bankAccountId, Pageable pageable);
+    
+    @Query("SELECT DISTINCT bt.bankAccountId FROM BankTransaction bt WHERE bt.postedAt IS NULL")
+    List<Long> findAccountsWithUnposted();
 }
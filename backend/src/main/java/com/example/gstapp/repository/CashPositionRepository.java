@@ -0,0 +1,45 @@
+package com.example.gstapp.repository;
+
+import com.example.gstapp.model.CashPosition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface CashPositionRepository extends JpaRepository<CashPosition, Long> {
+    
+    /**
+     * Add to a merchant's cash totals, creating the row on first use. The row lock taken here
+     * orders concurrent postings, so none is lost.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO cash_positions (merchant_id, total_in, total_out, total_adjustments, updated_at) " +
+                   "VALUES (:merchantId, :totalIn, :totalOut, :totalAdjustments, now()) " +
+                   "ON CONFLICT (merchant_id) DO UPDATE SET " +
+                   "total_in = cash_positions.total_in + EXCLUDED.total_in, " +
+                   "total_out = cash_positions.total_out + EXCLUDED.total_out, " +
+                   "total_adjustments = cash_positions.total_adjustments + EXCLUDED.total_adjustments, " +
+                   "updated_at = now()", nativeQuery = true)
+    int applyDelta(@Param("merchantId") Long merchantId, @Param("totalIn") BigDecimal totalIn,
+                   @Param("totalOut") BigDecimal totalOut, @Param("totalAdjustments") BigDecimal totalAdjustments);
+    
+    // Merchants whose totals were checked longest ago (never-checked rows first)
+    @Query(value = "SELECT merchant_id FROM cash_positions ORDER BY verified_at NULLS FIRST LIMIT :limit", nativeQuery = true)
+    List<Long> findDueForVerification(@Param("limit") int limit);
+    
+    // Holds back cash postings for the merchant until the caller's transaction ends
+    @Query(value = "SELECT merchant_id FROM cash_positions WHERE merchant_id = :merchantId FOR UPDATE", nativeQuery = true)
+    Long lockPosition(@Param("merchantId") Long merchantId);
+    
+    @Modifying
+    @Query(value = "UPDATE cash_positions SET total_in = :totalIn, total_out = :totalOut, " +
+                   "total_adjustments = :totalAdjustments, verified_at = now() WHERE merchant_id = :merchantId",
+           nativeQuery = true)
+    int saveVerified(@Param("merchantId") Long merchantId, @Param("totalIn") BigDecimal totalIn,
+                     @Param("totalOut") BigDecimal totalOut, @Param("totalAdjustments") BigDecimal totalAdjustments);
+}
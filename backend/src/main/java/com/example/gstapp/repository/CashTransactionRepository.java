@@ -1,6 +1,7 @@
 package com.example.gstapp.repository;
 
 import com.example.gstapp.model.CashTransaction;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -9,24 +10,40 @@ import org.springframework.stereotype.Repository;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 
 @Repository
 public interface CashTransactionRepository extends JpaRepository<CashTransaction, Long> {
     
     List<CashTransaction> findByMerchantIdOrderByTransactionDateDesc(Long merchantId);
     
-    @Query("SELECT SUM(ct.amount) FROM CashTransaction ct WHERE ct.merchantId = :merchantId AND ct.transactionType = 'IN'")
-    Optional<BigDecimal> getTotalCashInByMerchantId(@Param("merchantId") Long merchantId);
-    
-    @Query("SELECT SUM(ct.amount) FROM CashTransaction ct WHERE ct.merchantId = :merchantId AND ct.transactionType = 'OUT'")
-    Optional<BigDecimal> getTotalCashOutByMerchantId(@Param("merchantId") Long merchantId);
-    
-    @Query("SELECT SUM(ct.amount) FROM CashTransaction ct WHERE ct.merchantId = :merchantId AND ct.transactionType = 'ADJUSTMENT'")
-    Optional<BigDecimal> getTotalAdjustmentsByMerchantId(@Param("merchantId") Long merchantId);
+    // Totals in, out and adjustments over the whole cash book, for checking the cash position
+    @Query("SELECT COALESCE(SUM(CASE WHEN ct.transactionType = 'IN' THEN ct.amount ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN ct.transactionType = 'OUT' THEN ct.amount ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN ct.transactionType = 'ADJUSTMENT' THEN ct.amount ELSE 0 END), 0) " +
+           "FROM CashTransaction ct WHERE ct.merchantId = :merchantId")
+    List<Object[]> getTotalsByMerchantId(@Param("merchantId") Long merchantId);
     
     @Query("SELECT ct FROM CashTransaction ct WHERE ct.merchantId = :merchantId AND ct.transactionDate BETWEEN :startDate AND :endDate ORDER BY ct.transactionDate DESC")
     List<CashTransaction> findByMerchantIdAndDateRange(@Param("merchantId") Long merchantId, 
                                                       @Param("startDate") LocalDateTime startDate, 
                                                       @Param("endDate") LocalDateTime endDate);
+    
+    // Cash ledger pages, newest first
+    @Query("SELECT ct FROM CashTransaction ct WHERE ct.merchantId = :merchantId " +
+           "ORDER BY ct.transactionDate DESC, ct.id DESC")
+    List<CashTransaction> findLedgerFirstPage(@Param("merchantId") Long merchantId, Pageable pageable);
+    
+    @Query("SELECT ct FROM CashTransaction ct WHERE ct.merchantId = :merchantId " +
+           "AND (ct.transactionDate, ct.id) < (:cursorDate, :cursorId) " +
+           "ORDER BY ct.transactionDate DESC, ct.id DESC")
+    List<CashTransaction> findLedgerPageAfter(@Param("merchantId") Long merchantId,
+                                              @Param("cursorDate") LocalDateTime cursorDate, @Param("cursorId") Long cursorId,
+                                              Pageable pageable);
+    
+    // Cash in hand up to and including a ledger position, signed the same way as the current balance
+    @Query("SELECT COALESCE(SUM(CASE WHEN ct.transactionType = 'OUT' THEN -ct.amount ELSE ct.amount END), 0) " +
+           "FROM CashTransaction ct WHERE ct.merchantId = :merchantId " +
+           "AND (ct.transactionDate, ct.id) <= (:date, :id)")
+    BigDecimal getBalanceThrough(@Param("merchantId") Long merchantId,
+                                 @Param("date") LocalDateTime date, @Param("id") Long id);
 }
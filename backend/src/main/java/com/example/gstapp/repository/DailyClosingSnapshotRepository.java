@@ -0,0 +1,29 @@
+package com.example.gstapp.repository;
+
+import com.example.gstapp.model.DailyClosingSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DailyClosingSnapshotRepository extends JpaRepository<DailyClosingSnapshot, Long>,
+        DailyClosingSnapshotRepositoryCustom {
+    
+    Optional<DailyClosingSnapshot> findFirstByMerchantIdAndEntityTypeAndEntityIdAndClosingDateLessThanEqualOrderByClosingDateDesc(
+        Long merchantId, String entityType, Long entityId, LocalDate date);
+    
+    Optional<DailyClosingSnapshot> findFirstByMerchantIdAndEntityTypeAndEntityIdAndClosingDateGreaterThanOrderByClosingDateAsc(
+        Long merchantId, String entityType, Long entityId, LocalDate date);
+    
+    // Each entity's latest snapshot on or before the date
+    @Query(value = "SELECT DISTINCT ON (s.entity_id) s.* FROM daily_closing_snapshots s " +
+                   "WHERE s.merchant_id = :merchantId AND s.entity_type = :entityType AND s.closing_date <= :date " +
+                   "ORDER BY s.entity_id, s.closing_date DESC", nativeQuery = true)
+    List<DailyClosingSnapshot> findLatestPerEntity(@Param("merchantId") Long merchantId,
+                                                   @Param("entityType") String entityType, @Param("date") LocalDate date);
+}
@@ -0,0 +1,49 @@
+package com.example.gstapp.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public interface DailyClosingSnapshotRepositoryCustom {
+
+    /**
+     * The last day the close job finished, or null before the first close.
+     */
+    LocalDate findLastClosedDate();
+
+    /**
+     * The earliest day anything moved, across every merchant and entity type, or null.
+     */
+    LocalDate findFirstMovementDate();
+
+    /**
+     * The earliest closed day a movement dated on it has been inserted, changed or deleted
+     * since, or null. Recorded by triggers on the movement tables.
+     */
+    LocalDate findFirstReopenedDate();
+
+    /**
+     * Write the snapshots for one day (replacing any from an earlier close of it) and record
+     * the day as closed. Every entity that moved that day gets its previous closing balance plus
+     * the day's net movement. Re-closing a day reopens the next closed day after it, whose snapshots
+     * build on this one's.
+     *
+     * @return the number of snapshots written
+     */
+    int closeDay(LocalDate day);
+
+    /**
+     * Net movement per entity of one merchant and type in [from, to); either bound may be null
+     * for an open range, and entityId null for every entity.
+     */
+    Map<Long, BigDecimal> sumMovements(Long merchantId, String entityType, Long entityId,
+                                       LocalDateTime from, LocalDateTime to);
+
+    /**
+     * The stored current balance an item's stock or a party's balance is walked back from, or
+     * null when the entity is not the merchant's. Cash and bank balances are summed from their
+     * transactions instead, so this is null for them.
+     */
+    BigDecimal findAnchor(Long merchantId, String entityType, Long entityId);
+}
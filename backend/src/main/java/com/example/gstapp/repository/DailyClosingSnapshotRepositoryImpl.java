@@ -0,0 +1,253 @@
+package com.example.gstapp.repository;
+
+import com.example.gstapp.model.DailyClosingSnapshot;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Closing queries composed per entity type. Every type's movements are read through the same
+ * shape (merchant_id, entity_id, amount) so closing a day, replaying unclosed days and walking
+ * back from the current balance all share one definition of what moves a balance: item stock
+ * by quantity, party balances as in the party ledger, cash and bank by signed amount.
+ */
+public class DailyClosingSnapshotRepositoryImpl implements DailyClosingSnapshotRepositoryCustom {
+
+    // FROM clause, merchant column, date column, entity column, signed amount
+    private static final String[][] ITEM_MOVES = {
+        {"item_transactions x", "x.merchant_id", "x.transaction_date", "x.item_id", "x.quantity"}
+    };
+    private static final String[][] PARTY_MOVES = {
+        {"party_transactions pt LEFT JOIN purchases p ON p.id = pt.purchase_id", "pt.merchant_id",
+            "pt.transaction_date", "pt.party_id", PartyTransactionRepository.LEDGER_CHANGE},
+        {"payment_in x", "x.merchant_id", "x.payment_date", "x.party_id", "-x.amount"},
+        {"payment_out x", "x.merchant_id", "x.payment_date", "x.party_id", "x.amount"}
+    };
+    private static final String[][] CASH_MOVES = {
+        {"cash_transactions x", "x.merchant_id", "x.transaction_date", "0",
+            "CASE WHEN x.transaction_type = 'OUT' THEN -x.amount ELSE x.amount END"}
+    };
+    private static final String[][] BANK_MOVES = {
+        {"bank_transactions x", "x.merchant_id", "x.transaction_date", "x.bank_account_id",
+            "CASE WHEN x.transaction_type IN ('WITHDRAWAL', 'TRANSFER_OUT') THEN -x.amount ELSE x.amount END"}
+    };
+
+    private static final String[] TYPES = {
+        DailyClosingSnapshot.ITEM, DailyClosingSnapshot.PARTY, DailyClosingSnapshot.CASH, DailyClosingSnapshot.BANK
+    };
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public LocalDate findLastClosedDate() {
+        return toDate(entityManager.createNativeQuery("SELECT MAX(closing_date) FROM daily_closing_runs")
+            .getSingleResult());
+    }
+
+    @Override
+    public LocalDate findFirstMovementDate() {
+        StringBuilder sql = new StringBuilder("SELECT CAST(MIN(first_date) AS DATE) FROM (");
+        String separator = "";
+        for (String type : TYPES) {
+            for (String[] branch : branches(type)) {
+                sql.append(separator).append("SELECT MIN(").append(branch[2]).append(") AS first_date FROM ")
+                   .append(branch[0]);
+                separator = " UNION ALL ";
+            }
+        }
+        sql.append(") firsts");
+        return toDate(entityManager.createNativeQuery(sql.toString()).getSingleResult());
+    }
+
+    @Override
+    public LocalDate findFirstReopenedDate() {
+        return toDate(entityManager.createNativeQuery("SELECT MIN(closing_date) FROM daily_closing_reopens")
+            .getSingleResult());
+    }
+
+    @Override
+    public int closeDay(LocalDate day) {
+        // Cleared before the day's movements are read, so a reopen committed after this stays
+        entityManager.createNativeQuery("DELETE FROM daily_closing_reopens WHERE closing_date = :day")
+            .setParameter("day", day)
+            .executeUpdate();
+        entityManager.createNativeQuery("DELETE FROM daily_closing_snapshots WHERE closing_date = :day")
+            .setParameter("day", day)
+            .executeUpdate();
+
+        int written = 0;
+        for (String type : TYPES) {
+            // Balance at the start of the day for an entity with no earlier snapshot
+            String anchor = anchorExpression(type, "d.merchant_id", "d.entity_id");
+            String opening = anchor != null
+                ? anchor + " - (SELECT COALESCE(SUM(b.amount), 0) FROM ("
+                    + movements(type, ":dayStart", null, "d.merchant_id", "d.entity_id") + ") b)"
+                : "(SELECT COALESCE(SUM(b.amount), 0) FROM ("
+                    + movements(type, null, ":dayStart", "d.merchant_id", "d.entity_id") + ") b)";
+
+            String sql = "INSERT INTO daily_closing_snapshots (merchant_id, entity_type, entity_id, closing_date, balance) " +
+                         "SELECT d.merchant_id, :entityType, d.entity_id, :day, COALESCE(prev.balance, " + opening + ") + d.moved " +
+                         "FROM (SELECT m.merchant_id, m.entity_id, SUM(m.amount) AS moved FROM (" +
+                         movements(type, ":dayStart", ":dayEnd", null, null) + ") m " +
+                         "GROUP BY m.merchant_id, m.entity_id) d " +
+                         "LEFT JOIN LATERAL (SELECT s.balance FROM daily_closing_snapshots s " +
+                         "WHERE s.merchant_id = d.merchant_id AND s.entity_type = :entityType " +
+                         "AND s.entity_id = d.entity_id AND s.closing_date < :day " +
+                         "ORDER BY s.closing_date DESC LIMIT 1) prev ON true";
+            written += entityManager.createNativeQuery(sql)
+                .setParameter("entityType", type)
+                .setParameter("day", day)
+                .setParameter("dayStart", day.atStartOfDay())
+                .setParameter("dayEnd", day.plusDays(1).atStartOfDay())
+                .executeUpdate();
+        }
+
+        entityManager.createNativeQuery("INSERT INTO daily_closing_runs (closing_date, snapshot_count, closed_at) " +
+                                        "VALUES (:day, :count, CURRENT_TIMESTAMP) " +
+                                        "ON CONFLICT (closing_date) DO UPDATE SET snapshot_count = EXCLUDED.snapshot_count, " +
+                                        "closed_at = EXCLUDED.closed_at")
+            .setParameter("day", day)
+            .setParameter("count", written)
+            .executeUpdate();
+
+        // Later snapshots carry this day's balances forward, so the next closed day is stale now
+        entityManager.createNativeQuery("INSERT INTO daily_closing_reopens (closing_date) " +
+                                        "SELECT MIN(closing_date) FROM daily_closing_runs WHERE closing_date > :day " +
+                                        "HAVING MIN(closing_date) IS NOT NULL " +
+                                        "ON CONFLICT (closing_date) DO NOTHING")
+            .setParameter("day", day)
+            .executeUpdate();
+        return written;
+    }
+
+    @Override
+    public Map<Long, BigDecimal> sumMovements(Long merchantId, String entityType, Long entityId,
+                                              LocalDateTime from, LocalDateTime to) {
+        String sql = "SELECT m.entity_id, SUM(m.amount) FROM (" +
+                     movements(entityType, from != null ? ":fromDate" : null, to != null ? ":toDate" : null,
+                               ":merchantId", entityId != null ? ":entityId" : null) +
+                     ") m GROUP BY m.entity_id";
+        Query query = entityManager.createNativeQuery(sql).setParameter("merchantId", merchantId);
+        if (from != null) {
+            query.setParameter("fromDate", from);
+        }
+        if (to != null) {
+            query.setParameter("toDate", to);
+        }
+        if (entityId != null) {
+            query.setParameter("entityId", entityId);
+        }
+
+        Map<Long, BigDecimal> sums = new HashMap<>();
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.getResultList();
+        for (Object[] row : rows) {
+            sums.put(((Number) row[0]).longValue(), toDecimal(row[1]));
+        }
+        return sums;
+    }
+
+    @Override
+    public BigDecimal findAnchor(Long merchantId, String entityType, Long entityId) {
+        String anchor = anchorExpression(entityType, ":merchantId", ":entityId");
+        if (anchor == null) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        List<Object> rows = entityManager.createNativeQuery("SELECT " + anchor + " WHERE EXISTS (SELECT 1 FROM " +
+                (DailyClosingSnapshot.ITEM.equals(entityType) ? "items" : "parties") +
+                " e WHERE e.id = :entityId AND e.merchant_id = :merchantId)")
+            .setParameter("merchantId", merchantId)
+            .setParameter("entityId", entityId)
+            .getResultList();
+        return rows.isEmpty() ? null : toDecimal(rows.get(0));
+    }
+
+    /**
+     * Stored current balance of an item or party, or null for types summed from their movements.
+     */
+    private String anchorExpression(String entityType, String merchant, String entity) {
+        if (DailyClosingSnapshot.ITEM.equals(entityType)) {
+            return "COALESCE((SELECT i.current_stock FROM items i WHERE i.id = " + entity +
+                   " AND i.merchant_id = " + merchant + "), 0)";
+        }
+        if (DailyClosingSnapshot.PARTY.equals(entityType)) {
+            return "COALESCE((SELECT CASE WHEN pa.balance_type = 'TO_PAY' THEN -pa.current_balance " +
+                   "ELSE pa.current_balance END FROM parties pa WHERE pa.id = " + entity +
+                   " AND pa.merchant_id = " + merchant + "), 0)";
+        }
+        return null;
+    }
+
+    /**
+     * Movements of one type as (merchant_id, entity_id, amount) in [from, to); null arguments
+     * leave that filter out.
+     */
+    private String movements(String entityType, String from, String to, String merchant, String entity) {
+        StringBuilder sql = new StringBuilder();
+        for (String[] branch : branches(entityType)) {
+            if (sql.length() > 0) {
+                sql.append(" UNION ALL ");
+            }
+            sql.append("SELECT ").append(branch[1]).append(" AS merchant_id, ").append(branch[3])
+               .append(" AS entity_id, ").append(branch[4]).append(" AS amount FROM ").append(branch[0])
+               .append(" WHERE 1 = 1");
+            if (from != null) {
+                sql.append(" AND ").append(branch[2]).append(" >= ").append(from);
+            }
+            if (to != null) {
+                sql.append(" AND ").append(branch[2]).append(" < ").append(to);
+            }
+            if (merchant != null) {
+                sql.append(" AND ").append(branch[1]).append(" = ").append(merchant);
+            }
+            if (entity != null) {
+                sql.append(" AND ").append(branch[3]).append(" = ").append(entity);
+            }
+        }
+        return sql.toString();
+    }
+
+    private String[][] branches(String entityType) {
+        switch (entityType) {
+            case DailyClosingSnapshot.ITEM:
+                return ITEM_MOVES;
+            case DailyClosingSnapshot.PARTY:
+                return PARTY_MOVES;
+            case DailyClosingSnapshot.CASH:
+                return CASH_MOVES;
+            case DailyClosingSnapshot.BANK:
+                return BANK_MOVES;
+            default:
+                throw new RuntimeException("Unknown balance type: " + entityType);
+        }
+    }
+
+    private static BigDecimal toDecimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString());
+    }
+
+    private static LocalDate toDate(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof LocalDate) {
+            return (LocalDate) value;
+        }
+        if (value instanceof java.sql.Date) {
+            return ((java.sql.Date) value).toLocalDate();
+        }
+        return LocalDate.parse(value.toString().substring(0, 10));
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.gstapp.repository;
+
+import com.example.gstapp.model.DocumentSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface DocumentSequenceRepository extends JpaRepository<DocumentSequence, Long> {
+    
+    Optional<DocumentSequence> findByMerchantIdAndSeriesAndFinancialYear(Long merchantId, String series, String financialYear);
+    
+    /**
+     * Atomically reserve a block of numbers and return the exclusive upper bound of the block.
+     * The first call for a merchant/series/year creates the counter row.
+     */
+    @Query(value = "INSERT INTO document_sequences (merchant_id, series, financial_year, next_value) " +
+                   "VALUES (:merchantId, :series, :financialYear, 1 + :blockSize) " +
+                   "ON CONFLICT (merchant_id, series, financial_year) " +
+                   "DO UPDATE SET next_value = document_sequences.next_value + :blockSize, updated_at = CURRENT_TIMESTAMP " +
+                   "RETURNING next_value", nativeQuery = true)
+    Long reserveBlock(@Param("merchantId") Long merchantId, 
+                      @Param("series") String series, 
+                      @Param("financialYear") String financialYear, 
+                      @Param("blockSize") int blockSize);
+}
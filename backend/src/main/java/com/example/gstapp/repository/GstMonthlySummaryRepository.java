@@ -0,0 +1,37 @@
+package com.example.gstapp.repository;
+
+import com.example.gstapp.model.GstMonthlySummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface GstMonthlySummaryRepository extends JpaRepository<GstMonthlySummary, Long> {
+    
+    List<GstMonthlySummary> findByMerchantIdAndPeriodBetweenOrderByPeriodAscDirectionAscTaxRateAsc(
+        Long merchantId, LocalDate fromPeriod, LocalDate toPeriod);
+    
+    /**
+     * Adds a signed delta to one month/direction/rate slab, creating it on first use.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO gst_monthly_summary (merchant_id, period, direction, tax_rate, taxable_amount, " +
+                   "igst_amount, cgst_amount, sgst_amount, updated_at) " +
+                   "VALUES (:merchantId, :period, :direction, :taxRate, :taxableAmount, :igstAmount, :cgstAmount, :sgstAmount, now()) " +
+                   "ON CONFLICT (merchant_id, period, direction, tax_rate) DO UPDATE SET " +
+                   "taxable_amount = gst_monthly_summary.taxable_amount + EXCLUDED.taxable_amount, " +
+                   "igst_amount = gst_monthly_summary.igst_amount + EXCLUDED.igst_amount, " +
+                   "cgst_amount = gst_monthly_summary.cgst_amount + EXCLUDED.cgst_amount, " +
+                   "sgst_amount = gst_monthly_summary.sgst_amount + EXCLUDED.sgst_amount, " +
+                   "updated_at = now()", nativeQuery = true)
+    int applyDelta(@Param("merchantId") Long merchantId, @Param("period") LocalDate period,
+                   @Param("direction") String direction, @Param("taxRate") BigDecimal taxRate,
+                   @Param("taxableAmount") BigDecimal taxableAmount, @Param("igstAmount") BigDecimal igstAmount,
+                   @Param("cgstAmount") BigDecimal cgstAmount, @Param("sgstAmount") BigDecimal sgstAmount);
+}
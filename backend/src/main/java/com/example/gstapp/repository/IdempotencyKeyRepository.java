@@ -0,0 +1,53 @@
+package com.example.gstapp.repository;
+
+import com.example.gstapp.model.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, Long> {
+    
+    Optional<IdempotencyKey> findByMerchantIdAndIdempotencyKey(Long merchantId, String idempotencyKey);
+    
+    /**
+     * Claims a key for a new request. Returns 1 when the key was free, its previous use has
+     * expired, or its previous request was claimed before staleBefore and never finished (its
+     * node died mid-request); 0 when a live entry already exists. claimedAt identifies this
+     * claim to complete and release.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (merchant_id, idempotency_key, request_path, request_hash, status, created_at, expires_at) " +
+                   "VALUES (:merchantId, :key, :path, :hash, 'IN_PROGRESS', :claimedAt, :expiresAt) " +
+                   "ON CONFLICT (merchant_id, idempotency_key) DO UPDATE SET " +
+                   "request_path = EXCLUDED.request_path, request_hash = EXCLUDED.request_hash, status = 'IN_PROGRESS', " +
+                   "response_status = NULL, response_content_type = NULL, response_body = NULL, " +
+                   "created_at = EXCLUDED.created_at, expires_at = EXCLUDED.expires_at " +
+                   "WHERE idempotency_keys.expires_at < now() " +
+                   "OR (idempotency_keys.status = 'IN_PROGRESS' AND idempotency_keys.created_at < :staleBefore)", nativeQuery = true)
+    int claim(@Param("merchantId") Long merchantId, @Param("key") String key, @Param("path") String path,
+              @Param("hash") String hash, @Param("claimedAt") LocalDateTime claimedAt,
+              @Param("expiresAt") LocalDateTime expiresAt, @Param("staleBefore") LocalDateTime staleBefore);
+    
+    // Only the claim that is still current completes or releases the key
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.status = 'COMPLETED', k.responseStatus = :status, " +
+           "k.responseContentType = :contentType, k.responseBody = :body " +
+           "WHERE k.merchantId = :merchantId AND k.idempotencyKey = :key AND k.createdAt = :claimedAt")
+    int complete(@Param("merchantId") Long merchantId, @Param("key") String key, @Param("claimedAt") LocalDateTime claimedAt,
+                 @Param("status") Integer status, @Param("contentType") String contentType, @Param("body") String body);
+    
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.merchantId = :merchantId AND k.idempotencyKey = :key " +
+           "AND k.createdAt = :claimedAt")
+    int release(@Param("merchantId") Long merchantId, @Param("key") String key, @Param("claimedAt") LocalDateTime claimedAt);
+    
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
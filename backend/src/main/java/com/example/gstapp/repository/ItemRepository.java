@@ -1,5 +1,6 @@
 package com.example.gstapp.repository;
 
+import com.example.gstapp.dto.CatalogItem;
 import com.example.gstapp.model.Item;
 import com.example.gstapp.model.ItemType;
 import com.example.gstapp.model.User;
@@ -8,27 +9,105 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ItemRepository extends JpaRepository<Item, Long> {
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemRepositoryCustom {
     
     List<Item> findByMerchantIdAndItemType(Long merchantId, ItemType itemType);
     
     List<Item> findByMerchantId(Long merchantId);
     
+    List<Item> findByMerchantIdAndIdIn(Long merchantId, Collection<Long> ids);
+    
     Optional<Item> findByMerchantIdAndCode(Long merchantId, String code);
     
     List<Item> findByMerchantIdAndNameContainingIgnoreCase(Long merchantId, String name);
     
     List<Item> findByMerchantIdAndCategory(Long merchantId, String category);
     
-    @Query("SELECT i FROM Item i WHERE i.merchantId = :merchantId AND " +
-           "(LOWER(i.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(i.code) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(i.hsnCode) LIKE LOWER(CONCAT('%', :searchTerm, '%')))")
-    List<Item> searchItems(@Param("merchantId") Long merchantId, @Param("searchTerm") String searchTerm);
+    // Item search: exact code (barcode) hits, then ranked matches, all backed by V41 indexes
+    @Query("SELECT i FROM Item i WHERE i.merchantId = :merchantId AND LOWER(i.code) = :code ORDER BY i.id")
+    List<Item> findByMerchantIdAndLowerCode(@Param("merchantId") Long merchantId, @Param("code") String code);
+    
+    /**
+     * Top matches for a lowercased term of three or more characters: name prefixes first, then
+     * substrings of name, code or HSN, then names with a similar word (typos), ranked by word
+     * similarity within each group. contains and prefix are the LIKE patterns for the term.
+     */
+    @Query(value = "SELECT i.* FROM items i WHERE i.merchant_id = :merchantId AND (" +
+                   "LOWER(i.name) LIKE :contains OR LOWER(i.code) LIKE :contains OR LOWER(i.hsn_code) LIKE :contains " +
+                   "OR :term <% LOWER(i.name)) " +
+                   "ORDER BY CASE WHEN LOWER(i.name) LIKE :prefix THEN 0 " +
+                   "WHEN LOWER(i.name) LIKE :contains OR LOWER(i.code) LIKE :contains OR LOWER(i.hsn_code) LIKE :contains THEN 1 " +
+                   "ELSE 2 END, word_similarity(:term, LOWER(i.name)) DESC, LOWER(i.name), i.id " +
+                   "LIMIT :limit", nativeQuery = true)
+    List<Item> searchRanked(@Param("merchantId") Long merchantId, @Param("term") String term,
+                            @Param("contains") String contains, @Param("prefix") String prefix, @Param("limit") int limit);
+    
+    /**
+     * Top name or code prefix matches for one- and two-character terms, which are too short for
+     * trigrams; walks the (merchant, lower(name), id) index in order.
+     */
+    @Query(value = "SELECT i.* FROM items i WHERE i.merchant_id = :merchantId AND " +
+                   "(LOWER(i.name) LIKE :prefix OR LOWER(i.code) LIKE :prefix) " +
+                   "ORDER BY LOWER(i.name), i.id LIMIT :limit", nativeQuery = true)
+    List<Item> searchByPrefix(@Param("merchantId") Long merchantId, @Param("prefix") String prefix,
+                              @Param("limit") int limit);
+    
+    /**
+     * Row-locks the given items in ascending id order so that concurrent documents
+     * touching overlapping items always queue up in the same order. FOR NO KEY UPDATE is
+     * the lock the stock UPDATE takes anyway and, unlike FOR UPDATE, does not wait on the
+     * FOR KEY SHARE locks that foreign key checks from line and movement inserts hold.
+     */
+    @Query(value = "SELECT id FROM items WHERE merchant_id = :merchantId AND id = ANY(CAST(:itemIds AS bigint[])) " +
+                   "ORDER BY id FOR NO KEY UPDATE", nativeQuery = true)
+    List<Long> lockForStockUpdate(@Param("merchantId") Long merchantId, @Param("itemIds") Long[] itemIds);
+    
+    /**
+     * Applies stock deltas in a single statement; itemIds and deltas are parallel arrays.
+     * Returns [id, current_stock] pairs holding the stock after the update.
+     */
+    @Query(value = "UPDATE items i SET current_stock = COALESCE(i.current_stock, 0) + d.delta, updated_at = now() " +
+                   "FROM unnest(CAST(:itemIds AS bigint[]), CAST(:deltas AS integer[])) AS d(item_id, delta) " +
+                   "WHERE i.id = d.item_id AND i.merchant_id = :merchantId " +
+                   "RETURNING i.id, i.current_stock", nativeQuery = true)
+    List<Object[]> applyStockDeltas(@Param("merchantId") Long merchantId, @Param("itemIds") Long[] itemIds, 
+                                    @Param("deltas") Integer[] deltas);
+    
+    // POS catalog feed: items written after a catalog version, selected straight into the wire shape
+    @Query("SELECT new com.example.gstapp.dto.CatalogItem(i.id, i.name, i.code, i.hsnCode, i.itemType, i.unit, " +
+           "i.category, i.salePrice, i.salePriceType, i.saleDiscount, i.saleDiscountType, i.purchasePrice, " +
+           "i.purchasePriceType, i.taxRate, i.currentStock, i.catalogVersion) " +
+           "FROM Item i WHERE i.merchantId = :merchantId AND i.catalogVersion > :since ORDER BY i.id")
+    List<CatalogItem> findCatalogChanges(@Param("merchantId") Long merchantId, @Param("since") Long since);
+    
+    // Single-item loads for ItemCatalogCache misses, in the same shape as the catalog feed
+    @Query("SELECT new com.example.gstapp.dto.CatalogItem(i.id, i.name, i.code, i.hsnCode, i.itemType, i.unit, " +
+           "i.category, i.salePrice, i.salePriceType, i.saleDiscount, i.saleDiscountType, i.purchasePrice, " +
+           "i.purchasePriceType, i.taxRate, i.currentStock, i.catalogVersion) " +
+           "FROM Item i WHERE i.merchantId = :merchantId AND i.id = :id")
+    Optional<CatalogItem> findCatalogItem(@Param("merchantId") Long merchantId, @Param("id") Long id);
+    
+    @Query("SELECT new com.example.gstapp.dto.CatalogItem(i.id, i.name, i.code, i.hsnCode, i.itemType, i.unit, " +
+           "i.category, i.salePrice, i.salePriceType, i.saleDiscount, i.saleDiscountType, i.purchasePrice, " +
+           "i.purchasePriceType, i.taxRate, i.currentStock, i.catalogVersion) " +
+           "FROM Item i WHERE i.merchantId = :merchantId AND LOWER(i.code) = :code ORDER BY i.id")
+    List<CatalogItem> findCatalogItemsByLowerCode(@Param("merchantId") Long merchantId, @Param("code") String code);
+    
+    @Query(value = "SELECT item_id FROM item_tombstones WHERE merchant_id = :merchantId AND catalog_version > :since " +
+                   "ORDER BY item_id", nativeQuery = true)
+    List<Long> findCatalogDeletions(@Param("merchantId") Long merchantId, @Param("since") Long since);
+    
+    /**
+     * Highest catalog version every write visible to the current snapshot is at or below:
+     * one less than the oldest transaction still running when the snapshot was taken.
+     */
+    @Query(value = "SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint - 1", nativeQuery = true)
+    Long currentCatalogVersion();
     
     default Optional<Item> findByIdAndUser(Long id, User user) {
         Optional<Item> item = findById(id);
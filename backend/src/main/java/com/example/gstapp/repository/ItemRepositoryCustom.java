@@ -0,0 +1,28 @@
+package com.example.gstapp.repository;
+
+import com.example.gstapp.model.Item;
+import com.example.gstapp.model.ItemType;
+
+import java.util.List;
+
+public interface ItemRepositoryCustom {
+
+    String SORT_NAME = "name";
+    String SORT_QUANTITY = "quantity";
+    String SORT_STOCK_VALUE = "stockValue";
+
+    /**
+     * One keyset page of a merchant's items ordered by name, current quantity or stock value
+     * (quantity x purchase price, falling back to sale price), ties broken by id.
+     *
+     * @param afterKey sort key of the last row on the previous page, null for the first page
+     * @param afterId  id of the last row on the previous page
+     */
+    List<Item> findItemPage(Long merchantId, ItemType itemType, String searchTerm, String sortBy, boolean descending,
+                            Object afterKey, Long afterId, int limit);
+
+    /**
+     * The value an item is ordered by in {@link #findItemPage}, for building the next cursor.
+     */
+    Object sortKeyOf(Item item, String sortBy);
+}
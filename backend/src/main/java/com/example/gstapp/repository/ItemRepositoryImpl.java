@@ -0,0 +1,86 @@
+package com.example.gstapp.repository;
+
+import com.example.gstapp.model.Item;
+import com.example.gstapp.model.ItemType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Item listing queries whose ORDER BY depends on the request. Each sort key matches an index
+ * from V40 (merchant, key, id), so every page is an index range scan whatever the catalog size.
+ */
+public class ItemRepositoryImpl implements ItemRepositoryCustom {
+
+    private static final String NAME_KEY = "LOWER(i.name)";
+    private static final String QUANTITY_KEY = "COALESCE(i.currentStock, 0)";
+    private static final String STOCK_VALUE_KEY = "COALESCE(i.currentStock, 0) * COALESCE(i.purchasePrice, i.salePrice, 0)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Item> findItemPage(Long merchantId, ItemType itemType, String searchTerm, String sortBy, boolean descending,
+                                   Object afterKey, Long afterId, int limit) {
+        String key = keyExpression(sortBy);
+        String direction = descending ? "DESC" : "ASC";
+
+        StringBuilder jpql = new StringBuilder("SELECT i FROM Item i WHERE i.merchantId = :merchantId");
+        if (itemType != null) {
+            jpql.append(" AND i.itemType = :itemType");
+        }
+        if (searchTerm != null) {
+            jpql.append(" AND (LOWER(i.name) LIKE :term OR LOWER(i.code) LIKE :term OR LOWER(i.hsnCode) LIKE :term)");
+        }
+        if (afterKey != null) {
+            jpql.append(" AND (").append(key).append(", i.id) ").append(descending ? "<" : ">").append(" (:afterKey, :afterId)");
+        }
+        jpql.append(" ORDER BY ").append(key).append(' ').append(direction).append(", i.id ").append(direction);
+
+        TypedQuery<Item> query = entityManager.createQuery(jpql.toString(), Item.class)
+            .setParameter("merchantId", merchantId)
+            .setMaxResults(limit);
+        if (itemType != null) {
+            query.setParameter("itemType", itemType);
+        }
+        if (searchTerm != null) {
+            query.setParameter("term", "%" + searchTerm.toLowerCase() + "%");
+        }
+        if (afterKey != null) {
+            query.setParameter("afterKey", afterKey);
+            query.setParameter("afterId", afterId);
+        }
+        return query.getResultList();
+    }
+
+    @Override
+    public Object sortKeyOf(Item item, String sortBy) {
+        int quantity = item.getCurrentStock() != null ? item.getCurrentStock() : 0;
+        switch (keyExpression(sortBy)) {
+            case NAME_KEY:
+                return item.getName().toLowerCase();
+            case QUANTITY_KEY:
+                return quantity;
+            default:
+                BigDecimal price = item.getPurchasePrice() != null ? item.getPurchasePrice()
+                    : item.getSalePrice() != null ? item.getSalePrice() : BigDecimal.ZERO;
+                return price.multiply(BigDecimal.valueOf(quantity));
+        }
+    }
+
+    private String keyExpression(String sortBy) {
+        if (sortBy == null || SORT_NAME.equals(sortBy)) {
+            return NAME_KEY;
+        }
+        if (SORT_QUANTITY.equals(sortBy)) {
+            return QUANTITY_KEY;
+        }
+        if (SORT_STOCK_VALUE.equals(sortBy)) {
+            return STOCK_VALUE_KEY;
+        }
+        throw new RuntimeException("Items can be sorted by name, quantity or stockValue");
+    }
+}
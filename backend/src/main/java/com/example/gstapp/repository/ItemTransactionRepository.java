@@ -2,13 +2,18 @@ package com.example.gstapp.repository;
 
 import com.example.gstapp.model.ItemTransaction;
 import com.example.gstapp.model.ItemTransactionType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ItemTransactionRepository extends JpaRepository<ItemTransaction, Long> {
@@ -37,4 +42,38 @@ public interface ItemTransactionRepository extends JpaRepository<ItemTransaction
         @Param("merchantId") Long merchantId, 
         @Param("startDate") LocalDateTime startDate, 
         @Param("endDate") LocalDateTime endDate);
+    
+    // Export streaming, oldest first so a running stock can be carried along
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT t.transactionDate, t.transactionType, t.invoiceRef, t.partyName, t.quantity, t.pricePerUnit, " +
+           "t.totalAmount, t.status FROM ItemTransaction t " +
+           "WHERE t.itemId = :itemId AND t.merchantId = :merchantId AND t.id <= :upToId " +
+           "ORDER BY t.transactionDate, t.id")
+    Stream<Object[]> streamForExport(@Param("itemId") Long itemId, @Param("merchantId") Long merchantId,
+                                     @Param("upToId") Long upToId);
+    
+    @Query("SELECT COALESCE(MAX(t.id), 0) FROM ItemTransaction t WHERE t.itemId = :itemId AND t.merchantId = :merchantId")
+    Long findMaxId(@Param("itemId") Long itemId, @Param("merchantId") Long merchantId);
+    
+    @Query("SELECT COUNT(t) FROM ItemTransaction t WHERE t.itemId = :itemId AND t.merchantId = :merchantId AND t.id <= :upToId")
+    Long countUpTo(@Param("itemId") Long itemId, @Param("merchantId") Long merchantId, @Param("upToId") Long upToId);
+    
+    // Item ledger pages, newest movement first; quantities are signed
+    @Query("SELECT t FROM ItemTransaction t WHERE t.itemId = :itemId AND t.merchantId = :merchantId " +
+           "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<ItemTransaction> findLedgerFirstPage(@Param("itemId") Long itemId, @Param("merchantId") Long merchantId,
+                                              Pageable pageable);
+    
+    @Query("SELECT t FROM ItemTransaction t WHERE t.itemId = :itemId AND t.merchantId = :merchantId " +
+           "AND (t.transactionDate, t.id) < (:cursorDate, :cursorId) " +
+           "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<ItemTransaction> findLedgerPageAfter(@Param("itemId") Long itemId, @Param("merchantId") Long merchantId,
+                                              @Param("cursorDate") LocalDateTime cursorDate, @Param("cursorId") Long cursorId,
+                                              Pageable pageable);
+    
+    // Stock moved by everything newer than a ledger position
+    @Query("SELECT COALESCE(SUM(t.quantity), 0) FROM ItemTransaction t WHERE t.itemId = :itemId " +
+           "AND t.merchantId = :merchantId AND (t.transactionDate, t.id) > (:date, :id)")
+    java.math.BigDecimal sumQuantityAfter(@Param("itemId") Long itemId, @Param("merchantId") Long merchantId,
+                                          @Param("date") LocalDateTime date, @Param("id") Long id);
 }
@@ -0,0 +1,57 @@
+package com.example.gstapp.repository;
+
+import com.example.gstapp.model.LedgerOutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface LedgerOutboxRepository extends JpaRepository<LedgerOutboxEvent, Long> {
+    
+    // Events behind a parked event of the same merchant are held back until it is requeued
+    String NOT_HELD = "NOT EXISTS (SELECT 1 FROM LedgerOutboxEvent p WHERE p.merchantId = e.merchantId " +
+                      "AND p.processedAt IS NULL AND p.parkedAt IS NOT NULL AND p.id < e.id)";
+    
+    @Query("SELECT DISTINCT e.merchantId FROM LedgerOutboxEvent e WHERE e.processedAt IS NULL AND e.parkedAt IS NULL " +
+           "AND " + NOT_HELD)
+    List<Long> findMerchantIdsWithPendingEvents();
+    
+    @Query("SELECT e FROM LedgerOutboxEvent e WHERE e.merchantId = :merchantId AND e.processedAt IS NULL " +
+           "AND e.parkedAt IS NULL AND " + NOT_HELD + " ORDER BY e.id")
+    List<LedgerOutboxEvent> findPending(@Param("merchantId") Long merchantId, Pageable pageable);
+    
+    /**
+     * Transaction-scoped advisory lock so only one poster, on any node, drains a merchant at a time.
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(7301, CAST(MOD(:merchantId, 2147483647) AS integer))", nativeQuery = true)
+    boolean tryLockMerchant(@Param("merchantId") Long merchantId);
+    
+    long countByMerchantIdAndProcessedAtIsNullAndParkedAtIsNull(Long merchantId);
+    
+    long countByMerchantIdAndProcessedAtIsNullAndParkedAtIsNotNull(Long merchantId);
+    
+    Optional<LedgerOutboxEvent> findFirstByMerchantIdAndProcessedAtIsNullAndParkedAtIsNullOrderByIdAsc(Long merchantId);
+    
+    List<LedgerOutboxEvent> findByMerchantIdAndProcessedAtIsNullAndParkedAtIsNotNullOrderByIdAsc(Long merchantId,
+                                                                                                  Pageable pageable);
+    
+    Optional<LedgerOutboxEvent> findFirstByMerchantIdAndProcessedAtIsNotNullOrderByIdDesc(Long merchantId);
+    
+    // Counts the failure and parks the event once it has failed maxAttempts times
+    @Modifying
+    @Query("UPDATE LedgerOutboxEvent e SET e.attempts = e.attempts + 1, e.lastError = :error, " +
+           "e.parkedAt = CASE WHEN e.attempts + 1 >= :maxAttempts THEN CURRENT_TIMESTAMP ELSE NULL END " +
+           "WHERE e.id = :id")
+    int recordFailure(@Param("id") Long id, @Param("error") String error, @Param("maxAttempts") int maxAttempts);
+    
+    @Modifying
+    @Query("UPDATE LedgerOutboxEvent e SET e.parkedAt = NULL, e.attempts = 0 " +
+           "WHERE e.merchantId = :merchantId AND e.processedAt IS NULL AND e.parkedAt IS NOT NULL")
+    int requeueParked(@Param("merchantId") Long merchantId);
+}
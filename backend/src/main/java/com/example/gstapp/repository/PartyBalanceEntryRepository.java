@@ -0,0 +1,47 @@
+package com.example.gstapp.repository;
+
+import com.example.gstapp.model.PartyBalanceEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface PartyBalanceEntryRepository extends JpaRepository<PartyBalanceEntry, Long> {
+    
+    /**
+     * A party's balance derived from its ledger: the checkpoint plus the entries after it.
+     * Columns: balance, last entry id, tail length.
+     */
+    @Query(value = "SELECT COALESCE(c.balance, 0) + COALESCE(SUM(e.amount), 0), " +
+                   "COALESCE(MAX(e.id), c.last_entry_id, 0), COUNT(e.id) " +
+                   "FROM (SELECT CAST(:partyId AS bigint) AS party_id) p " +
+                   "LEFT JOIN party_balance_checkpoints c ON c.party_id = p.party_id " +
+                   "LEFT JOIN party_balance_entries e ON e.party_id = p.party_id AND e.id > COALESCE(c.last_entry_id, 0) " +
+                   "GROUP BY c.balance, c.last_entry_id", nativeQuery = true)
+    List<Object[]> foldTail(@Param("partyId") Long partyId);
+    
+    // The whole ledger summed from its first entry, ignoring the checkpoint. Columns: balance, last entry id
+    @Query(value = "SELECT COALESCE(SUM(e.amount), 0), COALESCE(MAX(e.id), 0) FROM party_balance_entries e " +
+                   "WHERE e.party_id = :partyId", nativeQuery = true)
+    List<Object[]> foldAll(@Param("partyId") Long partyId);
+    
+    // Parties whose ledger has grown by at least minEntries since their last checkpoint
+    @Query(value = "SELECT e.party_id FROM party_balance_entries e " +
+                   "LEFT JOIN party_balance_checkpoints c ON c.party_id = e.party_id " +
+                   "WHERE e.id > COALESCE(c.last_entry_id, 0) " +
+                   "GROUP BY e.party_id HAVING COUNT(*) >= :minEntries LIMIT :limit", nativeQuery = true)
+    List<Long> findPartiesDueForCheckpoint(@Param("minEntries") int minEntries, @Param("limit") int limit);
+    
+    @Modifying
+    @Query(value = "INSERT INTO party_balance_checkpoints (party_id, merchant_id, last_entry_id, balance, checkpointed_at) " +
+                   "VALUES (:partyId, :merchantId, :lastEntryId, :balance, now()) " +
+                   "ON CONFLICT (party_id) DO UPDATE SET last_entry_id = EXCLUDED.last_entry_id, " +
+                   "balance = EXCLUDED.balance, checkpointed_at = now()", nativeQuery = true)
+    int saveCheckpoint(@Param("partyId") Long partyId, @Param("merchantId") Long merchantId,
+                       @Param("lastEntryId") Long lastEntryId, @Param("balance") BigDecimal balance);
+}
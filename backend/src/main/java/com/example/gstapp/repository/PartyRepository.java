@@ -3,16 +3,22 @@ package com.example.gstapp.repository;
 import com.example.gstapp.model.Party;
 import com.example.gstapp.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PartyRepository extends JpaRepository<Party, Long> {
     
+    // What the party owes us, negative when we owe them
+    String SIGNED_BALANCE = "CASE WHEN balance_type = 'TO_PAY' THEN -COALESCE(current_balance, 0) " +
+                            "ELSE COALESCE(current_balance, 0) END";
+    
     List<Party> findByMerchantIdAndIsActiveTrueOrderByNameAsc(Long merchantId);
     
     List<Party> findByMerchantIdAndIsActiveTrueAndNameContainingIgnoreCaseOrderByNameAsc(Long merchantId, String name);
@@ -32,6 +38,28 @@ public interface PartyRepository extends JpaRepository<Party, Long> {
     
     boolean existsByMerchantIdAndEmailAndIsActiveTrue(Long merchantId, String email);
     
+    /**
+     * Move a party's balance by a signed change (positive: they owe us more) in one statement,
+     * so concurrent postings queue on the row lock instead of overwriting each other. The
+     * stored amount stays unsigned with balance_type giving the direction, null at zero.
+     */
+    @Modifying
+    @Query(value = "UPDATE parties SET " +
+                   "current_balance = ABS(" + SIGNED_BALANCE + " + :change), " +
+                   "balance_type = CASE WHEN " + SIGNED_BALANCE + " + :change > 0 THEN 'TO_RECEIVE' " +
+                   "WHEN " + SIGNED_BALANCE + " + :change < 0 THEN 'TO_PAY' END, " +
+                   "updated_at = now() " +
+                   "WHERE id = :partyId AND merchant_id = :merchantId", nativeQuery = true)
+    int applyBalanceChange(@Param("partyId") Long partyId, @Param("merchantId") Long merchantId,
+                           @Param("change") BigDecimal change);
+    
+    @Query(value = "SELECT " + SIGNED_BALANCE + " FROM parties WHERE id = :partyId", nativeQuery = true)
+    BigDecimal findSignedBalance(@Param("partyId") Long partyId);
+    
+    // Holds back postings to the party until the caller's transaction ends
+    @Query(value = "SELECT merchant_id FROM parties WHERE id = :partyId FOR UPDATE", nativeQuery = true)
+    Long lockBalance(@Param("partyId") Long partyId);
+    
     default Optional<Party> findByIdAndUser(Long id, User user) {
         return findByIdAndMerchantIdAndIsActiveTrue(id, user.getId());
     }
@@ -1,18 +1,31 @@
 package com.example.gstapp.repository;
 
 import com.example.gstapp.model.PartyTransaction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface PartyTransactionRepository extends JpaRepository<PartyTransaction, Long> {
     
+    /*
+     * What a party transaction (alias pt, with its purchase p) adds to what the party owes us:
+     * the unpaid part of a sale, less the unpaid part of a purchase; a reversed sale (PAYMENT_OUT)
+     * takes its amount back and a reversed purchase adds it.
+     */
+    String LEDGER_CHANGE = "CASE pt.transaction_type WHEN 'SALE' THEN COALESCE(pt.sale_balance, pt.amount) " +
+                           "WHEN 'PURCHASE' THEN COALESCE(p.paid_amount, 0) - pt.amount " +
+                           "WHEN 'PAYMENT_OUT' THEN -pt.amount ELSE pt.amount END";
+    
     List<PartyTransaction> findByMerchantIdAndPartyIdOrderByTransactionDateDesc(Long merchantId, Long partyId);
     
     List<PartyTransaction> findByMerchantIdAndPartyIdAndTransactionTypeOrderByTransactionDateDesc(
@@ -40,4 +53,85 @@ public interface PartyTransactionRepository extends JpaRepository<PartyTransacti
     BigDecimal getTotalDebitAmount(@Param("merchantId") Long merchantId, @Param("partyId") Long partyId);
     
     PartyTransaction findTopByMerchantIdAndPartyIdOrderByTransactionDateDesc(Long merchantId, Long partyId);
+    
+    /*
+     * Every row of a party's ledger (party transactions, payments in and payments out) with its
+     * signed change, for :partyId and :merchantId. Columns: entry_date, source, id, type, number,
+     * description, amount, change, created, updated.
+     */
+    String LEDGER_ROWS = "SELECT pt.transaction_date AS entry_date, 0 AS source, pt.id, pt.transaction_type AS type, " +
+                         "pt.transaction_number AS number, pt.description, pt.amount, " + LEDGER_CHANGE + " AS change, " +
+                         "COALESCE(pt.created_at, pt.transaction_date) AS created, pt.updated_at AS updated " +
+                         "FROM party_transactions pt LEFT JOIN purchases p ON p.id = pt.purchase_id " +
+                         "WHERE pt.party_id = :partyId AND pt.merchant_id = :merchantId " +
+                         "UNION ALL " +
+                         "SELECT pi.payment_date, 1, pi.id, 'PAYMENT_IN', pi.receipt_number, " +
+                         "'Payment In - ' || COALESCE(pi.description, pi.payment_type), pi.amount, -pi.amount, " +
+                         "COALESCE(pi.created_at, pi.payment_date), pi.updated_at " +
+                         "FROM payment_in pi WHERE pi.party_id = :partyId AND pi.merchant_id = :merchantId " +
+                         "UNION ALL " +
+                         "SELECT po.payment_date, 2, po.id, 'PAYMENT_OUT', po.receipt_number, " +
+                         "'Payment Out - ' || COALESCE(po.description, po.payment_type), po.amount, po.amount, " +
+                         "COALESCE(po.created_at, po.payment_date), po.updated_at " +
+                         "FROM payment_out po WHERE po.party_id = :partyId AND po.merchant_id = :merchantId";
+    
+    // Sum of every ledger change and when the newest row was created
+    @Query(value = "SELECT COALESCE(SUM(l.change), 0), MAX(l.created) FROM (" + LEDGER_ROWS + ") l", nativeQuery = true)
+    List<Object[]> getLedgerTotals(@Param("partyId") Long partyId, @Param("merchantId") Long merchantId);
+    
+    @Query(value = "SELECT COUNT(*), MAX(l.updated) FROM (" + LEDGER_ROWS + ") l WHERE l.created < :createdBefore",
+           nativeQuery = true)
+    List<Object[]> getLedgerExportFingerprint(@Param("partyId") Long partyId, @Param("merchantId") Long merchantId,
+                                              @Param("createdBefore") LocalDateTime createdBefore);
+    
+    // Export streaming, oldest first: date, type, number, description, amount, signed change
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(value = "SELECT l.entry_date, l.type, l.number, l.description, l.amount, l.change " +
+                   "FROM (" + LEDGER_ROWS + ") l WHERE l.created < :createdBefore " +
+                   "ORDER BY l.entry_date, l.source, l.id", nativeQuery = true)
+    Stream<Object[]> streamLedgerForExport(@Param("partyId") Long partyId, @Param("merchantId") Long merchantId,
+                                           @Param("createdBefore") LocalDateTime createdBefore);
+    
+    /**
+     * One page of a party's unified ledger: party transactions (sales, purchases and their
+     * reversals), payments in and payments out merged in the database, newest first by
+     * (date, source, id), strictly after the cursor position. Each row carries its signed
+     * change to what the party owes us and the balance after it: the current balance, less
+     * everything newer than the page (the boundary sum), less the newer rows on the page (the
+     * window). The date bound lets each branch start its index scan at the cursor.
+     *
+     * Columns: entry_date, source, id, type, transaction_number, reference_number, description,
+     * amount, change, sale_balance, purchase_balance, created_at, balance.
+     */
+    @Query(value = "WITH ledger AS NOT MATERIALIZED (" +
+                   "SELECT pt.transaction_date AS entry_date, 0 AS source, pt.id, pt.transaction_type AS type, " +
+                   "pt.transaction_number, pt.reference_number, pt.description, pt.amount, " +
+                   LEDGER_CHANGE + " AS change, " +
+                   "pt.sale_balance, p.balance_amount AS purchase_balance, pt.created_at " +
+                   "FROM party_transactions pt LEFT JOIN purchases p ON p.id = pt.purchase_id " +
+                   "WHERE pt.party_id = :partyId AND pt.merchant_id = :merchantId " +
+                   "UNION ALL " +
+                   "SELECT pi.payment_date, 1, pi.id, 'PAYMENT_IN', pi.receipt_number, pi.receipt_number, " +
+                   "'Payment In - ' || COALESCE(pi.description, pi.payment_type), pi.amount, -pi.amount, " +
+                   "NULL, NULL, pi.created_at " +
+                   "FROM payment_in pi WHERE pi.party_id = :partyId AND pi.merchant_id = :merchantId " +
+                   "UNION ALL " +
+                   "SELECT po.payment_date, 2, po.id, 'PAYMENT_OUT', po.receipt_number, po.receipt_number, " +
+                   "'Payment Out - ' || COALESCE(po.description, po.payment_type), po.amount, po.amount, " +
+                   "NULL, NULL, po.created_at " +
+                   "FROM payment_out po WHERE po.party_id = :partyId AND po.merchant_id = :merchantId), " +
+                   "page AS (" +
+                   "SELECT * FROM ledger WHERE entry_date <= :cursorDate " +
+                   "AND (entry_date, source, id) < (:cursorDate, :cursorSource, :cursorId) " +
+                   "ORDER BY entry_date DESC, source DESC, id DESC LIMIT :limit) " +
+                   "SELECT page.*, :currentBalance " +
+                   "- (SELECT COALESCE(SUM(newer.change), 0) FROM ledger newer WHERE newer.entry_date >= :cursorDate " +
+                   "AND (newer.entry_date, newer.source, newer.id) >= (:cursorDate, :cursorSource, :cursorId)) " +
+                   "- COALESCE(SUM(page.change) OVER (ORDER BY page.entry_date DESC, page.source DESC, page.id DESC " +
+                   "ROWS BETWEEN UNBOUNDED PRECEDING AND 1 PRECEDING), 0) AS balance " +
+                   "FROM page ORDER BY page.entry_date DESC, page.source DESC, page.id DESC", nativeQuery = true)
+    List<Object[]> findLedgerPage(@Param("partyId") Long partyId, @Param("merchantId") Long merchantId,
+                                  @Param("currentBalance") BigDecimal currentBalance,
+                                  @Param("cursorDate") LocalDateTime cursorDate, @Param("cursorSource") int cursorSource,
+                                  @Param("cursorId") Long cursorId, @Param("limit") int limit);
 }
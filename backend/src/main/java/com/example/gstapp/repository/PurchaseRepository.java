@@ -1,14 +1,19 @@
 package com.example.gstapp.repository;
 
 import com.example.gstapp.model.Purchase;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PurchaseRepository extends JpaRepository<Purchase, Long> {
@@ -33,9 +38,55 @@ public interface PurchaseRepository extends JpaRepository<Purchase, Long> {
                                                          @Param("startDate") LocalDateTime startDate, 
                                                          @Param("endDate") LocalDateTime endDate);
     
+    // Purchase register, newest bill first, keyset-paginated on (billDate, id) like the sales register
+    @Query("SELECT p FROM Purchase p LEFT JOIN FETCH p.party " +
+           "WHERE p.merchantId = :merchantId " +
+           "AND (:partyId IS NULL OR p.partyId = :partyId) " +
+           "AND (:paymentType IS NULL OR p.paymentType = :paymentType) " +
+           "AND (:status IS NULL OR p.status = :status) " +
+           "ORDER BY p.billDate DESC, p.id DESC")
+    List<Purchase> findRegisterFirstPage(@Param("merchantId") Long merchantId, @Param("partyId") Long partyId,
+                                         @Param("paymentType") String paymentType, @Param("status") String status,
+                                         Pageable pageable);
+    
+    @Query("SELECT p FROM Purchase p LEFT JOIN FETCH p.party " +
+           "WHERE p.merchantId = :merchantId " +
+           "AND (:partyId IS NULL OR p.partyId = :partyId) " +
+           "AND (:paymentType IS NULL OR p.paymentType = :paymentType) " +
+           "AND (:status IS NULL OR p.status = :status) " +
+           "AND (p.billDate, p.id) < (:cursorDate, :cursorId) " +
+           "ORDER BY p.billDate DESC, p.id DESC")
+    List<Purchase> findRegisterPageAfter(@Param("merchantId") Long merchantId, @Param("partyId") Long partyId,
+                                         @Param("paymentType") String paymentType, @Param("status") String status,
+                                         @Param("cursorDate") LocalDateTime cursorDate, @Param("cursorId") Long cursorId,
+                                         Pageable pageable);
+    
+    // Everything a bill print needs in one round trip
+    @Query("SELECT DISTINCT p FROM Purchase p LEFT JOIN FETCH p.items pi LEFT JOIN FETCH pi.item " +
+           "LEFT JOIN FETCH p.party WHERE p.id = :id AND p.merchantId = :merchantId")
+    Optional<Purchase> findForPrint(@Param("id") Long id, @Param("merchantId") Long merchantId);
+    
+    @Query("SELECT p.id FROM Purchase p WHERE p.merchantId = :merchantId AND p.billDate >= :startDate " +
+           "AND p.billDate < :endDate ORDER BY p.billDate, p.id")
+    List<Long> findIdsForPrint(@Param("merchantId") Long merchantId, @Param("startDate") LocalDateTime startDate,
+                               @Param("endDate") LocalDateTime endDate);
+    
     @Query("SELECT COUNT(p) FROM Purchase p WHERE p.merchantId = :merchantId")
     Long countByMerchantId(@Param("merchantId") Long merchantId);
     
     @Query("SELECT MAX(p.id) FROM Purchase p WHERE p.merchantId = :merchantId")
     Optional<Long> findMaxIdByMerchantId(@Param("merchantId") Long merchantId);
+    
+    // Export streaming: rows are scalar tuples so nothing is kept in the persistence context
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT p.billNumber, p.billDate, pa.name, p.phoneNo, p.paymentType, p.subtotal, p.totalDiscount, " +
+           "p.totalTax, p.roundOff, p.totalAmount, p.paidAmount, p.balanceAmount, p.status " +
+           "FROM Purchase p LEFT JOIN p.party pa WHERE p.merchantId = :merchantId AND p.id <= :upToId " +
+           "AND p.billDate BETWEEN :startDate AND :endDate ORDER BY p.billDate, p.id")
+    Stream<Object[]> streamForExport(@Param("merchantId") Long merchantId, @Param("upToId") Long upToId,
+                                     @Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    
+    // Count and last change of the rows up to a bound, used as the export version for resumable downloads
+    @Query("SELECT COUNT(p), MAX(p.updatedAt) FROM Purchase p WHERE p.merchantId = :merchantId AND p.id <= :upToId")
+    List<Object[]> getExportFingerprint(@Param("merchantId") Long merchantId, @Param("upToId") Long upToId);
 }
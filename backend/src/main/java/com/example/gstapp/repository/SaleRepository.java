@@ -2,14 +2,20 @@ package com.example.gstapp.repository;
 
 import com.example.gstapp.model.Sale;
 import com.example.gstapp.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface SaleRepository extends JpaRepository<Sale, Long> {
@@ -25,24 +31,85 @@ public interface SaleRepository extends JpaRepository<Sale, Long> {
     
     boolean existsByInvoiceNumberAndUser(String invoiceNumber, User user);
     
+    boolean existsByClientIdAndUser(String clientId, User user);
+    
+    // [clientId, id, invoiceNumber] of the given client ids that are already synced
+    @Query("SELECT s.clientId, s.id, s.invoiceNumber FROM Sale s WHERE s.user.id = :userId AND s.clientId IN :clientIds")
+    List<Object[]> findSyncedByClientIds(@Param("userId") Long userId, @Param("clientIds") Collection<String> clientIds);
+    
     @Query("SELECT s FROM Sale s LEFT JOIN FETCH s.saleItems WHERE s.id = :id AND s.user = :user")
     Optional<Sale> findByIdAndUserWithItems(@Param("id") Long id, @Param("user") User user);
     
+    // Everything an invoice print needs in one round trip
+    @Query("SELECT DISTINCT s FROM Sale s LEFT JOIN FETCH s.saleItems si LEFT JOIN FETCH si.item " +
+           "LEFT JOIN FETCH s.party LEFT JOIN FETCH s.bankAccount WHERE s.id = :id AND s.user.id = :userId")
+    Optional<Sale> findForPrint(@Param("id") Long id, @Param("userId") Long userId);
+    
+    @Query("SELECT s.id FROM Sale s WHERE s.user.id = :userId AND s.invoiceDate BETWEEN :startDate AND :endDate " +
+           "ORDER BY s.invoiceDate, s.id")
+    List<Long> findIdsForPrint(@Param("userId") Long userId, @Param("startDate") LocalDate startDate,
+                               @Param("endDate") LocalDate endDate);
+    
     @Query("SELECT COUNT(s) FROM Sale s WHERE s.user = :user")
     Long countByUser(@Param("user") User user);
     
     @Query("SELECT COUNT(s) FROM Sale s WHERE s.user.id = :userId")
     Long countByUserId(@Param("userId") Long userId);
     
-    @Query("SELECT COALESCE(SUM(s.totalAmount), 0) FROM Sale s WHERE s.user = :user")
-    Double getTotalSalesAmountByUser(@Param("user") User user);
-    
-    @Query("SELECT COALESCE(SUM(s.balanceAmount), 0) FROM Sale s WHERE s.user = :user AND s.saleType = 'Credit'")
-    Double getTotalPendingAmountByUser(@Param("user") User user);
-    
     @Query("SELECT MAX(s.invoiceNumber) FROM Sale s WHERE s.user = :user")
     String findMaxInvoiceNumberByUser(@Param("user") User user);
     
     @Query("SELECT MAX(s.invoiceNumber) FROM Sale s WHERE s.user.id = :userId")
     String findMaxInvoiceNumberByUserId(@Param("userId") Long userId);
+    
+    // GSTR-1 sources. Lines are summed per invoice and rate (or per bucket) in the database, so
+    // only report-shaped rows cross the wire. Registered means the party has a GSTIN.
+    
+    // B2B: [ctin, saleId, invoiceNumber, invoiceDate, invoiceValue, stateOfSupply, rate, taxable, igst, cgst, sgst]
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(value = "SELECT UPPER(TRIM(p.gst_number)), s.id, s.invoice_number, s.invoice_date, s.total_amount, s.state_of_supply, " +
+                   "COALESCE(si.tax_percentage, 0), SUM(si.taxable_amount), SUM(si.igst_amount), SUM(si.cgst_amount), SUM(si.sgst_amount) " +
+                   "FROM sales s JOIN parties p ON p.id = s.party_id JOIN sale_items si ON si.sale_id = s.id " +
+                   "WHERE s.user_id = :userId AND s.invoice_date BETWEEN :startDate AND :endDate " +
+                   "AND COALESCE(TRIM(p.gst_number), '') <> '' " +
+                   "GROUP BY UPPER(TRIM(p.gst_number)), s.id, s.invoice_number, s.invoice_date, s.total_amount, s.state_of_supply, " +
+                   "COALESCE(si.tax_percentage, 0) " +
+                   "ORDER BY UPPER(TRIM(p.gst_number)), s.invoice_date, s.id, COALESCE(si.tax_percentage, 0)", nativeQuery = true)
+    Stream<Object[]> streamGstr1B2b(@Param("userId") Long userId, @Param("startDate") LocalDate startDate,
+                                    @Param("endDate") LocalDate endDate);
+    
+    // B2CL, inter-state unregistered invoices above the limit:
+    // [saleId, invoiceNumber, invoiceDate, invoiceValue, stateOfSupply, rate, taxable, igst]
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(value = "SELECT s.id, s.invoice_number, s.invoice_date, s.total_amount, s.state_of_supply, " +
+                   "COALESCE(si.tax_percentage, 0), SUM(si.taxable_amount), SUM(si.igst_amount) " +
+                   "FROM sales s LEFT JOIN parties p ON p.id = s.party_id JOIN sale_items si ON si.sale_id = s.id " +
+                   "WHERE s.user_id = :userId AND s.invoice_date BETWEEN :startDate AND :endDate " +
+                   "AND COALESCE(TRIM(p.gst_number), '') = '' AND s.igst_amount <> 0 AND s.total_amount > :limit " +
+                   "GROUP BY s.id, s.invoice_number, s.invoice_date, s.total_amount, s.state_of_supply, COALESCE(si.tax_percentage, 0) " +
+                   "ORDER BY s.invoice_date, s.id, COALESCE(si.tax_percentage, 0)", nativeQuery = true)
+    Stream<Object[]> streamGstr1B2cl(@Param("userId") Long userId, @Param("startDate") LocalDate startDate,
+                                     @Param("endDate") LocalDate endDate, @Param("limit") BigDecimal limit);
+    
+    // B2CS, every other unregistered invoice summed by place of supply and rate:
+    // [stateOfSupply, interState, rate, taxable, igst, cgst, sgst]
+    @Query(value = "SELECT s.state_of_supply, s.igst_amount <> 0, COALESCE(si.tax_percentage, 0), " +
+                   "SUM(si.taxable_amount), SUM(si.igst_amount), SUM(si.cgst_amount), SUM(si.sgst_amount) " +
+                   "FROM sales s LEFT JOIN parties p ON p.id = s.party_id JOIN sale_items si ON si.sale_id = s.id " +
+                   "WHERE s.user_id = :userId AND s.invoice_date BETWEEN :startDate AND :endDate " +
+                   "AND COALESCE(TRIM(p.gst_number), '') = '' AND NOT (s.igst_amount <> 0 AND s.total_amount > :limit) " +
+                   "GROUP BY s.state_of_supply, s.igst_amount <> 0, COALESCE(si.tax_percentage, 0)", nativeQuery = true)
+    List<Object[]> sumGstr1B2cs(@Param("userId") Long userId, @Param("startDate") LocalDate startDate,
+                                @Param("endDate") LocalDate endDate, @Param("limit") BigDecimal limit);
+    
+    // HSN summary: [hsnCode, description, unit, rate, quantity, taxable, igst, cgst, sgst]
+    @Query(value = "SELECT COALESCE(TRIM(i.hsn_code), ''), MAX(i.name), COALESCE(NULLIF(si.unit, ''), i.unit), " +
+                   "COALESCE(si.tax_percentage, 0), SUM(si.quantity), SUM(si.taxable_amount), " +
+                   "SUM(si.igst_amount), SUM(si.cgst_amount), SUM(si.sgst_amount) " +
+                   "FROM sales s JOIN sale_items si ON si.sale_id = s.id JOIN items i ON i.id = si.item_id " +
+                   "WHERE s.user_id = :userId AND s.invoice_date BETWEEN :startDate AND :endDate " +
+                   "GROUP BY COALESCE(TRIM(i.hsn_code), ''), COALESCE(NULLIF(si.unit, ''), i.unit), COALESCE(si.tax_percentage, 0) " +
+                   "ORDER BY 1, 3, 4", nativeQuery = true)
+    List<Object[]> sumHsnSummary(@Param("userId") Long userId, @Param("startDate") LocalDate startDate,
+                                 @Param("endDate") LocalDate endDate);
 }
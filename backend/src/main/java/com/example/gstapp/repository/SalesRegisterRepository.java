@@ -0,0 +1,68 @@
+package com.example.gstapp.repository;
+
+import com.example.gstapp.model.SalesRegisterEntry;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+public interface SalesRegisterRepository extends JpaRepository<SalesRegisterEntry, Long> {
+    
+    List<SalesRegisterEntry> findByUserIdOrderByInvoiceDateDescSaleIdDesc(Long userId);
+    
+    List<SalesRegisterEntry> findByUserIdAndInvoiceDateBetweenOrderByInvoiceDateDescSaleIdDesc(
+        Long userId, LocalDate startDate, LocalDate endDate);
+    
+    // Sales register, newest first. Keyset pages: the first page has no cursor, later pages
+    // continue strictly after the (invoiceDate, saleId) of the last row already returned.
+    @Query("SELECT r FROM SalesRegisterEntry r WHERE r.userId = :userId " +
+           "AND (:partyId IS NULL OR r.partyId = :partyId) " +
+           "AND (:paymentType IS NULL OR r.paymentType = :paymentType) " +
+           "AND (:status IS NULL OR r.status = :status) " +
+           "ORDER BY r.invoiceDate DESC, r.saleId DESC")
+    List<SalesRegisterEntry> findRegisterFirstPage(@Param("userId") Long userId, @Param("partyId") Long partyId,
+                                                   @Param("paymentType") String paymentType, @Param("status") String status,
+                                                   Pageable pageable);
+    
+    @Query("SELECT r FROM SalesRegisterEntry r WHERE r.userId = :userId " +
+           "AND (:partyId IS NULL OR r.partyId = :partyId) " +
+           "AND (:paymentType IS NULL OR r.paymentType = :paymentType) " +
+           "AND (:status IS NULL OR r.status = :status) " +
+           "AND (r.invoiceDate, r.saleId) < (:cursorDate, :cursorId) " +
+           "ORDER BY r.invoiceDate DESC, r.saleId DESC")
+    List<SalesRegisterEntry> findRegisterPageAfter(@Param("userId") Long userId, @Param("partyId") Long partyId,
+                                                   @Param("paymentType") String paymentType, @Param("status") String status,
+                                                   @Param("cursorDate") LocalDate cursorDate, @Param("cursorId") Long cursorId,
+                                                   Pageable pageable);
+    
+    @Modifying
+    @Query("UPDATE SalesRegisterEntry r SET r.partyName = :name WHERE r.partyId = :partyId")
+    int updatePartyName(@Param("partyId") Long partyId, @Param("name") String name);
+    
+    // Export streaming: rows are scalar tuples so nothing is kept in the persistence context
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT r.invoiceNumber, r.invoiceDate, COALESCE(r.partyName, r.billingName), r.phoneNumber, r.saleType, " +
+           "r.paymentType, r.bankAccountName, r.subtotal, r.discountAmount, r.taxAmount, r.roundOff, " +
+           "r.totalAmount, r.receivedAmount, r.balanceAmount, r.status " +
+           "FROM SalesRegisterEntry r WHERE r.userId = :userId AND r.saleId <= :upToId " +
+           "AND r.invoiceDate BETWEEN :startDate AND :endDate ORDER BY r.invoiceDate, r.saleId")
+    Stream<Object[]> streamForExport(@Param("userId") Long userId, @Param("upToId") Long upToId,
+                                     @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+    
+    @Query("SELECT COALESCE(MAX(r.saleId), 0) FROM SalesRegisterEntry r WHERE r.userId = :userId")
+    Long findMaxSaleId(@Param("userId") Long userId);
+    
+    // Count and last change of the rows up to a bound, used as the export version for resumable downloads
+    @Query("SELECT COUNT(r), MAX(r.updatedAt) FROM SalesRegisterEntry r WHERE r.userId = :userId AND r.saleId <= :upToId")
+    List<Object[]> getExportFingerprint(@Param("userId") Long userId, @Param("upToId") Long upToId);
+}
@@ -0,0 +1,52 @@
+package com.example.gstapp.repository;
+
+import com.example.gstapp.model.SalesRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SalesRollupRepository extends JpaRepository<SalesRollup, Long> {
+    
+    List<SalesRollup> findByUserIdAndGranularityAndBucketStartBetweenOrderByBucketStart(
+        Long userId, String granularity, LocalDateTime from, LocalDateTime to);
+    
+    /**
+     * Adds a signed delta to one bucket, creating the bucket on first use. Concurrent sales
+     * landing in the same bucket serialize on the row instead of overwriting each other.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO sales_rollups (user_id, granularity, bucket_start, sale_count, total_amount, tax_amount, " +
+                   "discount_amount, received_amount, credit_balance_amount, updated_at) " +
+                   "VALUES (:userId, :granularity, :bucketStart, :saleCount, :totalAmount, :taxAmount, " +
+                   ":discountAmount, :receivedAmount, :creditBalanceAmount, now()) " +
+                   "ON CONFLICT (user_id, granularity, bucket_start) DO UPDATE SET " +
+                   "sale_count = sales_rollups.sale_count + EXCLUDED.sale_count, " +
+                   "total_amount = sales_rollups.total_amount + EXCLUDED.total_amount, " +
+                   "tax_amount = sales_rollups.tax_amount + EXCLUDED.tax_amount, " +
+                   "discount_amount = sales_rollups.discount_amount + EXCLUDED.discount_amount, " +
+                   "received_amount = sales_rollups.received_amount + EXCLUDED.received_amount, " +
+                   "credit_balance_amount = sales_rollups.credit_balance_amount + EXCLUDED.credit_balance_amount, " +
+                   "updated_at = now()", nativeQuery = true)
+    int applyDelta(@Param("userId") Long userId, @Param("granularity") String granularity,
+                   @Param("bucketStart") LocalDateTime bucketStart, @Param("saleCount") int saleCount,
+                   @Param("totalAmount") BigDecimal totalAmount, @Param("taxAmount") BigDecimal taxAmount,
+                   @Param("discountAmount") BigDecimal discountAmount, @Param("receivedAmount") BigDecimal receivedAmount,
+                   @Param("creditBalanceAmount") BigDecimal creditBalanceAmount);
+    
+    /**
+     * Merchant-wide totals from the monthly buckets:
+     * [saleCount, totalAmount, taxAmount, discountAmount, receivedAmount, creditBalanceAmount].
+     */
+    @Query("SELECT COALESCE(SUM(r.saleCount), 0), COALESCE(SUM(r.totalAmount), 0), COALESCE(SUM(r.taxAmount), 0), " +
+           "COALESCE(SUM(r.discountAmount), 0), COALESCE(SUM(r.receivedAmount), 0), " +
+           "COALESCE(SUM(r.creditBalanceAmount), 0) " +
+           "FROM SalesRollup r WHERE r.userId = :userId AND r.granularity = 'MONTH'")
+    List<Object[]> getTotals(@Param("userId") Long userId);
+}
@@ -0,0 +1,196 @@
+package com.example.gstapp.security;
+
+import com.example.gstapp.model.IdempotencyKey;
+import com.example.gstapp.model.User;
+import com.example.gstapp.service.IdempotencyService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Set;
+
+/**
+ * Makes document create endpoints safe to retry. A POST carrying an Idempotency-Key header
+ * runs once per merchant and key; repeats get the stored response replayed instead of
+ * creating another document. Failed requests release their key so they can be retried, and
+ * a key left in progress by a node that died mid-request is reclaimed once its lease runs out.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final Set<String> IDEMPOTENT_PATHS = Set.of(
+        "/api/sales", "/api/purchases", "/api/payment-in", "/api/payment-out");
+
+    private final IdempotencyService idempotencyService;
+
+    @Autowired
+    public IdempotencyFilter(IdempotencyService idempotencyService) {
+        this.idempotencyService = idempotencyService;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+            || !IDEMPOTENT_PATHS.contains(request.getServletPath())
+            || request.getHeader(HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String key = request.getHeader(HEADER).trim();
+        if (authentication == null || !(authentication.getPrincipal() instanceof User) 
+                || key.isEmpty() || key.length() > 255) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Long merchantId = ((User) authentication.getPrincipal()).getId();
+        String path = request.getServletPath();
+        byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+        String requestHash = hash(request.getMethod(), path, body);
+
+        LocalDateTime claimedAt = idempotencyService.newClaimTime();
+        IdempotencyKey existing = idempotencyService.claim(merchantId, key, path, requestHash, claimedAt);
+        if (existing != null) {
+            if (!existing.getRequestHash().equals(requestHash)) {
+                writeError(response, HttpServletResponse.SC_BAD_REQUEST,
+                    "Idempotency-Key was already used for a different request");
+            } else if (IdempotencyKey.IN_PROGRESS.equals(existing.getStatus())) {
+                writeError(response, HttpServletResponse.SC_CONFLICT,
+                    "A request with this Idempotency-Key is still being processed");
+            } else {
+                replay(response, existing);
+            }
+            return;
+        }
+
+        ContentCachingResponseWrapper cachingResponse = new ContentCachingResponseWrapper(response);
+        boolean completed = false;
+        try {
+            filterChain.doFilter(new CachedBodyRequest(request, body), cachingResponse);
+            int status = cachingResponse.getStatus();
+            if (status >= 200 && status < 300) {
+                idempotencyService.complete(merchantId, key, claimedAt, status, cachingResponse.getContentType(),
+                    new String(cachingResponse.getContentAsByteArray(), StandardCharsets.UTF_8));
+                completed = true;
+            }
+        } finally {
+            if (!completed) {
+                idempotencyService.release(merchantId, key, claimedAt);
+            }
+            cachingResponse.copyBodyToResponse();
+        }
+    }
+
+    private void replay(HttpServletResponse response, IdempotencyKey stored) throws IOException {
+        response.setStatus(stored.getResponseStatus());
+        if (stored.getResponseContentType() != null) {
+            response.setContentType(stored.getResponseContentType());
+        }
+        response.setHeader("Idempotent-Replayed", "true");
+        if (stored.getResponseBody() != null) {
+            byte[] bytes = stored.getResponseBody().getBytes(StandardCharsets.UTF_8);
+            response.setContentLength(bytes.length);
+            response.getOutputStream().write(bytes);
+        }
+    }
+
+    private void writeError(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write(message);
+    }
+
+    private String hash(String method, String path, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((method + " " + path + "\n").getBytes(StandardCharsets.UTF_8));
+            digest.update(body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Request wrapper serving a body that has already been read for hashing.
+     */
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -77,6 +77,7 @@ public class BankAccountService {
             accountType,
             request.getOpeningBalance()
         );
+        applyPrintSettings(bankAccount, request);
         
         bankAccount = bankAccountRepository.save(bankAccount);
         
@@ -108,10 +109,19 @@ public class BankAccountService {
         bankAccount.setAccountHolderName(request.getAccountHolderName());
         bankAccount.setBranchName(request.getBranchName());
         bankAccount.setAccountType(request.getAccountType());
+        applyPrintSettings(bankAccount, request);
         
         return bankAccountRepository.save(bankAccount);
     }
     
+    // UPI handle and what the account contributes to printed invoices
+    private void applyPrintSettings(BankAccount bankAccount, BankAccountRequest request) {
+        String upiId = request.getUpiId();
+        bankAccount.setUpiId(upiId != null && !upiId.trim().isEmpty() ? upiId.trim() : null);
+        bankAccount.setPrintUpiQr(Boolean.TRUE.equals(request.getPrintUpiQr()));
+        bankAccount.setPrintBankDetails(Boolean.TRUE.equals(request.getPrintBankDetails()));
+    }
+    
     public void deleteBankAccount(Long id, Long merchantId) {
         BankAccount bankAccount = bankAccountRepository.findByIdAndMerchantId(id, merchantId)
             .orElseThrow(() -> new RuntimeException("Bank account not found"));
@@ -124,12 +134,4 @@ public class BankAccountService {
         return bankAccountRepository.getTotalBankBalanceByMerchantId(merchantId)
             .orElse(BigDecimal.ZERO);
     }
-    
-    public BankAccount updateBankBalance(Long id, Long merchantId, BigDecimal newBalance) {
-        BankAccount bankAccount = bankAccountRepository.findByIdAndMerchantId(id, merchantId)
-            .orElseThrow(() -> new RuntimeException("Bank account not found"));
-        
-        bankAccount.setCurrentBalance(newBalance);
-        return bankAccountRepository.save(bankAccount);
-    }
 }
@@ -0,0 +1,148 @@
+package com.example.gstapp.service;
+
+import com.example.gstapp.model.BankTransaction;
+import com.example.gstapp.repository.BankAccountRepository;
+import com.example.gstapp.repository.BankTransactionRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Single writer per bank account. Documents that move money through an account write their
+ * bank transaction unposted, in their own transaction; once that commits the account's writer
+ * takes every posting waiting for it and posts them together in one transaction, under the
+ * account row lock, giving each the balance after the one posted before it.
+ *
+ * <p>Only one writer runs per account in this process, and postings that arrive while it is
+ * busy are picked up by its next pass, so a burst of receipts costs one transaction rather than
+ * one each. The row lock keeps writers on other nodes out. A sweep posts anything left behind
+ * by a restart.
+ */
+@Service
+public class BankPostingService {
+
+    @Autowired
+    private BankTransactionRepository bankTransactionRepository;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Value("${bank.posting.batch-size:500}")
+    private int batchSize;
+
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor;
+    // Signals not yet seen by each account's writer; the writer runs while its count is above zero
+    private final ConcurrentHashMap<Long, AtomicInteger> pending = new ConcurrentHashMap<>();
+
+    public BankPostingService(PlatformTransactionManager transactionManager,
+                              @Value("${bank.posting.writer-threads:4}") int writerThreads) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, writerThreads), runnable -> {
+            Thread thread = new Thread(runnable, "bank-posting-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queue a bank transaction for posting. It is saved in the caller's transaction, so it
+     * commits or rolls back with the document; balanceAfter is filled in by the writer.
+     */
+    @Transactional
+    public BankTransaction enqueue(Long merchantId, Long bankAccountId, BankTransaction.TransactionType transactionType,
+                                   BigDecimal amount, String description, String referenceNumber,
+                                   LocalDateTime transactionDate) {
+        BankTransaction transaction = new BankTransaction(merchantId, bankAccountId, transactionType,
+            amount, description, referenceNumber, null);
+        if (transactionDate != null) {
+            transaction.setTransactionDate(transactionDate);
+        }
+        transaction.setPostedAt(null);
+        transaction = bankTransactionRepository.save(transaction);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    signal(bankAccountId);
+                }
+            });
+        } else {
+            signal(bankAccountId);
+        }
+        return transaction;
+    }
+
+    @Scheduled(fixedDelayString = "${bank.posting.sweep-interval-ms:5000}")
+    public void postLeftovers() {
+        for (Long bankAccountId : bankTransactionRepository.findAccountsWithUnposted()) {
+            signal(bankAccountId);
+        }
+    }
+
+    private void signal(Long bankAccountId) {
+        AtomicInteger signals = pending.computeIfAbsent(bankAccountId, id -> new AtomicInteger());
+        if (signals.getAndIncrement() == 0) {
+            executor.execute(() -> drain(bankAccountId, signals));
+        }
+    }
+
+    private void drain(Long bankAccountId, AtomicInteger signals) {
+        int seen;
+        do {
+            seen = signals.get();
+            try {
+                Integer posted;
+                do {
+                    posted = transactionTemplate.execute(status -> postBatch(bankAccountId));
+                } while (posted != null && posted == batchSize);
+            } catch (RuntimeException e) {
+                // Postings stay queued and the sweep retries them
+                System.out.println("Bank posting failed for account " + bankAccountId + ": " + e.getMessage());
+            }
+        } while (signals.addAndGet(-seen) > 0);
+    }
+
+    private int postBatch(Long bankAccountId) {
+        BigDecimal balance = bankAccountRepository.lockBalance(bankAccountId);
+        if (balance == null) {
+            return 0;
+        }
+
+        List<BankTransaction> transactions = bankTransactionRepository.findUnposted(bankAccountId, PageRequest.of(0, batchSize));
+        if (transactions.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime postedAt = LocalDateTime.now();
+        for (BankTransaction transaction : transactions) {
+            balance = balance.add(transaction.getSignedAmount());
+            transaction.setBalanceAfter(balance);
+            transaction.setPostedAt(postedAt);
+        }
+        bankAccountRepository.setCurrentBalance(bankAccountId, balance);
+        return transactions.size();
+    }
+}
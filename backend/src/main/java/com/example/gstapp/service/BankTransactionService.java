@@ -3,7 +3,6 @@ package com.example.gstapp.service;
 import com.example.gstapp.model.BankAccount;
 import com.example.gstapp.model.BankTransaction;
 import com.example.gstapp.model.User;
-import com.example.gstapp.repository.BankAccountRepository;
 import com.example.gstapp.repository.BankTransactionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -21,7 +20,7 @@ public class BankTransactionService {
     private BankTransactionRepository bankTransactionRepository;
     
     @Autowired
-    private BankAccountRepository bankAccountRepository;
+    private BankPostingService bankPostingService;
     
     public List<BankTransaction> getBankTransactionsByBankAccountId(Long bankAccountId) {
         return bankTransactionRepository.findByBankAccountIdOrderByTransactionDateDesc(bankAccountId);
@@ -65,33 +64,15 @@ public class BankTransactionService {
     
     // Sale-related methods
     public void recordSalePayment(BankAccount bankAccount, BigDecimal amount, String description, User user) {
-        // Get current balance and update it
-        BigDecimal currentBalance = bankAccount.getCurrentBalance() != null ? 
-            bankAccount.getCurrentBalance() : BigDecimal.ZERO;
-        BigDecimal newBalance = currentBalance.add(amount);
-        
-        // Update bank account balance
-        bankAccount.setCurrentBalance(newBalance);
-        bankAccountRepository.save(bankAccount);
-        
-        createBankTransaction(user.getId(), bankAccount.getId(), 
+        bankPostingService.enqueue(user.getId(), bankAccount.getId(), 
             BankTransaction.TransactionType.DEPOSIT, 
-            amount, description, null, newBalance);
+            amount, description, null, null);
     }
     
     public void reverseSalePayment(BankAccount bankAccount, BigDecimal amount, User user) {
-        // Get current balance and update it
-        BigDecimal currentBalance = bankAccount.getCurrentBalance() != null ? 
-            bankAccount.getCurrentBalance() : BigDecimal.ZERO;
-        BigDecimal newBalance = currentBalance.subtract(amount);
-        
-        // Update bank account balance
-        bankAccount.setCurrentBalance(newBalance);
-        bankAccountRepository.save(bankAccount);
-        
         // Create a reverse transaction (WITHDRAWAL) to cancel the previous DEPOSIT
-        createBankTransaction(user.getId(), bankAccount.getId(), 
+        bankPostingService.enqueue(user.getId(), bankAccount.getId(), 
             BankTransaction.TransactionType.WITHDRAWAL, 
-            amount, "Reversed sale payment", null, newBalance);
+            amount, "Reversed sale payment", null, null);
     }
 }
@@ -0,0 +1,104 @@
+package com.example.gstapp.service;
+
+import com.example.gstapp.model.CashPosition;
+import com.example.gstapp.model.CashTransaction;
+import com.example.gstapp.repository.CashPositionRepository;
+import com.example.gstapp.repository.CashTransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+/**
+ * Cash in hand per merchant as running totals, moved with every cash transaction so balance
+ * reads are a single row. A background job re-sums each merchant's cash book in turn and
+ * corrects the totals if they have drifted from it.
+ */
+@Service
+public class CashPositionService {
+
+    @Autowired
+    private CashPositionRepository cashPositionRepository;
+
+    @Autowired
+    private CashTransactionRepository cashTransactionRepository;
+
+    @Value("${cash.position.verify-batch-size:50}")
+    private int verifyBatchSize;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public CashPositionService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Add a saved cash transaction to its merchant's totals. Joins the caller's transaction so
+     * the totals move only if the transaction commits.
+     */
+    @Transactional
+    public void post(CashTransaction transaction) {
+        BigDecimal amount = transaction.getAmount();
+        CashTransaction.TransactionType type = transaction.getTransactionType();
+        cashPositionRepository.applyDelta(transaction.getMerchantId(),
+            type == CashTransaction.TransactionType.IN ? amount : BigDecimal.ZERO,
+            type == CashTransaction.TransactionType.OUT ? amount : BigDecimal.ZERO,
+            type == CashTransaction.TransactionType.ADJUSTMENT ? amount : BigDecimal.ZERO);
+    }
+
+    /**
+     * The merchant's cash totals; all zero before the first cash transaction.
+     */
+    @Transactional(readOnly = true)
+    public CashPosition getPosition(Long merchantId) {
+        return cashPositionRepository.findById(merchantId).orElseGet(() -> {
+            CashPosition empty = new CashPosition();
+            empty.setMerchantId(merchantId);
+            empty.setTotalIn(BigDecimal.ZERO);
+            empty.setTotalOut(BigDecimal.ZERO);
+            empty.setTotalAdjustments(BigDecimal.ZERO);
+            return empty;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${cash.position.verify-interval-ms:300000}")
+    public void verifyPositions() {
+        for (Long merchantId : cashPositionRepository.findDueForVerification(verifyBatchSize)) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> verify(merchantId));
+            } catch (RuntimeException e) {
+                System.out.println("Cash position check failed for merchant " + merchantId + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void verify(Long merchantId) {
+        // With the row locked every posting that reached it has committed and no more can, so
+        // the cash book and the totals describe the same transactions
+        if (cashPositionRepository.lockPosition(merchantId) == null) {
+            return;
+        }
+        CashPosition position = cashPositionRepository.findById(merchantId).orElseThrow();
+        Object[] totals = cashTransactionRepository.getTotalsByMerchantId(merchantId).get(0);
+        BigDecimal totalIn = amountOf(totals[0]);
+        BigDecimal totalOut = amountOf(totals[1]);
+        BigDecimal totalAdjustments = amountOf(totals[2]);
+
+        if (position.getTotalIn().compareTo(totalIn) != 0 || position.getTotalOut().compareTo(totalOut) != 0
+                || position.getTotalAdjustments().compareTo(totalAdjustments) != 0) {
+            System.out.println("Cash position for merchant " + merchantId + " was " + position.getTotalIn() + " in, " +
+                position.getTotalOut() + " out, " + position.getTotalAdjustments() + " adjusted; the cash book has " +
+                totalIn + ", " + totalOut + ", " + totalAdjustments + ". Resetting it from the cash book");
+        }
+        cashPositionRepository.saveVerified(merchantId, totalIn, totalOut, totalAdjustments);
+    }
+
+    private BigDecimal amountOf(Object value) {
+        return value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString());
+    }
+}
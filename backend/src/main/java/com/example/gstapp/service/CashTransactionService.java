@@ -1,10 +1,12 @@
 package com.example.gstapp.service;
 
 import com.example.gstapp.dto.CashAdjustmentRequest;
+import com.example.gstapp.model.CashPosition;
 import com.example.gstapp.model.CashTransaction;
 import com.example.gstapp.model.User;
 import com.example.gstapp.repository.CashTransactionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,6 +21,9 @@ public class CashTransactionService {
     @Autowired
     private CashTransactionRepository cashTransactionRepository;
     
+    @Autowired
+    private CashPositionService cashPositionService;
+    
     public List<CashTransaction> getCashTransactionsByMerchantId(Long merchantId) {
         return cashTransactionRepository.findByMerchantIdOrderByTransactionDateDesc(merchantId);
     }
@@ -30,7 +35,9 @@ public class CashTransactionService {
     public CashTransaction createCashTransaction(Long merchantId, CashTransaction.TransactionType transactionType, 
                                                BigDecimal amount, String description, String referenceNumber) {
         CashTransaction transaction = new CashTransaction(merchantId, transactionType, amount, description, referenceNumber);
-        return cashTransactionRepository.save(transaction);
+        transaction = cashTransactionRepository.save(transaction);
+        cashPositionService.post(transaction);
+        return transaction;
     }
     
     public CashTransaction createCashTransaction(Long merchantId, CashTransaction.TransactionType transactionType, 
@@ -38,7 +45,9 @@ public class CashTransactionService {
                                                LocalDateTime transactionDate) {
         CashTransaction transaction = new CashTransaction(merchantId, transactionType, amount, description, referenceNumber);
         transaction.setTransactionDate(transactionDate);
-        return cashTransactionRepository.save(transaction);
+        transaction = cashTransactionRepository.save(transaction);
+        cashPositionService.post(transaction);
+        return transaction;
     }
     
     public CashTransaction adjustCash(Long merchantId, CashAdjustmentRequest request) {
@@ -69,24 +78,19 @@ public class CashTransactionService {
                                    request.getAmount(), description, request.getReferenceNumber(), transactionDate);
     }
     
-    public BigDecimal getTotalCashIn(Long merchantId) {
-        return cashTransactionRepository.getTotalCashInByMerchantId(merchantId).orElse(BigDecimal.ZERO);
-    }
-    
-    public BigDecimal getTotalCashOut(Long merchantId) {
-        return cashTransactionRepository.getTotalCashOutByMerchantId(merchantId).orElse(BigDecimal.ZERO);
+    public CashPosition getCashPosition(Long merchantId) {
+        return cashPositionService.getPosition(merchantId);
     }
     
-    public BigDecimal getTotalAdjustments(Long merchantId) {
-        return cashTransactionRepository.getTotalAdjustmentsByMerchantId(merchantId).orElse(BigDecimal.ZERO);
+    public BigDecimal getCurrentCashBalance(Long merchantId) {
+        return cashPositionService.getPosition(merchantId).getBalance();
     }
     
-    public BigDecimal getCurrentCashBalance(Long merchantId) {
-        BigDecimal totalIn = getTotalCashIn(merchantId);
-        BigDecimal totalOut = getTotalCashOut(merchantId);
-        BigDecimal totalAdjustments = getTotalAdjustments(merchantId);
-        
-        return totalIn.add(totalAdjustments).subtract(totalOut);
+    /**
+     * The newest cash transactions, at most limit of them; older ones are read from the cash ledger.
+     */
+    public List<CashTransaction> getRecentCashTransactions(Long merchantId, int limit) {
+        return cashTransactionRepository.findLedgerFirstPage(merchantId, PageRequest.of(0, limit));
     }
     
     // Sale-related methods
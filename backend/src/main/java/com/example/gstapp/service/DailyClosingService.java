@@ -0,0 +1,214 @@
+package com.example.gstapp.service;
+
+import com.example.gstapp.dto.AsOfBalance;
+import com.example.gstapp.model.DailyClosingSnapshot;
+import com.example.gstapp.repository.BankAccountRepository;
+import com.example.gstapp.repository.DailyClosingSnapshotRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * As-of balances for items, parties, the cash book and bank accounts. A nightly job closes each
+ * finished day into a snapshot per entity that moved that day, so the balance at the end of any
+ * closed day is the entity's latest snapshot on or before it, and a date after the last closed
+ * day only replays the movements since then instead of the whole history.
+ */
+@Service
+public class DailyClosingService {
+
+    private static final Long CASH_ENTITY_ID = 0L;
+
+    @Autowired
+    private DailyClosingSnapshotRepository snapshotRepository;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Value("${closing.max-days-per-run:366}")
+    private int maxDaysPerRun;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public DailyClosingService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Close every finished day not yet closed, oldest first, each in its own transaction. Closed
+     * days that a backdated, edited or deleted movement has reopened are closed again first,
+     * along with every closed day after them, since later snapshots build on theirs; a run
+     * that stops early leaves the next of them reopened for the following run.
+     */
+    @Scheduled(cron = "${closing.cron:0 30 0 * * *}")
+    public void closeDays() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        LocalDate lastClosed = snapshotRepository.findLastClosedDate();
+        LocalDate day = lastClosed == null
+            ? snapshotRepository.findFirstMovementDate()
+            : lastClosed.plusDays(1);
+        LocalDate reopened = snapshotRepository.findFirstReopenedDate();
+        if (reopened != null && (day == null || reopened.isBefore(day))) {
+            day = reopened;
+        }
+        if (day == null) {
+            return;
+        }
+
+        int closedDays = 0;
+        int snapshots = 0;
+        for (; !day.isAfter(yesterday) && closedDays < maxDaysPerRun; day = day.plusDays(1)) {
+            LocalDate closingDate = day;
+            try {
+                Integer written = transactionTemplate.execute(status -> snapshotRepository.closeDay(closingDate));
+                snapshots += written != null ? written : 0;
+                closedDays++;
+            } catch (RuntimeException e) {
+                // Later days build on this one, so stop and retry from here on the next run
+                System.out.println("Daily closing failed for " + closingDate + ": " + e.getMessage());
+                break;
+            }
+        }
+        if (closedDays > 0) {
+            System.out.println("Daily closing: closed " + closedDays + " days up to " + day.minusDays(1) +
+                ", " + snapshots + " snapshots");
+        }
+    }
+
+    /**
+     * Balance of one entity at the end of the given day. entityId is ignored for the cash book.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public AsOfBalance getBalanceAsOf(Long merchantId, String entityType, Long entityId, LocalDate date) {
+        String type = normalizeType(entityType);
+        Long id = DailyClosingSnapshot.CASH.equals(type) ? CASH_ENTITY_ID : entityId;
+        if (id == null) {
+            throw new RuntimeException("Entity id is required for " + type + " balances");
+        }
+        BigDecimal anchor = requireEntity(merchantId, type, id);
+        LocalDateTime end = date.plusDays(1).atStartOfDay();
+
+        Optional<DailyClosingSnapshot> snapshot = snapshotRepository
+            .findFirstByMerchantIdAndEntityTypeAndEntityIdAndClosingDateLessThanEqualOrderByClosingDateDesc(
+                merchantId, type, id, date);
+        if (snapshot.isPresent()) {
+            // Closed days after the snapshot did not move this entity, so this replays the unclosed days
+            LocalDate snapshotDate = snapshot.get().getClosingDate();
+            BigDecimal moved = moved(merchantId, type, id, snapshotDate.plusDays(1).atStartOfDay(), end);
+            return new AsOfBalance(type, id, date, snapshot.get().getBalance().add(moved), snapshotDate);
+        }
+
+        Optional<DailyClosingSnapshot> next = snapshotRepository
+            .findFirstByMerchantIdAndEntityTypeAndEntityIdAndClosingDateGreaterThanOrderByClosingDateAsc(
+                merchantId, type, id, date);
+        if (next.isPresent()) {
+            // Walk back from the first snapshot after the date
+            LocalDate snapshotDate = next.get().getClosingDate();
+            BigDecimal moved = moved(merchantId, type, id, end, snapshotDate.plusDays(1).atStartOfDay());
+            return new AsOfBalance(type, id, date, next.get().getBalance().subtract(moved), snapshotDate);
+        }
+
+        return new AsOfBalance(type, id, date, unsnapshotted(merchantId, type, id, anchor, end), null);
+    }
+
+    /**
+     * Balances at the end of the given day of every entity of a type that had moved by then,
+     * ordered by entity id.
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public List<AsOfBalance> getBalancesAsOf(Long merchantId, String entityType, LocalDate date) {
+        String type = normalizeType(entityType);
+        LocalDate lastClosed = snapshotRepository.findLastClosedDate();
+        LocalDateTime end = date.plusDays(1).atStartOfDay();
+
+        Map<Long, AsOfBalance> balances = new TreeMap<>();
+        for (DailyClosingSnapshot snapshot : snapshotRepository.findLatestPerEntity(merchantId, type, date)) {
+            balances.put(snapshot.getEntityId(), new AsOfBalance(type, snapshot.getEntityId(), date,
+                snapshot.getBalance(), snapshot.getClosingDate()));
+        }
+
+        if (lastClosed == null || date.isAfter(lastClosed)) {
+            LocalDateTime replayFrom = lastClosed != null ? lastClosed.plusDays(1).atStartOfDay() : null;
+            Map<Long, BigDecimal> moved = snapshotRepository.sumMovements(merchantId, type, null, replayFrom, end);
+            for (Map.Entry<Long, BigDecimal> entry : moved.entrySet()) {
+                AsOfBalance balance = balances.get(entry.getKey());
+                if (balance != null) {
+                    balance.setBalance(balance.getBalance().add(entry.getValue()));
+                    continue;
+                }
+                // First moved on an unclosed day
+                BigDecimal anchor = snapshotRepository.findAnchor(merchantId, type, entry.getKey());
+                if (anchor == null && isAnchored(type)) {
+                    continue; // deleted item or party
+                }
+                balances.put(entry.getKey(), new AsOfBalance(type, entry.getKey(), date,
+                    unsnapshotted(merchantId, type, entry.getKey(), anchor, end), null));
+            }
+        }
+        return new ArrayList<>(balances.values());
+    }
+
+    /**
+     * Balance of an entity with no snapshot on either side of the date: items and parties walk
+     * back from their stored balance, cash and bank sum their history.
+     */
+    private BigDecimal unsnapshotted(Long merchantId, String type, Long id, BigDecimal anchor, LocalDateTime end) {
+        if (anchor != null) {
+            return anchor.subtract(moved(merchantId, type, id, end, null));
+        }
+        return moved(merchantId, type, id, null, end);
+    }
+
+    private BigDecimal moved(Long merchantId, String type, Long id, LocalDateTime from, LocalDateTime to) {
+        return snapshotRepository.sumMovements(merchantId, type, id, from, to).getOrDefault(id, BigDecimal.ZERO);
+    }
+
+    private BigDecimal requireEntity(Long merchantId, String type, Long id) {
+        switch (type) {
+            case DailyClosingSnapshot.ITEM:
+            case DailyClosingSnapshot.PARTY:
+                BigDecimal anchor = snapshotRepository.findAnchor(merchantId, type, id);
+                if (anchor == null) {
+                    throw new RuntimeException(DailyClosingSnapshot.ITEM.equals(type) ? "Item not found" : "Party not found");
+                }
+                return anchor;
+            case DailyClosingSnapshot.BANK:
+                bankAccountRepository.findByIdAndMerchantId(id, merchantId)
+                    .orElseThrow(() -> new RuntimeException("Bank account not found"));
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    private boolean isAnchored(String type) {
+        return DailyClosingSnapshot.ITEM.equals(type) || DailyClosingSnapshot.PARTY.equals(type);
+    }
+
+    private String normalizeType(String entityType) {
+        String type = entityType == null ? "" : entityType.trim().toUpperCase();
+        switch (type) {
+            case DailyClosingSnapshot.ITEM:
+            case DailyClosingSnapshot.PARTY:
+            case DailyClosingSnapshot.CASH:
+            case DailyClosingSnapshot.BANK:
+                return type;
+            default:
+                throw new RuntimeException("Unknown balance type: " + entityType + " (use ITEM, PARTY, CASH or BANK)");
+        }
+    }
+}
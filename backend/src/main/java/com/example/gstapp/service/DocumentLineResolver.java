@@ -0,0 +1,93 @@
+package com.example.gstapp.service;
+
+import com.example.gstapp.model.BankAccount;
+import com.example.gstapp.model.Item;
+import com.example.gstapp.model.Party;
+import com.example.gstapp.repository.BankAccountRepository;
+import com.example.gstapp.repository.ItemRepository;
+import com.example.gstapp.repository.PartyRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Loads everything a sale or purchase document refers to with one query per entity type,
+ * so the number of selects per document does not grow with its line count. Referenced items
+ * are row-locked on the way, since every caller goes on to move their stock.
+ */
+@Service
+@Transactional
+public class DocumentLineResolver {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private PartyRepository partyRepository;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    /**
+     * @param itemIds       item ids referenced by the document lines (duplicates and nulls are ignored)
+     * @param partyId       party of the document, may be null for walk-in sales
+     * @param bankAccountId bank account picked explicitly, may be null
+     * @param paymentType   payment type; when no bank account id is given and this is not cash or
+     *                      cheque, it is matched against the merchant's bank account names
+     */
+    public ResolvedDocument resolve(Long merchantId, Collection<Long> itemIds, Long partyId, 
+                                    Long bankAccountId, String paymentType) {
+        Map<Long, Item> items = new HashMap<>();
+        List<Long> ids = itemIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        if (!ids.isEmpty()) {
+            // Lock before the document inserts lines whose foreign key checks share-lock these rows;
+            // ids that do not resolve are reported by ResolvedDocument.getItem
+            itemRepository.lockForStockUpdate(merchantId, ids.stream().sorted().toArray(Long[]::new));
+            for (Item item : itemRepository.findByMerchantIdAndIdIn(merchantId, ids)) {
+                items.put(item.getId(), item);
+            }
+        }
+
+        Party party = null;
+        if (partyId != null) {
+            party = partyRepository.findByIdAndMerchantIdAndIsActiveTrue(partyId, merchantId)
+                    .orElseThrow(() -> new RuntimeException("Party not found"));
+        }
+
+        BankAccount bankAccount = null;
+        if (bankAccountId != null) {
+            bankAccount = bankAccountRepository.findByIdAndMerchantId(bankAccountId, merchantId)
+                    .orElseThrow(() -> new RuntimeException("Bank account not found"));
+        } else if (isBankPaymentType(paymentType)) {
+            bankAccount = findBankAccountByName(merchantId, paymentType);
+        }
+
+        return new ResolvedDocument(items, party, bankAccount);
+    }
+
+    private BankAccount findBankAccountByName(Long merchantId, String name) {
+        List<BankAccount> matches = bankAccountRepository.findByMerchantIdAndName(merchantId, name);
+        // Prefer a display name match over a bank name match, same as the old two-step lookup
+        return matches.stream()
+                .filter(account -> name.equals(account.getAccountDisplayName()))
+                .findFirst()
+                .orElse(matches.isEmpty() ? null : matches.get(0));
+    }
+
+    private boolean isBankPaymentType(String paymentType) {
+        return paymentType != null 
+                && !paymentType.trim().isEmpty()
+                && !"Cash".equalsIgnoreCase(paymentType) 
+                && !"Cheque".equalsIgnoreCase(paymentType);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.gstapp.service;
+
+import com.example.gstapp.repository.DocumentSequenceRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands out document numbers (sale invoices, purchase bills) per merchant, series and
+ * financial year. Each node reserves a block of numbers from document_sequences in its own
+ * transaction and serves numbers from memory until the block runs out, so the create path
+ * never scans the sales or purchases tables and two nodes can never hand out the same number.
+ * Numbers left in a block when a node restarts are skipped, not reused.
+ */
+@Service
+public class DocumentNumberService {
+    
+    public static final String SALE_INVOICE_SERIES = "INV";
+    public static final String PURCHASE_BILL_SERIES = "PUR";
+    
+    @Autowired
+    private DocumentSequenceRepository documentSequenceRepository;
+    
+    @Value("${documents.number-block-size:10}")
+    private int blockSize;
+    
+    private final Map<String, NumberBlock> blocks = new ConcurrentHashMap<>();
+    
+    private final TransactionTemplate reservationTemplate;
+    
+    @Autowired
+    public DocumentNumberService(PlatformTransactionManager transactionManager) {
+        this.reservationTemplate = new TransactionTemplate(transactionManager);
+        this.reservationTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+    
+    public String nextSaleInvoiceNumber(Long merchantId, LocalDate invoiceDate) {
+        return nextNumber(merchantId, SALE_INVOICE_SERIES, invoiceDate);
+    }
+    
+    public String nextPurchaseBillNumber(Long merchantId, LocalDate billDate) {
+        return nextNumber(merchantId, PURCHASE_BILL_SERIES, billDate);
+    }
+    
+    public String nextNumber(Long merchantId, String series, LocalDate documentDate) {
+        String financialYear = financialYear(documentDate != null ? documentDate : LocalDate.now());
+        String key = merchantId + ":" + series + ":" + financialYear;
+        NumberBlock block = blocks.computeIfAbsent(key, k -> new NumberBlock());
+        
+        long number;
+        synchronized (block) {
+            if (block.next >= block.end) {
+                // Reserve in a separate transaction so a rolled back document cannot hand
+                // the same block to another node
+                Long end = reservationTemplate.execute(status -> 
+                    documentSequenceRepository.reserveBlock(merchantId, series, financialYear, blockSize));
+                block.end = end;
+                block.next = end - blockSize;
+            }
+            number = block.next++;
+        }
+        
+        return String.format("%s-%s-%05d", series, financialYear, number);
+    }
+    
+    /**
+     * Indian financial year (April to March) as a compact code, e.g. "2526" for FY 2025-26
+     */
+    static String financialYear(LocalDate date) {
+        int startYear = date.getMonthValue() >= 4 ? date.getYear() : date.getYear() - 1;
+        return String.format("%02d%02d", startYear % 100, (startYear + 1) % 100);
+    }
+    
+    private static class NumberBlock {
+        private long next;
+        private long end;
+    }
+}
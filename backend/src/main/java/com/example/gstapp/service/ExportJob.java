@@ -0,0 +1,63 @@
+package com.example.gstapp.service;
+
+import com.example.gstapp.util.ExportWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A prepared export: its columns, the id bound that pins which rows it contains, a version
+ * string identifying that exact content, and a source that streams the rows on demand.
+ * Writing the same job twice produces the same rows, which is what makes byte ranges resumable.
+ */
+public class ExportJob {
+
+    private final String fileName;
+    private final List<String> columns;
+    private final Long upToId;
+    private final String version;
+    private final Consumer<Consumer<Object[]>> rowSource;
+
+    public ExportJob(String fileName, List<String> columns, Long upToId, String version,
+                     Consumer<Consumer<Object[]>> rowSource) {
+        this.fileName = fileName;
+        this.columns = columns;
+        this.upToId = upToId;
+        this.version = version;
+        this.rowSource = rowSource;
+    }
+
+    public void writeTo(ExportWriter writer) throws IOException {
+        writer.writeHeader(columns);
+        try {
+            rowSource.accept(row -> {
+                try {
+                    writer.writeRow(row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.finish();
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    public Long getUpToId() {
+        return upToId;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.gstapp.service;
+
+import com.example.gstapp.model.Item;
+import com.example.gstapp.repository.ItemRepository;
+import com.example.gstapp.repository.ItemTransactionRepository;
+import com.example.gstapp.repository.PartyRepository;
+import com.example.gstapp.repository.PartyTransactionRepository;
+import com.example.gstapp.repository.PurchaseRepository;
+import com.example.gstapp.repository.SalesRegisterRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Builds streaming exports of registers and ledgers. Rows come from a server-side cursor
+ * inside a read-only transaction and are handed to the writer one at a time.
+ */
+@Service
+public class ExportService {
+
+    private static final LocalDate EARLIEST = LocalDate.of(1900, 1, 1);
+    private static final LocalDate LATEST = LocalDate.of(9999, 12, 31);
+
+    @Autowired
+    private SalesRegisterRepository salesRegisterRepository;
+
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemTransactionRepository itemTransactionRepository;
+
+    @Autowired
+    private PartyRepository partyRepository;
+
+    @Autowired
+    private PartyTransactionRepository partyTransactionRepository;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ExportService(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public ExportJob salesExport(Long merchantId, LocalDate startDate, LocalDate endDate, Long upToId) {
+        Long bound = upToId != null ? upToId : salesRegisterRepository.findMaxSaleId(merchantId);
+        Object[] fingerprint = salesRegisterRepository.getExportFingerprint(merchantId, bound).get(0);
+        LocalDate from = startDate != null ? startDate : EARLIEST;
+        LocalDate to = endDate != null ? endDate : LATEST;
+
+        return new ExportJob("sales",
+            List.of("Invoice No", "Invoice Date", "Party", "Phone", "Sale Type", "Payment Type", "Bank Account",
+                    "Subtotal", "Discount", "Tax", "Round Off", "Total", "Received", "Balance", "Status"),
+            bound, version("sales", bound, fingerprint),
+            sink -> stream(() -> salesRegisterRepository.streamForExport(merchantId, bound, from, to), sink));
+    }
+
+    public ExportJob purchasesExport(Long merchantId, LocalDate startDate, LocalDate endDate, Long upToId) {
+        Long bound = upToId != null ? upToId : purchaseRepository.findMaxIdByMerchantId(merchantId).orElse(0L);
+        Object[] fingerprint = purchaseRepository.getExportFingerprint(merchantId, bound).get(0);
+        LocalDateTime from = (startDate != null ? startDate : EARLIEST).atStartOfDay();
+        LocalDateTime to = (endDate != null ? endDate : LATEST).atTime(LocalTime.MAX);
+
+        return new ExportJob("purchases",
+            List.of("Bill No", "Bill Date", "Party", "Phone", "Payment Type", "Subtotal", "Discount", "Tax",
+                    "Round Off", "Total", "Paid", "Balance", "Status"),
+            bound, version("purchases", bound, fingerprint),
+            sink -> stream(() -> purchaseRepository.streamForExport(merchantId, bound, from, to), sink));
+    }
+
+    public ExportJob itemLedgerExport(Long merchantId, Long itemId, Long upToId) {
+        Item item = itemRepository.findById(itemId)
+            .filter(found -> found.getMerchantId().equals(merchantId))
+            .orElseThrow(() -> new RuntimeException("Item not found"));
+        // Stock before the first movement, for stock set without one (e.g. before the ledger existed)
+        BigDecimal currentStock = item.getCurrentStock() != null ? new BigDecimal(item.getCurrentStock()) : BigDecimal.ZERO;
+        BigDecimal opening = currentStock.subtract(toDecimal(itemTransactionRepository.getTotalQuantityByItemId(itemId, merchantId)));
+        Long bound = upToId != null ? upToId : itemTransactionRepository.findMaxId(itemId, merchantId);
+        Long count = itemTransactionRepository.countUpTo(itemId, merchantId, bound);
+
+        return new ExportJob("item-" + itemId + "-ledger",
+            List.of("Date", "Type", "Reference", "Party", "Quantity", "Price", "Amount", "Status", "Stock After"),
+            bound, "item-" + itemId + "-" + bound + "-" + count + "-" + opening.toPlainString(),
+            sink -> {
+                // Running stock is carried across the stream, oldest movement first
+                BigDecimal[] stock = {opening};
+                if (opening.signum() != 0) {
+                    sink.accept(new Object[] {null, "OPENING", null, "Opening Stock", null, null, null, null, opening});
+                }
+                stream(() -> itemTransactionRepository.streamForExport(itemId, merchantId, bound), row -> {
+                    BigDecimal quantity = row[4] != null ? (BigDecimal) row[4] : BigDecimal.ZERO;
+                    stock[0] = stock[0].add(quantity);
+                    Object[] withStock = new Object[row.length + 1];
+                    System.arraycopy(row, 0, withStock, 0, row.length);
+                    withStock[row.length] = stock[0];
+                    sink.accept(withStock);
+                });
+            });
+    }
+
+    /**
+     * A party's ledger as on the party ledger endpoint: party transactions, payments in and
+     * payments out, oldest first, with the signed balance after each row (positive when the
+     * party owes us). The ledger merges three tables, so upToId pins it by creation time: the
+     * epoch milliseconds of the newest row included.
+     */
+    public ExportJob partyLedgerExport(Long merchantId, Long partyId, Long upToId) {
+        partyRepository.findById(partyId)
+            .filter(party -> party.getMerchantId().equals(merchantId))
+            .orElseThrow(() -> new RuntimeException("Party not found"));
+        Object[] totals = partyTransactionRepository.getLedgerTotals(partyId, merchantId).get(0);
+        // Balance before the first row: the same anchor the ledger endpoint walks back from
+        BigDecimal opening = partyRepository.findSignedBalance(partyId).subtract(toDecimal(totals[0]));
+        Long bound = upToId != null ? upToId
+            : totals[1] != null ? LedgerService.toDateTime(totals[1]).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+            : 0L;
+        LocalDateTime createdBefore = LocalDateTime.ofInstant(Instant.ofEpochMilli(bound + 1), ZoneId.systemDefault());
+        Object[] fingerprint = partyTransactionRepository.getLedgerExportFingerprint(partyId, merchantId, createdBefore).get(0);
+
+        return new ExportJob("party-" + partyId + "-ledger",
+            List.of("Date", "Type", "Number", "Description", "Amount", "Change", "Balance After"),
+            bound, version("party-" + partyId, bound, fingerprint) + "-" + opening.toPlainString(),
+            sink -> {
+                BigDecimal[] balance = {opening};
+                if (opening.signum() != 0) {
+                    sink.accept(new Object[] {null, "OPENING", null, "Opening Balance", null, null, opening});
+                }
+                stream(() -> partyTransactionRepository.streamLedgerForExport(partyId, merchantId, createdBefore), row -> {
+                    BigDecimal change = toDecimal(row[5]);
+                    balance[0] = balance[0].add(change);
+                    Object[] withBalance = new Object[row.length + 1];
+                    System.arraycopy(row, 0, withBalance, 0, row.length);
+                    withBalance[row.length] = balance[0];
+                    sink.accept(withBalance);
+                });
+            });
+    }
+
+    private void stream(Supplier<Stream<Object[]>> query, Consumer<Object[]> sink) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Object[]> rows = query.get()) {
+                rows.forEach(sink);
+            }
+        });
+    }
+
+    private static BigDecimal toDecimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString());
+    }
+
+    /**
+     * Identifies the exact rows behind an export: the id bound, how many rows it covers and
+     * when the newest of them last changed.
+     */
+    private String version(String kind, Long bound, Object[] fingerprint) {
+        String lastChange = fingerprint[1] != null ? fingerprint[1].toString().replaceAll("[^0-9]", "") : "0";
+        return kind + "-" + bound + "-" + fingerprint[0] + "-" + lastChange;
+    }
+}
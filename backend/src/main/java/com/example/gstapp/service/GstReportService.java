@@ -0,0 +1,487 @@
+package com.example.gstapp.service;
+
+import com.example.gstapp.model.Company;
+import com.example.gstapp.repository.CompanyRepository;
+import com.example.gstapp.repository.SaleRepository;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Builds GSTR-1 returns (B2B, B2CL, B2CS and the HSN summary) in the GSTN offline tool JSON
+ * layout. Sales are aggregated per invoice and rate, or per bucket, in the database and the
+ * rows are written straight to a JSON generator. A multi-month period is split into months
+ * that are built in parallel, each in its own read-only transaction, and written in order.
+ */
+@Service
+public class GstReportService {
+
+    private static final DateTimeFormatter RETURN_PERIOD = DateTimeFormatter.ofPattern("MMyyyy");
+    private static final DateTimeFormatter INVOICE_DATE = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+    private static final int MAX_MONTHS = 24;
+    private static final int HSN_DESCRIPTION_LENGTH = 30;
+
+    // B2CL applies to inter-state B2C invoices above this value; lowered from 2.5 lakh from August 2024
+    private static final YearMonth B2CL_LIMIT_REVISED = YearMonth.of(2024, 8);
+    private static final BigDecimal B2CL_LIMIT = new BigDecimal("100000");
+    private static final BigDecimal B2CL_LIMIT_BEFORE_REVISION = new BigDecimal("250000");
+
+    // GSTN unit quantity codes by normalized unit name
+    private static final Map<String, String> UQC = new LinkedHashMap<>();
+
+    static {
+        String[][] units = {
+            {"NOS", "nos", "no", "number", "numbers", "pcs", "pc", "piece", "pieces", "none", "unit", "units"},
+            {"KGS", "kg", "kgs", "kilogram", "kilograms"}, {"GMS", "g", "gm", "gms", "gram", "grams"},
+            {"LTR", "l", "ltr", "ltrs", "litre", "litres", "liter", "liters"}, {"MLT", "ml", "millilitre", "milliliter"},
+            {"MTR", "m", "mtr", "mtrs", "meter", "meters", "metre", "metres"}, {"BOX", "box", "boxes"},
+            {"PAC", "pac", "pack", "packs", "packet", "packets"}, {"DOZ", "doz", "dozen", "dozens"},
+            {"BTL", "btl", "bottle", "bottles"}, {"BAG", "bag", "bags"}, {"SET", "set", "sets"},
+            {"PRS", "prs", "pair", "pairs"}, {"CTN", "ctn", "carton", "cartons"}, {"MTS", "mts", "ton", "tons", "tonne"},
+            {"QTL", "qtl", "quintal", "quintals"}, {"SQF", "sqf", "sqft"}, {"SQM", "sqm", "sqmt"}
+        };
+        for (String[] unit : units) {
+            for (int i = 1; i < unit.length; i++) {
+                UQC.put(unit[i], unit[0]);
+            }
+        }
+    }
+
+    @Autowired
+    private SaleRepository saleRepository;
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    @Autowired
+    private GstTaxEngine gstTaxEngine;
+
+    private final TransactionTemplate readOnlyTransaction;
+    private final JsonFactory jsonFactory;
+    private final ExecutorService executor;
+    private final int parallelism;
+
+    public GstReportService(PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                            @Value("${gst.report.parallelism:4}") int parallelism) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.jsonFactory = objectMapper.getFactory();
+        this.parallelism = Math.max(1, parallelism);
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "gst-report-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Reject a period before anything is streamed, while an error can still be reported.
+     */
+    public void checkPeriod(YearMonth from, YearMonth to) {
+        if (to.isBefore(from)) {
+            throw new RuntimeException("Period end is before period start");
+        }
+        if (from.plusMonths(MAX_MONTHS - 1).isBefore(to)) {
+            throw new RuntimeException("GSTR-1 period is limited to " + MAX_MONTHS + " months");
+        }
+    }
+
+    /**
+     * Write the GSTR-1 return for one month as a JSON object, or for several months as a JSON
+     * array of monthly returns in period order.
+     */
+    public void writeGstr1(Long merchantId, YearMonth from, YearMonth to, OutputStream output) throws IOException {
+        checkPeriod(from, to);
+        String gstin = companyRepository.findByUserId(merchantId).map(Company::getGstin).orElse(null);
+        String homeState = gstTaxEngine.merchantStateCode(merchantId);
+
+        List<YearMonth> periods = new ArrayList<>();
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            periods.add(month);
+        }
+
+        // Months are built in parallel, but only the next parallelism months from the one being
+        // written are submitted, so a slow client holds at most that many rendered months in memory
+        List<CompletableFuture<byte[]>> pending = new ArrayList<>();
+        int next = 0;
+        boolean single = periods.size() == 1;
+        try {
+            if (!single) {
+                output.write('[');
+            }
+            for (int i = 0; i < periods.size(); i++) {
+                while (next < periods.size() && next < i + parallelism) {
+                    YearMonth period = periods.get(next++);
+                    pending.add(CompletableFuture.supplyAsync(() -> renderMonth(merchantId, gstin, homeState, period), executor));
+                }
+                byte[] month = join(pending.get(i));
+                pending.set(i, null);
+
+                if (i > 0) {
+                    output.write(',');
+                }
+                output.write(month);
+            }
+            if (!single) {
+                output.write(']');
+            }
+        } finally {
+            // A client that disconnects mid-return should not leave the pool building months for nobody
+            for (CompletableFuture<byte[]> future : pending) {
+                if (future != null) {
+                    future.cancel(false);
+                }
+            }
+        }
+        output.flush();
+    }
+
+    /**
+     * Write the HSN-wise summary of outward supplies for any date range as {"data": [...]}.
+     */
+    public void writeHsnSummary(Long merchantId, LocalDate startDate, LocalDate endDate, OutputStream output)
+            throws IOException {
+        List<Object[]> rows = readOnlyTransaction.execute(status ->
+            saleRepository.sumHsnSummary(merchantId, startDate, endDate));
+        try (JsonGenerator json = jsonFactory.createGenerator(output).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            json.writeStartObject();
+            writeHsnData(json, rows);
+            json.writeEndObject();
+        }
+    }
+
+    private byte[] renderMonth(Long merchantId, String gstin, String homeState, YearMonth month) {
+        return readOnlyTransaction.execute(status -> {
+            LocalDate startDate = month.atDay(1);
+            LocalDate endDate = month.atEndOfMonth();
+            BigDecimal b2clLimit = month.isBefore(B2CL_LIMIT_REVISED) ? B2CL_LIMIT_BEFORE_REVISION : B2CL_LIMIT;
+
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+            try (JsonGenerator json = jsonFactory.createGenerator(buffer)) {
+                json.writeStartObject();
+                json.writeStringField("gstin", gstin != null ? gstin : "");
+                json.writeStringField("fp", month.format(RETURN_PERIOD));
+
+                try (Stream<Object[]> rows = saleRepository.streamGstr1B2b(merchantId, startDate, endDate)) {
+                    writeB2b(json, rows);
+                }
+                try (Stream<Object[]> rows = saleRepository.streamGstr1B2cl(merchantId, startDate, endDate, b2clLimit)) {
+                    writeB2cl(json, rows);
+                }
+                writeB2cs(json, saleRepository.sumGstr1B2cs(merchantId, startDate, endDate, b2clLimit), homeState);
+                json.writeFieldName("hsn");
+                json.writeStartObject();
+                writeHsnData(json, saleRepository.sumHsnSummary(merchantId, startDate, endDate));
+                json.writeEndObject();
+
+                json.writeEndObject();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return buffer.toByteArray();
+        });
+    }
+
+    /**
+     * b2b: [{ctin, inv: [{inum, idt, val, pos, rchrg, inv_typ, itms: [{num, itm_det}]}]}].
+     * Rows arrive ordered by GSTIN, invoice and rate, so each is written as soon as it is read.
+     */
+    private void writeB2b(JsonGenerator json, Stream<Object[]> rows) throws IOException {
+        String[] currentCtin = {null};
+        Number[] currentSale = {null};
+        int[] itemNumber = {0};
+        rows.forEach(row -> {
+            try {
+                String ctin = (String) row[0];
+                Number saleId = (Number) row[1];
+                if (!ctin.equals(currentCtin[0])) {
+                    if (currentCtin[0] == null) {
+                        json.writeArrayFieldStart("b2b");
+                    } else {
+                        closeInvoice(json);
+                        json.writeEndArray();
+                        json.writeEndObject();
+                    }
+                    json.writeStartObject();
+                    json.writeStringField("ctin", ctin);
+                    json.writeArrayFieldStart("inv");
+                    currentCtin[0] = ctin;
+                    currentSale[0] = null;
+                }
+                if (currentSale[0] == null || currentSale[0].longValue() != saleId.longValue()) {
+                    if (currentSale[0] != null) {
+                        closeInvoice(json);
+                    }
+                    String pos = GstTaxEngine.stateCode((String) row[5]);
+                    openInvoice(json, (String) row[2], row[3], (BigDecimal) row[4],
+                        pos != null ? pos : GstTaxEngine.gstinStateCode(ctin));
+                    json.writeStringField("rchrg", "N");
+                    json.writeStringField("inv_typ", "R");
+                    json.writeArrayFieldStart("itms");
+                    currentSale[0] = saleId;
+                    itemNumber[0] = 0;
+                }
+                writeItem(json, ++itemNumber[0], (BigDecimal) row[6], (BigDecimal) row[7],
+                    (BigDecimal) row[8], (BigDecimal) row[9], (BigDecimal) row[10]);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        if (currentCtin[0] != null) {
+            closeInvoice(json);
+            json.writeEndArray();
+            json.writeEndObject();
+            json.writeEndArray();
+        }
+    }
+
+    /**
+     * b2cl: [{pos, inv: [{inum, idt, val, itms: [{num, itm_det}]}]}]. These are the few large
+     * inter-state B2C invoices, grouped by place of supply in memory.
+     */
+    private void writeB2cl(JsonGenerator json, Stream<Object[]> rows) throws IOException {
+        Map<String, List<Object[]>> byPlaceOfSupply = new TreeMap<>();
+        rows.forEach(row -> {
+            String pos = GstTaxEngine.stateCode((String) row[4]);
+            byPlaceOfSupply.computeIfAbsent(pos != null ? pos : "97", key -> new ArrayList<>()).add(row);
+        });
+        if (byPlaceOfSupply.isEmpty()) {
+            return;
+        }
+
+        json.writeArrayFieldStart("b2cl");
+        for (Map.Entry<String, List<Object[]>> entry : byPlaceOfSupply.entrySet()) {
+            json.writeStartObject();
+            json.writeStringField("pos", entry.getKey());
+            json.writeArrayFieldStart("inv");
+            long currentSale = -1;
+            int itemNumber = 0;
+            for (Object[] row : entry.getValue()) {
+                long saleId = ((Number) row[0]).longValue();
+                if (saleId != currentSale) {
+                    if (currentSale != -1) {
+                        closeInvoice(json);
+                    }
+                    openInvoice(json, (String) row[1], row[2], (BigDecimal) row[3], null);
+                    json.writeArrayFieldStart("itms");
+                    currentSale = saleId;
+                    itemNumber = 0;
+                }
+                writeItem(json, ++itemNumber, (BigDecimal) row[5], (BigDecimal) row[6], (BigDecimal) row[7], null, null);
+            }
+            closeInvoice(json);
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+    }
+
+    /**
+     * b2cs: [{sply_ty, pos, typ, rt, txval, iamt, camt, samt, csamt}], one per supply type,
+     * place of supply and rate. Intra-state sales without a recorded state are the merchant's own state.
+     */
+    private void writeB2cs(JsonGenerator json, List<Object[]> rows, String homeState) throws IOException {
+        Map<String, BigDecimal[]> buckets = new TreeMap<>();
+        for (Object[] row : rows) {
+            boolean interState = Boolean.TRUE.equals(row[1]);
+            String pos = GstTaxEngine.stateCode((String) row[0]);
+            if (pos == null) {
+                pos = interState || homeState == null ? "97" : homeState;
+            }
+            String key = (interState ? "INTER" : "INTRA") + "|" + pos + "|" + rate((BigDecimal) row[2]);
+            BigDecimal[] sums = buckets.computeIfAbsent(key, k -> new BigDecimal[] {
+                BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO});
+            for (int i = 0; i < 4; i++) {
+                sums[i] = sums[i].add(amount((BigDecimal) row[3 + i]));
+            }
+        }
+        if (buckets.isEmpty()) {
+            return;
+        }
+
+        json.writeArrayFieldStart("b2cs");
+        for (Map.Entry<String, BigDecimal[]> bucket : buckets.entrySet()) {
+            String[] key = bucket.getKey().split("\\|");
+            BigDecimal[] sums = bucket.getValue();
+            json.writeStartObject();
+            json.writeStringField("sply_ty", key[0]);
+            json.writeStringField("pos", key[1]);
+            json.writeStringField("typ", "OE");
+            json.writeFieldName("rt");
+            json.writeNumber(key[2]);
+            writeAmount(json, "txval", sums[0]);
+            if ("INTER".equals(key[0])) {
+                writeAmount(json, "iamt", sums[1]);
+            } else {
+                writeAmount(json, "camt", sums[2]);
+                writeAmount(json, "samt", sums[3]);
+            }
+            writeAmount(json, "csamt", BigDecimal.ZERO);
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+    }
+
+    /**
+     * "data": [{num, hsn_sc, desc, uqc, qty, rt, txval, iamt, camt, samt, csamt}]. Units are mapped
+     * to GSTN quantity codes, so rows whose units share a code are merged.
+     */
+    private void writeHsnData(JsonGenerator json, List<Object[]> rows) throws IOException {
+        Map<String, Object[]> merged = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            String uqc = uqc((String) row[2]);
+            String key = row[0] + "|" + uqc + "|" + rate((BigDecimal) row[3]);
+            Object[] sums = merged.get(key);
+            if (sums == null) {
+                merged.put(key, new Object[] {row[0], row[1], uqc, row[3], quantity(row[4]),
+                    amount((BigDecimal) row[5]), amount((BigDecimal) row[6]), amount((BigDecimal) row[7]),
+                    amount((BigDecimal) row[8])});
+            } else {
+                sums[4] = ((BigDecimal) sums[4]).add(quantity(row[4]));
+                for (int i = 5; i < 9; i++) {
+                    sums[i] = ((BigDecimal) sums[i]).add(amount((BigDecimal) row[i]));
+                }
+            }
+        }
+
+        json.writeArrayFieldStart("data");
+        int number = 0;
+        for (Object[] row : merged.values()) {
+            String description = row[1] != null ? (String) row[1] : "";
+            json.writeStartObject();
+            json.writeNumberField("num", ++number);
+            json.writeStringField("hsn_sc", (String) row[0]);
+            json.writeStringField("desc", description.length() > HSN_DESCRIPTION_LENGTH
+                ? description.substring(0, HSN_DESCRIPTION_LENGTH) : description);
+            json.writeStringField("uqc", (String) row[2]);
+            json.writeFieldName("qty");
+            json.writeNumber(((BigDecimal) row[4]).setScale(2, RoundingMode.HALF_UP).toPlainString());
+            json.writeFieldName("rt");
+            json.writeNumber(rate((BigDecimal) row[3]));
+            writeAmount(json, "txval", (BigDecimal) row[5]);
+            writeAmount(json, "iamt", (BigDecimal) row[6]);
+            writeAmount(json, "camt", (BigDecimal) row[7]);
+            writeAmount(json, "samt", (BigDecimal) row[8]);
+            writeAmount(json, "csamt", BigDecimal.ZERO);
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+    }
+
+    private void openInvoice(JsonGenerator json, String invoiceNumber, Object invoiceDate, BigDecimal value,
+                             String pos) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("inum", invoiceNumber);
+        json.writeStringField("idt", toLocalDate(invoiceDate).format(INVOICE_DATE));
+        writeAmount(json, "val", value);
+        if (pos != null) {
+            json.writeStringField("pos", pos);
+        }
+    }
+
+    private void closeInvoice(JsonGenerator json) throws IOException {
+        json.writeEndArray();
+        json.writeEndObject();
+    }
+
+    /**
+     * One itm entry; pass null CGST/SGST for IGST-only sections.
+     */
+    private void writeItem(JsonGenerator json, int number, BigDecimal rate, BigDecimal taxable, BigDecimal igst,
+                           BigDecimal cgst, BigDecimal sgst) throws IOException {
+        BigDecimal rt = rate != null ? rate : BigDecimal.ZERO;
+        json.writeStartObject();
+        json.writeNumberField("num", number);
+        json.writeObjectFieldStart("itm_det");
+        json.writeFieldName("rt");
+        json.writeNumber(rate(rt));
+        writeAmount(json, "txval", taxable);
+        writeAmount(json, "iamt", igst);
+        if (cgst != null || sgst != null) {
+            writeAmount(json, "camt", cgst);
+            writeAmount(json, "samt", sgst);
+        }
+        writeAmount(json, "csamt", BigDecimal.ZERO);
+        json.writeEndObject();
+        json.writeEndObject();
+    }
+
+    private void writeAmount(JsonGenerator json, String field, BigDecimal value) throws IOException {
+        json.writeFieldName(field);
+        json.writeNumber(amount(value).setScale(2, RoundingMode.HALF_UP).toPlainString());
+    }
+
+    private static BigDecimal amount(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+
+    private static BigDecimal quantity(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal ? (BigDecimal) value : BigDecimal.valueOf(((Number) value).longValue());
+    }
+
+    private static String rate(BigDecimal rate) {
+        return rate == null || rate.signum() == 0 ? "0" : rate.stripTrailingZeros().toPlainString();
+    }
+
+    private static String uqc(String unit) {
+        if (unit == null) {
+            return "OTH";
+        }
+        String normalized = unit.trim().toLowerCase().replace(".", "");
+        if (UQC.containsValue(normalized.toUpperCase())) {
+            return normalized.toUpperCase();
+        }
+        return UQC.getOrDefault(normalized, "OTH");
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        return value instanceof java.sql.Date ? ((java.sql.Date) value).toLocalDate() : (LocalDate) value;
+    }
+
+    private static byte[] join(CompletableFuture<byte[]> month) {
+        try {
+            return month.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
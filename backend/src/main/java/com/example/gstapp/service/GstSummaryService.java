@@ -0,0 +1,228 @@
+package com.example.gstapp.service;
+
+import com.example.gstapp.dto.Gstr3bResponse;
+import com.example.gstapp.model.GstMonthlySummary;
+import com.example.gstapp.model.Purchase;
+import com.example.gstapp.model.PurchaseItem;
+import com.example.gstapp.model.Sale;
+import com.example.gstapp.model.SaleItem;
+import com.example.gstapp.repository.GstMonthlySummaryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains monthly output tax (sales) and input tax credit (purchases) per rate slab and
+ * computes GSTR-3B from them. Documents move their month's slabs by their net tax when they
+ * are created, edited or deleted, so a 3B for any period reads one row per month and slab.
+ *
+ * <p>All purchase tax is treated as eligible ITC; the tree does not track blocked credits.
+ */
+@Service
+@Transactional
+public class GstSummaryService {
+
+    private static final int TAXABLE = 0;
+    private static final int IGST = 1;
+    private static final int CGST = 2;
+    private static final int SGST = 3;
+    private static final int MAX_MONTHS = 24;
+
+    @Autowired
+    private GstMonthlySummaryRepository gstMonthlySummaryRepository;
+
+    /**
+     * Tax of a saved sale by rate slab. Take one before editing or deleting the sale and one
+     * after saving it, then pass both to recordChange.
+     */
+    public Contribution saleContribution(Sale sale) {
+        Contribution contribution = new Contribution(sale.getInvoiceDate());
+        for (SaleItem item : sale.getSaleItems()) {
+            contribution.add(item.getTaxPercentage(), item.getTaxableAmount(), item.getIgstAmount(),
+                item.getCgstAmount(), item.getSgstAmount());
+        }
+        return contribution;
+    }
+
+    public Contribution purchaseContribution(Purchase purchase) {
+        Contribution contribution = new Contribution(purchase.getBillDate().toLocalDate());
+        if (purchase.getItems() != null) {
+            for (PurchaseItem item : purchase.getItems()) {
+                contribution.add(item.getTaxPercent(), item.getTaxableAmount(), item.getIgstAmount(),
+                    item.getCgstAmount(), item.getSgstAmount());
+            }
+        }
+        return contribution;
+    }
+
+    /**
+     * Move the monthly slabs from a document's old contribution to its new one. Either side may
+     * be null for a create or a delete; slabs whose net change is zero are not written.
+     *
+     * @param direction GstMonthlySummary.OUTPUT for sales, GstMonthlySummary.INPUT for purchases
+     */
+    public void recordChange(Long merchantId, String direction, Contribution before, Contribution after) {
+        Map<String, long[]> deltas = new TreeMap<>();
+        if (before != null) {
+            before.addTo(deltas, -1);
+        }
+        if (after != null) {
+            after.addTo(deltas, 1);
+        }
+
+        for (Map.Entry<String, long[]> delta : deltas.entrySet()) {
+            long[] amounts = delta.getValue();
+            if (amounts[TAXABLE] == 0 && amounts[IGST] == 0 && amounts[CGST] == 0 && amounts[SGST] == 0) {
+                continue;
+            }
+            String[] key = delta.getKey().split("\\|");
+            gstMonthlySummaryRepository.applyDelta(merchantId, LocalDate.parse(key[0]), direction, new BigDecimal(key[1]),
+                GstTaxEngine.fromPaise(amounts[TAXABLE]), GstTaxEngine.fromPaise(amounts[IGST]),
+                GstTaxEngine.fromPaise(amounts[CGST]), GstTaxEngine.fromPaise(amounts[SGST]));
+        }
+    }
+
+    /**
+     * GSTR-3B for the months from..to (inclusive). Output tax is net of ITC following the
+     * set-off order: IGST credit against IGST, then CGST, then SGST; CGST credit against CGST,
+     * then IGST; SGST credit against SGST, then IGST. CGST and SGST credit never cross.
+     */
+    @Transactional(readOnly = true)
+    public Gstr3bResponse getGstr3b(Long merchantId, YearMonth from, YearMonth to) {
+        if (to.isBefore(from)) {
+            throw new RuntimeException("Period end is before period start");
+        }
+        if (from.plusMonths(MAX_MONTHS - 1).isBefore(to)) {
+            throw new RuntimeException("GSTR-3B period is limited to " + MAX_MONTHS + " months");
+        }
+
+        long[] taxableSupplies = new long[4];
+        long[] nilRatedSupplies = new long[4];
+        long[] itc = new long[4];
+        Map<String, long[]> slabs = new TreeMap<>();
+        for (GstMonthlySummary row : gstMonthlySummaryRepository
+                .findByMerchantIdAndPeriodBetweenOrderByPeriodAscDirectionAscTaxRateAsc(
+                    merchantId, from.atDay(1), to.atDay(1))) {
+            long[] amounts = {GstTaxEngine.toPaise(row.getTaxableAmount()), GstTaxEngine.toPaise(row.getIgstAmount()),
+                GstTaxEngine.toPaise(row.getCgstAmount()), GstTaxEngine.toPaise(row.getSgstAmount())};
+            boolean output = GstMonthlySummary.OUTPUT.equals(row.getDirection());
+            if (!output) {
+                add(itc, amounts);
+            } else if (row.getTaxRate().signum() == 0) {
+                add(nilRatedSupplies, amounts);
+            } else {
+                add(taxableSupplies, amounts);
+            }
+            add(slabs.computeIfAbsent(row.getDirection() + "|" + row.getTaxRate().toPlainString(), k -> new long[4]), amounts);
+        }
+
+        Gstr3bResponse response = new Gstr3bResponse();
+        response.setFromPeriod(from.toString());
+        response.setToPeriod(to.toString());
+        response.setOutwardTaxableSupplies(toHeads(taxableSupplies, true));
+        response.setOutwardNilRatedSupplies(toHeads(nilRatedSupplies, true));
+        response.setEligibleItc(toHeads(itc, false));
+
+        long[] liability = {0, taxableSupplies[IGST], taxableSupplies[CGST], taxableSupplies[SGST]};
+        response.setTaxPayable(toHeads(liability, false));
+        long[] credit = {0, itc[IGST], itc[CGST], itc[SGST]};
+        List<Gstr3bResponse.Utilisation> utilisation = new ArrayList<>();
+        setOff(credit, IGST, liability, IGST, utilisation);
+        setOff(credit, IGST, liability, CGST, utilisation);
+        setOff(credit, IGST, liability, SGST, utilisation);
+        setOff(credit, CGST, liability, CGST, utilisation);
+        setOff(credit, CGST, liability, IGST, utilisation);
+        setOff(credit, SGST, liability, SGST, utilisation);
+        setOff(credit, SGST, liability, IGST, utilisation);
+        response.setItcUtilisation(utilisation);
+        response.setPayableInCash(toHeads(liability, false));
+        response.setItcCarriedForward(toHeads(credit, false));
+
+        List<Gstr3bResponse.RateSlab> rateSlabs = new ArrayList<>();
+        for (Map.Entry<String, long[]> slab : slabs.entrySet()) {
+            String[] key = slab.getKey().split("\\|");
+            long[] amounts = slab.getValue();
+            Gstr3bResponse.RateSlab rateSlab = new Gstr3bResponse.RateSlab();
+            rateSlab.setDirection(key[0]);
+            rateSlab.setRate(new BigDecimal(key[1]));
+            rateSlab.setTaxableValue(GstTaxEngine.fromPaise(amounts[TAXABLE]));
+            rateSlab.setIgst(GstTaxEngine.fromPaise(amounts[IGST]));
+            rateSlab.setCgst(GstTaxEngine.fromPaise(amounts[CGST]));
+            rateSlab.setSgst(GstTaxEngine.fromPaise(amounts[SGST]));
+            rateSlabs.add(rateSlab);
+        }
+        response.setRateSlabs(rateSlabs);
+        return response;
+    }
+
+    private void setOff(long[] credit, int creditHead, long[] liability, int liabilityHead,
+                        List<Gstr3bResponse.Utilisation> utilisation) {
+        long used = Math.min(credit[creditHead], liability[liabilityHead]);
+        if (used <= 0) {
+            return;
+        }
+        credit[creditHead] -= used;
+        liability[liabilityHead] -= used;
+        utilisation.add(new Gstr3bResponse.Utilisation(headName(creditHead), headName(liabilityHead),
+            GstTaxEngine.fromPaise(used)));
+    }
+
+    private String headName(int head) {
+        return head == IGST ? "IGST" : head == CGST ? "CGST" : "SGST";
+    }
+
+    private void add(long[] total, long[] amounts) {
+        for (int i = 0; i < total.length; i++) {
+            total[i] += amounts[i];
+        }
+    }
+
+    private Gstr3bResponse.TaxHeads toHeads(long[] amounts, boolean withTaxableValue) {
+        Gstr3bResponse.TaxHeads heads = new Gstr3bResponse.TaxHeads();
+        heads.setTaxableValue(withTaxableValue ? GstTaxEngine.fromPaise(amounts[TAXABLE]) : null);
+        heads.setIgst(GstTaxEngine.fromPaise(amounts[IGST]));
+        heads.setCgst(GstTaxEngine.fromPaise(amounts[CGST]));
+        heads.setSgst(GstTaxEngine.fromPaise(amounts[SGST]));
+        heads.setCess(BigDecimal.ZERO.setScale(2));
+        return heads;
+    }
+
+    /**
+     * A document's taxable value and tax per head (in paise) for each rate, in its month.
+     */
+    public static class Contribution {
+        private final LocalDate period;
+        private final Map<BigDecimal, long[]> slabs = new TreeMap<>();
+
+        Contribution(LocalDate documentDate) {
+            this.period = documentDate.withDayOfMonth(1);
+        }
+
+        void add(BigDecimal rate, BigDecimal taxable, BigDecimal igst, BigDecimal cgst, BigDecimal sgst) {
+            BigDecimal slab = (rate != null ? rate : BigDecimal.ZERO).setScale(2, RoundingMode.HALF_UP);
+            long[] amounts = slabs.computeIfAbsent(slab, k -> new long[4]);
+            amounts[TAXABLE] += GstTaxEngine.toPaise(taxable);
+            amounts[IGST] += GstTaxEngine.toPaise(igst);
+            amounts[CGST] += GstTaxEngine.toPaise(cgst);
+            amounts[SGST] += GstTaxEngine.toPaise(sgst);
+        }
+
+        void addTo(Map<String, long[]> deltas, int sign) {
+            for (Map.Entry<BigDecimal, long[]> slab : slabs.entrySet()) {
+                long[] delta = deltas.computeIfAbsent(period + "|" + slab.getKey().toPlainString(), k -> new long[4]);
+                for (int i = 0; i < delta.length; i++) {
+                    delta[i] += sign * slab.getValue()[i];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.example.gstapp.service;
+
+import com.example.gstapp.model.Company;
+import com.example.gstapp.model.Item;
+import com.example.gstapp.model.Party;
+import com.example.gstapp.repository.CompanyRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Line and document tax for sales and purchases, computed in whole paise with long arithmetic.
+ * Amounts enter and leave as BigDecimal only at the edges (request in, entity out); every
+ * intermediate step is a primitive multiply/divide rounded half-up to the paisa.
+ *
+ * <p>Rates and percentage discounts are held in basis points (18% = 1800) and quantities in
+ * thousandths, so fractional purchase quantities and rates like 0.25% stay exact.
+ */
+@Service
+public class GstTaxEngine {
+
+    public static final String WITH_TAX = "WITH_TAX";
+    public static final String WITHOUT_TAX = "WITHOUT_TAX";
+
+    private static final long BASIS_POINTS = 10_000L;
+    private static final long QUANTITY_SCALE = 1_000L;
+
+    // GST state codes by normalized state name, used to compare the merchant's state with the place of supply
+    private static final Map<String, String> STATE_CODES = new HashMap<>();
+
+    static {
+        String[][] states = {
+            {"01", "Jammu and Kashmir"}, {"02", "Himachal Pradesh"}, {"03", "Punjab"}, {"04", "Chandigarh"},
+            {"05", "Uttarakhand"}, {"06", "Haryana"}, {"07", "Delhi"}, {"08", "Rajasthan"}, {"09", "Uttar Pradesh"},
+            {"10", "Bihar"}, {"11", "Sikkim"}, {"12", "Arunachal Pradesh"}, {"13", "Nagaland"}, {"14", "Manipur"},
+            {"15", "Mizoram"}, {"16", "Tripura"}, {"17", "Meghalaya"}, {"18", "Assam"}, {"19", "West Bengal"},
+            {"20", "Jharkhand"}, {"21", "Odisha"}, {"21", "Orissa"}, {"22", "Chhattisgarh"}, {"23", "Madhya Pradesh"},
+            {"24", "Gujarat"}, {"25", "Daman and Diu"}, {"26", "Dadra and Nagar Haveli and Daman and Diu"},
+            {"26", "Dadra and Nagar Haveli"}, {"27", "Maharashtra"}, {"29", "Karnataka"}, {"30", "Goa"},
+            {"31", "Lakshadweep"}, {"32", "Kerala"}, {"33", "Tamil Nadu"}, {"34", "Puducherry"}, {"34", "Pondicherry"},
+            {"35", "Andaman and Nicobar Islands"}, {"36", "Telangana"}, {"37", "Andhra Pradesh"}, {"38", "Ladakh"},
+            {"97", "Other Territory"}
+        };
+        for (String[] state : states) {
+            STATE_CODES.put(normalizeStateName(state[1]), state[0]);
+        }
+    }
+
+    // Parsed Item.taxRate strings ("GST@18%", "IGST_5", "NONE", ...) in basis points
+    private final Map<String, Long> taxRateCache = new ConcurrentHashMap<>();
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    /**
+     * Whether a document is an inter-state supply (IGST) rather than intra-state (CGST + SGST).
+     * The place of supply is the given state, or else the state code of the party's GSTIN.
+     * When either side is unknown the supply is treated as intra-state.
+     */
+    public boolean isInterState(Long merchantId, String stateOfSupply, Party party) {
+        String supplyState = stateCode(stateOfSupply);
+        if (supplyState == null && party != null) {
+            supplyState = gstinStateCode(party.getGstNumber());
+        }
+        if (supplyState == null) {
+            return false;
+        }
+
+        String homeState = merchantStateCode(merchantId);
+        return homeState != null && !homeState.equals(supplyState);
+    }
+
+    /**
+     * GST state code of the merchant's registered business, or null when it is not on file.
+     */
+    public String merchantStateCode(Long merchantId) {
+        return companyRepository.findByUserId(merchantId)
+            .map(this::companyStateCode)
+            .orElse(null);
+    }
+
+    /**
+     * Compute one line into {@code out}, which callers may reuse across lines.
+     *
+     * @param quantity        line quantity
+     * @param price           unit price, tax-inclusive when priceType is WITH_TAX
+     * @param priceType       WITH_TAX or WITHOUT_TAX; null means WITHOUT_TAX
+     * @param discountPercent percentage discount on the pre-tax value; when zero or null,
+     *                        discountAmount is taken as a flat pre-tax discount
+     * @param discountAmount  flat discount, may be null
+     * @param taxPercent      GST rate in percent
+     * @param interState      true for IGST, false for CGST + SGST
+     */
+    public LineTax computeLine(BigDecimal quantity, BigDecimal price, String priceType, BigDecimal discountPercent,
+                               BigDecimal discountAmount, BigDecimal taxPercent, boolean interState, LineTax out) {
+        return computeLine(toThousandths(quantity), toPaise(price), WITH_TAX.equals(priceType),
+            toBasisPoints(discountPercent), toPaise(discountAmount), toBasisPoints(taxPercent), interState, out);
+    }
+
+    /**
+     * Fixed-point core of {@link #computeLine(BigDecimal, BigDecimal, String, BigDecimal, BigDecimal, BigDecimal, boolean, LineTax)}.
+     * An inclusive price with no discount always totals exactly quantity x price.
+     */
+    public LineTax computeLine(long quantityThousandths, long pricePaise, boolean inclusive, long discountBasisPoints,
+                               long flatDiscountPaise, long rateBasisPoints, boolean interState, LineTax out) {
+        long lineValue = divideHalfUp(Math.multiplyExact(quantityThousandths, pricePaise), QUANTITY_SCALE);
+        long gross = inclusive && rateBasisPoints > 0
+            ? divideHalfUp(lineValue * BASIS_POINTS, BASIS_POINTS + rateBasisPoints)
+            : lineValue;
+
+        long discount = discountBasisPoints > 0
+            ? divideHalfUp(gross * discountBasisPoints, BASIS_POINTS)
+            : Math.max(0, flatDiscountPaise);
+        discount = Math.min(discount, gross);
+        long taxable = gross - discount;
+
+        long tax = inclusive && discount == 0
+            ? lineValue - gross
+            : divideHalfUp(taxable * rateBasisPoints, BASIS_POINTS);
+
+        out.grossPaise = gross;
+        out.discountPaise = discount;
+        out.taxablePaise = taxable;
+        out.taxPaise = tax;
+        if (interState) {
+            out.cgstPaise = 0;
+            out.sgstPaise = 0;
+            out.igstPaise = tax;
+        } else {
+            // Odd paise go to CGST so the two halves always add back up to the tax
+            out.cgstPaise = divideHalfUp(tax, 2);
+            out.sgstPaise = tax - out.cgstPaise;
+            out.igstPaise = 0;
+        }
+        out.totalPaise = taxable + tax;
+        return out;
+    }
+
+    /**
+     * GST rate of an item as a percentage, parsed from its taxRate label.
+     */
+    public BigDecimal taxPercentOf(Item item) {
+        return taxPercentOf(item.getTaxRate());
+    }
+
+    public BigDecimal taxPercentOf(String taxRate) {
+        return BigDecimal.valueOf(rateBasisPointsOf(taxRate), 2);
+    }
+
+    private long rateBasisPointsOf(String taxRate) {
+        if (taxRate == null || taxRate.isBlank()) {
+            return 0;
+        }
+        return taxRateCache.computeIfAbsent(taxRate, GstTaxEngine::parseRate);
+    }
+
+    private static long parseRate(String taxRate) {
+        // Labels look like "GST@18%", "IGST@0.25%" or "GST_5"; anything without a number is exempt
+        int start = -1;
+        int end = taxRate.length();
+        for (int i = 0; i < taxRate.length(); i++) {
+            char c = taxRate.charAt(i);
+            boolean numeric = Character.isDigit(c) || (c == '.' && start >= 0);
+            if (numeric && start < 0) {
+                start = i;
+            } else if (!numeric && start >= 0) {
+                end = i;
+                break;
+            }
+        }
+        return start < 0 ? 0 : toBasisPoints(new BigDecimal(taxRate.substring(start, end)));
+    }
+
+    private String companyStateCode(Company company) {
+        String code = gstinStateCode(company.getGstin());
+        return code != null ? code : stateCode(company.getState());
+    }
+
+    public static String gstinStateCode(String gstin) {
+        if (gstin == null || gstin.trim().length() < 2) {
+            return null;
+        }
+        String code = gstin.trim().substring(0, 2);
+        return Character.isDigit(code.charAt(0)) && Character.isDigit(code.charAt(1)) ? code : null;
+    }
+
+    /**
+     * Accepts a state name ("Maharashtra"), a GST state code ("27") or both ("27-Maharashtra").
+     */
+    public static String stateCode(String state) {
+        if (state == null || state.isBlank()) {
+            return null;
+        }
+        String trimmed = state.trim();
+        if (trimmed.length() >= 2 && Character.isDigit(trimmed.charAt(0)) && Character.isDigit(trimmed.charAt(1))) {
+            return trimmed.substring(0, 2);
+        }
+        return STATE_CODES.get(normalizeStateName(trimmed));
+    }
+
+    private static String normalizeStateName(String name) {
+        StringBuilder normalized = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = Character.toLowerCase(name.charAt(i));
+            if (Character.isLetter(c)) {
+                normalized.append(c);
+            } else if (c == '&') {
+                normalized.append("and");
+            }
+        }
+        return normalized.toString();
+    }
+
+    public static long toPaise(BigDecimal amount) {
+        // movePointRight keeps small values in BigDecimal's compact long form, so no BigInteger is built
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+    }
+
+    public static BigDecimal fromPaise(long paise) {
+        return BigDecimal.valueOf(paise, 2);
+    }
+
+    private static long toBasisPoints(BigDecimal percent) {
+        return toPaise(percent);
+    }
+
+    private static long toThousandths(BigDecimal quantity) {
+        return quantity == null ? 0 : quantity.setScale(3, RoundingMode.HALF_UP).movePointRight(3).longValueExact();
+    }
+
+    /**
+     * Integer division rounding half away from zero; the denominator must be positive.
+     */
+    private static long divideHalfUp(long numerator, long denominator) {
+        long quotient = numerator / denominator;
+        long remainder = numerator % denominator;
+        if (Math.abs(remainder) * 2 >= denominator) {
+            quotient += Long.signum(numerator);
+        }
+        return quotient;
+    }
+
+    /**
+     * Tax breakup of one line, or the running total of a document's lines. All amounts are in paise.
+     */
+    public static class LineTax {
+        private long grossPaise;
+        private long discountPaise;
+        private long taxablePaise;
+        private long cgstPaise;
+        private long sgstPaise;
+        private long igstPaise;
+        private long taxPaise;
+        private long totalPaise;
+
+        /**
+         * Add another line into this running total.
+         */
+        public void add(LineTax line) {
+            grossPaise += line.grossPaise;
+            discountPaise += line.discountPaise;
+            taxablePaise += line.taxablePaise;
+            cgstPaise += line.cgstPaise;
+            sgstPaise += line.sgstPaise;
+            igstPaise += line.igstPaise;
+            taxPaise += line.taxPaise;
+            totalPaise += line.totalPaise;
+        }
+
+        // Amounts as two-decimal BigDecimals for entities and responses
+        public BigDecimal getGrossAmount() {
+            return fromPaise(grossPaise);
+        }
+
+        public BigDecimal getDiscountAmount() {
+            return fromPaise(discountPaise);
+        }
+
+        public BigDecimal getTaxableAmount() {
+            return fromPaise(taxablePaise);
+        }
+
+        public BigDecimal getCgstAmount() {
+            return fromPaise(cgstPaise);
+        }
+
+        public BigDecimal getSgstAmount() {
+            return fromPaise(sgstPaise);
+        }
+
+        public BigDecimal getIgstAmount() {
+            return fromPaise(igstPaise);
+        }
+
+        public BigDecimal getTaxAmount() {
+            return fromPaise(taxPaise);
+        }
+
+        public BigDecimal getTotalAmount() {
+            return fromPaise(totalPaise);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.gstapp.service;
+
+import com.example.gstapp.model.IdempotencyKey;
+import com.example.gstapp.repository.IdempotencyKeyRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Backing store for the Idempotency-Key header on document create endpoints.
+ * Every method commits on its own so a claimed key is visible to concurrent retries
+ * before the create itself runs.
+ */
+@Service
+@Transactional(propagation = Propagation.REQUIRES_NEW)
+public class IdempotencyService {
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Value("${idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    // An IN_PROGRESS claim older than this is taken to belong to a request that died with its node
+    @Value("${idempotency.in-progress-timeout-seconds:120}")
+    private long inProgressTimeoutSeconds;
+
+    /**
+     * Try to claim a key for a new request. claimedAt identifies the claim and must be passed
+     * back to complete or release; a claim that has been taken over after its lease ran out
+     * can no longer do either.
+     *
+     * @return null if the caller now owns the key and should run the request,
+     *         otherwise the existing live entry for the key
+     */
+    public IdempotencyKey claim(Long merchantId, String key, String path, String requestHash, LocalDateTime claimedAt) {
+        LocalDateTime expiresAt = claimedAt.plusHours(ttlHours);
+        LocalDateTime staleBefore = claimedAt.minusSeconds(inProgressTimeoutSeconds);
+        if (idempotencyKeyRepository.claim(merchantId, key, path, requestHash, claimedAt, expiresAt, staleBefore) == 1) {
+            return null;
+        }
+        return idempotencyKeyRepository.findByMerchantIdAndIdempotencyKey(merchantId, key)
+            // Evicted between the claim and the lookup; let the caller retry
+            .orElseThrow(() -> new RuntimeException("Idempotency key expired, please retry"));
+    }
+
+    /**
+     * A claim time for {@link #claim}, at the database's timestamp precision so it matches the stored row.
+     */
+    public LocalDateTime newClaimTime() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    public void complete(Long merchantId, String key, LocalDateTime claimedAt, int status, String contentType, String body) {
+        if (idempotencyKeyRepository.complete(merchantId, key, claimedAt, status, contentType, body) == 0) {
+            System.out.println("Idempotency key " + key + " was taken over before its request finished");
+        }
+    }
+
+    /**
+     * Forget a key whose request failed so the client can retry it.
+     */
+    public void release(Long merchantId, String key, LocalDateTime claimedAt) {
+        idempotencyKeyRepository.release(merchantId, key, claimedAt);
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.eviction-interval-ms:600000}")
+    public void evictExpired() {
+        int evicted = idempotencyKeyRepository.deleteExpired(LocalDateTime.now());
+        if (evicted > 0) {
+            System.out.println("Evicted " + evicted + " expired idempotency keys");
+        }
+    }
+}
@@ -0,0 +1,817 @@
+package com.example.gstapp.service;
+
+import com.example.gstapp.model.BankAccount;
+import com.example.gstapp.model.Company;
+import com.example.gstapp.model.Party;
+import com.example.gstapp.model.Purchase;
+import com.example.gstapp.model.PurchaseItem;
+import com.example.gstapp.model.Sale;
+import com.example.gstapp.model.SaleItem;
+import com.example.gstapp.repository.BankAccountRepository;
+import com.example.gstapp.repository.CompanyRepository;
+import com.example.gstapp.repository.PurchaseRepository;
+import com.example.gstapp.repository.SaleRepository;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.Element;
+import com.lowagie.text.Font;
+import com.lowagie.text.Image;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.Phrase;
+import com.lowagie.text.Rectangle;
+import com.lowagie.text.pdf.PdfPCell;
+import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.PdfWriter;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.awt.Color;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Renders sale invoices and purchase bills as PDF. Each document type has one template whose
+ * fonts, column layout and header cells are built at startup and copied into every page; the
+ * company logo and signature are decoded once and reused until the file on disk changes.
+ * Documents are loaded in a short read-only transaction and laid out after it has ended.
+ *
+ * <p>Bulk mode renders a date range into a zip on a worker pool. The writer takes the PDFs in
+ * document order and keeps at most a few documents per worker in flight, so memory stays flat
+ * whatever the size of the range.
+ */
+@Service
+public class InvoicePdfService {
+
+    public enum DocumentType { SALE, PURCHASE }
+
+    private static final DateTimeFormatter PRINT_DATE = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+    private static final int IN_FLIGHT_PER_WORKER = 4;
+    private static final float LOGO_SIZE = 64f;
+    private static final float SIGNATURE_WIDTH = 110f;
+    private static final float SIGNATURE_HEIGHT = 40f;
+    private static final float QR_SIZE = 92f;
+
+    private static final Color RULE = new Color(0xC8, 0xC8, 0xC8);
+    private static final Color SHADE = new Color(0xEE, 0xF1, 0xF5);
+    private static final Font TITLE = new Font(Font.HELVETICA, 14, Font.BOLD);
+    private static final Font HEADING = new Font(Font.HELVETICA, 12, Font.BOLD);
+    private static final Font LABEL = new Font(Font.HELVETICA, 8, Font.BOLD);
+    private static final Font TEXT = new Font(Font.HELVETICA, 8, Font.NORMAL);
+    private static final Font SMALL = new Font(Font.HELVETICA, 7, Font.NORMAL, Color.DARK_GRAY);
+
+    private static final String[] ONES = {"", "One", "Two", "Three", "Four", "Five", "Six", "Seven", "Eight", "Nine",
+        "Ten", "Eleven", "Twelve", "Thirteen", "Fourteen", "Fifteen", "Sixteen", "Seventeen", "Eighteen", "Nineteen"};
+    private static final String[] TENS = {"", "", "Twenty", "Thirty", "Forty", "Fifty", "Sixty", "Seventy", "Eighty", "Ninety"};
+
+    @Autowired
+    private SaleRepository saleRepository;
+
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+
+    @Autowired
+    private CompanyRepository companyRepository;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    private final Map<DocumentType, InvoiceTemplate> templates = new EnumMap<>(DocumentType.class);
+    private final Map<String, CachedImage> imageCache;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExecutorService executor;
+    private final int parallelism;
+    private final int bulkMaxDocuments;
+
+    public InvoicePdfService(PlatformTransactionManager transactionManager,
+                             @Value("${invoice.pdf.parallelism:4}") int parallelism,
+                             @Value("${invoice.pdf.bulk-max-documents:5000}") int bulkMaxDocuments,
+                             @Value("${invoice.pdf.image-cache-size:256}") int imageCacheSize) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.parallelism = Math.max(1, parallelism);
+        this.bulkMaxDocuments = bulkMaxDocuments;
+        this.imageCache = Collections.synchronizedMap(new LinkedHashMap<String, CachedImage>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedImage> eldest) {
+                return size() > imageCacheSize;
+            }
+        });
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "invoice-pdf-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        templates.put(DocumentType.SALE, new InvoiceTemplate("TAX INVOICE", "Bill To", "Invoice No.", "Invoice Date", "Received"));
+        templates.put(DocumentType.PURCHASE, new InvoiceTemplate("PURCHASE BILL", "Bill From", "Bill No.", "Bill Date", "Paid"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public RenderedInvoice renderSale(Long merchantId, Long saleId) {
+        return render(merchantId, DocumentType.SALE, saleId, loadLetterhead(merchantId));
+    }
+
+    public RenderedInvoice renderPurchase(Long merchantId, Long purchaseId) {
+        return render(merchantId, DocumentType.PURCHASE, purchaseId, loadLetterhead(merchantId));
+    }
+
+    /**
+     * Ids of the documents a bulk archive for the range would hold. Called before anything is
+     * streamed so an oversized or empty range can still be reported as an error.
+     */
+    public List<Long> findBulkDocuments(Long merchantId, DocumentType type, LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            throw new RuntimeException("End date is before start date");
+        }
+        List<Long> ids = readOnlyTransaction.execute(status -> type == DocumentType.SALE
+            ? saleRepository.findIdsForPrint(merchantId, startDate, endDate)
+            : purchaseRepository.findIdsForPrint(merchantId, startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay()));
+        if (ids.size() > bulkMaxDocuments) {
+            throw new RuntimeException("Bulk printing is limited to " + bulkMaxDocuments + " documents, the range has " + ids.size());
+        }
+        return ids;
+    }
+
+    /**
+     * Write one PDF per document into a zip, in document order.
+     */
+    public void writeBulk(Long merchantId, DocumentType type, List<Long> ids, OutputStream output) throws IOException {
+        Letterhead letterhead = loadLetterhead(merchantId);
+        int window = parallelism * IN_FLIGHT_PER_WORKER;
+        List<CompletableFuture<RenderedInvoice>> pending = new ArrayList<>();
+        int next = 0;
+
+        ZipOutputStream zip = new ZipOutputStream(output);
+        // PDF streams are already deflated, so the archive only stores them
+        zip.setLevel(0);
+        try {
+            for (int i = 0; i < ids.size(); i++) {
+                while (next < ids.size() && next < i + window) {
+                    Long id = ids.get(next++);
+                    pending.add(CompletableFuture.supplyAsync(() -> render(merchantId, type, id, letterhead), executor));
+                }
+                RenderedInvoice invoice = join(pending.get(i));
+                pending.set(i, null);
+
+                zip.putNextEntry(new ZipEntry(String.format("%05d_%s", i + 1, invoice.getFileName())));
+                zip.write(invoice.getContent());
+                zip.closeEntry();
+            }
+            zip.finish();
+            zip.flush();
+        } finally {
+            // A client that disconnects mid-archive should not leave the pool rendering for nobody
+            for (CompletableFuture<RenderedInvoice> future : pending) {
+                if (future != null) {
+                    future.cancel(false);
+                }
+            }
+        }
+    }
+
+    private RenderedInvoice join(CompletableFuture<RenderedInvoice> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    private RenderedInvoice render(Long merchantId, DocumentType type, Long id, Letterhead letterhead) {
+        InvoiceData data = readOnlyTransaction.execute(status -> type == DocumentType.SALE
+            ? saleRepository.findForPrint(id, merchantId)
+                .map(sale -> fromSale(sale, letterhead))
+                .orElseThrow(() -> new RuntimeException("Sale not found"))
+            : purchaseRepository.findForPrint(id, merchantId)
+                .map(this::fromPurchase)
+                .orElseThrow(() -> new RuntimeException("Purchase not found")));
+
+        byte[] content = layout(templates.get(type), letterhead, data);
+        String fileName = (type == DocumentType.SALE ? "Invoice_" : "Bill_") + safeFileName(data.number) + ".pdf";
+        return new RenderedInvoice(fileName, content);
+    }
+
+    private Letterhead loadLetterhead(Long merchantId) {
+        return readOnlyTransaction.execute(status -> {
+            Letterhead letterhead = new Letterhead();
+            letterhead.company = companyRepository.findByUserId(merchantId).orElse(null);
+            letterhead.upiAccount = bankAccountRepository
+                .findFirstByMerchantIdAndIsActiveTrueAndPrintUpiQrTrueAndUpiIdIsNotNullOrderByIdAsc(merchantId)
+                .orElse(null);
+            return letterhead;
+        });
+    }
+
+    private InvoiceData fromSale(Sale sale, Letterhead letterhead) {
+        InvoiceData data = new InvoiceData();
+        data.number = sale.getInvoiceNumber();
+        data.date = sale.getInvoiceDate();
+        data.placeOfSupply = sale.getStateOfSupply();
+        Party party = sale.getParty();
+        data.partyName = sale.getBillingName() != null && !sale.getBillingName().isBlank()
+            ? sale.getBillingName() : party != null ? party.getName() : "Cash Sale";
+        data.partyAddress = sale.getBillingAddress() != null ? sale.getBillingAddress() : party != null ? party.getAddress() : null;
+        data.partyPhone = sale.getPhoneNumber() != null ? sale.getPhoneNumber() : party != null ? party.getPhone() : null;
+        data.partyGstin = party != null ? party.getGstNumber() : null;
+
+        int serial = 0;
+        for (SaleItem item : sale.getSaleItems()) {
+            data.lines.add(new String[] {
+                String.valueOf(++serial),
+                item.getItem() != null ? item.getItem().getName() : "",
+                item.getItem() != null && item.getItem().getHsnCode() != null ? item.getItem().getHsnCode() : "",
+                item.getQuantity() + (item.getUnit() != null ? " " + item.getUnit() : ""),
+                money(item.getPrice()),
+                money(item.getDiscountAmount()),
+                money(item.getTaxableAmount()),
+                percent(item.getTaxPercentage()),
+                money(item.getTaxAmount()),
+                money(item.getTotalAmount())
+            });
+        }
+
+        data.taxable = sum(sale.getSaleItems().stream().map(SaleItem::getTaxableAmount).toList());
+        data.cgst = sale.getCgstAmount();
+        data.sgst = sale.getSgstAmount();
+        data.igst = sale.getIgstAmount();
+        data.roundOff = sale.getRoundOff();
+        data.total = sale.getTotalAmount();
+        data.settled = sale.getReceivedAmount();
+        data.balance = sale.getBalanceAmount();
+
+        // Customers pay the sale's own account when it has a UPI handle, else the merchant's default
+        BankAccount account = sale.getBankAccount() != null && sale.getBankAccount().getUpiId() != null
+            && Boolean.TRUE.equals(sale.getBankAccount().getPrintUpiQr()) ? sale.getBankAccount() : letterhead.upiAccount;
+        if (account != null) {
+            BigDecimal due = data.balance != null && data.balance.signum() > 0 ? data.balance : data.total;
+            String payee = letterhead.company != null ? letterhead.company.getBusinessName() : account.getAccountHolderName();
+            data.upiUri = upiUri(account.getUpiId(), payee, due, data.number);
+            data.upiId = account.getUpiId();
+        }
+        if (sale.getBankAccount() != null && Boolean.TRUE.equals(sale.getBankAccount().getPrintBankDetails())) {
+            data.bankAccount = sale.getBankAccount();
+        } else if (letterhead.upiAccount != null && Boolean.TRUE.equals(letterhead.upiAccount.getPrintBankDetails())) {
+            data.bankAccount = letterhead.upiAccount;
+        }
+        return data;
+    }
+
+    private InvoiceData fromPurchase(Purchase purchase) {
+        InvoiceData data = new InvoiceData();
+        data.number = purchase.getBillNumber();
+        data.date = purchase.getBillDate() != null ? purchase.getBillDate().toLocalDate() : null;
+        data.placeOfSupply = purchase.getStateOfSupply();
+        Party party = purchase.getParty();
+        data.partyName = party != null ? party.getName() : "";
+        data.partyAddress = party != null ? party.getAddress() : null;
+        data.partyPhone = purchase.getPhoneNo() != null ? purchase.getPhoneNo() : party != null ? party.getPhone() : null;
+        data.partyGstin = party != null ? party.getGstNumber() : null;
+
+        List<PurchaseItem> items = purchase.getItems() != null ? purchase.getItems() : List.of();
+        int serial = 0;
+        for (PurchaseItem item : items) {
+            String name = item.getItemName() != null ? item.getItemName() : item.getItem() != null ? item.getItem().getName() : "";
+            data.lines.add(new String[] {
+                String.valueOf(++serial),
+                name,
+                item.getItem() != null && item.getItem().getHsnCode() != null ? item.getItem().getHsnCode() : "",
+                quantity(item.getQuantity()) + (item.getUnit() != null ? " " + item.getUnit() : ""),
+                money(item.getPricePerUnit()),
+                money(item.getDiscountAmount()),
+                money(item.getTaxableAmount()),
+                percent(item.getTaxPercent()),
+                money(item.getTaxAmount()),
+                money(item.getAmount())
+            });
+        }
+
+        data.taxable = sum(items.stream().map(PurchaseItem::getTaxableAmount).toList());
+        data.cgst = purchase.getCgstAmount();
+        data.sgst = purchase.getSgstAmount();
+        data.igst = purchase.getIgstAmount();
+        data.roundOff = purchase.getRoundOff();
+        data.total = purchase.getTotalAmount();
+        data.settled = purchase.getPaidAmount();
+        data.balance = purchase.getBalanceAmount();
+        return data;
+    }
+
+    private byte[] layout(InvoiceTemplate template, Letterhead letterhead, InvoiceData data) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(32 * 1024);
+        Document document = new Document(PageSize.A4, 32, 32, 32, 32);
+        try {
+            PdfWriter.getInstance(document, buffer);
+            document.open();
+            document.add(header(template, letterhead.company));
+            document.add(parties(template, data));
+            document.add(lines(template, data));
+            document.add(totals(template, data));
+            document.add(footer(letterhead.company, data));
+        } catch (DocumentException e) {
+            throw new RuntimeException("Failed to render invoice " + data.number + ": " + e.getMessage());
+        } finally {
+            document.close();
+        }
+        return buffer.toByteArray();
+    }
+
+    private PdfPTable header(InvoiceTemplate template, Company company) throws DocumentException {
+        PdfPTable table = new PdfPTable(new float[] {1.2f, 5f, 3f});
+        table.setWidthPercentage(100);
+
+        Image logo = company != null ? cachedImage(company.getLogoPath()) : null;
+        if (logo != null) {
+            logo.scaleToFit(LOGO_SIZE, LOGO_SIZE);
+            PdfPCell logoCell = new PdfPCell(logo, false);
+            logoCell.setBorder(Rectangle.NO_BORDER);
+            table.addCell(logoCell);
+        } else {
+            table.addCell(blank());
+        }
+
+        PdfPCell business = blank();
+        if (company != null) {
+            business.addElement(new Phrase(company.getBusinessName(), HEADING));
+            addLine(business, join(company.getBusinessAddress(), company.getState(), company.getPincode()), TEXT);
+            addLine(business, join(company.getPhoneNumber(), company.getEmail()), TEXT);
+            addLine(business, company.getGstin() != null ? "GSTIN: " + company.getGstin() : null, LABEL);
+        }
+        table.addCell(business);
+
+        PdfPCell title = new PdfPCell(new Phrase(template.title, TITLE));
+        title.setHorizontalAlignment(Element.ALIGN_RIGHT);
+        title.setVerticalAlignment(Element.ALIGN_TOP);
+        title.setBorder(Rectangle.NO_BORDER);
+        table.addCell(title);
+        table.setSpacingAfter(10);
+        return table;
+    }
+
+    private PdfPTable parties(InvoiceTemplate template, InvoiceData data) {
+        PdfPTable table = new PdfPTable(new float[] {6f, 4f});
+        table.setWidthPercentage(100);
+
+        PdfPCell party = new PdfPCell();
+        party.setBorderColor(RULE);
+        party.setPadding(5);
+        addLine(party, template.partyHeading, SMALL);
+        party.addElement(new Phrase(data.partyName, LABEL));
+        addLine(party, data.partyAddress, TEXT);
+        addLine(party, data.partyPhone != null ? "Phone: " + data.partyPhone : null, TEXT);
+        addLine(party, data.partyGstin != null ? "GSTIN: " + data.partyGstin : null, TEXT);
+        table.addCell(party);
+
+        PdfPCell details = new PdfPCell();
+        details.setBorderColor(RULE);
+        details.setPadding(5);
+        addLine(details, template.numberLabel + ": " + data.number, LABEL);
+        addLine(details, template.dateLabel + ": " + (data.date != null ? data.date.format(PRINT_DATE) : ""), TEXT);
+        addLine(details, data.placeOfSupply != null ? "Place of Supply: " + data.placeOfSupply : null, TEXT);
+        table.addCell(details);
+        table.setSpacingAfter(8);
+        return table;
+    }
+
+    private PdfPTable lines(InvoiceTemplate template, InvoiceData data) throws DocumentException {
+        PdfPTable table = new PdfPTable(InvoiceTemplate.LINE_WIDTHS);
+        table.setWidthPercentage(100);
+        table.setHeaderRows(1);
+        for (PdfPCell heading : template.lineHeadings) {
+            table.addCell(heading);
+        }
+        for (String[] line : data.lines) {
+            for (int column = 0; column < line.length; column++) {
+                table.addCell(cell(line[column], TEXT, InvoiceTemplate.LINE_ALIGN[column], true));
+            }
+        }
+        table.setSpacingAfter(8);
+        return table;
+    }
+
+    private PdfPTable totals(InvoiceTemplate template, InvoiceData data) throws DocumentException {
+        PdfPTable table = new PdfPTable(new float[] {6f, 2.5f, 1.5f});
+        table.setWidthPercentage(100);
+
+        PdfPCell words = new PdfPCell();
+        words.setBorder(Rectangle.NO_BORDER);
+        words.setRowspan(8);
+        addLine(words, "Amount in words", LABEL);
+        addLine(words, amountInWords(data.total), TEXT);
+        table.addCell(words);
+
+        addTotal(table, "Taxable Amount", data.taxable, false);
+        addTotal(table, "CGST", data.cgst, false);
+        addTotal(table, "SGST", data.sgst, false);
+        addTotal(table, "IGST", data.igst, false);
+        addTotal(table, "Round Off", data.roundOff, false);
+        addTotal(table, "Total", data.total, true);
+        addTotal(table, template.settledLabel, data.settled, false);
+        addTotal(table, "Balance", data.balance, true);
+        table.setSpacingAfter(12);
+        return table;
+    }
+
+    private PdfPTable footer(Company company, InvoiceData data) throws DocumentException {
+        PdfPTable table = new PdfPTable(new float[] {4f, 2.5f, 3.5f});
+        table.setWidthPercentage(100);
+        table.setKeepTogether(true);
+
+        PdfPCell bank = blank();
+        if (data.bankAccount != null) {
+            BankAccount account = data.bankAccount;
+            addLine(bank, "Bank Details", LABEL);
+            addLine(bank, account.getBankName() + (account.getBranchName() != null ? ", " + account.getBranchName() : ""), TEXT);
+            addLine(bank, "A/c No: " + account.getAccountNumber(), TEXT);
+            addLine(bank, "IFSC: " + account.getIfscCode(), TEXT);
+            addLine(bank, "A/c Holder: " + account.getAccountHolderName(), TEXT);
+        }
+        table.addCell(bank);
+
+        PdfPCell upi = blank();
+        if (data.upiUri != null) {
+            Image qr = qrCode(data.upiUri);
+            qr.scaleAbsolute(QR_SIZE, QR_SIZE);
+            upi.addElement(qr);
+            addLine(upi, "Scan to pay: " + data.upiId, SMALL);
+        }
+        table.addCell(upi);
+
+        PdfPCell signature = blank();
+        signature.setHorizontalAlignment(Element.ALIGN_RIGHT);
+        addLine(signature, "For " + (company != null ? company.getBusinessName() : ""), LABEL, Element.ALIGN_RIGHT);
+        Image image = company != null ? cachedImage(company.getSignaturePath()) : null;
+        if (image != null) {
+            image.scaleToFit(SIGNATURE_WIDTH, SIGNATURE_HEIGHT);
+            image.setAlignment(Image.ALIGN_RIGHT);
+            signature.addElement(image);
+        }
+        addLine(signature, "Authorised Signatory", SMALL, Element.ALIGN_RIGHT);
+        table.addCell(signature);
+        return table;
+    }
+
+    /**
+     * A private copy of a decoded company image. The decoded pixels are cached per path and
+     * shared between copies; a file replaced on disk is picked up by its new modification time.
+     */
+    private Image cachedImage(String path) {
+        if (path == null || path.isBlank()) {
+            return null;
+        }
+        try {
+            Path file = Paths.get(path);
+            if (!Files.isRegularFile(file)) {
+                return null;
+            }
+            long modified = Files.getLastModifiedTime(file).toMillis();
+            CachedImage cached = imageCache.get(path);
+            if (cached == null || cached.modified != modified) {
+                cached = new CachedImage(modified, precompress(Image.getInstance(Files.readAllBytes(file))));
+                imageCache.put(path, cached);
+            }
+            return Image.getInstance(cached.image);
+        } catch (IOException | RuntimeException e) {
+            // A broken upload should cost the invoice its logo, not the whole print
+            System.out.println("Skipping unreadable invoice image " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Decoders that unpack pixels (PNGs with alpha, for instance) leave them for the writer to
+     * deflate again in every document. Deflate them once here so every print only copies bytes.
+     */
+    private static Image precompress(Image image) throws DocumentException {
+        if (image.type() != Element.IMGRAW || image.isDeflated() || image.getRawData() == null) {
+            return image;
+        }
+        Image compressed = Image.getInstance((int) image.getWidth(), (int) image.getHeight(), image.getColorspace(),
+            image.getBpc(), deflate(image.getRawData()), image.getTransparency());
+        compressed.setDeflated(true);
+        compressed.setDpi(image.getDpiX(), image.getDpiY());
+        compressed.setAdditional(image.getAdditional());
+        compressed.setInverted(image.isInverted());
+        if (image.hasICCProfile()) {
+            compressed.tagICC(image.getICCProfile());
+        }
+        if (image.getImageMask() != null) {
+            Image mask = precompress(image.getImageMask());
+            mask.makeMask();
+            compressed.setImageMask(mask);
+        }
+        return compressed;
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                compressed.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return compressed.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * QR code as a 1-bit image, one pixel per module, so the PDF scales it losslessly.
+     */
+    private Image qrCode(String content) throws DocumentException {
+        BitMatrix matrix;
+        try {
+            matrix = new QRCodeWriter().encode(content, BarcodeFormat.QR_CODE, 0, 0,
+                Map.of(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.M, EncodeHintType.MARGIN, 1));
+        } catch (WriterException e) {
+            throw new RuntimeException("Failed to encode UPI QR: " + e.getMessage());
+        }
+
+        int width = matrix.getWidth();
+        int height = matrix.getHeight();
+        int rowBytes = (width + 7) / 8;
+        byte[] pixels = new byte[rowBytes * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                // In 1-bit DeviceGray a set bit is white
+                if (!matrix.get(x, y)) {
+                    pixels[y * rowBytes + x / 8] |= (byte) (0x80 >> (x % 8));
+                }
+            }
+        }
+        return Image.getInstance(width, height, 1, 1, pixels);
+    }
+
+    private String upiUri(String upiId, String payee, BigDecimal amount, String note) {
+        StringBuilder uri = new StringBuilder("upi://pay?pa=").append(encode(upiId));
+        if (payee != null && !payee.isBlank()) {
+            uri.append("&pn=").append(encode(payee));
+        }
+        if (amount != null && amount.signum() > 0) {
+            uri.append("&am=").append(amount.setScale(2, RoundingMode.HALF_UP).toPlainString());
+        }
+        uri.append("&cu=INR");
+        if (note != null) {
+            uri.append("&tn=").append(encode("Invoice " + note));
+        }
+        return uri.toString();
+    }
+
+    private String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+
+    private void addTotal(PdfPTable table, String label, BigDecimal amount, boolean bold) {
+        Font font = bold ? LABEL : TEXT;
+        PdfPCell name = cell(label, font, Element.ALIGN_LEFT, false);
+        PdfPCell value = cell(money(amount), font, Element.ALIGN_RIGHT, false);
+        if (bold) {
+            name.setBackgroundColor(SHADE);
+            value.setBackgroundColor(SHADE);
+        }
+        table.addCell(name);
+        table.addCell(value);
+    }
+
+    private static PdfPCell cell(String text, Font font, int align, boolean border) {
+        PdfPCell cell = new PdfPCell(new Phrase(text != null ? text : "", font));
+        cell.setHorizontalAlignment(align);
+        cell.setPadding(3);
+        if (border) {
+            cell.setBorderColor(RULE);
+        } else {
+            cell.setBorder(Rectangle.NO_BORDER);
+        }
+        return cell;
+    }
+
+    private static PdfPCell blank() {
+        PdfPCell cell = new PdfPCell();
+        cell.setBorder(Rectangle.NO_BORDER);
+        return cell;
+    }
+
+    private static void addLine(PdfPCell cell, String text, Font font) {
+        addLine(cell, text, font, Element.ALIGN_LEFT);
+    }
+
+    private static void addLine(PdfPCell cell, String text, Font font, int align) {
+        if (text == null || text.isBlank()) {
+            return;
+        }
+        Paragraph paragraph = new Paragraph(text, font);
+        paragraph.setAlignment(align);
+        cell.addElement(paragraph);
+    }
+
+    private static String join(String... parts) {
+        StringBuilder joined = new StringBuilder();
+        for (String part : parts) {
+            if (part != null && !part.isBlank()) {
+                if (joined.length() > 0) {
+                    joined.append(", ");
+                }
+                joined.append(part.trim());
+            }
+        }
+        return joined.toString();
+    }
+
+    private static BigDecimal sum(List<BigDecimal> amounts) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal amount : amounts) {
+            if (amount != null) {
+                total = total.add(amount);
+            }
+        }
+        return total;
+    }
+
+    private static String money(BigDecimal amount) {
+        return (amount != null ? amount : BigDecimal.ZERO).setScale(2, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    private static String percent(BigDecimal rate) {
+        return rate == null ? "0%" : rate.stripTrailingZeros().toPlainString() + "%";
+    }
+
+    private static String quantity(BigDecimal quantity) {
+        return quantity == null ? "0" : quantity.stripTrailingZeros().toPlainString();
+    }
+
+    private static String safeFileName(String number) {
+        return number == null ? "draft" : number.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    /**
+     * Rupees and paise in words using the Indian grouping (thousand, lakh, crore).
+     */
+    private static String amountInWords(BigDecimal amount) {
+        long paise = GstTaxEngine.toPaise(amount != null ? amount.abs() : BigDecimal.ZERO);
+        long rupees = paise / 100;
+        StringBuilder words = new StringBuilder("Rupees ");
+        words.append(rupees == 0 ? "Zero" : indianWords(rupees));
+        if (paise % 100 != 0) {
+            words.append(" and ").append(belowHundred((int) (paise % 100))).append(" Paise");
+        }
+        return words.append(" Only").toString();
+    }
+
+    private static String indianWords(long number) {
+        StringBuilder words = new StringBuilder();
+        long crores = number / 10_000_000;
+        number %= 10_000_000;
+        if (crores > 0) {
+            words.append(indianWords(crores)).append(" Crore ");
+        }
+        int[] groups = {(int) (number / 100_000), (int) (number / 1_000 % 100), (int) (number / 100 % 10), (int) (number % 100)};
+        String[] names = {" Lakh ", " Thousand ", " Hundred ", ""};
+        for (int i = 0; i < groups.length; i++) {
+            if (groups[i] > 0) {
+                words.append(belowHundred(groups[i])).append(names[i]);
+            }
+        }
+        return words.toString().trim();
+    }
+
+    private static String belowHundred(int number) {
+        if (number < 20) {
+            return ONES[number];
+        }
+        return TENS[number / 10] + (number % 10 > 0 ? " " + ONES[number % 10] : "");
+    }
+
+    /**
+     * Layout of one document type, built once. Cells added to a table are copied, so the
+     * prebuilt heading cells are shared read-only by every render.
+     */
+    private static final class InvoiceTemplate {
+        static final float[] LINE_WIDTHS = {0.5f, 4f, 1.2f, 1.2f, 1.3f, 1.1f, 1.5f, 0.9f, 1.2f, 1.5f};
+        static final int[] LINE_ALIGN = {Element.ALIGN_CENTER, Element.ALIGN_LEFT, Element.ALIGN_LEFT, Element.ALIGN_RIGHT,
+            Element.ALIGN_RIGHT, Element.ALIGN_RIGHT, Element.ALIGN_RIGHT, Element.ALIGN_RIGHT, Element.ALIGN_RIGHT, Element.ALIGN_RIGHT};
+        static final String[] LINE_HEADINGS = {"#", "Item", "HSN/SAC", "Qty", "Rate", "Discount", "Taxable", "GST", "Tax", "Amount"};
+
+        final String title;
+        final String partyHeading;
+        final String numberLabel;
+        final String dateLabel;
+        final String settledLabel;
+        final PdfPCell[] lineHeadings = new PdfPCell[LINE_HEADINGS.length];
+
+        InvoiceTemplate(String title, String partyHeading, String numberLabel, String dateLabel, String settledLabel) {
+            this.title = title;
+            this.partyHeading = partyHeading;
+            this.numberLabel = numberLabel;
+            this.dateLabel = dateLabel;
+            this.settledLabel = settledLabel;
+            for (int i = 0; i < LINE_HEADINGS.length; i++) {
+                PdfPCell heading = cell(LINE_HEADINGS[i], LABEL, LINE_ALIGN[i], true);
+                heading.setBackgroundColor(SHADE);
+                lineHeadings[i] = heading;
+            }
+        }
+    }
+
+    private static final class CachedImage {
+        final long modified;
+        final Image image;
+
+        CachedImage(long modified, Image image) {
+            this.modified = modified;
+            this.image = image;
+        }
+    }
+
+    // Per-merchant inputs shared by every document of a print job
+    private static final class Letterhead {
+        Company company;
+        BankAccount upiAccount;
+    }
+
+    // A document flattened to printable values while its entities are still attached
+    private static final class InvoiceData {
+        String number;
+        LocalDate date;
+        String placeOfSupply;
+        String partyName;
+        String partyAddress;
+        String partyPhone;
+        String partyGstin;
+        final List<String[]> lines = new ArrayList<>();
+        BigDecimal taxable;
+        BigDecimal cgst;
+        BigDecimal sgst;
+        BigDecimal igst;
+        BigDecimal roundOff;
+        BigDecimal total;
+        BigDecimal settled;
+        BigDecimal balance;
+        String upiUri;
+        String upiId;
+        BankAccount bankAccount;
+    }
+
+    public static class RenderedInvoice {
+        private final String fileName;
+        private final byte[] content;
+
+        public RenderedInvoice(String fileName, byte[] content) {
+            this.fileName = fileName;
+            this.content = content;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public byte[] getContent() {
+            return content;
+        }
+    }
+}
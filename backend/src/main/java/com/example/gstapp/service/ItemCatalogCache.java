@@ -0,0 +1,214 @@
+package com.example.gstapp.service;
+
+import com.example.gstapp.dto.CatalogItem;
+import com.example.gstapp.repository.ItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Item lookups by id and by code (barcode) for the till, answered from memory. Each merchant
+ * gets an LRU of catalog items plus a code index over it; the number of merchants and items
+ * per merchant are both bounded, and a miss loads just the one item.
+ *
+ * <p>Entries are evicted after commit whenever ItemService changes an item or a stock posting
+ * moves its stock. A load that overlaps an eviction for the same merchant is not cached, so a
+ * value read before a commit can never outlive it.
+ */
+@Service
+public class ItemCatalogCache {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private GstTaxEngine gstTaxEngine;
+
+    @Value("${item.cache.max-merchants:500}")
+    private int maxMerchants;
+
+    @Value("${item.cache.max-items-per-merchant:20000}")
+    private int maxItemsPerMerchant;
+
+    private final Map<Long, MerchantCatalog> merchants = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, MerchantCatalog> eldest) {
+            return size() > maxMerchants;
+        }
+    };
+
+    public CatalogItem findById(Long merchantId, Long itemId) {
+        MerchantCatalog catalog = catalogOf(merchantId);
+        CatalogItem item = catalog.byId(itemId);
+        if (item != null) {
+            catalog.hits.incrementAndGet();
+            return item;
+        }
+        catalog.misses.incrementAndGet();
+        long generation = catalog.generation();
+        item = itemRepository.findCatalogItem(merchantId, itemId).orElse(null);
+        return item != null ? catalog.put(withTaxPercent(item), generation) : null;
+    }
+
+    /**
+     * Item whose code matches exactly, ignoring case; null when no item has that code.
+     */
+    public CatalogItem findByCode(Long merchantId, String code) {
+        if (code == null || code.isBlank()) {
+            return null;
+        }
+        String key = code.trim().toLowerCase();
+        MerchantCatalog catalog = catalogOf(merchantId);
+        CatalogItem item = catalog.byCode(key);
+        if (item != null) {
+            catalog.hits.incrementAndGet();
+            return item;
+        }
+        catalog.misses.incrementAndGet();
+        long generation = catalog.generation();
+        List<CatalogItem> matches = itemRepository.findCatalogItemsByLowerCode(merchantId, key);
+        return matches.isEmpty() ? null : catalog.put(withTaxPercent(matches.get(0)), generation);
+    }
+
+    /**
+     * Drop the given items once the current transaction commits (at once when there is none),
+     * so readers keep seeing the committed values until then and reload afterwards.
+     */
+    public void evictAfterCommit(Long merchantId, Collection<Long> itemIds) {
+        List<Long> ids = List.copyOf(itemIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(merchantId, ids);
+                }
+            });
+        } else {
+            evict(merchantId, ids);
+        }
+    }
+
+    private void evict(Long merchantId, List<Long> itemIds) {
+        MerchantCatalog catalog;
+        synchronized (merchants) {
+            catalog = merchants.get(merchantId);
+        }
+        if (catalog != null) {
+            catalog.remove(itemIds);
+            catalog.invalidations.addAndGet(itemIds.size());
+        }
+    }
+
+    /**
+     * Cache counters for one merchant's catalog, counted since it was last loaded into memory.
+     */
+    public Map<String, Object> getStats(Long merchantId) {
+        MerchantCatalog catalog;
+        synchronized (merchants) {
+            catalog = merchants.get(merchantId);
+        }
+        long hitCount = catalog != null ? catalog.hits.get() : 0;
+        long missCount = catalog != null ? catalog.misses.get() : 0;
+        long lookups = hitCount + missCount;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", lookups == 0 ? 0.0 : (double) hitCount / lookups);
+        stats.put("evictions", catalog != null ? catalog.evictions.get() : 0L);
+        stats.put("invalidations", catalog != null ? catalog.invalidations.get() : 0L);
+        stats.put("items", catalog != null ? catalog.size() : 0);
+        return stats;
+    }
+
+    private MerchantCatalog catalogOf(Long merchantId) {
+        synchronized (merchants) {
+            return merchants.computeIfAbsent(merchantId, id -> new MerchantCatalog());
+        }
+    }
+
+    private CatalogItem withTaxPercent(CatalogItem item) {
+        item.setTaxPercent(gstTaxEngine.taxPercentOf(item.getTaxRate()));
+        return item;
+    }
+
+    /**
+     * One merchant's cached items in LRU order, with a lowercased code index kept in step.
+     */
+    private class MerchantCatalog {
+        private final Map<String, Long> idsByCode = new HashMap<>();
+        private final Map<Long, CatalogItem> items = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CatalogItem> eldest) {
+                if (size() > maxItemsPerMerchant) {
+                    unindex(eldest.getValue());
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+        private long generation;
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private final AtomicLong evictions = new AtomicLong();
+        private final AtomicLong invalidations = new AtomicLong();
+
+        synchronized CatalogItem byId(Long id) {
+            return items.get(id);
+        }
+
+        synchronized CatalogItem byCode(String code) {
+            Long id = idsByCode.get(code);
+            return id != null ? items.get(id) : null;
+        }
+
+        synchronized long generation() {
+            return generation;
+        }
+
+        /**
+         * Cache an item loaded at the given generation, unless an eviction has happened since.
+         */
+        synchronized CatalogItem put(CatalogItem item, long loadedAt) {
+            if (loadedAt == generation) {
+                CatalogItem previous = items.put(item.getId(), item);
+                if (previous != null) {
+                    unindex(previous);
+                }
+                if (item.getCode() != null) {
+                    idsByCode.put(item.getCode().toLowerCase(), item.getId());
+                }
+            }
+            return item;
+        }
+
+        synchronized void remove(Collection<Long> ids) {
+            generation++;
+            for (Long id : ids) {
+                CatalogItem removed = items.remove(id);
+                if (removed != null) {
+                    unindex(removed);
+                }
+            }
+        }
+
+        synchronized int size() {
+            return items.size();
+        }
+
+        private void unindex(CatalogItem item) {
+            if (item.getCode() != null) {
+                idsByCode.remove(item.getCode().toLowerCase(), item.getId());
+            }
+        }
+    }
+}
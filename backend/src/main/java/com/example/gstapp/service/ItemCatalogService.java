@@ -0,0 +1,57 @@
+package com.example.gstapp.service;
+
+import com.example.gstapp.dto.CatalogItem;
+import com.example.gstapp.dto.CatalogResponse;
+import com.example.gstapp.repository.ItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Catalog feed for POS terminals: a compact snapshot of a merchant's items with a version, and
+ * the changes (including stock) and deletions since any earlier version.
+ *
+ * <p>Items carry the id of the transaction that last wrote them. Each read runs in one
+ * repeatable-read snapshot and reports as its version the point below which every write is
+ * already visible, so rows committed late by slower transactions show up in the next delta
+ * rather than being skipped.
+ */
+@Service
+@Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+public class ItemCatalogService {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private GstTaxEngine gstTaxEngine;
+
+    public CatalogResponse getSnapshot(Long merchantId) {
+        // The version must come from the same snapshot as the rows, so it is read first
+        long version = itemRepository.currentCatalogVersion();
+        return new CatalogResponse(version, true, withTaxPercent(itemRepository.findCatalogChanges(merchantId, -1L)), List.of());
+    }
+
+    /**
+     * Items written and deleted after {@code since}. A terminal with no version yet gets the snapshot.
+     */
+    public CatalogResponse getChanges(Long merchantId, Long since) {
+        if (since == null || since <= 0) {
+            return getSnapshot(merchantId);
+        }
+        long version = itemRepository.currentCatalogVersion();
+        return new CatalogResponse(Math.max(version, since), false,
+            withTaxPercent(itemRepository.findCatalogChanges(merchantId, since)),
+            itemRepository.findCatalogDeletions(merchantId, since));
+    }
+
+    private List<CatalogItem> withTaxPercent(List<CatalogItem> items) {
+        for (CatalogItem item : items) {
+            item.setTaxPercent(gstTaxEngine.taxPercentOf(item.getTaxRate()));
+        }
+        return items;
+    }
+}
@@ -4,12 +4,16 @@ import com.example.gstapp.dto.*;
 import com.example.gstapp.model.*;
 import com.example.gstapp.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -17,12 +21,22 @@ import java.util.stream.Collectors;
 @Transactional
 public class ItemService {
 
+    private static final int MAX_ITEM_PAGE_SIZE = 200;
+    private static final int MAX_SEARCH_RESULTS = 100;
+    private static final int RECENT_TRANSACTIONS = 50;
+
     @Autowired
     private ItemRepository itemRepository;
 
     @Autowired
     private ItemTransactionRepository itemTransactionRepository;
 
+    @Autowired
+    private ItemTransactionService itemTransactionService;
+
+    @Autowired
+    private ItemCatalogCache itemCatalogCache;
+
     @Autowired
     private CategoryRepository categoryRepository;
 
@@ -82,6 +96,51 @@ public class ItemService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * One keyset page of the merchant's items, optionally filtered by type and search term and
+     * sorted by name, quantity or stockValue. Pass the returned cursor back for the next page.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ItemResponse> getItemsPage(Long merchantId, ItemType itemType, String searchTerm, String sortBy,
+                                                 String direction, String cursor, int limit) {
+        String sort = sortBy == null || sortBy.isBlank() ? ItemRepositoryCustom.SORT_NAME : sortBy;
+        boolean descending = "desc".equalsIgnoreCase(direction);
+        int pageSize = Math.max(1, Math.min(limit, MAX_ITEM_PAGE_SIZE));
+        String term = searchTerm == null || searchTerm.isBlank() ? null : searchTerm.trim();
+
+        Object afterKey = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            RegisterCursor after = RegisterCursor.decode(cursor);
+            afterKey = parseSortKey(sort, after.getSortKey());
+            afterId = after.getId();
+        }
+
+        List<Item> items = itemRepository.findItemPage(merchantId, itemType, term, sort, descending,
+            afterKey, afterId, pageSize + 1);
+        String nextCursor = null;
+        if (items.size() > pageSize) {
+            items = items.subList(0, pageSize);
+            Item last = items.get(pageSize - 1);
+            nextCursor = RegisterCursor.encode(itemRepository.sortKeyOf(last, sort), last.getId());
+        }
+        return new CursorPage<>(items.stream().map(this::mapItemToResponse).collect(Collectors.toList()), nextCursor);
+    }
+
+    private Object parseSortKey(String sortBy, String sortKey) {
+        try {
+            if (ItemRepositoryCustom.SORT_QUANTITY.equals(sortBy)) {
+                return Integer.valueOf(sortKey);
+            }
+            if (ItemRepositoryCustom.SORT_STOCK_VALUE.equals(sortBy)) {
+                return new BigDecimal(sortKey);
+            }
+            return sortKey;
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
     public ItemResponse getItemById(Long itemId, Long merchantId) {
         Optional<Item> item = itemRepository.findById(itemId);
         if (item.isPresent() && item.get().getMerchantId().equals(merchantId)) {
@@ -105,6 +164,7 @@ public class ItemService {
         item.setUpdatedAt(LocalDateTime.now());
 
         Item savedItem = itemRepository.save(item);
+        itemCatalogCache.evictAfterCommit(merchantId, List.of(itemId));
         
         // Handle opening quantity change
         if (request.getOpeningQuantity() != null && 
@@ -136,14 +196,10 @@ public class ItemService {
                 adjustmentTransaction.setMerchantId(merchantId);
                 adjustmentTransaction.setCreatedAt(LocalDateTime.now());
                 
-                ItemTransaction savedTransaction = itemTransactionRepository.save(adjustmentTransaction);
-                System.out.println("Created adjustment transaction: " + savedTransaction.getId());
-                
-                // Update current stock to reflect the opening stock adjustment
-                Integer currentStock = item.getCurrentStock() != null ? item.getCurrentStock() : 0;
-                Integer newStock = currentStock + difference.intValue();
-                item.setCurrentStock(newStock);
-                itemRepository.save(item);
+                // Saves the transaction and moves current stock by the opening stock adjustment
+                itemTransactionService.applyToEntities(List.of(savedItem), 
+                    itemTransactionService.postStockMovements(merchantId, List.of(adjustmentTransaction)));
+                System.out.println("Created adjustment transaction: " + adjustmentTransaction.getId());
             }
         }
         
@@ -154,14 +210,39 @@ public class ItemService {
         Optional<Item> item = itemRepository.findById(itemId);
         if (item.isPresent() && item.get().getMerchantId().equals(merchantId)) {
             itemRepository.delete(item.get());
+            itemCatalogCache.evictAfterCommit(merchantId, List.of(itemId));
         } else {
             throw new RuntimeException("Item not found");
         }
     }
 
-    public List<ItemResponse> searchItems(Long merchantId, String searchTerm) {
-        List<Item> items = itemRepository.searchItems(merchantId, searchTerm);
-        return items.stream()
+    /**
+     * Top matches for the POS search box: items whose code is exactly the term (a scanned
+     * barcode) come first, then the ranked name, code and HSN matches, typos included.
+     */
+    @Transactional(readOnly = true)
+    public List<ItemResponse> searchItems(Long merchantId, String searchTerm, int limit) {
+        String term = searchTerm == null ? "" : searchTerm.trim().toLowerCase();
+        if (term.isEmpty()) {
+            return new ArrayList<>();
+        }
+        int topK = Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS));
+        String escaped = term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+
+        Map<Long, Item> results = new LinkedHashMap<>();
+        for (Item item : itemRepository.findByMerchantIdAndLowerCode(merchantId, term)) {
+            results.put(item.getId(), item);
+        }
+        List<Item> matches = term.length() < 3
+            ? itemRepository.searchByPrefix(merchantId, escaped + "%", topK)
+            : itemRepository.searchRanked(merchantId, term, "%" + escaped + "%", escaped + "%", topK);
+        for (Item item : matches) {
+            if (results.size() >= topK) {
+                break;
+            }
+            results.putIfAbsent(item.getId(), item);
+        }
+        return results.values().stream()
                 .map(this::mapItemToResponse)
                 .collect(Collectors.toList());
     }
@@ -205,15 +286,11 @@ public class ItemService {
         transaction.setMerchantId(merchantId);
         transaction.setCreatedAt(LocalDateTime.now());
 
-        // Save transaction
-        itemTransactionRepository.save(transaction);
-
-        // Update item's current stock to reflect the adjustment
-        Integer currentStock = item.getCurrentStock() != null ? item.getCurrentStock() : 0;
-        Integer newStock = currentStock + quantityChange.intValue();
-        item.setCurrentStock(newStock);
-        item.setUpdatedAt(LocalDateTime.now());
-        itemRepository.save(item);
+        // Save transaction and apply the adjustment to the item's current stock atomically
+        Integer currentStock = item.getCurrentStock();
+        itemTransactionService.applyToEntities(List.of(item), 
+            itemTransactionService.postStockMovements(merchantId, List.of(transaction)));
+        Integer newStock = item.getCurrentStock();
         
         System.out.println("Stock adjustment completed:");
         System.out.println("  - Item ID: " + item.getId());
@@ -303,13 +380,9 @@ public class ItemService {
         transaction.setMerchantId(item.getMerchantId());
         transaction.setCreatedAt(LocalDateTime.now());
 
-        itemTransactionRepository.save(transaction);
-        
-        // Update current stock to include opening stock
-        Integer currentStock = item.getCurrentStock() != null ? item.getCurrentStock() : 0;
-        Integer newStock = currentStock + quantity.intValue();
-        item.setCurrentStock(newStock);
-        itemRepository.save(item);
+        // Saves the transaction and adds the opening stock to current stock
+        itemTransactionService.applyToEntities(List.of(item), 
+            itemTransactionService.postStockMovements(item.getMerchantId(), List.of(transaction)));
     }
 
     private void mapRequestToItem(ItemRequest request, Item item) {
@@ -359,12 +432,12 @@ public class ItemService {
         response.setCreatedAt(item.getCreatedAt());
         response.setUpdatedAt(item.getUpdatedAt());
 
-        // Calculate current quantity and stock value
-        BigDecimal currentQuantity = calculateCurrentQuantity(item.getId(), item.getMerchantId());
+        // Quantity and stock value come from the loaded row, so listings need no per-item lookups
+        BigDecimal currentQuantity = BigDecimal.valueOf(item.getCurrentStock() != null ? item.getCurrentStock() : 0);
         response.setCurrentQuantity(currentQuantity);
-        
+
         // Calculate stock value using purchase price (or sale price as fallback)
-        BigDecimal priceForStockValue = item.getPurchasePrice() != null ? item.getPurchasePrice() : 
+        BigDecimal priceForStockValue = item.getPurchasePrice() != null ? item.getPurchasePrice() :
                                        (item.getSalePrice() != null ? item.getSalePrice() : BigDecimal.ZERO);
         response.setStockValue(currentQuantity.multiply(priceForStockValue));
 
@@ -373,35 +446,17 @@ public class ItemService {
 
     private ItemResponse mapItemToResponseWithTransactions(Item item) {
         ItemResponse response = mapItemToResponse(item);
-        List<ItemTransactionResponse> transactions = getItemTransactions(item.getId(), item.getMerchantId());
+        // Only the latest movements; older history is paged through the item ledger
+        List<ItemTransactionResponse> transactions = itemTransactionRepository
+                .findLedgerFirstPage(item.getId(), item.getMerchantId(), PageRequest.of(0, RECENT_TRANSACTIONS))
+                .stream()
+                .map(this::mapTransactionToResponse)
+                .collect(Collectors.toList());
         response.setTransactions(transactions);
         return response;
     }
 
-    private BigDecimal calculateCurrentQuantity(Long itemId, Long merchantId) {
-        // Get the item to access current stock
-        Optional<Item> itemOpt = itemRepository.findById(itemId);
-        if (itemOpt.isPresent() && itemOpt.get().getMerchantId().equals(merchantId)) {
-            Item item = itemOpt.get();
-            Integer currentStock = item.getCurrentStock() != null ? item.getCurrentStock() : 0;
-            System.out.println("Current stock for item " + itemId + ": " + currentStock);
-            return new BigDecimal(currentStock);
-        }
-        System.out.println("Item not found for calculating current quantity: " + itemId);
-        return BigDecimal.ZERO;
-    }
-
     private ItemTransactionResponse mapTransactionToResponse(ItemTransaction transaction) {
-        System.out.println("Mapping transaction to response:");
-        System.out.println("  Transaction ID: " + transaction.getId());
-        System.out.println("  Transaction Type: " + transaction.getTransactionType());
-        System.out.println("  Invoice Ref: " + transaction.getInvoiceRef());
-        System.out.println("  Party Name: " + transaction.getPartyName());
-        System.out.println("  Quantity: " + transaction.getQuantity());
-        System.out.println("  Price Per Unit: " + transaction.getPricePerUnit());
-        System.out.println("  Total Amount: " + transaction.getTotalAmount());
-        System.out.println("  Status: " + transaction.getStatus());
-        
         ItemTransactionResponse response = new ItemTransactionResponse();
         response.setId(transaction.getId());
         response.setItemId(transaction.getItemId());
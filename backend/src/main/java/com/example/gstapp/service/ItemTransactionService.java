@@ -15,7 +15,12 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,109 +36,155 @@ public class ItemTransactionService {
     @Autowired
     private SaleRepository saleRepository;
     
+    @Autowired
+    private ItemCatalogCache itemCatalogCache;
+    
     public void recordPurchase(Item item, Integer quantity, User user) {
-        // Create transaction record
-        ItemTransaction transaction = new ItemTransaction();
-        transaction.setItemId(item.getId());
-        transaction.setTransactionType(ItemTransactionType.PURCHASE);
-        transaction.setQuantity(new BigDecimal(quantity));
-        transaction.setTransactionDate(LocalDateTime.now());
-        transaction.setMerchantId(user.getId());
-        itemTransactionRepository.save(transaction);
-        
-        // Update item stock
-        item.setCurrentStock(item.getCurrentStock() + quantity);
-        itemRepository.save(item);
+        ItemTransaction transaction = newMovement(item, ItemTransactionType.PURCHASE, quantity, user.getId());
+        applyToEntity(item, postStockMovements(user.getId(), List.of(transaction)));
     }
     
     public void recordSale(Item item, Integer quantity, User user) {
-        // Create transaction record
-        ItemTransaction transaction = new ItemTransaction();
-        transaction.setItemId(item.getId());
-        transaction.setTransactionType(ItemTransactionType.SALE);
-        transaction.setQuantity(new BigDecimal(-quantity)); // Negative quantity for sales (stock reduction)
-        transaction.setTransactionDate(LocalDateTime.now());
-        transaction.setMerchantId(user.getId());
-        itemTransactionRepository.save(transaction);
-        
-        // Update item stock
-        item.setCurrentStock(item.getCurrentStock() - quantity);
-        itemRepository.save(item);
+        // Negative quantity for sales (stock reduction)
+        ItemTransaction transaction = newMovement(item, ItemTransactionType.SALE, -quantity, user.getId());
+        applyToEntity(item, postStockMovements(user.getId(), List.of(transaction)));
     }
     
     public void recordSale(Item item, Integer quantity, User user, String invoiceRef, String partyName, 
                           BigDecimal pricePerUnit, BigDecimal totalAmount, String status) {
-        // Create transaction record
-        ItemTransaction transaction = new ItemTransaction();
-        transaction.setItemId(item.getId());
-        transaction.setTransactionType(ItemTransactionType.SALE);
-        transaction.setInvoiceRef(invoiceRef);
-        transaction.setPartyName(partyName);
-        transaction.setQuantity(new BigDecimal(-quantity)); // Negative quantity for sales (stock reduction)
-        transaction.setPricePerUnit(pricePerUnit);
-        transaction.setTotalAmount(totalAmount);
-        transaction.setStatus(status);
-        transaction.setTransactionDate(LocalDateTime.now());
-        transaction.setMerchantId(user.getId());
-        itemTransactionRepository.save(transaction);
-        
-        // Update item stock
-        item.setCurrentStock(item.getCurrentStock() - quantity);
-        itemRepository.save(item);
+        ItemTransaction transaction = saleMovement(item, quantity, user.getId(), invoiceRef, partyName, 
+            pricePerUnit, totalAmount, status);
+        applyToEntity(item, postStockMovements(user.getId(), List.of(transaction)));
     }
     
     public void reversePurchase(Item item, Integer quantity, User user) {
-        // Create reverse transaction record
-        ItemTransaction transaction = new ItemTransaction();
-        transaction.setItemId(item.getId());
-        transaction.setTransactionType(ItemTransactionType.ADJUSTMENT);
-        transaction.setQuantity(new BigDecimal(-quantity));
+        ItemTransaction transaction = newMovement(item, ItemTransactionType.ADJUSTMENT, -quantity, user.getId());
         transaction.setAdjustmentType("REDUCE");
-        transaction.setTransactionDate(LocalDateTime.now());
-        transaction.setMerchantId(user.getId());
-        itemTransactionRepository.save(transaction);
-        
-        // Update item stock
-        item.setCurrentStock(item.getCurrentStock() - quantity);
-        itemRepository.save(item);
+        applyToEntity(item, postStockMovements(user.getId(), List.of(transaction)));
     }
     
     public void reverseSale(Item item, Integer quantity, User user) {
-        // Create reverse transaction record
-        ItemTransaction transaction = new ItemTransaction();
-        transaction.setItemId(item.getId());
-        transaction.setTransactionType(ItemTransactionType.ADJUSTMENT);
-        transaction.setQuantity(new BigDecimal(quantity));
+        ItemTransaction transaction = newMovement(item, ItemTransactionType.ADJUSTMENT, quantity, user.getId());
         transaction.setAdjustmentType("ADD");
-        transaction.setTransactionDate(LocalDateTime.now());
-        transaction.setMerchantId(user.getId());
-        itemTransactionRepository.save(transaction);
-        
-        // Update item stock
-        item.setCurrentStock(item.getCurrentStock() + quantity);
-        itemRepository.save(item);
+        applyToEntity(item, postStockMovements(user.getId(), List.of(transaction)));
     }
     
     public void reverseSale(Item item, Integer quantity, User user, String invoiceRef, String partyName, 
                            BigDecimal pricePerUnit, BigDecimal totalAmount, String status) {
-        // Create reverse transaction record
-        ItemTransaction transaction = new ItemTransaction();
-        transaction.setItemId(item.getId());
-        transaction.setTransactionType(ItemTransactionType.ADJUSTMENT);
+        ItemTransaction transaction = saleReversalMovement(item, quantity, user.getId(), invoiceRef, partyName, 
+            pricePerUnit, totalAmount, status);
+        applyToEntity(item, postStockMovements(user.getId(), List.of(transaction)));
+    }
+    
+    /**
+     * Build (but do not post) the stock movement for one sale line.
+     */
+    public ItemTransaction saleMovement(Item item, Integer quantity, Long merchantId, String invoiceRef, 
+                                        String partyName, BigDecimal pricePerUnit, BigDecimal totalAmount, String status) {
+        // Negative quantity for sales (stock reduction)
+        ItemTransaction transaction = newMovement(item, ItemTransactionType.SALE, -quantity, merchantId);
+        transaction.setInvoiceRef(invoiceRef);
+        transaction.setPartyName(partyName);
+        transaction.setPricePerUnit(pricePerUnit);
+        transaction.setTotalAmount(totalAmount);
+        transaction.setStatus(status);
+        return transaction;
+    }
+    
+    /**
+     * Build (but do not post) the stock movement that puts one sale line back into stock.
+     */
+    public ItemTransaction saleReversalMovement(Item item, Integer quantity, Long merchantId, String invoiceRef, 
+                                                String partyName, BigDecimal pricePerUnit, BigDecimal totalAmount, String status) {
+        ItemTransaction transaction = newMovement(item, ItemTransactionType.ADJUSTMENT, quantity, merchantId);
         transaction.setInvoiceRef(invoiceRef);
         transaction.setPartyName(partyName);
-        transaction.setQuantity(new BigDecimal(quantity));
         transaction.setPricePerUnit(pricePerUnit);
         transaction.setTotalAmount(totalAmount);
         transaction.setStatus(status);
         transaction.setAdjustmentType("ADD");
-        transaction.setTransactionDate(LocalDateTime.now());
-        transaction.setMerchantId(user.getId());
-        itemTransactionRepository.save(transaction);
+        return transaction;
+    }
+    
+    /**
+     * Row-lock items whose stock the current transaction is going to move. Documents call this
+     * before inserting any line that references the items, so the lock is taken while no other
+     * transaction can be holding one of our rows and waiting on us; later calls for the same
+     * items in the same transaction return at once.
+     *
+     * @return how many of the distinct ids were found and locked
+     */
+    public int lockItems(Long merchantId, Collection<Long> itemIds) {
+        Long[] ids = itemIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .toArray(Long[]::new);
+        if (ids.length == 0) {
+            return 0;
+        }
+        return itemRepository.lockForStockUpdate(merchantId, ids).size();
+    }
+    
+    /**
+     * Post a document's stock movements: the transaction rows are saved and every item's
+     * current stock is moved by the sum of its movement quantities in one UPDATE.
+     * Item rows are locked in ascending id order before the movement rows go in, so
+     * documents with overlapping items serialize instead of deadlocking or losing updates.
+     *
+     * @return the resulting current stock keyed by item id
+     */
+    public Map<Long, Integer> postStockMovements(Long merchantId, List<ItemTransaction> movements) {
+        if (movements.isEmpty()) {
+            return Map.of();
+        }
         
-        // Update item stock
-        item.setCurrentStock(item.getCurrentStock() + quantity);
-        itemRepository.save(item);
+        // TreeMap keeps item ids sorted for deterministic lock order
+        Map<Long, Integer> deltas = new TreeMap<>();
+        for (ItemTransaction movement : movements) {
+            int quantity = movement.getQuantity() != null ? movement.getQuantity().intValue() : 0;
+            deltas.merge(movement.getItemId(), quantity, Integer::sum);
+        }
+        
+        if (lockItems(merchantId, deltas.keySet()) != deltas.size()) {
+            throw new RuntimeException("Item not found");
+        }
+        itemTransactionRepository.saveAll(movements);
+        
+        Long[] itemIds = deltas.keySet().toArray(new Long[0]);
+        Integer[] quantities = deltas.values().toArray(new Integer[0]);
+        Map<Long, Integer> stock = new HashMap<>();
+        for (Object[] row : itemRepository.applyStockDeltas(merchantId, itemIds, quantities)) {
+            stock.put(((Number) row[0]).longValue(), ((Number) row[1]).intValue());
+        }
+        itemCatalogCache.evictAfterCommit(merchantId, deltas.keySet());
+        return stock;
+    }
+    
+    /**
+     * Copy posted stock levels onto already loaded item entities so callers can keep using them.
+     */
+    public void applyToEntities(Collection<Item> items, Map<Long, Integer> stock) {
+        for (Item item : items) {
+            applyToEntity(item, stock);
+        }
+    }
+    
+    private void applyToEntity(Item item, Map<Long, Integer> stock) {
+        Integer currentStock = stock.get(item.getId());
+        if (currentStock != null) {
+            item.setCurrentStock(currentStock);
+        }
+    }
+    
+    private ItemTransaction newMovement(Item item, ItemTransactionType type, Integer quantity, Long merchantId) {
+        ItemTransaction transaction = new ItemTransaction();
+        transaction.setItemId(item.getId());
+        transaction.setTransactionType(type);
+        transaction.setQuantity(new BigDecimal(quantity));
+        transaction.setTransactionDate(LocalDateTime.now());
+        transaction.setMerchantId(merchantId);
+        return transaction;
     }
     
     /**
@@ -0,0 +1,177 @@
+package com.example.gstapp.service;
+
+import com.example.gstapp.dto.SalePostingSnapshot;
+import com.example.gstapp.model.LedgerOutboxEvent;
+import com.example.gstapp.repository.LedgerOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transactional outbox for ledger postings. Sale changes enqueue an event in the request
+ * transaction; a scheduled poster drains each merchant's events in id order and applies
+ * them in the same transaction that marks them processed, so every event posts exactly once.
+ *
+ * <p>A failed event is retried in place so later events wait behind it, until it has failed
+ * max-attempts times; it is then parked and stops being retried, but the merchant's later events
+ * keep waiting behind it so nothing posts out of order. The posting lag reports the merchant as
+ * blocked until the parked events are requeued.
+ */
+@Service
+public class LedgerOutboxService {
+
+    private static final int PARKED_SHOWN = 20;
+
+    @Autowired
+    private LedgerOutboxRepository ledgerOutboxRepository;
+
+    @Autowired
+    private SaleLedgerPoster saleLedgerPoster;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${ledger.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${ledger.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public LedgerOutboxService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Queue the ledger postings for a sale change. Joins the caller's transaction so the
+     * event commits or rolls back with the sale itself.
+     */
+    @Transactional
+    public void enqueueSale(String eventType, Long merchantId, Long saleId,
+                            SalePostingSnapshot before, SalePostingSnapshot after) {
+        LedgerOutboxEvent event = new LedgerOutboxEvent();
+        event.setMerchantId(merchantId);
+        event.setAggregateType(LedgerOutboxEvent.SALE);
+        event.setAggregateId(saleId);
+        event.setEventType(eventType);
+        event.setBeforeSnapshot(write(before));
+        event.setAfterSnapshot(write(after));
+        ledgerOutboxRepository.save(event);
+    }
+
+    @Scheduled(fixedDelayString = "${ledger.outbox.poll-interval-ms:1000}")
+    public void postPendingEvents() {
+        for (Long merchantId : ledgerOutboxRepository.findMerchantIdsWithPendingEvents()) {
+            Long[] current = new Long[1];
+            try {
+                transactionTemplate.executeWithoutResult(status -> postBatch(merchantId, current));
+            } catch (RuntimeException e) {
+                // Leave the event pending so ordering is preserved; it is retried on the next poll
+                // until it reaches max-attempts and is parked
+                System.out.println("Ledger posting failed for merchant " + merchantId + 
+                    ", event " + current[0] + ": " + e.getMessage());
+                if (current[0] != null) {
+                    transactionTemplate.executeWithoutResult(status -> 
+                        ledgerOutboxRepository.recordFailure(current[0], e.getMessage(), maxAttempts));
+                }
+            }
+        }
+    }
+
+    /**
+     * How far behind the poster is for a merchant, and the events parked after failing. While
+     * any event is parked the merchant is blocked and pendingEvents counts the events held back.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getPostingLag(Long merchantId) {
+        Map<String, Object> lag = new HashMap<>();
+        lag.put("pendingEvents", ledgerOutboxRepository.countByMerchantIdAndProcessedAtIsNullAndParkedAtIsNull(merchantId));
+        lag.put("lagSeconds", 0L);
+        ledgerOutboxRepository.findFirstByMerchantIdAndProcessedAtIsNullAndParkedAtIsNullOrderByIdAsc(merchantId).ifPresent(oldest -> {
+            lag.put("oldestPendingAt", oldest.getCreatedAt());
+            lag.put("lagSeconds", Duration.between(oldest.getCreatedAt(), LocalDateTime.now()).getSeconds());
+            lag.put("attempts", oldest.getAttempts());
+            lag.put("lastError", oldest.getLastError());
+        });
+        ledgerOutboxRepository.findFirstByMerchantIdAndProcessedAtIsNotNullOrderByIdDesc(merchantId)
+            .ifPresent(last -> lag.put("lastPostedAt", last.getProcessedAt()));
+
+        long parkedEvents = ledgerOutboxRepository.countByMerchantIdAndProcessedAtIsNullAndParkedAtIsNotNull(merchantId);
+        lag.put("parkedEvents", parkedEvents);
+        lag.put("blocked", parkedEvents > 0);
+        List<Map<String, Object>> parked = new ArrayList<>();
+        for (LedgerOutboxEvent event : ledgerOutboxRepository
+                .findByMerchantIdAndProcessedAtIsNullAndParkedAtIsNotNullOrderByIdAsc(merchantId, PageRequest.of(0, PARKED_SHOWN))) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("id", event.getId());
+            entry.put("eventType", event.getEventType());
+            entry.put("aggregateId", event.getAggregateId());
+            entry.put("attempts", event.getAttempts());
+            entry.put("lastError", event.getLastError());
+            entry.put("parkedAt", event.getParkedAt());
+            parked.add(entry);
+        }
+        lag.put("parked", parked);
+        return lag;
+    }
+
+    /**
+     * Put a merchant's parked events back in the queue, e.g. after fixing what made them fail.
+     *
+     * @return the number of events requeued
+     */
+    @Transactional
+    public int requeueParked(Long merchantId) {
+        return ledgerOutboxRepository.requeueParked(merchantId);
+    }
+
+    private void postBatch(Long merchantId, Long[] current) {
+        if (!ledgerOutboxRepository.tryLockMerchant(merchantId)) {
+            return; // another poster is draining this merchant
+        }
+        List<LedgerOutboxEvent> events = ledgerOutboxRepository.findPending(merchantId, PageRequest.of(0, batchSize));
+        for (LedgerOutboxEvent event : events) {
+            current[0] = event.getId();
+            saleLedgerPoster.post(merchantId, read(event.getBeforeSnapshot()), read(event.getAfterSnapshot()));
+            event.setProcessedAt(LocalDateTime.now());
+        }
+        current[0] = null;
+    }
+
+    private String write(SalePostingSnapshot snapshot) {
+        if (snapshot == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(snapshot);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize sale snapshot", e);
+        }
+    }
+
+    private SalePostingSnapshot read(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, SalePostingSnapshot.class);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not read sale snapshot", e);
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.gstapp.service;
+
+import com.example.gstapp.dto.LedgerEntry;
+import com.example.gstapp.dto.LedgerPage;
+import com.example.gstapp.model.BankTransaction;
+import com.example.gstapp.model.CashTransaction;
+import com.example.gstapp.model.Item;
+import com.example.gstapp.model.ItemTransaction;
+import com.example.gstapp.model.Party;
+import com.example.gstapp.repository.BankAccountRepository;
+import com.example.gstapp.repository.BankTransactionRepository;
+import com.example.gstapp.repository.CashTransactionRepository;
+import com.example.gstapp.repository.ItemRepository;
+import com.example.gstapp.repository.ItemTransactionRepository;
+import com.example.gstapp.repository.PartyRepository;
+import com.example.gstapp.repository.PartyTransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keyset-paginated item, cash, bank and party ledgers, newest entry first, with the running
+ * balance after every entry. A page costs its own rows plus one aggregate for the balance it
+ * starts from, however long the history behind it is.
+ *
+ * <p>Cash and bank balances are summed from the ledger rows up to the page. Item stock and
+ * party balances are anchored at the stored current value and walked back by what came after
+ * the page, so the newest page needs no aggregate at all and the ledger always ends at the
+ * balance shown elsewhere (the direction of a party's opening balance is not recorded, so it
+ * cannot be summed forward). The party's three sources are merged, paged and given balances
+ * by the database in one query. Each read runs in one snapshot so the anchor and rows agree.
+ */
+@Service
+@Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+public class LedgerService {
+
+    private static final int MAX_LEDGER_PAGE_SIZE = 200;
+
+    // Party ledger sources, in the order they sort within the same timestamp (see findLedgerPage)
+    private static final String[] PARTY_SOURCES = {"PARTY_TRANSACTION", "PAYMENT_IN", "PAYMENT_OUT"};
+    // Cursor position before every party ledger row, for the first page
+    private static final LocalDateTime NEWEST = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemTransactionRepository itemTransactionRepository;
+
+    @Autowired
+    private CashTransactionRepository cashTransactionRepository;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private BankTransactionRepository bankTransactionRepository;
+
+    @Autowired
+    private PartyRepository partyRepository;
+
+    @Autowired
+    private PartyTransactionRepository partyTransactionRepository;
+
+    public LedgerPage getItemLedger(Long merchantId, Long itemId, String cursor, int limit) {
+        Item item = itemRepository.findById(itemId)
+            .filter(found -> found.getMerchantId().equals(merchantId))
+            .orElseThrow(() -> new RuntimeException("Item not found"));
+
+        PageRequest page = pageOf(limit);
+        List<ItemTransaction> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = itemTransactionRepository.findLedgerFirstPage(itemId, merchantId, page);
+        } else {
+            RegisterCursor after = RegisterCursor.decode(cursor);
+            rows = itemTransactionRepository.findLedgerPageAfter(itemId, merchantId,
+                parseDate(after.getSortKey()), after.getId(), page);
+        }
+
+        List<LedgerEntry> entries = new ArrayList<>();
+        for (ItemTransaction row : rows) {
+            entries.add(new LedgerEntry(row.getId(), row.getTransactionDate(), row.getTransactionType().name(),
+                row.getInvoiceRef(), row.getPartyName(), row.getTotalAmount(),
+                row.getQuantity() != null ? row.getQuantity() : BigDecimal.ZERO));
+        }
+        String nextCursor = trim(entries, page);
+
+        BigDecimal closing = BigDecimal.valueOf(item.getCurrentStock() != null ? item.getCurrentStock() : 0);
+        if (!entries.isEmpty() && cursor != null && !cursor.isBlank()) {
+            LedgerEntry newest = entries.get(0);
+            closing = closing.subtract(
+                itemTransactionRepository.sumQuantityAfter(itemId, merchantId, newest.getDate(), newest.getId()));
+        }
+        return withBalances(entries, nextCursor, closing);
+    }
+
+    public LedgerPage getCashLedger(Long merchantId, String cursor, int limit) {
+        PageRequest page = pageOf(limit);
+        List<CashTransaction> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = cashTransactionRepository.findLedgerFirstPage(merchantId, page);
+        } else {
+            RegisterCursor after = RegisterCursor.decode(cursor);
+            rows = cashTransactionRepository.findLedgerPageAfter(merchantId, parseDate(after.getSortKey()), after.getId(), page);
+        }
+
+        List<LedgerEntry> entries = new ArrayList<>();
+        for (CashTransaction row : rows) {
+            BigDecimal change = row.getTransactionType() == CashTransaction.TransactionType.OUT
+                ? row.getAmount().negate() : row.getAmount();
+            entries.add(new LedgerEntry(row.getId(), row.getTransactionDate(), row.getTransactionType().name(),
+                row.getReferenceNumber(), row.getDescription(), row.getAmount(), change));
+        }
+        String nextCursor = trim(entries, page);
+
+        BigDecimal closing = BigDecimal.ZERO;
+        if (!entries.isEmpty()) {
+            LedgerEntry newest = entries.get(0);
+            closing = cashTransactionRepository.getBalanceThrough(merchantId, newest.getDate(), newest.getId());
+        }
+        return withBalances(entries, nextCursor, closing);
+    }
+
+    public LedgerPage getBankLedger(Long merchantId, Long bankAccountId, String cursor, int limit) {
+        bankAccountRepository.findByIdAndMerchantId(bankAccountId, merchantId)
+            .orElseThrow(() -> new RuntimeException("Bank account not found"));
+
+        PageRequest page = pageOf(limit);
+        List<BankTransaction> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = bankTransactionRepository.findLedgerFirstPage(bankAccountId, merchantId, page);
+        } else {
+            RegisterCursor after = RegisterCursor.decode(cursor);
+            rows = bankTransactionRepository.findLedgerPageAfter(bankAccountId, merchantId,
+                parseDate(after.getSortKey()), after.getId(), page);
+        }
+
+        List<LedgerEntry> entries = new ArrayList<>();
+        for (BankTransaction row : rows) {
+            BankTransaction.TransactionType type = row.getTransactionType();
+            BigDecimal change = type == BankTransaction.TransactionType.WITHDRAWAL
+                || type == BankTransaction.TransactionType.TRANSFER_OUT ? row.getAmount().negate() : row.getAmount();
+            entries.add(new LedgerEntry(row.getId(), row.getTransactionDate(), type.name(),
+                row.getReferenceNumber(), row.getDescription(), row.getAmount(), change));
+        }
+        String nextCursor = trim(entries, page);
+
+        BigDecimal closing = BigDecimal.ZERO;
+        if (!entries.isEmpty()) {
+            LedgerEntry newest = entries.get(0);
+            closing = bankTransactionRepository.getBalanceThrough(bankAccountId, merchantId, newest.getDate(), newest.getId());
+        }
+        return withBalances(entries, nextCursor, closing);
+    }
+
+    /**
+     * Sales and purchases (with their reversals), payments in and payments out of one party,
+     * merged newest first by one query. Balances are what the party owes us; negative means
+     * we owe them.
+     */
+    public LedgerPage getPartyLedger(Long merchantId, Long partyId, String cursor, int limit) {
+        Party party = partyRepository.findByIdAndMerchantIdAndIsActiveTrue(partyId, merchantId)
+            .orElseThrow(() -> new RuntimeException("Party not found"));
+
+        LocalDateTime cursorDate = NEWEST;
+        int cursorSource = PARTY_SOURCES.length;
+        Long cursorId = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isBlank()) {
+            RegisterCursor after = RegisterCursor.decode(cursor);
+            String[] key = after.getSortKey().split("~");
+            cursorDate = parseDate(key[0]);
+            cursorSource = parseSource(key);
+            cursorId = after.getId();
+        }
+
+        int pageSize = Math.max(1, Math.min(limit, MAX_LEDGER_PAGE_SIZE));
+        List<Object[]> rows = partyTransactionRepository.findLedgerPage(partyId, merchantId, signedBalance(party),
+            cursorDate, cursorSource, cursorId, pageSize + 1);
+
+        List<LedgerEntry> entries = new ArrayList<>();
+        for (Object[] row : rows) {
+            LedgerEntry entry = new LedgerEntry(((Number) row[2]).longValue(), toDateTime(row[0]), (String) row[3],
+                row[4] != null ? (String) row[4] : (String) row[5], (String) row[6], (BigDecimal) row[7], (BigDecimal) row[8]);
+            entry.setSource(PARTY_SOURCES[((Number) row[1]).intValue()]);
+            entry.setBalance((BigDecimal) row[12]);
+            entries.add(entry);
+        }
+
+        String nextCursor = null;
+        if (entries.size() > pageSize) {
+            entries.subList(pageSize, entries.size()).clear();
+            LedgerEntry last = entries.get(pageSize - 1);
+            nextCursor = RegisterCursor.encode(last.getDate() + "~" + sourceOf(last.getSource()), last.getId());
+        }
+
+        // Balances come from the query; the page ends where its newest row leaves the party
+        BigDecimal closing = signedBalance(party);
+        BigDecimal opening = closing;
+        if (!entries.isEmpty()) {
+            closing = entries.get(0).getBalance();
+            LedgerEntry oldest = entries.get(entries.size() - 1);
+            opening = oldest.getBalance().subtract(oldest.getChange());
+        }
+        return new LedgerPage(entries, nextCursor, opening, closing);
+    }
+
+    /**
+     * The newest rows of a party's unified ledger in the query's column order, for callers that
+     * map them to their own response shape.
+     */
+    public List<Object[]> getRecentPartyRows(Party party, int limit) {
+        return partyTransactionRepository.findLedgerPage(party.getId(), party.getMerchantId(), signedBalance(party),
+            NEWEST, PARTY_SOURCES.length, Long.MAX_VALUE, limit);
+    }
+
+    private PageRequest pageOf(int limit) {
+        // One extra row tells whether another page exists
+        return PageRequest.of(0, Math.max(1, Math.min(limit, MAX_LEDGER_PAGE_SIZE)) + 1);
+    }
+
+    private String trim(List<LedgerEntry> entries, PageRequest page) {
+        int pageSize = page.getPageSize() - 1;
+        if (entries.size() <= pageSize) {
+            return null;
+        }
+        entries.subList(pageSize, entries.size()).clear();
+        LedgerEntry last = entries.get(pageSize - 1);
+        return RegisterCursor.encode(last.getDate(), last.getId());
+    }
+
+    /**
+     * Walk a newest-first page back from the balance after its newest entry.
+     */
+    private LedgerPage withBalances(List<LedgerEntry> entries, String nextCursor, BigDecimal closing) {
+        BigDecimal running = closing;
+        for (LedgerEntry entry : entries) {
+            entry.setBalance(running);
+            running = running.subtract(entry.getChange());
+        }
+        return new LedgerPage(entries, nextCursor, running, closing);
+    }
+
+    private LocalDateTime parseDate(String sortKey) {
+        try {
+            return LocalDateTime.parse(sortKey);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    private int parseSource(String[] key) {
+        int source = key.length == 2 ? sourceOf(key[1]) : -1;
+        if (source < 0) {
+            throw new RuntimeException("Invalid cursor");
+        }
+        return source;
+    }
+
+    private int sourceOf(String source) {
+        for (int i = 0; i < PARTY_SOURCES.length; i++) {
+            if (PARTY_SOURCES[i].equals(source) || String.valueOf(i).equals(source)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public static LocalDateTime toDateTime(Object value) {
+        return value instanceof Timestamp ? ((Timestamp) value).toLocalDateTime() : (LocalDateTime) value;
+    }
+
+    // What the party owes us, negative when we owe them
+    public static BigDecimal signedBalance(Party party) {
+        BigDecimal balance = party.getCurrentBalance() != null ? party.getCurrentBalance() : BigDecimal.ZERO;
+        return party.getBalanceType() == Party.BalanceType.TO_PAY ? balance.negate() : balance;
+    }
+}
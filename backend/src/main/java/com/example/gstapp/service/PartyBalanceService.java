@@ -0,0 +1,133 @@
+package com.example.gstapp.service;
+
+import com.example.gstapp.model.Party;
+import com.example.gstapp.model.PartyBalanceEntry;
+import com.example.gstapp.repository.PartyBalanceEntryRepository;
+import com.example.gstapp.repository.PartyRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Party balances as an append-only signed ledger. Posting inserts one entry and moves the
+ * party's balance counter in a single UPDATE, so concurrent sales and payments for the same
+ * party serialise on its row instead of losing each other's changes.
+ *
+ * <p>A scheduled job folds each party's ledger into a checkpoint once its tail grows long
+ * enough, checking the counter against checkpoint plus tail on the way and repairing it from
+ * the ledger if they ever disagree.
+ */
+@Service
+public class PartyBalanceService {
+
+    @Autowired
+    private PartyRepository partyRepository;
+
+    @Autowired
+    private PartyBalanceEntryRepository partyBalanceEntryRepository;
+
+    @Value("${party.balance.checkpoint-every:200}")
+    private int checkpointEvery;
+
+    @Value("${party.balance.checkpoint-batch-size:100}")
+    private int batchSize;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public PartyBalanceService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Append a signed change (positive: the party owes us more) and apply it to the party's
+     * balance. Joins the caller's transaction so the entry commits with the document behind it.
+     *
+     * @return what the party owes us after this change, negative when we owe them
+     */
+    @Transactional
+    public BigDecimal post(Long merchantId, Long partyId, String entryType, Long sourceId, BigDecimal change) {
+        if (change != null && change.signum() != 0) {
+            // Move the counter first: its row lock is held until commit, so the entry's id is
+            // taken under the lock and a party's entries commit in id order
+            if (partyRepository.applyBalanceChange(partyId, merchantId, change) == 0) {
+                throw new RuntimeException("Party not found");
+            }
+            partyBalanceEntryRepository.save(new PartyBalanceEntry(merchantId, partyId, entryType, sourceId, change));
+        }
+        BigDecimal balance = partyRepository.findSignedBalance(partyId);
+        if (balance == null) {
+            throw new RuntimeException("Party not found");
+        }
+        return balance;
+    }
+
+    /**
+     * As above, also bringing the party passed in up to date in memory.
+     */
+    @Transactional
+    public BigDecimal post(Party party, String entryType, Long sourceId, BigDecimal change) {
+        BigDecimal balance = post(party.getMerchantId(), party.getId(), entryType, sourceId, change);
+        party.setCurrentBalance(balance.abs());
+        party.setBalanceType(balance.signum() > 0 ? Party.BalanceType.TO_RECEIVE
+            : balance.signum() < 0 ? Party.BalanceType.TO_PAY : null);
+        return balance;
+    }
+
+    /**
+     * What the party owes us according to its ledger (last checkpoint plus the entries since),
+     * negative when we owe them.
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getLedgerBalance(Long partyId) {
+        return (BigDecimal) partyBalanceEntryRepository.foldTail(partyId).get(0)[0];
+    }
+
+    @Scheduled(fixedDelayString = "${party.balance.checkpoint-interval-ms:600000}")
+    public void checkpointParties() {
+        List<Long> partyIds = partyBalanceEntryRepository.findPartiesDueForCheckpoint(checkpointEvery, batchSize);
+        for (Long partyId : partyIds) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> checkpoint(partyId));
+            } catch (RuntimeException e) {
+                System.out.println("Party balance checkpoint failed for party " + partyId + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void checkpoint(Long partyId) {
+        // Postings insert their entry while holding the party row, so with the row locked every
+        // entry for the party has committed and none can appear below the new checkpoint
+        Long merchantId = partyRepository.lockBalance(partyId);
+        if (merchantId == null) {
+            return;
+        }
+
+        Object[] folded = partyBalanceEntryRepository.foldTail(partyId).get(0);
+        BigDecimal ledgerBalance = (BigDecimal) folded[0];
+        Long lastEntryId = ((Number) folded[1]).longValue();
+
+        BigDecimal counter = partyRepository.findSignedBalance(partyId);
+        if (counter.compareTo(ledgerBalance) != 0) {
+            // An earlier checkpoint may have been taken past an entry that committed after it;
+            // re-check against the whole ledger before trusting either side
+            Object[] all = partyBalanceEntryRepository.foldAll(partyId).get(0);
+            ledgerBalance = (BigDecimal) all[0];
+            lastEntryId = ((Number) all[1]).longValue();
+            if (counter.compareTo(ledgerBalance) != 0) {
+                System.out.println("Party " + partyId + " balance " + counter + " does not match its ledger " +
+                    ledgerBalance + "; resetting it from the ledger");
+                partyRepository.applyBalanceChange(partyId, merchantId, ledgerBalance.subtract(counter));
+            } else {
+                System.out.println("Party " + partyId + " checkpoint had missed entries; rebuilt it from the ledger");
+            }
+        }
+        partyBalanceEntryRepository.saveCheckpoint(partyId, merchantId, lastEntryId, ledgerBalance);
+    }
+}
@@ -1,8 +1,8 @@
 package com.example.gstapp.service;
 
 import com.example.gstapp.model.Party;
+import com.example.gstapp.model.PartyBalanceEntry;
 import com.example.gstapp.model.PartyTransaction;
-import com.example.gstapp.repository.PartyRepository;
 import com.example.gstapp.repository.PartyTransactionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -20,10 +20,7 @@ public class PartyTransactionService {
     private PartyTransactionRepository partyTransactionRepository;
     
     @Autowired
-    private PartyRepository partyRepository;
-    
-    @Autowired
-    private PartyService partyService;
+    private PartyBalanceService partyBalanceService;
     
     public void recordPurchaseTransaction(Party party, BigDecimal totalAmount, BigDecimal paidAmount, String description) {
         // Create transaction for purchase
@@ -36,15 +33,12 @@ public class PartyTransactionService {
         transaction.setAmount(balanceAmount); // Store the balance amount as the transaction amount
         transaction.setDescription(description);
         transaction.setTransactionDate(LocalDateTime.now());
+        transaction = partyTransactionRepository.save(transaction);
         
-        // Use PartyService to update balance with proper logic
-        partyService.updatePartyBalance(party.getMerchantId(), party.getId(), balanceAmount, PartyTransaction.TransactionType.PURCHASE);
-        
-        // Get the updated balance after the transaction
-        BigDecimal balanceAfter = partyService.getPartyBalance(party.getMerchantId(), party.getId());
-        transaction.setBalanceAfter(balanceAfter);
-        
-        partyTransactionRepository.save(transaction);
+        // We owe them what was not paid
+        BigDecimal balanceAfter = partyBalanceService.post(party, PartyBalanceEntry.PURCHASE, transaction.getId(),
+            balanceAmount.negate());
+        transaction.setBalanceAfter(balanceAfter.abs());
     }
     
     public void recordSaleTransaction(Party party, BigDecimal totalAmount, BigDecimal receivedAmount, String description) {
@@ -59,24 +53,18 @@ public class PartyTransactionService {
         transaction.setDescription(description);
         transaction.setTransactionDate(LocalDateTime.now());
         
-        // Use PartyService to update balance with proper logic
-        partyService.updatePartyBalance(party.getMerchantId(), party.getId(), balanceAmount, PartyTransaction.TransactionType.SALE);
-        
-        // Get the updated balance after the transaction
-        BigDecimal balanceAfter = partyService.getPartyBalance(party.getMerchantId(), party.getId());
-        transaction.setBalanceAfter(balanceAfter);
-        
         // Set the specific sale's balance (remaining amount to be paid for this sale)
         transaction.setSaleBalance(balanceAmount);
+        transaction = partyTransactionRepository.save(transaction);
         
-        partyTransactionRepository.save(transaction);
+        // They owe us what was not received
+        BigDecimal balanceAfter = partyBalanceService.post(party, PartyBalanceEntry.SALE, transaction.getId(), balanceAmount);
+        transaction.setBalanceAfter(balanceAfter.abs());
     }
     
     public void reversePurchaseTransaction(Party party, BigDecimal totalAmount, BigDecimal paidAmount) {
         // Reverse the purchase transaction effect
-        BigDecimal currentBalance = party.getCurrentBalance() != null ? party.getCurrentBalance() : BigDecimal.ZERO;
         BigDecimal adjustment = totalAmount.subtract(paidAmount);
-        BigDecimal newBalance = currentBalance.subtract(adjustment);
         
         // Create reversal transaction
         PartyTransaction transaction = new PartyTransaction();
@@ -87,28 +75,16 @@ public class PartyTransactionService {
         transaction.setAmount(adjustment);
         transaction.setDescription("Reversed Purchase");
         transaction.setTransactionDate(LocalDateTime.now());
-        transaction.setBalanceAfter(newBalance);
-        
-        partyTransactionRepository.save(transaction);
+        transaction = partyTransactionRepository.save(transaction);
         
-        // Update party balance
-        // Always store balance as positive value, use balanceType to indicate direction
-        party.setCurrentBalance(newBalance.abs());
-        if (newBalance.compareTo(BigDecimal.ZERO) > 0) {
-            party.setBalanceType(Party.BalanceType.TO_PAY);
-        } else if (newBalance.compareTo(BigDecimal.ZERO) < 0) {
-            party.setBalanceType(Party.BalanceType.TO_RECEIVE);
-        } else {
-            party.setBalanceType(null);
-        }
-        partyRepository.save(party);
+        BigDecimal balanceAfter = partyBalanceService.post(party, PartyBalanceEntry.PURCHASE_REVERSAL, transaction.getId(),
+            adjustment);
+        transaction.setBalanceAfter(balanceAfter.abs());
     }
     
     public void reverseSaleTransaction(Party party, BigDecimal totalAmount, BigDecimal receivedAmount) {
         // Reverse the sale transaction effect
-        BigDecimal currentBalance = party.getCurrentBalance() != null ? party.getCurrentBalance() : BigDecimal.ZERO;
         BigDecimal adjustment = totalAmount.subtract(receivedAmount);
-        BigDecimal newBalance = currentBalance.add(adjustment);
         
         // Create reversal transaction
         PartyTransaction transaction = new PartyTransaction();
@@ -119,21 +95,11 @@ public class PartyTransactionService {
         transaction.setAmount(adjustment);
         transaction.setDescription("Reversed Sale");
         transaction.setTransactionDate(LocalDateTime.now());
-        transaction.setBalanceAfter(newBalance);
+        transaction = partyTransactionRepository.save(transaction);
         
-        partyTransactionRepository.save(transaction);
-        
-        // Update party balance
-        // Always store balance as positive value, use balanceType to indicate direction
-        party.setCurrentBalance(newBalance.abs());
-        if (newBalance.compareTo(BigDecimal.ZERO) > 0) {
-            party.setBalanceType(Party.BalanceType.TO_PAY);
-        } else if (newBalance.compareTo(BigDecimal.ZERO) < 0) {
-            party.setBalanceType(Party.BalanceType.TO_RECEIVE);
-        } else {
-            party.setBalanceType(null);
-        }
-        partyRepository.save(party);
+        BigDecimal balanceAfter = partyBalanceService.post(party, PartyBalanceEntry.SALE_REVERSAL, transaction.getId(),
+            adjustment.negate());
+        transaction.setBalanceAfter(balanceAfter.abs());
     }
     
     /**
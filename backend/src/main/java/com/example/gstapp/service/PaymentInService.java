@@ -6,7 +6,7 @@ import com.example.gstapp.model.BankAccount;
 import com.example.gstapp.model.BankTransaction;
 import com.example.gstapp.model.CashTransaction;
 import com.example.gstapp.model.Party;
-import com.example.gstapp.model.PartyTransaction;
+import com.example.gstapp.model.PartyBalanceEntry;
 import com.example.gstapp.model.PaymentIn;
 import com.example.gstapp.repository.BankAccountRepository;
 import com.example.gstapp.repository.PartyRepository;
@@ -34,13 +34,13 @@ public class PaymentInService {
     private BankAccountRepository bankAccountRepository;
     
     @Autowired
-    private BankTransactionService bankTransactionService;
+    private BankPostingService bankPostingService;
     
     @Autowired
     private CashTransactionService cashTransactionService;
     
     @Autowired
-    private PartyService partyService;
+    private PartyBalanceService partyBalanceService;
     
     public PaymentInResponse createPaymentIn(Long merchantId, PaymentInRequest request) {
         System.out.println("Creating payment in for merchant: " + merchantId + ", amount: " + request.getAmount());
@@ -68,14 +68,12 @@ public class PaymentInService {
             request.getDescription()
         );
         
-        // Adjust party balance using consistent logic (PAYMENT_IN increases balance)
-        partyService.updatePartyBalance(merchantId, party.getId(), request.getAmount(), PartyTransaction.TransactionType.PAYMENT_IN);
+        paymentIn = paymentInRepository.save(paymentIn);
         
-        // Get the updated balance after payment and store it with the payment record
-        BigDecimal balanceAfterPayment = partyService.getPartyBalance(merchantId, party.getId());
+        // Money from them: they owe us less, or we owe them more
+        BigDecimal balanceAfterPayment = partyBalanceService.post(party, PartyBalanceEntry.PAYMENT_IN, paymentIn.getId(),
+            request.getAmount().negate()).abs();
         paymentIn.setBalanceAfter(balanceAfterPayment);
-        
-        paymentIn = paymentInRepository.save(paymentIn);
         System.out.println("Payment in saved with ID: " + paymentIn.getId() + ", balance after: " + balanceAfterPayment);
         
         // Record transaction based on payment type
@@ -92,22 +90,13 @@ public class PaymentInService {
             // Record bank transaction (money coming in)
             System.out.println("Recording bank transaction for account: " + bankAccount.getAccountDisplayName() + ", amount: " + request.getAmount());
             
-            // Calculate new balance after deposit
-            BigDecimal currentBalance = bankAccount.getCurrentBalance() != null ? bankAccount.getCurrentBalance() : BigDecimal.ZERO;
-            BigDecimal newBalance = currentBalance.add(request.getAmount());
-            
-            // Update bank account balance
-            bankAccount.setCurrentBalance(newBalance);
-            bankAccountRepository.save(bankAccount);
-            
-            bankTransactionService.createBankTransaction(
+            bankPostingService.enqueue(
                 merchantId,
                 bankAccount.getId(),
                 BankTransaction.TransactionType.DEPOSIT,
                 request.getAmount(),
                 description,
                 request.getReceiptNumber(),
-                newBalance,
                 request.getPaymentDate()
             );
         } else if ("Cash".equals(request.getPaymentType()) || "CASH".equals(request.getPaymentType())) {
@@ -6,7 +6,7 @@ import com.example.gstapp.model.BankAccount;
 import com.example.gstapp.model.BankTransaction;
 import com.example.gstapp.model.CashTransaction;
 import com.example.gstapp.model.Party;
-import com.example.gstapp.model.PartyTransaction;
+import com.example.gstapp.model.PartyBalanceEntry;
 import com.example.gstapp.model.PaymentOut;
 import com.example.gstapp.repository.BankAccountRepository;
 import com.example.gstapp.repository.PartyRepository;
@@ -34,13 +34,13 @@ public class PaymentOutService {
     private BankAccountRepository bankAccountRepository;
     
     @Autowired
-    private BankTransactionService bankTransactionService;
+    private BankPostingService bankPostingService;
     
     @Autowired
     private CashTransactionService cashTransactionService;
     
     @Autowired
-    private PartyService partyService;
+    private PartyBalanceService partyBalanceService;
     
     public PaymentOutResponse createPaymentOut(Long merchantId, PaymentOutRequest request) {
         System.out.println("Creating payment out for merchant: " + merchantId + ", amount: " + request.getAmount());
@@ -68,15 +68,12 @@ public class PaymentOutService {
             request.getDescription()
         );
         
-        // Adjust party balance using consistent logic
-        System.out.println("PaymentOutService: Calling updatePartyBalance with amount=" + request.getAmount() + ", transactionType=PAYMENT_OUT");
-        partyService.updatePartyBalance(merchantId, party.getId(), request.getAmount(), PartyTransaction.TransactionType.PAYMENT_OUT);
+        paymentOut = paymentOutRepository.save(paymentOut);
         
-        // Get the updated balance after payment and store it with the payment record
-        BigDecimal balanceAfterPayment = partyService.getPartyBalance(merchantId, party.getId());
+        // Money to them: we owe them less, or they owe us more
+        BigDecimal balanceAfterPayment = partyBalanceService.post(party, PartyBalanceEntry.PAYMENT_OUT, paymentOut.getId(),
+            request.getAmount()).abs();
         paymentOut.setBalanceAfter(balanceAfterPayment);
-        
-        paymentOut = paymentOutRepository.save(paymentOut);
         System.out.println("Payment out saved with ID: " + paymentOut.getId() + ", balance after: " + balanceAfterPayment);
         
         // Record transaction based on payment type
@@ -94,22 +91,13 @@ public class PaymentOutService {
             // Record bank transaction (money going out)
             System.out.println("Recording bank transaction for account: " + bankAccount.getAccountDisplayName() + ", amount: " + request.getAmount());
             
-            // Calculate new balance after withdrawal
-            BigDecimal currentBalance = bankAccount.getCurrentBalance() != null ? bankAccount.getCurrentBalance() : BigDecimal.ZERO;
-            BigDecimal newBalance = currentBalance.subtract(request.getAmount());
-            
-            // Update bank account balance
-            bankAccount.setCurrentBalance(newBalance);
-            bankAccountRepository.save(bankAccount);
-            
-            bankTransactionService.createBankTransaction(
+            bankPostingService.enqueue(
                 merchantId,
                 bankAccount.getId(),
                 BankTransaction.TransactionType.WITHDRAWAL,
                 request.getAmount(),
                 description,
                 request.getReceiptNumber(),
-                newBalance,
                 request.getPaymentDate()
             );
         } else if ("Cash".equals(request.getPaymentType()) || "CASH".equals(request.getPaymentType())) {
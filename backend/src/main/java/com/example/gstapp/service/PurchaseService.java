@@ -1,5 +1,6 @@
 package com.example.gstapp.service;
 
+import com.example.gstapp.dto.CursorPage;
 import com.example.gstapp.dto.PurchaseRequest;
 import com.example.gstapp.dto.PurchaseResponse;
 import com.example.gstapp.dto.PurchaseItemRequest;
@@ -7,17 +8,13 @@ import com.example.gstapp.dto.PurchaseItemResponse;
 import com.example.gstapp.model.*;
 import com.example.gstapp.repository.PurchaseRepository;
 import com.example.gstapp.repository.PurchaseItemRepository;
-import com.example.gstapp.repository.PartyRepository;
-import com.example.gstapp.repository.ItemRepository;
 import com.example.gstapp.repository.PartyTransactionRepository;
-import com.example.gstapp.repository.ItemTransactionRepository;
-import com.example.gstapp.repository.BankAccountRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -26,6 +23,8 @@ import java.util.List;
 @Transactional
 public class PurchaseService {
 
+    private static final int MAX_REGISTER_PAGE_SIZE = 200;
+
     @Autowired
     private PurchaseRepository purchaseRepository;
 
@@ -33,38 +32,50 @@ public class PurchaseService {
     private PurchaseItemRepository purchaseItemRepository;
 
     @Autowired
-    private PartyRepository partyRepository;
+    private PartyBalanceService partyBalanceService;
 
     @Autowired
-    private ItemRepository itemRepository;
+    private CashTransactionService cashTransactionService;
 
     @Autowired
-    private PartyService partyService;
+    private BankPostingService bankPostingService;
 
     @Autowired
-    private CashTransactionService cashTransactionService;
+    private PartyTransactionRepository partyTransactionRepository;
 
     @Autowired
-    private BankTransactionService bankTransactionService;
+    private ItemTransactionService itemTransactionService;
 
     @Autowired
-    private BankAccountRepository bankAccountRepository;
+    private DocumentNumberService documentNumberService;
 
     @Autowired
-    private PartyTransactionRepository partyTransactionRepository;
+    private DocumentLineResolver documentLineResolver;
+
+    @Autowired
+    private GstTaxEngine gstTaxEngine;
 
     @Autowired
-    private ItemTransactionRepository itemTransactionRepository;
+    private GstSummaryService gstSummaryService;
 
     public PurchaseResponse createPurchase(Long merchantId, PurchaseRequest request) {
-        // Validate party exists
-        Party party = partyRepository.findByIdAndMerchantIdAndIsActiveTrue(request.getPartyId(), merchantId)
-                .orElseThrow(() -> new RuntimeException("Party not found"));
+        // Load the party, paying bank account and every referenced item once for the whole bill
+        List<Long> itemIds = new ArrayList<>();
+        for (PurchaseItemRequest itemRequest : request.getItems()) {
+            itemIds.add(itemRequest.getItemId());
+        }
+        ResolvedDocument document = documentLineResolver.resolve(merchantId, itemIds, request.getPartyId(), 
+                null, request.getPaymentType());
+        Party party = document.getParty();
+        if (party == null) {
+            throw new RuntimeException("Party not found");
+        }
 
         // Generate bill number if not provided
         String billNumber = request.getBillNumber();
         if (billNumber == null || billNumber.trim().isEmpty()) {
-            billNumber = generateBillNumber(merchantId);
+            LocalDateTime billDate = request.getBillDate() != null ? request.getBillDate() : LocalDateTime.now();
+            billNumber = documentNumberService.nextPurchaseBillNumber(merchantId, billDate.toLocalDate());
         }
 
         // Create purchase entity
@@ -80,11 +91,11 @@ public class PurchaseService {
         purchase.setPaidAmount(request.getPaidAmount() != null ? request.getPaidAmount() : BigDecimal.ZERO);
         purchase.setDescription(request.getDescription());
 
-        // Process items and calculate totals
+        // Price the lines and totals with the same tax engine as sales
+        boolean interState = gstTaxEngine.isInterState(merchantId, request.getStateOfSupply(), party);
+        GstTaxEngine.LineTax line = new GstTaxEngine.LineTax();
+        GstTaxEngine.LineTax totals = new GstTaxEngine.LineTax();
         List<PurchaseItem> purchaseItems = new ArrayList<>();
-        BigDecimal subtotal = BigDecimal.ZERO;
-        BigDecimal totalDiscount = BigDecimal.ZERO;
-        BigDecimal totalTax = BigDecimal.ZERO;
 
         for (PurchaseItemRequest itemRequest : request.getItems()) {
             if (itemRequest.getItemId() == null || itemRequest.getQuantity() == null || 
@@ -93,9 +104,14 @@ public class PurchaseService {
             }
 
             // Get item details
-            Item item = itemRepository.findById(itemRequest.getItemId())
-                    .filter(i -> i.getMerchantId().equals(merchantId))
-                    .orElseThrow(() -> new RuntimeException("Item not found: " + itemRequest.getItemId()));
+            Item item = document.getItem(itemRequest.getItemId());
+            String priceType = itemRequest.getPriceType() != null ? itemRequest.getPriceType() : item.getPurchasePriceType();
+            BigDecimal discountPercent = itemRequest.getDiscountPercent() != null ? itemRequest.getDiscountPercent() : BigDecimal.ZERO;
+            BigDecimal taxPercent = itemRequest.getTaxPercent() != null ? itemRequest.getTaxPercent() : BigDecimal.ZERO;
+
+            gstTaxEngine.computeLine(itemRequest.getQuantity(), itemRequest.getPricePerUnit(), priceType,
+                discountPercent, itemRequest.getDiscountAmount(), taxPercent, interState, line);
+            totals.add(line);
 
             // Create purchase item
             PurchaseItem purchaseItem = new PurchaseItem();
@@ -105,55 +121,28 @@ public class PurchaseService {
             purchaseItem.setQuantity(itemRequest.getQuantity());
             purchaseItem.setUnit(itemRequest.getUnit() != null ? itemRequest.getUnit() : item.getUnit());
             purchaseItem.setPricePerUnit(itemRequest.getPricePerUnit());
-
-            // Calculate discount
-            BigDecimal discountPercent = itemRequest.getDiscountPercent() != null ? itemRequest.getDiscountPercent() : BigDecimal.ZERO;
-            BigDecimal discountAmount = itemRequest.getDiscountAmount() != null ? itemRequest.getDiscountAmount() : BigDecimal.ZERO;
-            
-            if (discountPercent.compareTo(BigDecimal.ZERO) > 0) {
-                discountAmount = itemRequest.getQuantity()
-                        .multiply(itemRequest.getPricePerUnit())
-                        .multiply(discountPercent)
-                        .divide(new BigDecimal("100"), 2, RoundingMode.HALF_UP);
-            }
-
+            purchaseItem.setPriceType(priceType);
             purchaseItem.setDiscountPercent(discountPercent);
-            purchaseItem.setDiscountAmount(discountAmount);
-
-            // Calculate tax
-            BigDecimal taxPercent = itemRequest.getTaxPercent() != null ? itemRequest.getTaxPercent() : BigDecimal.ZERO;
-            BigDecimal taxAmount = itemRequest.getTaxAmount() != null ? itemRequest.getTaxAmount() : BigDecimal.ZERO;
-            
-            if (taxPercent.compareTo(BigDecimal.ZERO) > 0) {
-                BigDecimal taxableAmount = itemRequest.getQuantity()
-                        .multiply(itemRequest.getPricePerUnit())
-                        .subtract(discountAmount);
-                taxAmount = taxableAmount.multiply(taxPercent).divide(new BigDecimal("100"), 2, RoundingMode.HALF_UP);
-            }
-
+            purchaseItem.setDiscountAmount(line.getDiscountAmount());
             purchaseItem.setTaxPercent(taxPercent);
-            purchaseItem.setTaxAmount(taxAmount);
-
-            // Calculate item amount
-            BigDecimal itemAmount = itemRequest.getQuantity()
-                    .multiply(itemRequest.getPricePerUnit())
-                    .subtract(discountAmount)
-                    .add(taxAmount);
-            purchaseItem.setAmount(itemAmount);
+            purchaseItem.setTaxableAmount(line.getTaxableAmount());
+            purchaseItem.setTaxAmount(line.getTaxAmount());
+            purchaseItem.setCgstAmount(line.getCgstAmount());
+            purchaseItem.setSgstAmount(line.getSgstAmount());
+            purchaseItem.setIgstAmount(line.getIgstAmount());
+            purchaseItem.setAmount(line.getTotalAmount());
 
             purchaseItems.add(purchaseItem);
-
-            // Update totals
-            subtotal = subtotal.add(itemRequest.getQuantity().multiply(itemRequest.getPricePerUnit()));
-            totalDiscount = totalDiscount.add(discountAmount);
-            totalTax = totalTax.add(taxAmount);
         }
 
         // Set calculated totals
-        purchase.setSubtotal(subtotal);
-        purchase.setTotalDiscount(totalDiscount);
-        purchase.setTotalTax(totalTax);
-        purchase.setTotalAmount(subtotal.subtract(totalDiscount).add(totalTax).add(purchase.getRoundOff()));
+        purchase.setSubtotal(totals.getGrossAmount());
+        purchase.setTotalDiscount(totals.getDiscountAmount());
+        purchase.setTotalTax(totals.getTaxAmount());
+        purchase.setCgstAmount(totals.getCgstAmount());
+        purchase.setSgstAmount(totals.getSgstAmount());
+        purchase.setIgstAmount(totals.getIgstAmount());
+        purchase.setTotalAmount(totals.getTotalAmount().add(purchase.getRoundOff()));
         
         // Calculate balance and determine status
         BigDecimal balanceAmount = purchase.getTotalAmount().subtract(purchase.getPaidAmount());
@@ -177,19 +166,19 @@ public class PurchaseService {
         // Save the purchase items explicitly to ensure they are persisted with the correct relationships
         purchaseItems = purchaseItemRepository.saveAll(purchaseItems);
         purchase.setItems(purchaseItems);
+        gstSummaryService.recordChange(merchantId, GstMonthlySummary.INPUT, null, gstSummaryService.purchaseContribution(purchase));
 
-        // Update party balance - add the remaining balance amount (what we still owe them)
-        // This represents the outstanding amount after the purchase
-        partyService.updatePartyBalance(merchantId, party.getId(), balanceAmount, PartyTransaction.TransactionType.PURCHASE);
+        // We owe them the remaining balance amount (what was not paid now)
+        partyBalanceService.post(party, PartyBalanceEntry.PURCHASE, purchase.getId(), balanceAmount.negate());
 
         // Create party transaction
         createPartyTransaction(merchantId, party.getId(), purchase);
 
         // Record payment transaction based on payment type
-        recordPurchasePaymentTransaction(merchantId, request, purchase, party);
+        recordPurchasePaymentTransaction(merchantId, request, purchase, party, document.getBankAccount());
 
         // Update item stock
-        updateItemStock(purchaseItems, merchantId, party);
+        updateItemStock(purchaseItems, document, party);
 
         return convertToResponse(purchase);
     }
@@ -203,6 +192,32 @@ public class PurchaseService {
         return purchases.stream().map(this::convertToResponse).toList();
     }
 
+    /**
+     * One page of the purchase register, newest bill first, without line items.
+     */
+    public CursorPage<PurchaseResponse> getPurchaseRegister(Long merchantId, Long partyId, String paymentType, String status,
+                                                            String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_REGISTER_PAGE_SIZE));
+        // Fetch one extra row to know whether another page exists
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        List<Purchase> purchases;
+        if (cursor == null || cursor.isBlank()) {
+            purchases = purchaseRepository.findRegisterFirstPage(merchantId, partyId, paymentType, status, page);
+        } else {
+            RegisterCursor after = RegisterCursor.decode(cursor);
+            purchases = purchaseRepository.findRegisterPageAfter(merchantId, partyId, paymentType, status,
+                LocalDateTime.parse(after.getSortKey()), after.getId(), page);
+        }
+
+        String nextCursor = null;
+        if (purchases.size() > pageSize) {
+            purchases = purchases.subList(0, pageSize);
+            Purchase last = purchases.get(pageSize - 1);
+            nextCursor = RegisterCursor.encode(last.getBillDate(), last.getId());
+        }
+        return new CursorPage<>(purchases.stream().map(this::convertHeaderToResponse).toList(), nextCursor);
+    }
+
     public List<PurchaseResponse> getPurchasesByDateRange(Long merchantId, LocalDateTime startDate, LocalDateTime endDate) {
         System.out.println("Service: Searching purchases for merchant " + merchantId + " between " + startDate + " and " + endDate);
         
@@ -242,20 +257,20 @@ public class PurchaseService {
             throw new RuntimeException("Purchase not found");
         }
 
-        // Reverse party balance
-        partyService.updatePartyBalance(merchantId, purchase.getPartyId(), purchase.getTotalAmount().negate(), PartyTransaction.TransactionType.PURCHASE);
+        // Take back what the purchase added to the party balance
+        BigDecimal balanceAmount = purchase.getBalanceAmount() != null ? purchase.getBalanceAmount() : BigDecimal.ZERO;
+        partyBalanceService.post(merchantId, purchase.getPartyId(), PartyBalanceEntry.PURCHASE_DELETED, purchase.getId(),
+                balanceAmount);
 
         // Reverse item stock
-        reverseItemStock(purchase.getItems(), merchantId);
+        List<Long> itemIds = purchase.getItems().stream().map(PurchaseItem::getItemId).toList();
+        ResolvedDocument document = documentLineResolver.resolve(merchantId, itemIds, null, null, null);
+        reverseItemStock(purchase.getItems(), document, merchantId);
+        gstSummaryService.recordChange(merchantId, GstMonthlySummary.INPUT, gstSummaryService.purchaseContribution(purchase), null);
 
         purchaseRepository.delete(purchase);
     }
 
-    private String generateBillNumber(Long merchantId) {
-        Long count = purchaseRepository.countByMerchantId(merchantId);
-        return "PUR-" + String.format("%06d", count + 1);
-    }
-
 
     private void createPartyTransaction(Long merchantId, Long partyId, Purchase purchase) {
         PartyTransaction transaction = new PartyTransaction();
@@ -272,7 +287,8 @@ public class PurchaseService {
         partyTransactionRepository.save(transaction);
     }
 
-    private void recordPurchasePaymentTransaction(Long merchantId, PurchaseRequest request, Purchase purchase, Party party) {
+    private void recordPurchasePaymentTransaction(Long merchantId, PurchaseRequest request, Purchase purchase, Party party, 
+                                                  BankAccount bankAccount) {
         if (request.getPaidAmount() == null || request.getPaidAmount().compareTo(BigDecimal.ZERO) <= 0) {
             // No payment made, skip transaction recording
             return;
@@ -296,31 +312,18 @@ public class PurchaseService {
             // This depends on your business logic
             System.out.println("Cheque payment for purchase recorded: " + request.getPaidAmount());
         } else {
-            // Check if it's a bank account payment type
-            // The payment type might be the bank account name
-            BankAccount bankAccount = bankAccountRepository.findByMerchantIdAndAccountDisplayName(merchantId, request.getPaymentType())
-                .orElse(bankAccountRepository.findByMerchantIdAndBankName(merchantId, request.getPaymentType()).orElse(null));
-            
+            // The payment type might be the bank account name, resolved with the rest of the bill
             if (bankAccount != null) {
                 // Record bank transaction (money going out for purchase)
                 System.out.println("Recording bank transaction for purchase: " + bankAccount.getAccountDisplayName() + ", amount: " + request.getPaidAmount());
                 
-                // Calculate new balance after withdrawal
-                BigDecimal currentBalance = bankAccount.getCurrentBalance() != null ? bankAccount.getCurrentBalance() : BigDecimal.ZERO;
-                BigDecimal newBalance = currentBalance.subtract(request.getPaidAmount());
-                
-                // Update bank account balance
-                bankAccount.setCurrentBalance(newBalance);
-                bankAccountRepository.save(bankAccount);
-                
-                bankTransactionService.createBankTransaction(
+                bankPostingService.enqueue(
                     merchantId,
                     bankAccount.getId(),
                     BankTransaction.TransactionType.WITHDRAWAL,
                     request.getPaidAmount(),
                     description,
                     purchase.getBillNumber(),
-                    newBalance,
                     purchase.getBillDate()
                 );
             } else {
@@ -329,43 +332,32 @@ public class PurchaseService {
         }
     }
 
-    private void updateItemStock(List<PurchaseItem> items, Long merchantId, Party party) {
+    private void updateItemStock(List<PurchaseItem> items, ResolvedDocument document, Party party) {
+        Long merchantId = party.getMerchantId();
+        List<ItemTransaction> movements = new ArrayList<>();
         for (PurchaseItem item : items) {
-            Item itemEntity = itemRepository.findById(item.getItemId())
-                    .filter(i -> i.getMerchantId().equals(merchantId))
-                    .orElseThrow(() -> new RuntimeException("Item not found: " + item.getItemId()));
-
-            // Update current stock (total stock including opening + purchases)
-            Integer currentStock = itemEntity.getCurrentStock() != null ? itemEntity.getCurrentStock() : 0;
-            Integer newStock = currentStock + item.getQuantity().intValue();
-            itemEntity.setCurrentStock(newStock);
-            itemRepository.save(itemEntity);
-
-            // Create item transaction for purchase (separate from opening stock)
-            createItemTransaction(merchantId, item, "PURCHASE", party);
+            // Item transaction for purchase (separate from opening stock)
+            movements.add(createItemTransaction(merchantId, item, "PURCHASE", party));
         }
+        // Current stock (total stock including opening + purchases) moves in one batched update
+        itemTransactionService.applyToEntities(document.getItems(), 
+            itemTransactionService.postStockMovements(merchantId, movements));
     }
 
-    private void reverseItemStock(List<PurchaseItem> items, Long merchantId) {
+    private void reverseItemStock(List<PurchaseItem> items, ResolvedDocument document, Long merchantId) {
+        List<ItemTransaction> movements = new ArrayList<>();
         for (PurchaseItem item : items) {
-            Item itemEntity = itemRepository.findById(item.getItemId())
-                    .filter(i -> i.getMerchantId().equals(merchantId))
-                    .orElseThrow(() -> new RuntimeException("Item not found: " + item.getItemId()));
-
-            // Update current stock (reduce by the reversed quantity)
-            Integer currentStock = itemEntity.getCurrentStock() != null ? itemEntity.getCurrentStock() : 0;
-            Integer newStock = currentStock - item.getQuantity().intValue();
-            itemEntity.setCurrentStock(newStock);
-            itemRepository.save(itemEntity);
-
             // Create item transaction - for reversal, we need to get the party from the purchase
             // Since this is a reversal, the purchase relationship should be properly set
             Party party = item.getPurchase().getParty();
-            createItemTransaction(merchantId, item, "PURCHASE_REVERSAL", party);
+            movements.add(createItemTransaction(merchantId, item, "PURCHASE_REVERSAL", party));
         }
+        // Reduce current stock by the reversed quantities
+        itemTransactionService.applyToEntities(document.getItems(), 
+            itemTransactionService.postStockMovements(merchantId, movements));
     }
 
-    private void createItemTransaction(Long merchantId, PurchaseItem item, String transactionType, Party party) {
+    private ItemTransaction createItemTransaction(Long merchantId, PurchaseItem item, String transactionType, Party party) {
         ItemTransaction itemTransaction = new ItemTransaction();
         itemTransaction.setItemId(item.getItemId());
         
@@ -380,17 +372,33 @@ public class PurchaseService {
         
         itemTransaction.setInvoiceRef(item.getPurchase().getBillNumber());
         itemTransaction.setPartyName(party.getName());
-        itemTransaction.setQuantity(item.getQuantity());
+        // Reversals take the stock back out, so their quantity is negative like a sale
+        itemTransaction.setQuantity("PURCHASE_REVERSAL".equals(transactionType) ? 
+            item.getQuantity().negate() : item.getQuantity());
         itemTransaction.setPricePerUnit(item.getPricePerUnit());
         itemTransaction.setTotalAmount(item.getAmount());
         itemTransaction.setStatus(item.getPurchase().getStatus());
         itemTransaction.setTransactionDate(LocalDateTime.now());
         itemTransaction.setMerchantId(merchantId);
 
-        itemTransactionRepository.save(itemTransaction);
+        return itemTransaction;
     }
 
     private PurchaseResponse convertToResponse(Purchase purchase) {
+        PurchaseResponse response = convertHeaderToResponse(purchase);
+
+        // Convert items
+        if (purchase.getItems() != null) {
+            List<PurchaseItemResponse> itemResponses = purchase.getItems().stream()
+                    .map(this::convertItemToResponse)
+                    .toList();
+            response.setItems(itemResponses);
+        }
+
+        return response;
+    }
+
+    private PurchaseResponse convertHeaderToResponse(Purchase purchase) {
         PurchaseResponse response = new PurchaseResponse();
         response.setId(purchase.getId());
         response.setBillNumber(purchase.getBillNumber());
@@ -404,6 +412,9 @@ public class PurchaseService {
         response.setSubtotal(purchase.getSubtotal());
         response.setTotalDiscount(purchase.getTotalDiscount());
         response.setTotalTax(purchase.getTotalTax());
+        response.setCgstAmount(purchase.getCgstAmount());
+        response.setSgstAmount(purchase.getSgstAmount());
+        response.setIgstAmount(purchase.getIgstAmount());
         response.setTotalAmount(purchase.getTotalAmount());
         response.setPaidAmount(purchase.getPaidAmount());
         response.setBalanceAmount(purchase.getBalanceAmount());
@@ -411,15 +422,6 @@ public class PurchaseService {
         response.setDescription(purchase.getDescription());
         response.setCreatedAt(purchase.getCreatedAt());
         response.setUpdatedAt(purchase.getUpdatedAt());
-
-        // Convert items
-        if (purchase.getItems() != null) {
-            List<PurchaseItemResponse> itemResponses = purchase.getItems().stream()
-                    .map(this::convertItemToResponse)
-                    .toList();
-            response.setItems(itemResponses);
-        }
-
         return response;
     }
 
@@ -435,6 +437,11 @@ public class PurchaseService {
         response.setDiscountAmount(item.getDiscountAmount());
         response.setTaxPercent(item.getTaxPercent());
         response.setTaxAmount(item.getTaxAmount());
+        response.setPriceType(item.getPriceType());
+        response.setTaxableAmount(item.getTaxableAmount());
+        response.setCgstAmount(item.getCgstAmount());
+        response.setSgstAmount(item.getSgstAmount());
+        response.setIgstAmount(item.getIgstAmount());
         response.setAmount(item.getAmount());
         return response;
     }
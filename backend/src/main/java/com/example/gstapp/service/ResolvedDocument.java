@@ -0,0 +1,44 @@
+package com.example.gstapp.service;
+
+import com.example.gstapp.model.BankAccount;
+import com.example.gstapp.model.Item;
+import com.example.gstapp.model.Party;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Entities referenced by a sale or purchase document, loaded once by {@link DocumentLineResolver}
+ * and shared by pricing, stock posting and ledger posting.
+ */
+public class ResolvedDocument {
+    private final Map<Long, Item> items;
+    private final Party party;
+    private final BankAccount bankAccount;
+
+    public ResolvedDocument(Map<Long, Item> items, Party party, BankAccount bankAccount) {
+        this.items = items;
+        this.party = party;
+        this.bankAccount = bankAccount;
+    }
+
+    public Item getItem(Long itemId) {
+        Item item = items.get(itemId);
+        if (item == null) {
+            throw new RuntimeException("Item not found: " + itemId);
+        }
+        return item;
+    }
+
+    public Collection<Item> getItems() {
+        return items.values();
+    }
+
+    public Party getParty() {
+        return party;
+    }
+
+    public BankAccount getBankAccount() {
+        return bankAccount;
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.gstapp.service;
+
+import com.example.gstapp.dto.SalePostingSnapshot;
+import com.example.gstapp.model.BankAccount;
+import com.example.gstapp.model.Party;
+import com.example.gstapp.model.User;
+import com.example.gstapp.repository.BankAccountRepository;
+import com.example.gstapp.repository.PartyRepository;
+import com.example.gstapp.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+/**
+ * Applies the party, cash and bank postings of a sale from its outbox snapshots.
+ * Called by LedgerOutboxService inside the transaction that marks the event processed.
+ */
+@Service
+@Transactional
+public class SaleLedgerPoster {
+
+    @Autowired
+    private PartyRepository partyRepository;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PartyTransactionService partyTransactionService;
+
+    @Autowired
+    private CashTransactionService cashTransactionService;
+
+    @Autowired
+    private BankTransactionService bankTransactionService;
+
+    /**
+     * Post the change from before to after; either side is null for creates and deletes.
+     * When the party or payment account is unchanged only the net amount is posted, so a
+     * header-only edit posts nothing.
+     */
+    public void post(Long merchantId, SalePostingSnapshot before, SalePostingSnapshot after) {
+        User user = userRepository.getReferenceById(merchantId);
+        postPartyChange(before, after);
+        postPaymentChange(user, before, after);
+    }
+
+    private void postPartyChange(SalePostingSnapshot before, SalePostingSnapshot after) {
+        Long previousParty = creditParty(before);
+        Long currentParty = creditParty(after);
+
+        if (previousParty != null && previousParty.equals(currentParty)) {
+            BigDecimal totalChange = after.getTotalAmount().subtract(before.getTotalAmount());
+            BigDecimal receivedChange = received(after).subtract(received(before));
+            int balanceChange = totalChange.subtract(receivedChange).signum();
+            if (balanceChange > 0) {
+                partyTransactionService.recordSaleTransaction(findParty(currentParty), totalChange, receivedChange,
+                    "Sale Invoice: " + after.getInvoiceNumber() + " (edited)");
+            } else if (balanceChange < 0) {
+                partyTransactionService.reverseSaleTransaction(findParty(currentParty), 
+                    totalChange.negate(), receivedChange.negate());
+            }
+            return;
+        }
+
+        // Party or sale type changed: move the whole sale between parties
+        if (previousParty != null) {
+            partyTransactionService.reverseSaleTransaction(findParty(previousParty),
+                before.getTotalAmount(), received(before));
+        }
+        if (currentParty != null) {
+            partyTransactionService.recordSaleTransaction(findParty(currentParty),
+                after.getTotalAmount(), received(after), "Sale Invoice: " + after.getInvoiceNumber());
+        }
+    }
+
+    private void postPaymentChange(User user, SalePostingSnapshot before, SalePostingSnapshot after) {
+        String previousChannel = paymentChannel(before);
+        String currentChannel = paymentChannel(after);
+
+        if (previousChannel != null && previousChannel.equals(currentChannel)) {
+            BigDecimal change = received(after).subtract(received(before));
+            if (change.signum() > 0) {
+                recordPayment(user, after, change);
+            } else if (change.signum() < 0) {
+                reversePayment(user, after, change.negate());
+            }
+            return;
+        }
+
+        if (previousChannel != null) {
+            reversePayment(user, before, received(before));
+        }
+        if (currentChannel != null) {
+            recordPayment(user, after, received(after));
+        }
+    }
+
+    private void recordPayment(User user, SalePostingSnapshot sale, BigDecimal amount) {
+        if ("Cash".equals(sale.getPaymentType())) {
+            cashTransactionService.recordSalePayment(
+                amount,
+                "Sale Payment - Invoice: " + sale.getInvoiceNumber(),
+                user
+            );
+        } else {
+            // Bank account is linked when the sale is saved, either directly or by payment type name
+            bankTransactionService.recordSalePayment(
+                findBankAccount(sale.getBankAccountId()),
+                amount,
+                "Sale Payment - Invoice: " + sale.getInvoiceNumber(),
+                user
+            );
+        }
+    }
+
+    private void reversePayment(User user, SalePostingSnapshot sale, BigDecimal amount) {
+        if ("Cash".equals(sale.getPaymentType())) {
+            cashTransactionService.reverseSalePayment(amount, user);
+        } else {
+            bankTransactionService.reverseSalePayment(findBankAccount(sale.getBankAccountId()), amount, user);
+        }
+    }
+
+    /**
+     * The party whose balance a sale affects, or null for cash sales and walk-in customers.
+     */
+    private Long creditParty(SalePostingSnapshot sale) {
+        if (sale == null || sale.getPartyId() == null || !"Credit".equals(sale.getSaleType())) {
+            return null;
+        }
+        return sale.getPartyId();
+    }
+
+    /**
+     * Where a sale's received amount was posted: "CASH", "BANK:<id>", or null when nothing
+     * was posted (no amount received, cheque, or an unknown payment type).
+     */
+    private String paymentChannel(SalePostingSnapshot sale) {
+        if (sale == null || received(sale).signum() <= 0) {
+            return null;
+        }
+        if ("Cash".equals(sale.getPaymentType())) {
+            return "CASH";
+        }
+        if ("Cheque".equals(sale.getPaymentType())) {
+            System.out.println("Cheque payment for sale recorded: " + sale.getReceivedAmount());
+            return null;
+        }
+        if (sale.getBankAccountId() != null) {
+            return "BANK:" + sale.getBankAccountId();
+        }
+        System.out.println("Unknown payment type for sale: " + sale.getPaymentType());
+        return null;
+    }
+
+    private BigDecimal received(SalePostingSnapshot sale) {
+        return sale.getReceivedAmount() != null ? sale.getReceivedAmount() : BigDecimal.ZERO;
+    }
+
+    private Party findParty(Long partyId) {
+        return partyRepository.findById(partyId)
+            .orElseThrow(() -> new RuntimeException("Party not found"));
+    }
+
+    private BankAccount findBankAccount(Long bankAccountId) {
+        return bankAccountRepository.findById(bankAccountId)
+            .orElseThrow(() -> new RuntimeException("Bank account not found"));
+    }
+}
@@ -1,7 +1,10 @@
 package com.example.gstapp.service;
 
+import com.example.gstapp.dto.CursorPage;
+import com.example.gstapp.dto.SalePostingSnapshot;
 import com.example.gstapp.dto.SaleRequest;
 import com.example.gstapp.dto.SaleResponse;
+import com.example.gstapp.dto.SalesRollupResponse;
 import com.example.gstapp.model.*;
 import com.example.gstapp.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,7 +14,11 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,35 +32,48 @@ public class SaleService {
     private SaleItemRepository saleItemRepository;
 
     @Autowired
-    private ItemRepository itemRepository;
+    private ItemTransactionService itemTransactionService;
 
     @Autowired
-    private PartyRepository partyRepository;
+    private DocumentNumberService documentNumberService;
 
     @Autowired
-    private BankAccountRepository bankAccountRepository;
+    private DocumentLineResolver documentLineResolver;
 
     @Autowired
-    private ItemTransactionService itemTransactionService;
+    private SalesRegisterService salesRegisterService;
 
     @Autowired
-    private PartyTransactionService partyTransactionService;
+    private LedgerOutboxService ledgerOutboxService;
 
     @Autowired
-    private BankTransactionService bankTransactionService;
+    private SalesRollupService salesRollupService;
 
     @Autowired
-    private CashTransactionService cashTransactionService;
+    private GstTaxEngine gstTaxEngine;
+
+    @Autowired
+    private GstSummaryService gstSummaryService;
 
     public List<SaleResponse> getAllSales(User user) {
-        List<Sale> sales = saleRepository.findByUserOrderByInvoiceDateDescIdDesc(user);
-        return sales.stream().map(this::convertToResponse).collect(Collectors.toList());
+        return salesRegisterService.getAllSales(user.getId());
     }
 
     public List<SaleResponse> getSalesByDateRange(User user, LocalDate startDate, LocalDate endDate) {
-        List<Sale> sales = saleRepository.findByUserAndInvoiceDateBetweenOrderByInvoiceDateDescIdDesc(
-            user, startDate, endDate);
-        return sales.stream().map(this::convertToResponse).collect(Collectors.toList());
+        return salesRegisterService.getSalesByDateRange(user.getId(), startDate, endDate);
+    }
+
+    public CursorPage<SaleResponse> getSalesRegister(User user, Long partyId, String paymentType, String status,
+                                                     String cursor, int limit) {
+        return salesRegisterService.getRegisterPage(user.getId(), partyId, paymentType, status, cursor, limit);
+    }
+
+    public Map<String, Object> getSalesSummary(User user) {
+        return salesRollupService.getSummary(user.getId());
+    }
+
+    public List<SalesRollupResponse> getSalesTrend(User user, String granularity, LocalDate startDate, LocalDate endDate) {
+        return salesRollupService.getTrend(user.getId(), granularity, startDate, endDate);
     }
 
     public SaleResponse getSaleById(Long id, User user) {
@@ -63,21 +83,21 @@ public class SaleService {
     }
 
     public SaleResponse createSale(SaleRequest request, User user) {
+        return convertToResponseWithItems(createSaleEntity(request, user));
+    }
+
+    /**
+     * Create a sale and return the saved entity, whose items carry their stock after posting.
+     */
+    public Sale createSaleEntity(SaleRequest request, User user) {
         System.out.println("Creating sale for user: " + user.getUsername() + " (ID: " + user.getId() + ")");
         System.out.println("Request invoice number: " + request.getInvoiceNumber());
         
         // Generate invoice number if not provided
         if (request.getInvoiceNumber() == null || request.getInvoiceNumber().isEmpty()) {
-            System.out.println("Invoice number is empty, generating new one...");
-            try {
-                String generatedInvoiceNumber = generateInvoiceNumber(user);
-                request.setInvoiceNumber(generatedInvoiceNumber);
-                System.out.println("Generated invoice number: " + generatedInvoiceNumber);
-            } catch (Exception e) {
-                System.err.println("Error generating invoice number: " + e.getMessage());
-                e.printStackTrace();
-                throw new RuntimeException("Failed to generate invoice number: " + e.getMessage());
-            }
+            String generatedInvoiceNumber = documentNumberService.nextSaleInvoiceNumber(user.getId(), request.getInvoiceDate());
+            request.setInvoiceNumber(generatedInvoiceNumber);
+            System.out.println("Generated invoice number: " + generatedInvoiceNumber);
         } else {
             System.out.println("Using provided invoice number: " + request.getInvoiceNumber());
             // Check if invoice number already exists
@@ -85,6 +105,9 @@ public class SaleService {
                 throw new RuntimeException("Invoice number already exists");
             }
         }
+        if (request.getClientId() != null && saleRepository.existsByClientIdAndUser(request.getClientId(), user)) {
+            throw new RuntimeException("A sale with this client id already exists");
+        }
 
         // Create sale entity
         Sale sale = new Sale();
@@ -93,85 +116,22 @@ public class SaleService {
         sale.setBillingName(request.getBillingName());
         sale.setBillingAddress(request.getBillingAddress());
         sale.setPhoneNumber(request.getPhoneNumber());
+        sale.setStateOfSupply(request.getStateOfSupply());
         sale.setSaleType(request.getSaleType());
         sale.setPaymentType(request.getPaymentType());
         sale.setDescription(request.getDescription());
         sale.setAttachmentUrl(request.getAttachmentUrl());
+        sale.setClientId(request.getClientId());
+        sale.setProvisionalNumber(request.getProvisionalNumber());
         sale.setUser(user);
 
-        // Set party if provided
-        if (request.getPartyId() != null) {
-            Party party = partyRepository.findByIdAndUser(request.getPartyId(), user)
-                .orElseThrow(() -> new RuntimeException("Party not found"));
-            sale.setParty(party);
-        }
-
-        // Set bank account if provided
-        if (request.getBankAccountId() != null) {
-            BankAccount bankAccount = bankAccountRepository.findByIdAndUser(request.getBankAccountId(), user)
-                .orElseThrow(() -> new RuntimeException("Bank account not found"));
-            sale.setBankAccount(bankAccount);
-        }
-
-        // Calculate totals
-        BigDecimal subtotal = BigDecimal.ZERO;
-        BigDecimal totalDiscount = BigDecimal.ZERO;
-        BigDecimal totalTax = BigDecimal.ZERO;
+        // Load items, party and bank account for the whole document in one go
+        ResolvedDocument document = resolveDocument(request, user);
+        sale.setParty(document.getParty());
+        sale.setBankAccount(document.getBankAccount());
 
-        // Process sale items
-        List<SaleItem> saleItems = new ArrayList<>();
-        if (request.getItems() != null) {
-            for (SaleRequest.SaleItemRequest itemRequest : request.getItems()) {
-                Item item = itemRepository.findByIdAndUser(itemRequest.getItemId(), user)
-                    .orElseThrow(() -> new RuntimeException("Item not found: " + itemRequest.getItemId()));
-
-                SaleItem saleItem = new SaleItem();
-                saleItem.setItem(item);
-                saleItem.setQuantity(itemRequest.getQuantity());
-                saleItem.setUnit(itemRequest.getUnit() != null ? itemRequest.getUnit() : item.getUnit());
-                saleItem.setPrice(itemRequest.getPrice());
-                saleItem.setDiscountPercentage(itemRequest.getDiscountPercentage());
-                saleItem.setDiscountAmount(itemRequest.getDiscountAmount());
-                saleItem.setTaxPercentage(itemRequest.getTaxPercentage());
-                saleItem.setTaxAmount(itemRequest.getTaxAmount());
-
-                // Calculate item total
-                BigDecimal itemTotal = itemRequest.getPrice()
-                    .multiply(new BigDecimal(itemRequest.getQuantity()));
-                
-                if (itemRequest.getDiscountAmount() != null) {
-                    itemTotal = itemTotal.subtract(itemRequest.getDiscountAmount());
-                    totalDiscount = totalDiscount.add(itemRequest.getDiscountAmount());
-                }
-                
-                if (itemRequest.getTaxAmount() != null) {
-                    itemTotal = itemTotal.add(itemRequest.getTaxAmount());
-                    totalTax = totalTax.add(itemRequest.getTaxAmount());
-                }
-
-                saleItem.setTotalAmount(itemTotal);
-                saleItem.setSale(sale);
-                saleItems.add(saleItem);
-
-                subtotal = subtotal.add(itemRequest.getPrice()
-                    .multiply(new BigDecimal(itemRequest.getQuantity())));
-
-                // Item stock will be updated when transactions are recorded after sale is saved
-            }
-        }
-
-        sale.setSaleItems(saleItems);
-        sale.setSubtotal(subtotal);
-        sale.setDiscountAmount(totalDiscount);
-        sale.setTaxAmount(totalTax);
-
-        // Calculate final total
-        BigDecimal total = subtotal.subtract(totalDiscount).add(totalTax);
-        if (request.getRoundOff() != null) {
-            sale.setRoundOff(request.getRoundOff());
-            total = total.add(request.getRoundOff());
-        }
-        sale.setTotalAmount(total);
+        // Price every line and the document totals with the shared tax engine
+        BigDecimal total = priceLines(sale, request, document, user);
 
         // Handle payment based on sale type
         if ("Cash".equals(request.getSaleType())) {
@@ -190,16 +150,24 @@ public class SaleService {
 
         // Record transactions
         recordTransactions(sale, user);
+        ledgerOutboxService.enqueueSale(LedgerOutboxEvent.SALE_CREATED, user.getId(), sale.getId(),
+            null, SalePostingSnapshot.of(sale));
+        salesRegisterService.record(sale, calculatePaymentStatus(sale));
+        salesRollupService.recordChange(user.getId(), null, salesRollupService.contributionOf(sale));
+        gstSummaryService.recordChange(user.getId(), GstMonthlySummary.OUTPUT, null, gstSummaryService.saleContribution(sale));
 
-        return convertToResponseWithItems(sale);
+        return sale;
     }
 
     public SaleResponse updateSale(Long id, SaleRequest request, User user) {
         Sale sale = saleRepository.findByIdAndUserWithItems(id, user)
             .orElseThrow(() -> new RuntimeException("Sale not found"));
 
-        // Reverse previous transactions before updating
-        reverseTransactions(sale);
+        // Remember what was posted so only the net changes are posted after the update
+        SalePostingSnapshot before = SalePostingSnapshot.of(sale);
+        Map<Long, LineTotals> previousLines = summarizeLines(sale);
+        SalesRollupService.Contribution previousContribution = salesRollupService.contributionOf(sale);
+        GstSummaryService.Contribution previousTax = gstSummaryService.saleContribution(sale);
 
         // Update sale details
         if (request.getInvoiceNumber() != null && !request.getInvoiceNumber().equals(sale.getInvoiceNumber())) {
@@ -213,88 +181,34 @@ public class SaleService {
         sale.setBillingName(request.getBillingName());
         sale.setBillingAddress(request.getBillingAddress());
         sale.setPhoneNumber(request.getPhoneNumber());
+        sale.setStateOfSupply(request.getStateOfSupply());
         sale.setSaleType(request.getSaleType());
         sale.setPaymentType(request.getPaymentType());
         sale.setDescription(request.getDescription());
         sale.setAttachmentUrl(request.getAttachmentUrl());
 
-        // Update party
-        if (request.getPartyId() != null) {
-            Party party = partyRepository.findByIdAndUser(request.getPartyId(), user)
-                .orElseThrow(() -> new RuntimeException("Party not found"));
-            sale.setParty(party);
-        } else {
-            sale.setParty(null);
-        }
-
-        // Update bank account
-        if (request.getBankAccountId() != null) {
-            BankAccount bankAccount = bankAccountRepository.findByIdAndUser(request.getBankAccountId(), user)
-                .orElseThrow(() -> new RuntimeException("Bank account not found"));
-            sale.setBankAccount(bankAccount);
-        } else {
-            sale.setBankAccount(null);
-        }
-
-        // Clear existing items
-        sale.getSaleItems().clear();
-        saleItemRepository.deleteBySaleId(sale.getId());
-
-        // Add new items
-        BigDecimal subtotal = BigDecimal.ZERO;
-        BigDecimal totalDiscount = BigDecimal.ZERO;
-        BigDecimal totalTax = BigDecimal.ZERO;
-
+        // Lock the old and new lines' items before the old lines are deleted and new ones inserted
+        Set<Long> touchedItemIds = new TreeSet<>(previousLines.keySet());
         if (request.getItems() != null) {
             for (SaleRequest.SaleItemRequest itemRequest : request.getItems()) {
-                Item item = itemRepository.findByIdAndUser(itemRequest.getItemId(), user)
-                    .orElseThrow(() -> new RuntimeException("Item not found: " + itemRequest.getItemId()));
-
-                SaleItem saleItem = new SaleItem();
-                saleItem.setItem(item);
-                saleItem.setQuantity(itemRequest.getQuantity());
-                saleItem.setUnit(itemRequest.getUnit() != null ? itemRequest.getUnit() : item.getUnit());
-                saleItem.setPrice(itemRequest.getPrice());
-                saleItem.setDiscountPercentage(itemRequest.getDiscountPercentage());
-                saleItem.setDiscountAmount(itemRequest.getDiscountAmount());
-                saleItem.setTaxPercentage(itemRequest.getTaxPercentage());
-                saleItem.setTaxAmount(itemRequest.getTaxAmount());
-
-                // Calculate item total
-                BigDecimal itemTotal = itemRequest.getPrice()
-                    .multiply(new BigDecimal(itemRequest.getQuantity()));
-                
-                if (itemRequest.getDiscountAmount() != null) {
-                    itemTotal = itemTotal.subtract(itemRequest.getDiscountAmount());
-                    totalDiscount = totalDiscount.add(itemRequest.getDiscountAmount());
-                }
-                
-                if (itemRequest.getTaxAmount() != null) {
-                    itemTotal = itemTotal.add(itemRequest.getTaxAmount());
-                    totalTax = totalTax.add(itemRequest.getTaxAmount());
+                if (itemRequest.getItemId() != null) {
+                    touchedItemIds.add(itemRequest.getItemId());
                 }
-
-                saleItem.setTotalAmount(itemTotal);
-                sale.addSaleItem(saleItem);
-
-                subtotal = subtotal.add(itemRequest.getPrice()
-                    .multiply(new BigDecimal(itemRequest.getQuantity())));
-
-                // Item stock will be updated when transactions are recorded after sale is saved
             }
         }
+        itemTransactionService.lockItems(user.getId(), touchedItemIds);
 
-        sale.setSubtotal(subtotal);
-        sale.setDiscountAmount(totalDiscount);
-        sale.setTaxAmount(totalTax);
+        // Update party and bank account, loading all referenced items in the same pass
+        ResolvedDocument document = resolveDocument(request, user);
+        sale.setParty(document.getParty());
+        sale.setBankAccount(document.getBankAccount());
 
-        // Calculate final total
-        BigDecimal total = subtotal.subtract(totalDiscount).add(totalTax);
-        if (request.getRoundOff() != null) {
-            sale.setRoundOff(request.getRoundOff());
-            total = total.add(request.getRoundOff());
-        }
-        sale.setTotalAmount(total);
+        // Clear existing items
+        sale.getSaleItems().clear();
+        saleItemRepository.deleteBySaleId(sale.getId());
+
+        // Re-price the new lines with the shared tax engine
+        BigDecimal total = priceLines(sale, request, document, user);
 
         // Handle payment
         if ("Cash".equals(request.getSaleType())) {
@@ -310,20 +224,38 @@ public class SaleService {
         // Save updated sale
         sale = saleRepository.save(sale);
 
-        // Record new transactions
-        recordTransactions(sale, user);
+        // Post only net stock changes; the outbox poster diffs the party and payment side
+        postLineChanges(sale, previousLines, user);
+        ledgerOutboxService.enqueueSale(LedgerOutboxEvent.SALE_UPDATED, user.getId(), sale.getId(),
+            before, SalePostingSnapshot.of(sale));
+        salesRegisterService.record(sale, calculatePaymentStatus(sale));
+        salesRollupService.recordChange(user.getId(), previousContribution, salesRollupService.contributionOf(sale));
+        gstSummaryService.recordChange(user.getId(), GstMonthlySummary.OUTPUT, previousTax, gstSummaryService.saleContribution(sale));
 
         return convertToResponseWithItems(sale);
     }
 
+    public Map<String, Object> getPostingLag(User user) {
+        return ledgerOutboxService.getPostingLag(user.getId());
+    }
+
+    public int requeueParkedPostings(User user) {
+        return ledgerOutboxService.requeueParked(user.getId());
+    }
+
     public void deleteSale(Long id, User user) {
         Sale sale = saleRepository.findByIdAndUserWithItems(id, user)
             .orElseThrow(() -> new RuntimeException("Sale not found"));
 
         // Reverse transactions
         reverseTransactions(sale);
+        ledgerOutboxService.enqueueSale(LedgerOutboxEvent.SALE_DELETED, user.getId(), sale.getId(),
+            SalePostingSnapshot.of(sale), null);
 
         // Delete sale
+        salesRollupService.recordChange(user.getId(), salesRollupService.contributionOf(sale), null);
+        gstSummaryService.recordChange(user.getId(), GstMonthlySummary.OUTPUT, gstSummaryService.saleContribution(sale), null);
+        salesRegisterService.remove(sale.getId());
         saleRepository.delete(sale);
     }
 
@@ -337,59 +269,160 @@ public class SaleService {
         System.out.println("  Sale Type: " + sale.getSaleType());
         System.out.println("  Calculated Status: " + status);
         
-        // Record item transactions with correct status
+        // Record item transactions with correct status, posting all stock changes together.
+        // Party, cash and bank postings follow from the ledger outbox.
+        String partyName = sale.getParty() != null ? sale.getParty().getName() : sale.getBillingName();
+        List<ItemTransaction> movements = new ArrayList<>();
+        List<Item> items = new ArrayList<>();
         for (SaleItem saleItem : sale.getSaleItems()) {
             Item item = saleItem.getItem();
-            String partyName = sale.getParty() != null ? sale.getParty().getName() : sale.getBillingName();
-            itemTransactionService.recordSale(item, saleItem.getQuantity(), user, 
-                sale.getInvoiceNumber(), partyName, saleItem.getPrice(), saleItem.getTotalAmount(), status);
-        }
-        
-        // Record party transaction for credit sales
-        if (sale.getParty() != null && "Credit".equals(sale.getSaleType())) {
-            partyTransactionService.recordSaleTransaction(
-                sale.getParty(),
-                sale.getTotalAmount(),
-                sale.getReceivedAmount(),
-                "Sale Invoice: " + sale.getInvoiceNumber()
-            );
+            items.add(item);
+            movements.add(itemTransactionService.saleMovement(item, saleItem.getQuantity(), user.getId(), 
+                sale.getInvoiceNumber(), partyName, saleItem.getPrice(), saleItem.getTotalAmount(), status));
         }
+        itemTransactionService.applyToEntities(items, 
+            itemTransactionService.postStockMovements(user.getId(), movements));
+    }
+
+    /**
+     * Post the difference between the previously saved lines and the sale's current lines:
+     * one stock movement per item whose quantity or amount changed, nothing for unchanged items.
+     * A price-only edit posts a zero-quantity sale movement carrying the amount change, so the
+     * item ledger's amounts stay in line with the sale.
+     */
+    private void postLineChanges(Sale sale, Map<Long, LineTotals> previousLines, User user) {
+        Map<Long, LineTotals> currentLines = summarizeLines(sale);
+        Set<Long> itemIds = new TreeSet<>(previousLines.keySet());
+        itemIds.addAll(currentLines.keySet());
 
-        // Record payment transaction
-        if (sale.getReceivedAmount() != null && sale.getReceivedAmount().compareTo(BigDecimal.ZERO) > 0) {
-            if ("Cash".equals(sale.getPaymentType())) {
-                cashTransactionService.recordSalePayment(
-                    sale.getReceivedAmount(),
-                    "Sale Payment - Invoice: " + sale.getInvoiceNumber(),
-                    sale.getUser()
-                );
-            } else if ("Cheque".equals(sale.getPaymentType())) {
-                // For cheque, we might record it differently or not at all
-                // This depends on your business logic
-                System.out.println("Cheque payment for sale recorded: " + sale.getReceivedAmount());
+        String status = calculatePaymentStatus(sale);
+        String partyName = sale.getParty() != null ? sale.getParty().getName() : sale.getBillingName();
+        List<ItemTransaction> movements = new ArrayList<>();
+        List<Item> items = new ArrayList<>();
+        for (Long itemId : itemIds) {
+            LineTotals previous = previousLines.getOrDefault(itemId, LineTotals.EMPTY);
+            LineTotals current = currentLines.getOrDefault(itemId, LineTotals.EMPTY);
+            int quantityChange = current.quantity - previous.quantity;
+            BigDecimal amountChange = current.amount.subtract(previous.amount);
+            if (quantityChange == 0 && amountChange.signum() == 0) {
+                continue;
+            }
+
+            Item item = current.item != null ? current.item : previous.item;
+            BigDecimal price = current.price != null ? current.price : previous.price;
+            items.add(item);
+            if (quantityChange >= 0) {
+                movements.add(itemTransactionService.saleMovement(item, quantityChange, user.getId(),
+                    sale.getInvoiceNumber(), partyName, price, amountChange, status));
             } else {
-                // Check if it's a bank account payment type
-                // First check if bank account is directly linked
-                BankAccount bankAccount = sale.getBankAccount();
-                
-                // If not directly linked, try to find by payment type name
-                if (bankAccount == null) {
-                    bankAccount = bankAccountRepository.findByMerchantIdAndAccountDisplayName(user.getId(), sale.getPaymentType())
-                        .orElse(bankAccountRepository.findByMerchantIdAndBankName(user.getId(), sale.getPaymentType()).orElse(null));
-                }
-                
-                if (bankAccount != null) {
-                    bankTransactionService.recordSalePayment(
-                        bankAccount,
-                        sale.getReceivedAmount(),
-                        "Sale Payment - Invoice: " + sale.getInvoiceNumber(),
-                        sale.getUser()
-                    );
-                } else {
-                    System.out.println("Unknown payment type for sale: " + sale.getPaymentType());
-                }
+                movements.add(itemTransactionService.saleReversalMovement(item, -quantityChange, user.getId(),
+                    sale.getInvoiceNumber(), partyName, price, amountChange.negate(), status));
+            }
+        }
+        itemTransactionService.applyToEntities(items,
+            itemTransactionService.postStockMovements(user.getId(), movements));
+    }
+
+    private Map<Long, LineTotals> summarizeLines(Sale sale) {
+        Map<Long, LineTotals> lines = new HashMap<>();
+        for (SaleItem saleItem : sale.getSaleItems()) {
+            lines.computeIfAbsent(saleItem.getItem().getId(), id -> new LineTotals(saleItem.getItem(), saleItem.getPrice()))
+                .add(saleItem.getQuantity(), saleItem.getTotalAmount());
+        }
+        return lines;
+    }
+
+    /**
+     * Quantity and amount of one item summed over a sale's lines.
+     */
+    private static class LineTotals {
+        static final LineTotals EMPTY = new LineTotals(null, null);
+
+        final Item item;
+        final BigDecimal price;
+        int quantity;
+        BigDecimal amount = BigDecimal.ZERO;
+
+        LineTotals(Item item, BigDecimal price) {
+            this.item = item;
+            this.price = price;
+        }
+
+        void add(Integer lineQuantity, BigDecimal lineAmount) {
+            quantity += lineQuantity != null ? lineQuantity : 0;
+            amount = amount.add(lineAmount != null ? lineAmount : BigDecimal.ZERO);
+        }
+    }
+
+    /**
+     * Build the sale lines from the request and set the sale's subtotal, discount and tax totals.
+     * Discount and tax are always computed here from the price, discount percentage and GST rate;
+     * amounts sent by the client are only used for a flat discount.
+     *
+     * @return the invoice total including round-off
+     */
+    private BigDecimal priceLines(Sale sale, SaleRequest request, ResolvedDocument document, User user) {
+        boolean interState = gstTaxEngine.isInterState(user.getId(), request.getStateOfSupply(), document.getParty());
+        GstTaxEngine.LineTax line = new GstTaxEngine.LineTax();
+        GstTaxEngine.LineTax totals = new GstTaxEngine.LineTax();
+
+        if (request.getItems() != null) {
+            for (SaleRequest.SaleItemRequest itemRequest : request.getItems()) {
+                Item item = document.getItem(itemRequest.getItemId());
+                String priceType = itemRequest.getPriceType() != null ? itemRequest.getPriceType() : item.getSalePriceType();
+                BigDecimal taxPercent = itemRequest.getTaxPercentage() != null ? 
+                    itemRequest.getTaxPercentage() : gstTaxEngine.taxPercentOf(item);
+
+                gstTaxEngine.computeLine(new BigDecimal(itemRequest.getQuantity()), itemRequest.getPrice(), priceType,
+                    itemRequest.getDiscountPercentage(), itemRequest.getDiscountAmount(), taxPercent, interState, line);
+                totals.add(line);
+
+                SaleItem saleItem = new SaleItem();
+                saleItem.setItem(item);
+                saleItem.setQuantity(itemRequest.getQuantity());
+                saleItem.setUnit(itemRequest.getUnit() != null ? itemRequest.getUnit() : item.getUnit());
+                saleItem.setPrice(itemRequest.getPrice());
+                saleItem.setPriceType(priceType);
+                saleItem.setDiscountPercentage(itemRequest.getDiscountPercentage());
+                saleItem.setDiscountAmount(line.getDiscountAmount());
+                saleItem.setTaxPercentage(taxPercent);
+                saleItem.setTaxableAmount(line.getTaxableAmount());
+                saleItem.setTaxAmount(line.getTaxAmount());
+                saleItem.setCgstAmount(line.getCgstAmount());
+                saleItem.setSgstAmount(line.getSgstAmount());
+                saleItem.setIgstAmount(line.getIgstAmount());
+                saleItem.setTotalAmount(line.getTotalAmount());
+                sale.addSaleItem(saleItem);
+
+                // Item stock will be updated when transactions are recorded after sale is saved
             }
         }
+
+        sale.setSubtotal(totals.getGrossAmount());
+        sale.setDiscountAmount(totals.getDiscountAmount());
+        sale.setTaxAmount(totals.getTaxAmount());
+        sale.setCgstAmount(totals.getCgstAmount());
+        sale.setSgstAmount(totals.getSgstAmount());
+        sale.setIgstAmount(totals.getIgstAmount());
+
+        BigDecimal total = totals.getTotalAmount();
+        if (request.getRoundOff() != null) {
+            sale.setRoundOff(request.getRoundOff());
+            total = total.add(request.getRoundOff());
+        }
+        sale.setTotalAmount(total);
+        return total;
+    }
+
+    private ResolvedDocument resolveDocument(SaleRequest request, User user) {
+        List<Long> itemIds = new ArrayList<>();
+        if (request.getItems() != null) {
+            for (SaleRequest.SaleItemRequest itemRequest : request.getItems()) {
+                itemIds.add(itemRequest.getItemId());
+            }
+        }
+        return documentLineResolver.resolve(user.getId(), itemIds, request.getPartyId(), 
+            request.getBankAccountId(), request.getPaymentType());
     }
 
     /**
@@ -413,100 +446,19 @@ public class SaleService {
     }
 
     private void reverseTransactions(Sale sale) {
-        // Reverse item stock changes
+        // Reverse item stock changes; party, cash and bank reversals follow from the ledger outbox
+        String partyName = sale.getParty() != null ? sale.getParty().getName() : sale.getBillingName();
+        String status = calculatePaymentStatus(sale);
+        Long merchantId = sale.getUser().getId();
+        List<ItemTransaction> movements = new ArrayList<>();
+        List<Item> items = new ArrayList<>();
         for (SaleItem item : sale.getSaleItems()) {
-            String partyName = sale.getParty() != null ? sale.getParty().getName() : sale.getBillingName();
-            String status = calculatePaymentStatus(sale);
-            itemTransactionService.reverseSale(item.getItem(), item.getQuantity(), sale.getUser(), 
-                sale.getInvoiceNumber(), partyName, item.getPrice(), item.getTotalAmount(), status);
-        }
-
-        // Reverse party transaction
-        if (sale.getParty() != null && "Credit".equals(sale.getSaleType())) {
-            partyTransactionService.reverseSaleTransaction(
-                sale.getParty(),
-                sale.getTotalAmount(),
-                sale.getReceivedAmount()
-            );
-        }
-
-        // Reverse payment transaction
-        if (sale.getReceivedAmount() != null && sale.getReceivedAmount().compareTo(BigDecimal.ZERO) > 0) {
-            if ("Cash".equals(sale.getPaymentType())) {
-                cashTransactionService.reverseSalePayment(
-                    sale.getReceivedAmount(),
-                    sale.getUser()
-                );
-            } else if (sale.getBankAccount() != null) {
-                bankTransactionService.reverseSalePayment(
-                    sale.getBankAccount(),
-                    sale.getReceivedAmount(),
-                    sale.getUser()
-                );
-            }
-        }
-    }
-
-    private String generateInvoiceNumber(User user) {
-        try {
-            System.out.println("Generating invoice number for user: " + user.getUsername() + " (ID: " + user.getId() + ")");
-            
-            String maxInvoiceNumber = null;
-            Long count = null;
-            
-            try {
-                // Try using User object first
-                maxInvoiceNumber = saleRepository.findMaxInvoiceNumberByUser(user);
-                count = saleRepository.countByUser(user);
-                System.out.println("Using User object queries - Max invoice: " + maxInvoiceNumber + ", Count: " + count);
-            } catch (Exception e) {
-                System.out.println("User object queries failed, trying user ID queries: " + e.getMessage());
-                try {
-                    // Fallback to user ID-based queries
-                    maxInvoiceNumber = saleRepository.findMaxInvoiceNumberByUserId(user.getId());
-                    count = saleRepository.countByUserId(user.getId());
-                    System.out.println("Using User ID queries - Max invoice: " + maxInvoiceNumber + ", Count: " + count);
-                } catch (Exception e2) {
-                    System.err.println("Both query methods failed: " + e2.getMessage());
-                    e2.printStackTrace();
-                    // Use timestamp-based fallback
-                    return "INV-" + System.currentTimeMillis() % 100000;
-                }
-            }
-            
-            if (maxInvoiceNumber == null) {
-                System.out.println("No existing invoices found, starting with INV-001");
-                return "INV-001";
-            }
-            
-            // Extract number from invoice number
-            String[] parts = maxInvoiceNumber.split("-");
-            if (parts.length == 2) {
-                try {
-                    int number = Integer.parseInt(parts[1]);
-                    String newInvoiceNumber = String.format("INV-%03d", number + 1);
-                    System.out.println("Generated new invoice number: " + newInvoiceNumber);
-                    return newInvoiceNumber;
-                } catch (NumberFormatException e) {
-                    System.out.println("Failed to parse invoice number, falling back to count-based generation");
-                    // If parsing fails, generate based on count
-                }
-            }
-            
-            if (count != null) {
-                String newInvoiceNumber = String.format("INV-%03d", count + 1);
-                System.out.println("Generated invoice number based on count (" + count + "): " + newInvoiceNumber);
-                return newInvoiceNumber;
-            } else {
-                // Final fallback
-                return "INV-" + System.currentTimeMillis() % 100000;
-            }
-        } catch (Exception e) {
-            System.err.println("Error generating invoice number: " + e.getMessage());
-            e.printStackTrace();
-            // Fallback to a simple timestamp-based invoice number
-            return "INV-" + System.currentTimeMillis() % 100000;
+            items.add(item.getItem());
+            movements.add(itemTransactionService.saleReversalMovement(item.getItem(), item.getQuantity(), merchantId, 
+                sale.getInvoiceNumber(), partyName, item.getPrice(), item.getTotalAmount(), status));
         }
+        itemTransactionService.applyToEntities(items, 
+            itemTransactionService.postStockMovements(merchantId, movements));
     }
 
     private SaleResponse convertToResponse(Sale sale) {
@@ -519,6 +471,7 @@ public class SaleService {
         response.setBillingName(sale.getBillingName());
         response.setBillingAddress(sale.getBillingAddress());
         response.setPhoneNumber(sale.getPhoneNumber());
+        response.setStateOfSupply(sale.getStateOfSupply());
         response.setSaleType(sale.getSaleType());
         response.setPaymentType(sale.getPaymentType());
         response.setBankAccountId(sale.getBankAccount() != null ? sale.getBankAccount().getId() : null);
@@ -527,12 +480,17 @@ public class SaleService {
         response.setSubtotal(sale.getSubtotal());
         response.setDiscountAmount(sale.getDiscountAmount());
         response.setTaxAmount(sale.getTaxAmount());
+        response.setCgstAmount(sale.getCgstAmount());
+        response.setSgstAmount(sale.getSgstAmount());
+        response.setIgstAmount(sale.getIgstAmount());
         response.setRoundOff(sale.getRoundOff());
         response.setTotalAmount(sale.getTotalAmount());
         response.setReceivedAmount(sale.getReceivedAmount());
         response.setBalanceAmount(sale.getBalanceAmount());
         response.setDescription(sale.getDescription());
         response.setAttachmentUrl(sale.getAttachmentUrl());
+        response.setClientId(sale.getClientId());
+        response.setProvisionalNumber(sale.getProvisionalNumber());
         response.setCreatedAt(sale.getCreatedAt());
         response.setUpdatedAt(sale.getUpdatedAt());
         return response;
@@ -557,6 +515,11 @@ public class SaleService {
             itemResponse.setTaxPercentage(saleItem.getTaxPercentage());
             itemResponse.setTaxAmount(saleItem.getTaxAmount());
             itemResponse.setTotalAmount(saleItem.getTotalAmount());
+            itemResponse.setPriceType(saleItem.getPriceType());
+            itemResponse.setTaxableAmount(saleItem.getTaxableAmount());
+            itemResponse.setCgstAmount(saleItem.getCgstAmount());
+            itemResponse.setSgstAmount(saleItem.getSgstAmount());
+            itemResponse.setIgstAmount(saleItem.getIgstAmount());
             itemResponses.add(itemResponse);
         }
         
@@ -0,0 +1,157 @@
+package com.example.gstapp.service;
+
+import com.example.gstapp.dto.SaleRequest;
+import com.example.gstapp.dto.SaleSyncRequest;
+import com.example.gstapp.dto.SaleSyncResponse;
+import com.example.gstapp.model.Sale;
+import com.example.gstapp.model.SaleItem;
+import com.example.gstapp.model.User;
+import com.example.gstapp.repository.SaleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Takes the backlog of sales an offline terminal built up and records it in one call. Sales
+ * are created in the order the terminal made them, each in its own transaction, so one bad
+ * bill is rejected on its own instead of holding back the rest of the backlog.
+ *
+ * <p>The terminal's client id makes a batch safe to resend: sales already synced are reported
+ * as duplicates with their final invoice number. Provisional numbers are kept for reference
+ * and every created sale gets the next number from the invoice series.
+ */
+@Service
+public class SaleSyncService {
+
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private SaleRepository saleRepository;
+
+    @Value("${sales.sync.max-batch-size:500}")
+    private int maxBatchSize;
+
+    private final TransactionTemplate documentTransaction;
+
+    public SaleSyncService(PlatformTransactionManager transactionManager) {
+        this.documentTransaction = new TransactionTemplate(transactionManager);
+        this.documentTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public SaleSyncResponse sync(SaleSyncRequest request, User user) {
+        List<SaleRequest> sales = request.getSales();
+        if (sales == null || sales.isEmpty()) {
+            throw new RuntimeException("No sales to sync");
+        }
+        if (sales.size() > maxBatchSize) {
+            throw new RuntimeException("A sync batch is limited to " + maxBatchSize + " sales");
+        }
+
+        // One lookup for everything an earlier (possibly interrupted) sync already recorded
+        Set<String> clientIds = new HashSet<>();
+        for (SaleRequest sale : sales) {
+            if (sale.getClientId() != null && !sale.getClientId().isBlank()) {
+                clientIds.add(sale.getClientId());
+            }
+        }
+        Map<String, Object[]> synced = new HashMap<>();
+        if (!clientIds.isEmpty()) {
+            for (Object[] row : saleRepository.findSyncedByClientIds(user.getId(), clientIds)) {
+                synced.put((String) row[0], row);
+            }
+        }
+
+        SaleSyncResponse response = new SaleSyncResponse();
+        for (SaleRequest sale : sales) {
+            SaleSyncResponse.Result result = syncOne(sale, user, synced);
+            if (SaleSyncResponse.CREATED.equals(result.getStatus())) {
+                synced.put(result.getClientId(), new Object[] {result.getClientId(), result.getSaleId(), result.getInvoiceNumber()});
+            }
+            response.add(result);
+        }
+
+        System.out.println("Synced sales from terminal " + request.getTerminalId() + " for merchant " + user.getId() +
+            ": " + response.getCreated() + " created, " + response.getDuplicates() + " duplicates, " +
+            response.getRejected() + " rejected");
+        return response;
+    }
+
+    private SaleSyncResponse.Result syncOne(SaleRequest sale, User user, Map<String, Object[]> synced) {
+        String clientId = sale.getClientId();
+        // Terminals that print their own number in invoiceNumber get it kept as the provisional one
+        String provisionalNumber = sale.getProvisionalNumber() != null ? sale.getProvisionalNumber() : sale.getInvoiceNumber();
+        if (clientId == null || clientId.isBlank()) {
+            return rejected(clientId, provisionalNumber, "clientId is required");
+        }
+        if (synced.containsKey(clientId)) {
+            return duplicate(clientId, provisionalNumber, synced.get(clientId));
+        }
+
+        sale.setProvisionalNumber(provisionalNumber);
+        sale.setInvoiceNumber(null);
+        try {
+            return documentTransaction.execute(status -> create(sale, user));
+        } catch (RuntimeException e) {
+            // A concurrent sync of the same backlog may have got there first
+            List<Object[]> existing = saleRepository.findSyncedByClientIds(user.getId(), List.of(clientId));
+            if (!existing.isEmpty()) {
+                return duplicate(clientId, provisionalNumber, existing.get(0));
+            }
+            return rejected(clientId, provisionalNumber,
+                e instanceof DataIntegrityViolationException ? "Sale could not be saved" : e.getMessage());
+        }
+    }
+
+    private SaleSyncResponse.Result create(SaleRequest request, User user) {
+        Sale sale = saleService.createSaleEntity(request, user);
+
+        SaleSyncResponse.Result result = new SaleSyncResponse.Result(sale.getClientId(), sale.getProvisionalNumber(),
+            SaleSyncResponse.CREATED);
+        result.setSaleId(sale.getId());
+        result.setInvoiceNumber(sale.getInvoiceNumber());
+        result.setTotalAmount(sale.getTotalAmount());
+
+        // Items carry their stock after this sale was posted; below zero means it was sold short
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        Map<Long, SaleItem> lines = new HashMap<>();
+        for (SaleItem line : sale.getSaleItems()) {
+            quantities.merge(line.getItem().getId(), line.getQuantity(), Integer::sum);
+            lines.putIfAbsent(line.getItem().getId(), line);
+        }
+        for (Map.Entry<Long, Integer> quantity : quantities.entrySet()) {
+            SaleItem line = lines.get(quantity.getKey());
+            Integer stockAfter = line.getItem().getCurrentStock();
+            if (stockAfter != null && stockAfter < 0) {
+                int shortfall = Math.min(quantity.getValue(), -stockAfter);
+                result.getStockShortfalls().add(new SaleSyncResponse.StockShortfall(quantity.getKey(),
+                    line.getItem().getName(), quantity.getValue(), shortfall, stockAfter));
+            }
+        }
+        return result;
+    }
+
+    private SaleSyncResponse.Result duplicate(String clientId, String provisionalNumber, Object[] existing) {
+        SaleSyncResponse.Result result = new SaleSyncResponse.Result(clientId, provisionalNumber, SaleSyncResponse.DUPLICATE);
+        result.setSaleId(((Number) existing[1]).longValue());
+        result.setInvoiceNumber((String) existing[2]);
+        return result;
+    }
+
+    private SaleSyncResponse.Result rejected(String clientId, String provisionalNumber, String error) {
+        SaleSyncResponse.Result result = new SaleSyncResponse.Result(clientId, provisionalNumber, SaleSyncResponse.REJECTED);
+        result.setError(error);
+        return result;
+    }
+}
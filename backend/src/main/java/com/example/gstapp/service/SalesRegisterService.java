@@ -0,0 +1,156 @@
+package com.example.gstapp.service;
+
+import com.example.gstapp.dto.CursorPage;
+import com.example.gstapp.dto.SaleResponse;
+import com.example.gstapp.model.Sale;
+import com.example.gstapp.model.SalesRegisterEntry;
+import com.example.gstapp.repository.SalesRegisterRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the flat sales_register table in step with sales and serves the sale list screens
+ * from it, so listing never loads Sale, Party, BankAccount or User entities.
+ */
+@Service
+@Transactional
+public class SalesRegisterService {
+
+    private static final int MAX_PAGE_SIZE = 200;
+
+    @Autowired
+    private SalesRegisterRepository salesRegisterRepository;
+
+    /**
+     * Insert or refresh the register row for a saved sale.
+     */
+    public void record(Sale sale, String status) {
+        SalesRegisterEntry entry = salesRegisterRepository.findById(sale.getId()).orElseGet(SalesRegisterEntry::new);
+        entry.setSaleId(sale.getId());
+        entry.setUserId(sale.getUser().getId());
+        entry.setInvoiceNumber(sale.getInvoiceNumber());
+        entry.setInvoiceDate(sale.getInvoiceDate());
+        entry.setPartyId(sale.getParty() != null ? sale.getParty().getId() : null);
+        entry.setPartyName(sale.getParty() != null ? sale.getParty().getName() : null);
+        entry.setBillingName(sale.getBillingName());
+        entry.setBillingAddress(sale.getBillingAddress());
+        entry.setPhoneNumber(sale.getPhoneNumber());
+        entry.setStateOfSupply(sale.getStateOfSupply());
+        entry.setSaleType(sale.getSaleType());
+        entry.setPaymentType(sale.getPaymentType());
+        entry.setBankAccountId(sale.getBankAccount() != null ? sale.getBankAccount().getId() : null);
+        entry.setBankAccountName(sale.getBankAccount() != null ? sale.getBankAccount().getAccountDisplayName() : null);
+        entry.setSubtotal(sale.getSubtotal());
+        entry.setDiscountAmount(sale.getDiscountAmount());
+        entry.setTaxAmount(sale.getTaxAmount());
+        entry.setCgstAmount(sale.getCgstAmount() != null ? sale.getCgstAmount() : BigDecimal.ZERO);
+        entry.setSgstAmount(sale.getSgstAmount() != null ? sale.getSgstAmount() : BigDecimal.ZERO);
+        entry.setIgstAmount(sale.getIgstAmount() != null ? sale.getIgstAmount() : BigDecimal.ZERO);
+        entry.setRoundOff(sale.getRoundOff());
+        entry.setTotalAmount(sale.getTotalAmount());
+        entry.setReceivedAmount(sale.getReceivedAmount());
+        entry.setBalanceAmount(sale.getBalanceAmount());
+        entry.setStatus(status);
+        entry.setDescription(sale.getDescription());
+        entry.setAttachmentUrl(sale.getAttachmentUrl());
+        entry.setClientId(sale.getClientId());
+        entry.setProvisionalNumber(sale.getProvisionalNumber());
+        entry.setCreatedAt(sale.getCreatedAt());
+        entry.setUpdatedAt(sale.getUpdatedAt());
+        salesRegisterRepository.save(entry);
+    }
+
+    public void remove(Long saleId) {
+        if (salesRegisterRepository.existsById(saleId)) {
+            salesRegisterRepository.deleteById(saleId);
+        }
+    }
+
+    public void renameParty(Long partyId, String name) {
+        salesRegisterRepository.updatePartyName(partyId, name);
+    }
+
+    @Transactional(readOnly = true)
+    public List<SaleResponse> getAllSales(Long userId) {
+        return salesRegisterRepository.findByUserIdOrderByInvoiceDateDescSaleIdDesc(userId).stream()
+            .map(this::convertToResponse)
+            .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<SaleResponse> getSalesByDateRange(Long userId, LocalDate startDate, LocalDate endDate) {
+        return salesRegisterRepository
+            .findByUserIdAndInvoiceDateBetweenOrderByInvoiceDateDescSaleIdDesc(userId, startDate, endDate).stream()
+            .map(this::convertToResponse)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * One page of the sales register, newest invoice first. The cost of a page depends only
+     * on the page size, not on how many invoices the merchant has.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<SaleResponse> getRegisterPage(Long userId, Long partyId, String paymentType, String status,
+                                                    String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // Fetch one extra row to know whether another page exists
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        List<SalesRegisterEntry> entries;
+        if (cursor == null || cursor.isBlank()) {
+            entries = salesRegisterRepository.findRegisterFirstPage(userId, partyId, paymentType, status, page);
+        } else {
+            RegisterCursor after = RegisterCursor.decode(cursor);
+            entries = salesRegisterRepository.findRegisterPageAfter(userId, partyId, paymentType, status,
+                LocalDate.parse(after.getSortKey()), after.getId(), page);
+        }
+
+        String nextCursor = null;
+        if (entries.size() > pageSize) {
+            entries = entries.subList(0, pageSize);
+            SalesRegisterEntry last = entries.get(pageSize - 1);
+            nextCursor = RegisterCursor.encode(last.getInvoiceDate(), last.getSaleId());
+        }
+        return new CursorPage<>(entries.stream().map(this::convertToResponse).collect(Collectors.toList()), nextCursor);
+    }
+
+    private SaleResponse convertToResponse(SalesRegisterEntry entry) {
+        SaleResponse response = new SaleResponse();
+        response.setId(entry.getSaleId());
+        response.setInvoiceNumber(entry.getInvoiceNumber());
+        response.setInvoiceDate(entry.getInvoiceDate());
+        response.setPartyName(entry.getPartyName() != null ? entry.getPartyName() : "Walk-in Customer");
+        response.setPartyId(entry.getPartyId());
+        response.setBillingName(entry.getBillingName());
+        response.setBillingAddress(entry.getBillingAddress());
+        response.setPhoneNumber(entry.getPhoneNumber());
+        response.setStateOfSupply(entry.getStateOfSupply());
+        response.setSaleType(entry.getSaleType());
+        response.setPaymentType(entry.getPaymentType());
+        response.setBankAccountId(entry.getBankAccountId());
+        response.setBankAccountName(entry.getBankAccountName());
+        response.setSubtotal(entry.getSubtotal());
+        response.setDiscountAmount(entry.getDiscountAmount());
+        response.setTaxAmount(entry.getTaxAmount());
+        response.setCgstAmount(entry.getCgstAmount());
+        response.setSgstAmount(entry.getSgstAmount());
+        response.setIgstAmount(entry.getIgstAmount());
+        response.setRoundOff(entry.getRoundOff());
+        response.setTotalAmount(entry.getTotalAmount());
+        response.setReceivedAmount(entry.getReceivedAmount());
+        response.setBalanceAmount(entry.getBalanceAmount());
+        response.setDescription(entry.getDescription());
+        response.setAttachmentUrl(entry.getAttachmentUrl());
+        response.setClientId(entry.getClientId());
+        response.setProvisionalNumber(entry.getProvisionalNumber());
+        response.setCreatedAt(entry.getCreatedAt());
+        response.setUpdatedAt(entry.getUpdatedAt());
+        return response;
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.gstapp.service;
+
+import com.example.gstapp.dto.SalesRollupResponse;
+import com.example.gstapp.model.Sale;
+import com.example.gstapp.model.SalesRollup;
+import com.example.gstapp.repository.SalesRollupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains hourly, daily and monthly sales rollups. Every create, edit or delete of a sale
+ * moves the affected buckets by the sale's net contribution, so dashboard totals and trend
+ * charts read a handful of rollup rows instead of the merchant's whole sales table.
+ */
+@Service
+@Transactional
+public class SalesRollupService {
+
+    private static final String[] GRANULARITIES = {SalesRollup.HOUR, SalesRollup.DAY, SalesRollup.MONTH};
+    private static final int MAX_HOURLY_DAYS = 31;
+
+    @Autowired
+    private SalesRollupRepository salesRollupRepository;
+
+    /**
+     * What a saved sale adds to the rollups. Take one before editing or deleting a sale and
+     * one after saving it, then pass both to recordChange.
+     */
+    public Contribution contributionOf(Sale sale) {
+        LocalDateTime enteredAt = sale.getCreatedAt() != null ? sale.getCreatedAt() : LocalDateTime.now();
+        Contribution contribution = new Contribution();
+        contribution.hour = sale.getInvoiceDate().atTime(enteredAt.getHour(), 0);
+        contribution.totalAmount = valueOf(sale.getTotalAmount());
+        contribution.taxAmount = valueOf(sale.getTaxAmount());
+        contribution.discountAmount = valueOf(sale.getDiscountAmount());
+        contribution.receivedAmount = valueOf(sale.getReceivedAmount());
+        contribution.creditBalanceAmount = "Credit".equals(sale.getSaleType()) ? 
+            valueOf(sale.getBalanceAmount()) : BigDecimal.ZERO;
+        return contribution;
+    }
+
+    /**
+     * Move the rollups from a sale's old contribution to its new one. Either side may be null
+     * for a create or a delete. When both fall into the same bucket only the difference is written.
+     */
+    public void recordChange(Long userId, Contribution before, Contribution after) {
+        for (String granularity : GRANULARITIES) {
+            LocalDateTime beforeBucket = before != null ? bucketOf(before.hour, granularity) : null;
+            LocalDateTime afterBucket = after != null ? bucketOf(after.hour, granularity) : null;
+            if (beforeBucket != null && beforeBucket.equals(afterBucket)) {
+                apply(userId, granularity, afterBucket, 0, after, before);
+                continue;
+            }
+            if (beforeBucket != null) {
+                apply(userId, granularity, beforeBucket, -1, null, before);
+            }
+            if (afterBucket != null) {
+                apply(userId, granularity, afterBucket, 1, after, null);
+            }
+        }
+    }
+
+    /**
+     * Merchant-wide sales totals, summed from the monthly buckets.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getSummary(Long userId) {
+        Object[] totals = salesRollupRepository.getTotals(userId).get(0);
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("saleCount", ((Number) totals[0]).longValue());
+        summary.put("totalSales", totals[1]);
+        summary.put("totalTax", totals[2]);
+        summary.put("totalDiscount", totals[3]);
+        summary.put("totalReceived", totals[4]);
+        summary.put("totalPending", totals[5]);
+        return summary;
+    }
+
+    /**
+     * Bucketed sales between two invoice dates (inclusive). Empty buckets are omitted.
+     */
+    @Transactional(readOnly = true)
+    public List<SalesRollupResponse> getTrend(Long userId, String granularity, LocalDate startDate, LocalDate endDate) {
+        String bucket = granularity != null ? granularity.toUpperCase() : SalesRollup.DAY;
+        if (!SalesRollup.HOUR.equals(bucket) && !SalesRollup.DAY.equals(bucket) && !SalesRollup.MONTH.equals(bucket)) {
+            throw new RuntimeException("Invalid granularity: " + granularity);
+        }
+        LocalDate to = endDate != null ? endDate : LocalDate.now();
+        LocalDate from = startDate != null ? startDate : to.minusDays(29);
+        if (SalesRollup.HOUR.equals(bucket) && from.plusDays(MAX_HOURLY_DAYS).isBefore(to)) {
+            throw new RuntimeException("Hourly trend is limited to " + MAX_HOURLY_DAYS + " days");
+        }
+
+        return salesRollupRepository.findByUserIdAndGranularityAndBucketStartBetweenOrderByBucketStart(
+                userId, bucket, bucketOf(from.atStartOfDay(), bucket), to.atTime(23, 0)).stream()
+            .map(this::convertToResponse)
+            .collect(Collectors.toList());
+    }
+
+    private void apply(Long userId, String granularity, LocalDateTime bucket, int saleCount,
+                       Contribution plus, Contribution minus) {
+        BigDecimal totalAmount = difference(plus, minus, c -> c.totalAmount);
+        BigDecimal taxAmount = difference(plus, minus, c -> c.taxAmount);
+        BigDecimal discountAmount = difference(plus, minus, c -> c.discountAmount);
+        BigDecimal receivedAmount = difference(plus, minus, c -> c.receivedAmount);
+        BigDecimal creditBalanceAmount = difference(plus, minus, c -> c.creditBalanceAmount);
+        if (saleCount == 0 && totalAmount.signum() == 0 && taxAmount.signum() == 0 && discountAmount.signum() == 0
+                && receivedAmount.signum() == 0 && creditBalanceAmount.signum() == 0) {
+            return;
+        }
+        salesRollupRepository.applyDelta(userId, granularity, bucket, saleCount, totalAmount, taxAmount,
+            discountAmount, receivedAmount, creditBalanceAmount);
+    }
+
+    private BigDecimal difference(Contribution plus, Contribution minus, 
+                                  Function<Contribution, BigDecimal> field) {
+        BigDecimal value = plus != null ? field.apply(plus) : BigDecimal.ZERO;
+        return minus != null ? value.subtract(field.apply(minus)) : value;
+    }
+
+    private LocalDateTime bucketOf(LocalDateTime hour, String granularity) {
+        switch (granularity) {
+            case SalesRollup.HOUR:
+                return hour;
+            case SalesRollup.DAY:
+                return hour.toLocalDate().atStartOfDay();
+            default:
+                return hour.toLocalDate().withDayOfMonth(1).atStartOfDay();
+        }
+    }
+
+    private BigDecimal valueOf(BigDecimal amount) {
+        return amount != null ? amount : BigDecimal.ZERO;
+    }
+
+    private SalesRollupResponse convertToResponse(SalesRollup rollup) {
+        SalesRollupResponse response = new SalesRollupResponse();
+        response.setBucketStart(rollup.getBucketStart());
+        response.setSaleCount(rollup.getSaleCount());
+        response.setTotalAmount(rollup.getTotalAmount());
+        response.setTaxAmount(rollup.getTaxAmount());
+        response.setDiscountAmount(rollup.getDiscountAmount());
+        response.setReceivedAmount(rollup.getReceivedAmount());
+        response.setPendingAmount(rollup.getCreditBalanceAmount());
+        return response;
+    }
+
+    /**
+     * A single sale's share of the rollups, bucketed by invoice date and the hour it was entered.
+     */
+    public static class Contribution {
+        private LocalDateTime hour;
+        private BigDecimal totalAmount;
+        private BigDecimal taxAmount;
+        private BigDecimal discountAmount;
+        private BigDecimal receivedAmount;
+        private BigDecimal creditBalanceAmount;
+    }
+}
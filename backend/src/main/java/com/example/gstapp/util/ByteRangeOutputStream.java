@@ -0,0 +1,57 @@
+package com.example.gstapp.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Passes through only bytes [start, start + length) of what is written to it and counts
+ * everything. With a null target it just measures the total length.
+ */
+public class ByteRangeOutputStream extends OutputStream {
+
+    private final OutputStream target;
+    private final long start;
+    private final long end;
+    private long position;
+
+    public ByteRangeOutputStream(OutputStream target, long start, long length) {
+        this.target = target;
+        this.start = start;
+        this.end = start + length;
+    }
+
+    public static ByteRangeOutputStream counting() {
+        return new ByteRangeOutputStream(null, 0, 0);
+    }
+
+    public long getCount() {
+        return position;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (target != null && position >= start && position < end) {
+            target.write(b);
+        }
+        position++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (target != null) {
+            long from = Math.max(position, start);
+            long to = Math.min(position + len, end);
+            if (from < to) {
+                target.write(b, off + (int) (from - position), (int) (to - from));
+            }
+        }
+        position += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (target != null) {
+            target.flush();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.gstapp.util;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Row-at-a-time writer for tabular exports. Nothing is buffered beyond the current row.
+ */
+public interface ExportWriter {
+
+    void writeHeader(List<String> columns) throws IOException;
+
+    void writeRow(Object[] values) throws IOException;
+
+    /**
+     * Complete the document and flush; the underlying stream is left open.
+     */
+    void finish() throws IOException;
+}
@@ -0,0 +1,17 @@
+-- Per-merchant, per-series, per-financial-year document number counters
+CREATE TABLE document_sequences (
+    id BIGSERIAL PRIMARY KEY,
+    merchant_id BIGINT NOT NULL,
+    series VARCHAR(20) NOT NULL,
+    financial_year VARCHAR(10) NOT NULL,
+    next_value BIGINT NOT NULL DEFAULT 1,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_document_sequences_merchant_series_year UNIQUE (merchant_id, series, financial_year),
+    FOREIGN KEY (merchant_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Invoice numbers only need to be unique per merchant, not across the whole table
+ALTER TABLE sales DROP CONSTRAINT IF EXISTS sales_invoice_number_key;
+ALTER TABLE sales ADD CONSTRAINT uk_sales_user_invoice_number UNIQUE (user_id, invoice_number);
+
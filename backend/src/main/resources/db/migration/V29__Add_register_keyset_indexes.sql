@@ -0,0 +1,3 @@
+-- Keyset pagination for the sales and purchase registers walks these indexes in order
+CREATE INDEX idx_sales_user_invoice_date_id ON sales(user_id, invoice_date DESC, id DESC);
+CREATE INDEX idx_purchases_merchant_bill_date_id ON purchases(merchant_id, bill_date DESC, id DESC);
@@ -0,0 +1,53 @@
+-- Flat, denormalized copy of each sale header used by the sales list and register screens
+CREATE TABLE sales_register (
+    sale_id BIGINT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    invoice_number VARCHAR(255),
+    invoice_date DATE NOT NULL,
+    party_id BIGINT,
+    party_name VARCHAR(255),
+    billing_name VARCHAR(255),
+    billing_address TEXT,
+    phone_number VARCHAR(20),
+    sale_type VARCHAR(50) NOT NULL,
+    payment_type VARCHAR(50),
+    bank_account_id BIGINT,
+    bank_account_name VARCHAR(255),
+    subtotal DECIMAL(19, 2),
+    discount_amount DECIMAL(19, 2),
+    tax_amount DECIMAL(19, 2),
+    round_off DECIMAL(19, 2),
+    total_amount DECIMAL(19, 2) NOT NULL,
+    received_amount DECIMAL(19, 2),
+    balance_amount DECIMAL(19, 2),
+    status VARCHAR(20) NOT NULL,
+    description TEXT,
+    attachment_url VARCHAR(500),
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    FOREIGN KEY (sale_id) REFERENCES sales(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_sales_register_user_date_id ON sales_register(user_id, invoice_date DESC, sale_id DESC);
+CREATE INDEX idx_sales_register_party_id ON sales_register(party_id);
+CREATE INDEX idx_sales_register_bank_account_id ON sales_register(bank_account_id);
+
+-- Backfill from existing sales
+INSERT INTO sales_register (sale_id, user_id, invoice_number, invoice_date, party_id, party_name,
+                            billing_name, billing_address, phone_number, sale_type, payment_type,
+                            bank_account_id, bank_account_name, subtotal, discount_amount, tax_amount,
+                            round_off, total_amount, received_amount, balance_amount, status,
+                            description, attachment_url, created_at, updated_at)
+SELECT s.id, s.user_id, s.invoice_number, s.invoice_date, s.party_id, p.name,
+       s.billing_name, s.billing_address, s.phone_number, s.sale_type, s.payment_type,
+       s.bank_account_id, b.account_display_name, s.subtotal, s.discount_amount, s.tax_amount,
+       s.round_off, s.total_amount, s.received_amount, s.balance_amount,
+       CASE
+           WHEN COALESCE(s.received_amount, 0) = 0 THEN 'Unpaid'
+           WHEN s.received_amount >= s.total_amount THEN 'Paid'
+           ELSE 'Partial'
+       END,
+       s.description, s.attachment_url, s.created_at, s.updated_at
+FROM sales s
+LEFT JOIN parties p ON p.id = s.party_id
+LEFT JOIN bank_accounts b ON b.id = s.bank_account_id;
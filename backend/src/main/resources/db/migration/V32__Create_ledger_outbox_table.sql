@@ -0,0 +1,19 @@
+-- Transactional outbox: sale changes committed with the sale, ledger postings applied later
+-- by the background poster in id order per merchant
+CREATE TABLE ledger_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    merchant_id BIGINT NOT NULL,
+    aggregate_type VARCHAR(30) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    event_type VARCHAR(30) NOT NULL,
+    before_snapshot TEXT,
+    after_snapshot TEXT,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    processed_at TIMESTAMP,
+    FOREIGN KEY (merchant_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_ledger_outbox_pending ON ledger_outbox(merchant_id, id) WHERE processed_at IS NULL;
+CREATE INDEX idx_ledger_outbox_aggregate ON ledger_outbox(aggregate_type, aggregate_id);
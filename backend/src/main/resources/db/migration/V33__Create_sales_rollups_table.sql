@@ -0,0 +1,37 @@
+-- Per-merchant sales totals by hour, day and month, kept current by delta upserts as sales
+-- are created, edited and deleted so dashboards never scan the sales table
+CREATE TABLE sales_rollups (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    granularity VARCHAR(10) NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    sale_count INTEGER NOT NULL DEFAULT 0,
+    total_amount DECIMAL(19, 2) NOT NULL DEFAULT 0,
+    tax_amount DECIMAL(19, 2) NOT NULL DEFAULT 0,
+    discount_amount DECIMAL(19, 2) NOT NULL DEFAULT 0,
+    received_amount DECIMAL(19, 2) NOT NULL DEFAULT 0,
+    credit_balance_amount DECIMAL(19, 2) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT uk_sales_rollups_bucket UNIQUE (user_id, granularity, bucket_start)
+);
+
+-- Backfill from existing sales; hourly buckets use the invoice date with the hour the sale was entered
+INSERT INTO sales_rollups (user_id, granularity, bucket_start, sale_count, total_amount, tax_amount,
+                           discount_amount, received_amount, credit_balance_amount)
+SELECT b.user_id, b.granularity, b.bucket_start, COUNT(*),
+       COALESCE(SUM(b.total_amount), 0), COALESCE(SUM(b.tax_amount), 0), COALESCE(SUM(b.discount_amount), 0),
+       COALESCE(SUM(b.received_amount), 0),
+       COALESCE(SUM(CASE WHEN b.sale_type = 'Credit' THEN b.balance_amount ELSE 0 END), 0)
+FROM (
+    SELECT s.user_id, g.granularity,
+           CASE g.granularity
+               WHEN 'HOUR' THEN CAST(s.invoice_date AS TIMESTAMP) + EXTRACT(HOUR FROM s.created_at) * INTERVAL '1 hour'
+               WHEN 'DAY' THEN CAST(s.invoice_date AS TIMESTAMP)
+               ELSE date_trunc('month', CAST(s.invoice_date AS TIMESTAMP))
+           END AS bucket_start,
+           s.total_amount, s.tax_amount, s.discount_amount, s.received_amount, s.balance_amount, s.sale_type
+    FROM sales s
+    CROSS JOIN (VALUES ('HOUR'), ('DAY'), ('MONTH')) AS g(granularity)
+) b
+GROUP BY b.user_id, b.granularity, b.bucket_start;
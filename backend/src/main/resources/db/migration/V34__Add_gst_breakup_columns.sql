@@ -0,0 +1,39 @@
+-- Tax breakup computed by the shared GST engine: taxable value and CGST/SGST/IGST per line,
+-- CGST/SGST/IGST totals per document, and the place of supply for sales
+ALTER TABLE sales ADD COLUMN state_of_supply VARCHAR(100);
+ALTER TABLE sales ADD COLUMN cgst_amount DECIMAL(19, 2) NOT NULL DEFAULT 0;
+ALTER TABLE sales ADD COLUMN sgst_amount DECIMAL(19, 2) NOT NULL DEFAULT 0;
+ALTER TABLE sales ADD COLUMN igst_amount DECIMAL(19, 2) NOT NULL DEFAULT 0;
+
+ALTER TABLE sale_items ADD COLUMN price_type VARCHAR(20);
+ALTER TABLE sale_items ADD COLUMN taxable_amount DECIMAL(19, 2);
+ALTER TABLE sale_items ADD COLUMN cgst_amount DECIMAL(19, 2) NOT NULL DEFAULT 0;
+ALTER TABLE sale_items ADD COLUMN sgst_amount DECIMAL(19, 2) NOT NULL DEFAULT 0;
+ALTER TABLE sale_items ADD COLUMN igst_amount DECIMAL(19, 2) NOT NULL DEFAULT 0;
+
+ALTER TABLE purchases ADD COLUMN cgst_amount DECIMAL(19, 2) NOT NULL DEFAULT 0;
+ALTER TABLE purchases ADD COLUMN sgst_amount DECIMAL(19, 2) NOT NULL DEFAULT 0;
+ALTER TABLE purchases ADD COLUMN igst_amount DECIMAL(19, 2) NOT NULL DEFAULT 0;
+
+ALTER TABLE purchase_items ADD COLUMN price_type VARCHAR(20);
+ALTER TABLE purchase_items ADD COLUMN taxable_amount DECIMAL(19, 2);
+ALTER TABLE purchase_items ADD COLUMN cgst_amount DECIMAL(19, 2) NOT NULL DEFAULT 0;
+ALTER TABLE purchase_items ADD COLUMN sgst_amount DECIMAL(19, 2) NOT NULL DEFAULT 0;
+ALTER TABLE purchase_items ADD COLUMN igst_amount DECIMAL(19, 2) NOT NULL DEFAULT 0;
+
+-- Existing documents carry no place of supply, so their tax is treated as intra-state
+UPDATE sale_items SET taxable_amount = total_amount - COALESCE(tax_amount, 0),
+                      cgst_amount = ROUND(COALESCE(tax_amount, 0) / 2, 2),
+                      sgst_amount = COALESCE(tax_amount, 0) - ROUND(COALESCE(tax_amount, 0) / 2, 2);
+
+UPDATE purchase_items SET taxable_amount = COALESCE(amount, 0) - COALESCE(tax_amount, 0),
+                          cgst_amount = ROUND(COALESCE(tax_amount, 0) / 2, 2),
+                          sgst_amount = COALESCE(tax_amount, 0) - ROUND(COALESCE(tax_amount, 0) / 2, 2);
+
+UPDATE sales s SET cgst_amount = t.cgst, sgst_amount = t.sgst
+FROM (SELECT sale_id, SUM(cgst_amount) AS cgst, SUM(sgst_amount) AS sgst FROM sale_items GROUP BY sale_id) t
+WHERE t.sale_id = s.id;
+
+UPDATE purchases p SET cgst_amount = t.cgst, sgst_amount = t.sgst
+FROM (SELECT purchase_id, SUM(cgst_amount) AS cgst, SUM(sgst_amount) AS sgst FROM purchase_items GROUP BY purchase_id) t
+WHERE t.purchase_id = p.id;
@@ -0,0 +1,3 @@
+-- GSTR-1 and HSN reports join every sale of a period to its lines
+CREATE INDEX IF NOT EXISTS idx_sale_items_sale_id ON sale_items(sale_id);
+CREATE INDEX IF NOT EXISTS idx_sales_user_invoice_date ON sales(user_id, invoice_date);
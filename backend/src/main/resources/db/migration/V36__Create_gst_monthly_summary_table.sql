@@ -0,0 +1,29 @@
+-- Output tax (sales) and input tax credit (purchases) per merchant, month and rate slab,
+-- kept current by delta upserts so GSTR-3B reads one row per month, direction and rate
+CREATE TABLE gst_monthly_summary (
+    id BIGSERIAL PRIMARY KEY,
+    merchant_id BIGINT NOT NULL,
+    period DATE NOT NULL,
+    direction VARCHAR(10) NOT NULL,
+    tax_rate DECIMAL(5, 2) NOT NULL,
+    taxable_amount DECIMAL(19, 2) NOT NULL DEFAULT 0,
+    igst_amount DECIMAL(19, 2) NOT NULL DEFAULT 0,
+    cgst_amount DECIMAL(19, 2) NOT NULL DEFAULT 0,
+    sgst_amount DECIMAL(19, 2) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (merchant_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT uk_gst_monthly_summary_slab UNIQUE (merchant_id, period, direction, tax_rate)
+);
+
+-- Backfill from existing documents
+INSERT INTO gst_monthly_summary (merchant_id, period, direction, tax_rate, taxable_amount, igst_amount, cgst_amount, sgst_amount)
+SELECT s.user_id, CAST(date_trunc('month', s.invoice_date) AS DATE), 'OUTPUT', COALESCE(si.tax_percentage, 0),
+       COALESCE(SUM(si.taxable_amount), 0), SUM(si.igst_amount), SUM(si.cgst_amount), SUM(si.sgst_amount)
+FROM sales s JOIN sale_items si ON si.sale_id = s.id
+GROUP BY s.user_id, CAST(date_trunc('month', s.invoice_date) AS DATE), COALESCE(si.tax_percentage, 0);
+
+INSERT INTO gst_monthly_summary (merchant_id, period, direction, tax_rate, taxable_amount, igst_amount, cgst_amount, sgst_amount)
+SELECT p.merchant_id, CAST(date_trunc('month', p.bill_date) AS DATE), 'INPUT', COALESCE(pi.tax_percent, 0),
+       COALESCE(SUM(pi.taxable_amount), 0), SUM(pi.igst_amount), SUM(pi.cgst_amount), SUM(pi.sgst_amount)
+FROM purchases p JOIN purchase_items pi ON pi.purchase_id = p.id
+GROUP BY p.merchant_id, CAST(date_trunc('month', p.bill_date) AS DATE), COALESCE(pi.tax_percent, 0);
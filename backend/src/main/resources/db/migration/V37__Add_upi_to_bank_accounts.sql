@@ -0,0 +1,4 @@
+-- UPI handle and print preferences for bank accounts, used for the payment QR on printed invoices
+ALTER TABLE bank_accounts ADD COLUMN upi_id VARCHAR(100);
+ALTER TABLE bank_accounts ADD COLUMN print_upi_qr BOOLEAN DEFAULT FALSE;
+ALTER TABLE bank_accounts ADD COLUMN print_bank_details BOOLEAN DEFAULT FALSE;
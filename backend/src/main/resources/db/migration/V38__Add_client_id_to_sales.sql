@@ -0,0 +1,6 @@
+-- Offline terminals create sales under their own id and a provisional number before syncing.
+-- The client id makes a re-sent batch idempotent; the provisional number stays for reference
+ALTER TABLE sales ADD COLUMN client_id VARCHAR(64);
+ALTER TABLE sales ADD COLUMN provisional_number VARCHAR(50);
+
+CREATE UNIQUE INDEX uk_sales_user_client_id ON sales(user_id, client_id) WHERE client_id IS NOT NULL;
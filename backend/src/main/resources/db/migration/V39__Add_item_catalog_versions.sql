@@ -0,0 +1,43 @@
+-- Catalog versions for POS terminals. Every insert or update of an item (stock postings included)
+-- stamps it with the id of the writing transaction, and deletes leave a tombstone stamped the same
+-- way. Readers hand out the oldest transaction id still running in their snapshot (minus one) as
+-- the version, so a change committed late by a long transaction is never skipped by a delta.
+ALTER TABLE items ADD COLUMN catalog_version BIGINT NOT NULL DEFAULT 0;
+
+CREATE TABLE item_tombstones (
+    item_id BIGINT PRIMARY KEY,
+    merchant_id BIGINT NOT NULL,
+    catalog_version BIGINT NOT NULL,
+    deleted_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE OR REPLACE FUNCTION stamp_item_catalog_version()
+RETURNS TRIGGER AS $$
+BEGIN
+    NEW.catalog_version = pg_current_xact_id()::text::bigint;
+    RETURN NEW;
+END;
+$$ language 'plpgsql';
+
+CREATE OR REPLACE FUNCTION record_item_tombstone()
+RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO item_tombstones (item_id, merchant_id, catalog_version)
+    VALUES (OLD.id, OLD.merchant_id, pg_current_xact_id()::text::bigint)
+    ON CONFLICT (item_id) DO UPDATE SET catalog_version = EXCLUDED.catalog_version, deleted_at = CURRENT_TIMESTAMP;
+    RETURN OLD;
+END;
+$$ language 'plpgsql';
+
+CREATE TRIGGER stamp_items_catalog_version
+    BEFORE INSERT OR UPDATE ON items
+    FOR EACH ROW
+    EXECUTE FUNCTION stamp_item_catalog_version();
+
+CREATE TRIGGER record_items_tombstone
+    AFTER DELETE ON items
+    FOR EACH ROW
+    EXECUTE FUNCTION record_item_tombstone();
+
+CREATE INDEX idx_items_merchant_catalog_version ON items(merchant_id, catalog_version);
+CREATE INDEX idx_item_tombstones_merchant_version ON item_tombstones(merchant_id, catalog_version);
@@ -0,0 +1,5 @@
+-- Keyset indexes for the item listing, one per sort key, so each page is a range scan
+CREATE INDEX idx_items_merchant_name_id ON items(merchant_id, LOWER(name), id);
+CREATE INDEX idx_items_merchant_stock_id ON items(merchant_id, COALESCE(current_stock, 0), id);
+CREATE INDEX idx_items_merchant_stock_value_id
+    ON items(merchant_id, (COALESCE(current_stock, 0) * COALESCE(purchase_price, sale_price, 0)), id);
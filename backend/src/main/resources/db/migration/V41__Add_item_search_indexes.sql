@@ -0,0 +1,14 @@
+-- Trigram indexes for item search: substring matches on name, code and HSN and
+-- word-similarity (typo tolerant) matches on name, scoped to the merchant
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+CREATE INDEX idx_items_search_trgm ON items USING gin (
+    merchant_id,
+    LOWER(name) gin_trgm_ops,
+    LOWER(code) gin_trgm_ops,
+    LOWER(hsn_code) gin_trgm_ops
+);
+
+-- Exact code (barcode) lookups, case-insensitive
+CREATE INDEX idx_items_merchant_lower_code ON items(merchant_id, LOWER(code));
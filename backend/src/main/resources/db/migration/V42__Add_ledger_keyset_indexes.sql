@@ -0,0 +1,14 @@
+-- Keyset indexes for the paginated ledgers: each page is a range scan on (owner, date, id) and
+-- the balance a page starts from is an index-only sum over the same key
+CREATE INDEX idx_item_transactions_ledger
+    ON item_transactions(item_id, merchant_id, transaction_date, id) INCLUDE (quantity);
+CREATE INDEX idx_cash_transactions_ledger
+    ON cash_transactions(merchant_id, transaction_date, id) INCLUDE (transaction_type, amount);
+CREATE INDEX idx_bank_transactions_ledger
+    ON bank_transactions(bank_account_id, merchant_id, transaction_date, id) INCLUDE (transaction_type, amount);
+CREATE INDEX idx_party_transactions_ledger
+    ON party_transactions(party_id, merchant_id, transaction_date, id);
+CREATE INDEX idx_payment_in_ledger
+    ON payment_in(party_id, merchant_id, payment_date, id) INCLUDE (amount);
+CREATE INDEX idx_payment_out_ledger
+    ON payment_out(party_id, merchant_id, payment_date, id) INCLUDE (amount);
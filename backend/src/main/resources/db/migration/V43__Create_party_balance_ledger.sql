@@ -0,0 +1,32 @@
+-- Append-only signed ledger of every change to a party's balance (positive: they owe us more,
+-- negative: we owe them more). parties.current_balance/balance_type stay as the running
+-- counter, moved by each posting in the same statement-level update, and checkpoints fold
+-- the ledger up to an entry so the balance can be re-derived from a checkpoint plus its tail
+CREATE TABLE party_balance_entries (
+    id BIGSERIAL PRIMARY KEY,
+    merchant_id BIGINT NOT NULL,
+    party_id BIGINT NOT NULL,
+    entry_type VARCHAR(30) NOT NULL,
+    source_id BIGINT,
+    amount DECIMAL(15, 2) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (party_id) REFERENCES parties(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_party_balance_entries_tail ON party_balance_entries(party_id, id) INCLUDE (amount);
+
+CREATE TABLE party_balance_checkpoints (
+    party_id BIGINT PRIMARY KEY,
+    merchant_id BIGINT NOT NULL,
+    last_entry_id BIGINT NOT NULL,
+    balance DECIMAL(15, 2) NOT NULL,
+    checkpointed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (party_id) REFERENCES parties(id) ON DELETE CASCADE
+);
+
+-- Existing balances enter the ledger as one opening entry each
+INSERT INTO party_balance_entries (merchant_id, party_id, entry_type, amount)
+SELECT merchant_id, id, 'MIGRATED',
+       CASE WHEN balance_type = 'TO_PAY' THEN -current_balance ELSE current_balance END
+FROM parties
+WHERE COALESCE(current_balance, 0) <> 0;
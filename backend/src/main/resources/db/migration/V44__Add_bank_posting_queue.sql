@@ -0,0 +1,7 @@
+-- Bank transactions are written unposted by the document that causes them and posted by the
+-- account's single writer, which stamps balance_after and posted_at in posting order
+ALTER TABLE bank_transactions ADD COLUMN posted_at TIMESTAMP;
+
+UPDATE bank_transactions SET posted_at = COALESCE(created_at, CURRENT_TIMESTAMP);
+
+CREATE INDEX idx_bank_transactions_unposted ON bank_transactions(bank_account_id, id) WHERE posted_at IS NULL;
@@ -0,0 +1,23 @@
+-- Cash in hand per merchant, moved by a delta upsert with every cash transaction so balance
+-- reads are one row; verified_at records when the totals were last checked against the ledger
+CREATE TABLE cash_positions (
+    merchant_id BIGINT PRIMARY KEY,
+    total_in DECIMAL(19, 2) NOT NULL DEFAULT 0,
+    total_out DECIMAL(19, 2) NOT NULL DEFAULT 0,
+    total_adjustments DECIMAL(19, 2) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    verified_at TIMESTAMP,
+    FOREIGN KEY (merchant_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_cash_positions_verified ON cash_positions(verified_at NULLS FIRST);
+
+-- Backfill from the existing cash book
+INSERT INTO cash_positions (merchant_id, total_in, total_out, total_adjustments, verified_at)
+SELECT merchant_id,
+       COALESCE(SUM(amount) FILTER (WHERE transaction_type = 'IN'), 0),
+       COALESCE(SUM(amount) FILTER (WHERE transaction_type = 'OUT'), 0),
+       COALESCE(SUM(amount) FILTER (WHERE transaction_type = 'ADJUSTMENT'), 0),
+       CURRENT_TIMESTAMP
+FROM cash_transactions
+GROUP BY merchant_id;
@@ -0,0 +1,29 @@
+-- Closing balance at the end of a day for every item (stock), party, cash book and bank account
+-- that moved that day; an entity's balance on any closed day is its latest snapshot at or
+-- before it. Cash uses entity_id 0.
+CREATE TABLE daily_closing_snapshots (
+    id BIGSERIAL PRIMARY KEY,
+    merchant_id BIGINT NOT NULL,
+    entity_type VARCHAR(10) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    closing_date DATE NOT NULL,
+    balance DECIMAL(19, 2) NOT NULL,
+    FOREIGN KEY (merchant_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT uk_daily_closing_snapshot UNIQUE (merchant_id, entity_type, entity_id, closing_date)
+);
+
+CREATE INDEX idx_daily_closing_snapshots_day ON daily_closing_snapshots(closing_date);
+
+-- Days the close job has finished; days are closed in order
+CREATE TABLE daily_closing_runs (
+    closing_date DATE PRIMARY KEY,
+    snapshot_count INTEGER NOT NULL,
+    closed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- The close job reads one day of movements across all merchants (payments already have
+-- payment_date indexes)
+CREATE INDEX idx_item_transactions_day ON item_transactions(transaction_date);
+CREATE INDEX idx_party_transactions_day ON party_transactions(transaction_date);
+CREATE INDEX idx_cash_transactions_day ON cash_transactions(transaction_date);
+CREATE INDEX idx_bank_transactions_day ON bank_transactions(transaction_date);
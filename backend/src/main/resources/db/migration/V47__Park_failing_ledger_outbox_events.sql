@@ -0,0 +1,7 @@
+-- Events that keep failing are parked after ledger.outbox.max-attempts so they stop holding
+-- back the merchant's later postings; parked events are reported and can be requeued
+ALTER TABLE ledger_outbox ADD COLUMN parked_at TIMESTAMP;
+
+DROP INDEX idx_ledger_outbox_pending;
+CREATE INDEX idx_ledger_outbox_pending ON ledger_outbox(merchant_id, id) WHERE processed_at IS NULL AND parked_at IS NULL;
+CREATE INDEX idx_ledger_outbox_parked ON ledger_outbox(merchant_id, id) WHERE processed_at IS NULL AND parked_at IS NOT NULL;
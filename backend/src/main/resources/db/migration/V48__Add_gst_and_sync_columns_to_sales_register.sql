@@ -0,0 +1,17 @@
+-- Carry the remaining sale header fields so list responses match single-sale responses
+ALTER TABLE sales_register ADD COLUMN state_of_supply VARCHAR(100);
+ALTER TABLE sales_register ADD COLUMN cgst_amount DECIMAL(19, 2) NOT NULL DEFAULT 0;
+ALTER TABLE sales_register ADD COLUMN sgst_amount DECIMAL(19, 2) NOT NULL DEFAULT 0;
+ALTER TABLE sales_register ADD COLUMN igst_amount DECIMAL(19, 2) NOT NULL DEFAULT 0;
+ALTER TABLE sales_register ADD COLUMN client_id VARCHAR(64);
+ALTER TABLE sales_register ADD COLUMN provisional_number VARCHAR(50);
+
+UPDATE sales_register r
+SET state_of_supply = s.state_of_supply,
+    cgst_amount = s.cgst_amount,
+    sgst_amount = s.sgst_amount,
+    igst_amount = s.igst_amount,
+    client_id = s.client_id,
+    provisional_number = s.provisional_number
+FROM sales s
+WHERE s.id = r.sale_id;
@@ -0,0 +1,87 @@
+-- Days whose closing snapshots are out of date because a movement dated on them was inserted,
+-- changed or deleted after the day finished. Every write to a movement table that can move a
+-- balance records the movement's day (old and new) when it is before today, so backdated entries
+-- and hard deletes are caught whatever code path made them; the close job re-closes from the
+-- earliest such day.
+CREATE TABLE daily_closing_reopens (
+    closing_date DATE PRIMARY KEY,
+    reopened_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Arguments: the movement's date column, then the other columns that move a balance. Saves that
+-- rewrite a row without changing any of them do not reopen anything.
+CREATE OR REPLACE FUNCTION record_closing_reopen()
+RETURNS TRIGGER AS $$
+DECLARE
+    old_row JSONB;
+    new_row JSONB;
+    changed BOOLEAN := TG_OP <> 'UPDATE';
+BEGIN
+    IF TG_OP <> 'INSERT' THEN
+        old_row := to_jsonb(OLD);
+    END IF;
+    IF TG_OP <> 'DELETE' THEN
+        new_row := to_jsonb(NEW);
+    END IF;
+    FOR i IN 0 .. TG_NARGS - 1 LOOP
+        changed := changed OR ((old_row -> TG_ARGV[i]) IS DISTINCT FROM (new_row -> TG_ARGV[i]));
+    END LOOP;
+    IF NOT changed THEN
+        RETURN NULL;
+    END IF;
+
+    INSERT INTO daily_closing_reopens (closing_date)
+    SELECT CAST(CAST(d AS TIMESTAMP) AS DATE) FROM (VALUES (old_row ->> TG_ARGV[0]), (new_row ->> TG_ARGV[0])) AS days(d)
+    WHERE d IS NOT NULL AND CAST(d AS TIMESTAMP) < CURRENT_DATE
+    ON CONFLICT (closing_date) DO NOTHING;
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+CREATE TRIGGER reopen_closing_item_transactions
+    AFTER INSERT OR UPDATE OR DELETE ON item_transactions
+    FOR EACH ROW
+    EXECUTE FUNCTION record_closing_reopen('transaction_date', 'item_id', 'quantity');
+
+CREATE TRIGGER reopen_closing_party_transactions
+    AFTER INSERT OR UPDATE OR DELETE ON party_transactions
+    FOR EACH ROW
+    EXECUTE FUNCTION record_closing_reopen('transaction_date', 'party_id', 'transaction_type', 'amount', 'sale_balance', 'purchase_id');
+
+CREATE TRIGGER reopen_closing_payment_in
+    AFTER INSERT OR UPDATE OR DELETE ON payment_in
+    FOR EACH ROW
+    EXECUTE FUNCTION record_closing_reopen('payment_date', 'party_id', 'amount');
+
+CREATE TRIGGER reopen_closing_payment_out
+    AFTER INSERT OR UPDATE OR DELETE ON payment_out
+    FOR EACH ROW
+    EXECUTE FUNCTION record_closing_reopen('payment_date', 'party_id', 'amount');
+
+CREATE TRIGGER reopen_closing_cash_transactions
+    AFTER INSERT OR UPDATE OR DELETE ON cash_transactions
+    FOR EACH ROW
+    EXECUTE FUNCTION record_closing_reopen('transaction_date', 'transaction_type', 'amount');
+
+CREATE TRIGGER reopen_closing_bank_transactions
+    AFTER INSERT OR UPDATE OR DELETE ON bank_transactions
+    FOR EACH ROW
+    EXECUTE FUNCTION record_closing_reopen('transaction_date', 'bank_account_id', 'transaction_type', 'amount');
+
+-- A purchase's paid amount feeds its party transactions' ledger change, on their dates
+CREATE OR REPLACE FUNCTION record_purchase_closing_reopen()
+RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO daily_closing_reopens (closing_date)
+    SELECT DISTINCT CAST(pt.transaction_date AS DATE) FROM party_transactions pt
+    WHERE pt.purchase_id = NEW.id AND pt.transaction_date < CURRENT_DATE
+    ON CONFLICT (closing_date) DO NOTHING;
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
+CREATE TRIGGER reopen_closing_purchases
+    AFTER UPDATE OF paid_amount ON purchases
+    FOR EACH ROW
+    WHEN (OLD.paid_amount IS DISTINCT FROM NEW.paid_amount)
+    EXECUTE FUNCTION record_purchase_closing_reopen();
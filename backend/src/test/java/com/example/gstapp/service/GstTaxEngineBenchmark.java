@@ -0,0 +1,99 @@
+package com.example.gstapp.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Per-line cost of GstTaxEngine against the BigDecimal arithmetic sales and purchases used
+ * before it. Timing-sensitive, so it only runs when asked for:
+ * mvn test -Dbenchmarks=true -Dtest=GstTaxEngineBenchmark
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class GstTaxEngineBenchmark {
+
+    private static final int LINES = 4_096;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 30;
+    private static final BigDecimal HUNDRED = new BigDecimal("100");
+
+    private final BigDecimal[] quantities = new BigDecimal[LINES];
+    private final BigDecimal[] prices = new BigDecimal[LINES];
+    private final BigDecimal[] discountPercents = new BigDecimal[LINES];
+    private final BigDecimal[] taxPercents = new BigDecimal[LINES];
+
+    // Keeps the JIT from discarding the work
+    private long sink;
+
+    @Test
+    void engineIsCheaperPerLineThanTheBigDecimalPath() {
+        BigDecimal[] rates = {new BigDecimal("0"), new BigDecimal("5"), new BigDecimal("12"), new BigDecimal("18"),
+                              new BigDecimal("28")};
+        for (int i = 0; i < LINES; i++) {
+            quantities[i] = new BigDecimal(1 + i % 25);
+            prices[i] = BigDecimal.valueOf(99 + (i * 37L) % 250_000, 2);
+            discountPercents[i] = i % 3 == 0 ? new BigDecimal("7.5") : BigDecimal.ZERO;
+            taxPercents[i] = rates[i % rates.length];
+        }
+        GstTaxEngine engine = new GstTaxEngine();
+
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            runEngine(engine);
+            runBigDecimal();
+        }
+        long engineBest = Long.MAX_VALUE;
+        long bigDecimalBest = Long.MAX_VALUE;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            engineBest = Math.min(engineBest, runEngine(engine));
+            bigDecimalBest = Math.min(bigDecimalBest, runBigDecimal());
+        }
+
+        double enginePerLine = (double) engineBest / LINES;
+        double bigDecimalPerLine = (double) bigDecimalBest / LINES;
+        System.out.printf("GstTaxEngine: %.1f ns/line, BigDecimal path: %.1f ns/line (%d)%n",
+            enginePerLine, bigDecimalPerLine, sink);
+        assertTrue(enginePerLine < bigDecimalPerLine,
+            "engine " + enginePerLine + " ns/line is not below BigDecimal path " + bigDecimalPerLine + " ns/line");
+    }
+
+    private long runEngine(GstTaxEngine engine) {
+        long start = System.nanoTime();
+        GstTaxEngine.LineTax line = new GstTaxEngine.LineTax();
+        GstTaxEngine.LineTax totals = new GstTaxEngine.LineTax();
+        for (int i = 0; i < LINES; i++) {
+            engine.computeLine(quantities[i], prices[i], GstTaxEngine.WITHOUT_TAX, discountPercents[i], null,
+                taxPercents[i], false, line);
+            totals.add(line);
+        }
+        sink += totals.getTotalAmount().unscaledValue().longValue();
+        return System.nanoTime() - start;
+    }
+
+    // The per-line arithmetic PurchaseService used before the engine
+    private long runBigDecimal() {
+        long start = System.nanoTime();
+        BigDecimal subtotal = BigDecimal.ZERO;
+        BigDecimal totalDiscount = BigDecimal.ZERO;
+        BigDecimal totalTax = BigDecimal.ZERO;
+        for (int i = 0; i < LINES; i++) {
+            BigDecimal lineValue = quantities[i].multiply(prices[i]);
+            BigDecimal discountAmount = BigDecimal.ZERO;
+            if (discountPercents[i].compareTo(BigDecimal.ZERO) > 0) {
+                discountAmount = lineValue.multiply(discountPercents[i]).divide(HUNDRED, 2, RoundingMode.HALF_UP);
+            }
+            BigDecimal taxAmount = BigDecimal.ZERO;
+            if (taxPercents[i].compareTo(BigDecimal.ZERO) > 0) {
+                taxAmount = lineValue.subtract(discountAmount).multiply(taxPercents[i]).divide(HUNDRED, 2, RoundingMode.HALF_UP);
+            }
+            subtotal = subtotal.add(lineValue);
+            totalDiscount = totalDiscount.add(discountAmount);
+            totalTax = totalTax.add(taxAmount);
+        }
+        sink += subtotal.subtract(totalDiscount).add(totalTax).unscaledValue().longValue();
+        return System.nanoTime() - start;
+    }
+}
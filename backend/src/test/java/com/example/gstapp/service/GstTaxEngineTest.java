@@ -0,0 +1,217 @@
+package com.example.gstapp.service;
+
+import com.example.gstapp.model.Company;
+import com.example.gstapp.model.Party;
+import com.example.gstapp.repository.CompanyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GstTaxEngineTest {
+
+    private static final Long MERCHANT_ID = 1L;
+
+    private GstTaxEngine engine;
+    private CompanyRepository companyRepository;
+
+    @BeforeEach
+    void setUp() {
+        engine = new GstTaxEngine();
+        companyRepository = mock(CompanyRepository.class);
+        when(companyRepository.findByUserId(anyLong())).thenReturn(Optional.empty());
+        ReflectionTestUtils.setField(engine, "companyRepository", companyRepository);
+    }
+
+    @Test
+    void exclusivePriceAddsTaxOnTop() {
+        GstTaxEngine.LineTax line = compute("2", "100.00", GstTaxEngine.WITHOUT_TAX, null, null, "18", false);
+
+        assertAmounts(line, "200.00", "0.00", "200.00", "36.00", "236.00");
+        assertSplit(line, "18.00", "18.00", "0.00");
+    }
+
+    @Test
+    void nullPriceTypeIsExclusive() {
+        GstTaxEngine.LineTax line = compute("1", "50.00", null, null, null, "5", false);
+
+        assertAmounts(line, "50.00", "0.00", "50.00", "2.50", "52.50");
+    }
+
+    @Test
+    void inclusivePriceIsSplitIntoTaxableValueAndTax() {
+        GstTaxEngine.LineTax line = compute("1", "118.00", GstTaxEngine.WITH_TAX, null, null, "18", false);
+
+        assertAmounts(line, "100.00", "0.00", "100.00", "18.00", "118.00");
+    }
+
+    @Test
+    void inclusivePriceWithoutDiscountTotalsExactlyQuantityTimesPrice() {
+        GstTaxEngine.LineTax line = compute("3", "99.99", GstTaxEngine.WITH_TAX, null, null, "18", false);
+
+        // 299.97 / 1.18 = 254.2118.. rounds to 254.21, the tax takes the remainder
+        assertAmounts(line, "254.21", "0.00", "254.21", "45.76", "299.97");
+        assertSplit(line, "22.88", "22.88", "0.00");
+    }
+
+    @Test
+    void inclusivePriceWithDiscountTaxesTheDiscountedValue() {
+        GstTaxEngine.LineTax line = compute("1", "118.00", GstTaxEngine.WITH_TAX, "10", null, "18", false);
+
+        assertAmounts(line, "100.00", "10.00", "90.00", "16.20", "106.20");
+    }
+
+    @Test
+    void percentageDiscountComesOffThePreTaxValue() {
+        GstTaxEngine.LineTax line = compute("1", "200.00", GstTaxEngine.WITHOUT_TAX, "10", "99.00", "18", false);
+
+        // The percentage wins over the flat amount
+        assertAmounts(line, "200.00", "20.00", "180.00", "32.40", "212.40");
+    }
+
+    @Test
+    void flatDiscountIsCappedAtTheLineValue() {
+        GstTaxEngine.LineTax line = compute("1", "40.00", GstTaxEngine.WITHOUT_TAX, null, "55.00", "12", false);
+
+        assertAmounts(line, "40.00", "40.00", "0.00", "0.00", "0.00");
+    }
+
+    @Test
+    void interStateLinesAreAllIgst() {
+        GstTaxEngine.LineTax line = compute("2", "100.00", GstTaxEngine.WITHOUT_TAX, null, null, "18", true);
+
+        assertAmounts(line, "200.00", "0.00", "200.00", "36.00", "236.00");
+        assertSplit(line, "0.00", "0.00", "36.00");
+    }
+
+    @Test
+    void taxIsRoundedHalfUpToThePaisa() {
+        // 10.10 x 5% = 0.505
+        GstTaxEngine.LineTax up = compute("1", "10.10", GstTaxEngine.WITHOUT_TAX, null, null, "5", false);
+        // 10.01 x 5% = 0.5005
+        GstTaxEngine.LineTax down = compute("1", "10.01", GstTaxEngine.WITHOUT_TAX, null, null, "5", false);
+
+        assertEquals(new BigDecimal("0.51"), up.getTaxAmount());
+        assertEquals(new BigDecimal("0.50"), down.getTaxAmount());
+    }
+
+    @Test
+    void oddPaisaOfTaxGoesToCgst() {
+        GstTaxEngine.LineTax line = compute("1", "10.10", GstTaxEngine.WITHOUT_TAX, null, null, "5", false);
+
+        assertSplit(line, "0.26", "0.25", "0.00");
+        assertEquals(line.getTaxAmount(), line.getCgstAmount().add(line.getSgstAmount()));
+    }
+
+    @Test
+    void fractionalQuantitiesAndRatesStayExact() {
+        // 1.5 x 33.33 = 49.995 rounds to 50.00; 0.25% of it is 0.125, rounds to 0.13
+        GstTaxEngine.LineTax line = compute("1.5", "33.33", GstTaxEngine.WITHOUT_TAX, null, null, "0.25", false);
+
+        assertAmounts(line, "50.00", "0.00", "50.00", "0.13", "50.13");
+    }
+
+    @Test
+    void documentTotalsAreTheSumOfTheLines() {
+        GstTaxEngine.LineTax totals = new GstTaxEngine.LineTax();
+        totals.add(compute("2", "100.00", GstTaxEngine.WITHOUT_TAX, null, null, "18", false));
+        totals.add(compute("1", "10.10", GstTaxEngine.WITHOUT_TAX, null, null, "5", false));
+
+        assertAmounts(totals, "210.10", "0.00", "210.10", "36.51", "246.61");
+        assertSplit(totals, "18.26", "18.25", "0.00");
+    }
+
+    @Test
+    void saleAndPurchaseLinesPriceTheSame() {
+        // Sales pass an integer quantity and a null discount percentage, purchases a decimal
+        // quantity and a zero default; the same line must come out identical either way
+        GstTaxEngine.LineTax sale = engine.computeLine(new BigDecimal(3), new BigDecimal("149.50"), GstTaxEngine.WITH_TAX,
+            null, new BigDecimal("15.00"), new BigDecimal("12"), false, new GstTaxEngine.LineTax());
+        GstTaxEngine.LineTax purchase = engine.computeLine(new BigDecimal("3.000"), new BigDecimal("149.5"), GstTaxEngine.WITH_TAX,
+            BigDecimal.ZERO, new BigDecimal("15"), new BigDecimal("12.00"), false, new GstTaxEngine.LineTax());
+
+        assertAmounts(purchase, sale.getGrossAmount().toPlainString(), sale.getDiscountAmount().toPlainString(),
+            sale.getTaxableAmount().toPlainString(), sale.getTaxAmount().toPlainString(), sale.getTotalAmount().toPlainString());
+        assertSplit(purchase, sale.getCgstAmount().toPlainString(), sale.getSgstAmount().toPlainString(),
+            sale.getIgstAmount().toPlainString());
+    }
+
+    @Test
+    void taxRateLabelsAreParsed() {
+        assertEquals(new BigDecimal("18.00"), engine.taxPercentOf("GST@18%"));
+        assertEquals(new BigDecimal("0.25"), engine.taxPercentOf("IGST@0.25%"));
+        assertEquals(new BigDecimal("5.00"), engine.taxPercentOf("GST_5"));
+        assertEquals(new BigDecimal("0.00"), engine.taxPercentOf("NONE"));
+        assertEquals(new BigDecimal("0.00"), engine.taxPercentOf((String) null));
+    }
+
+    @Test
+    void stateNamesAndCodesResolveToGstStateCodes() {
+        assertEquals("27", GstTaxEngine.stateCode("Maharashtra"));
+        assertEquals("27", GstTaxEngine.stateCode("27-Maharashtra"));
+        assertEquals("33", GstTaxEngine.stateCode(" tamil nadu "));
+        assertEquals("01", GstTaxEngine.stateCode("Jammu & Kashmir"));
+        assertNull(GstTaxEngine.stateCode("Atlantis"));
+        assertEquals("29", GstTaxEngine.gstinStateCode("29ABCDE1234F1Z5"));
+        assertNull(GstTaxEngine.gstinStateCode("X"));
+    }
+
+    @Test
+    void supplyIsInterStateOnlyWhenBothStatesAreKnownAndDiffer() {
+        Company company = new Company();
+        company.setGstin("27ABCDE1234F1Z5");
+        when(companyRepository.findByUserId(MERCHANT_ID)).thenReturn(Optional.of(company));
+        Party karnatakaParty = new Party();
+        karnatakaParty.setGstNumber("29ABCDE1234F1Z5");
+
+        assertTrue(engine.isInterState(MERCHANT_ID, "Karnataka", null));
+        assertFalse(engine.isInterState(MERCHANT_ID, "Maharashtra", karnatakaParty));
+        assertTrue(engine.isInterState(MERCHANT_ID, null, karnatakaParty));
+        assertFalse(engine.isInterState(MERCHANT_ID, null, null));
+        assertFalse(engine.isInterState(2L, "Karnataka", karnatakaParty));
+    }
+
+    @Test
+    void merchantStateFallsBackToTheCompanyState() {
+        Company company = new Company();
+        company.setState("Karnataka");
+        when(companyRepository.findByUserId(MERCHANT_ID)).thenReturn(Optional.of(company));
+
+        assertEquals("29", engine.merchantStateCode(MERCHANT_ID));
+        assertFalse(engine.isInterState(MERCHANT_ID, "29", null));
+        assertTrue(engine.isInterState(MERCHANT_ID, "Kerala", null));
+    }
+
+    private GstTaxEngine.LineTax compute(String quantity, String price, String priceType, String discountPercent,
+                                         String discountAmount, String taxPercent, boolean interState) {
+        return engine.computeLine(new BigDecimal(quantity), new BigDecimal(price), priceType,
+            discountPercent != null ? new BigDecimal(discountPercent) : null,
+            discountAmount != null ? new BigDecimal(discountAmount) : null,
+            new BigDecimal(taxPercent), interState, new GstTaxEngine.LineTax());
+    }
+
+    private static void assertAmounts(GstTaxEngine.LineTax line, String gross, String discount, String taxable,
+                                      String tax, String total) {
+        assertEquals(new BigDecimal(gross), line.getGrossAmount(), "gross");
+        assertEquals(new BigDecimal(discount), line.getDiscountAmount(), "discount");
+        assertEquals(new BigDecimal(taxable), line.getTaxableAmount(), "taxable");
+        assertEquals(new BigDecimal(tax), line.getTaxAmount(), "tax");
+        assertEquals(new BigDecimal(total), line.getTotalAmount(), "total");
+    }
+
+    private static void assertSplit(GstTaxEngine.LineTax line, String cgst, String sgst, String igst) {
+        assertEquals(new BigDecimal(cgst), line.getCgstAmount(), "cgst");
+        assertEquals(new BigDecimal(sgst), line.getSgstAmount(), "sgst");
+        assertEquals(new BigDecimal(igst), line.getIgstAmount(), "igst");
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.gstapp.service;
+
+import com.example.gstapp.model.Item;
+import com.example.gstapp.model.ItemTransaction;
+import com.example.gstapp.repository.ItemRepository;
+import com.example.gstapp.repository.ItemTransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ItemTransactionServiceTest {
+
+    private static final Long MERCHANT_ID = 1L;
+
+    private ItemTransactionService service;
+    private ItemRepository itemRepository;
+    private ItemTransactionRepository itemTransactionRepository;
+
+    @BeforeEach
+    void setUp() {
+        service = new ItemTransactionService();
+        itemRepository = mock(ItemRepository.class);
+        itemTransactionRepository = mock(ItemTransactionRepository.class);
+        ReflectionTestUtils.setField(service, "itemRepository", itemRepository);
+        ReflectionTestUtils.setField(service, "itemTransactionRepository", itemTransactionRepository);
+        ReflectionTestUtils.setField(service, "itemCatalogCache", mock(ItemCatalogCache.class));
+    }
+
+    @Test
+    void itemsAreLockedInIdOrderBeforeMovementsAreInserted() {
+        when(itemRepository.lockForStockUpdate(eq(MERCHANT_ID), any())).thenReturn(List.of(3L, 7L));
+        when(itemRepository.applyStockDeltas(eq(MERCHANT_ID), any(), any()))
+            .thenReturn(List.of(new Object[]{3L, 8}, new Object[]{7L, 4}));
+
+        Map<Long, Integer> stock = service.postStockMovements(MERCHANT_ID, List.of(
+            service.saleMovement(item(7L), 1, MERCHANT_ID, "INV-1", null, BigDecimal.TEN, BigDecimal.TEN, "Paid"),
+            service.saleMovement(item(3L), 2, MERCHANT_ID, "INV-1", null, BigDecimal.ONE, BigDecimal.ONE, "Paid"),
+            service.saleMovement(item(7L), 1, MERCHANT_ID, "INV-1", null, BigDecimal.TEN, BigDecimal.TEN, "Paid")));
+
+        InOrder order = inOrder(itemRepository, itemTransactionRepository);
+        order.verify(itemRepository).lockForStockUpdate(MERCHANT_ID, new Long[]{3L, 7L});
+        order.verify(itemTransactionRepository).saveAll(anyList());
+        order.verify(itemRepository).applyStockDeltas(MERCHANT_ID, new Long[]{3L, 7L}, new Integer[]{-2, -2});
+        assertEquals(Map.of(3L, 8, 7L, 4), stock);
+    }
+
+    @Test
+    void missingItemFailsBeforeAnyMovementIsInserted() {
+        when(itemRepository.lockForStockUpdate(eq(MERCHANT_ID), any())).thenReturn(List.of(3L));
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> service.postStockMovements(MERCHANT_ID,
+            List.of(service.saleMovement(item(3L), 1, MERCHANT_ID, "INV-1", null, null, BigDecimal.ZERO, "Paid"),
+                    service.saleMovement(item(9L), 1, MERCHANT_ID, "INV-1", null, null, BigDecimal.ZERO, "Paid"))));
+
+        assertEquals("Item not found", error.getMessage());
+        verify(itemTransactionRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void lockItemsSkipsNullsAndDuplicates() {
+        when(itemRepository.lockForStockUpdate(eq(MERCHANT_ID), any())).thenReturn(List.of(2L, 5L));
+
+        assertEquals(2, service.lockItems(MERCHANT_ID, Arrays.asList(5L, null, 2L, 5L)));
+        verify(itemRepository).lockForStockUpdate(MERCHANT_ID, new Long[]{2L, 5L});
+    }
+
+    private static Item item(Long id) {
+        Item item = new Item();
+        item.setId(id);
+        return item;
+    }
+}
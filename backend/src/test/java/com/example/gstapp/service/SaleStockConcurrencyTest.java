@@ -0,0 +1,120 @@
+package com.example.gstapp.service;
+
+import com.example.gstapp.dto.SaleRequest;
+import com.example.gstapp.model.Item;
+import com.example.gstapp.model.ItemType;
+import com.example.gstapp.model.Role;
+import com.example.gstapp.model.User;
+import com.example.gstapp.repository.ItemRepository;
+import com.example.gstapp.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Two sales of the same item committed at the same time against a real PostgreSQL database.
+ * Runs only when TEST_DATABASE_URL (plus TEST_DATABASE_USERNAME and TEST_DATABASE_PASSWORD)
+ * points at a scratch database; Flyway migrates it on startup.
+ */
+@SpringBootTest
+@EnabledIfEnvironmentVariable(named = "TEST_DATABASE_URL", matches = ".+")
+class SaleStockConcurrencyTest {
+
+    private static final int ROUNDS = 20;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("TEST_DATABASE_URL"));
+        registry.add("spring.datasource.username", () -> System.getenv("TEST_DATABASE_USERNAME"));
+        registry.add("spring.datasource.password", () -> System.getenv("TEST_DATABASE_PASSWORD"));
+    }
+
+    @Autowired
+    private SaleService saleService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Test
+    void concurrentSalesOfOneItemBothPost() throws Exception {
+        User user = createMerchant();
+        Item item = createItem(user, 1000);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<?>> sales = new ArrayList<>();
+                for (int quantity = 2; quantity <= 3; quantity++) {
+                    SaleRequest request = saleOf(item, quantity);
+                    sales.add(executor.submit(() -> {
+                        start.await();
+                        return saleService.createSale(request, user);
+                    }));
+                }
+                start.countDown();
+                for (Future<?> sale : sales) {
+                    // A deadlock surfaces here as an ExecutionException from the losing sale
+                    sale.get(30, TimeUnit.SECONDS);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Item after = itemRepository.findById(item.getId()).orElseThrow();
+        assertEquals(1000 - ROUNDS * 5, after.getCurrentStock());
+    }
+
+    private User createMerchant() {
+        User user = new User();
+        user.setUsername("stock-lock-" + UUID.randomUUID());
+        user.setPassword("not-used");
+        user.setRole(Role.MERCHANT);
+        return userRepository.save(user);
+    }
+
+    private Item createItem(User user, int stock) {
+        Item item = new Item();
+        item.setName("Concurrent item " + UUID.randomUUID());
+        item.setItemType(ItemType.PRODUCT);
+        item.setSalePrice(new BigDecimal("10.00"));
+        item.setCurrentStock(stock);
+        item.setMerchantId(user.getId());
+        return itemRepository.save(item);
+    }
+
+    private SaleRequest saleOf(Item item, int quantity) {
+        SaleRequest.SaleItemRequest line = new SaleRequest.SaleItemRequest();
+        line.setItemId(item.getId());
+        line.setQuantity(quantity);
+        line.setPrice(item.getSalePrice());
+
+        SaleRequest request = new SaleRequest();
+        request.setInvoiceDate(LocalDate.now());
+        request.setBillingName("Walk-in");
+        request.setSaleType("Cash");
+        request.setPaymentType("Cash");
+        request.setItems(List.of(line));
+        return request;
+    }
+}